@@ -138,11 +138,14 @@ subprojects {
     val log4j2Core = "org.apache.logging.log4j:log4j-core:$log4j2VersionNr"
     // Bridge that routes log4j calls to log4j2
     val log4j2Bridge = "org.apache.logging.log4j:log4j-1.2-api:$log4j2VersionNr"
+    // Version of the JMH micro benchmark harness used by the "jmh" source sets
+    val jmhVersion = "1.23"
 
     projectToConf.extra["junitVersion"] = junitVersion
     projectToConf.extra["log4j2ApiVersion"] = log4j2Api
     projectToConf.extra["log4j2CoreVersion"] = log4j2Core
     projectToConf.extra["log4j2BridgeVersion"] = log4j2Bridge
+    projectToConf.extra["jmhVersion"] = jmhVersion
 
     dependencies {
         val testConfig by configurations
@@ -0,0 +1,93 @@
+package saros.communication.extensions;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jivesoftware.smack.packet.PacketExtension;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xmlpull.mxp1.MXParser;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import saros.activities.IActivity;
+import saros.communication.extensions.ActivityFixture.Mix;
+
+/**
+ * Measures marshalling and unmarshalling {@link ActivitiesExtension activities extensions} with the
+ * {@link ActivitiesExtension#PROVIDER} the same way they are sent and received over a binary
+ * channel.
+ *
+ * <p>The unmarshalled activities are checked to be equal to the marshalled ones before measuring.
+ *
+ * <p>Run with <code>-prof gc</code> to measure the allocations per operation, e.g. to check that
+ * the users and resources of the activities are taken from the caches of the converters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActivitiesExtensionBenchmark {
+
+  @Param public Mix mix;
+
+  @Param({"1", "16", "128"})
+  public int activities;
+
+  private final ActivityFixture fixture = new ActivityFixture();
+
+  private ActivitiesExtension extension;
+
+  private byte[] marshalled;
+
+  private final XmlPullParser parser = new MXParser();
+
+  @Setup
+  public void setUp() throws Exception {
+    fixture.start();
+
+    List<IActivity> created = fixture.createActivities(mix, activities, 42);
+
+    extension = fixture.createExtension(created, 0);
+    marshalled = ActivityFixture.marshal(extension);
+
+    ActivitiesExtension unmarshalled = unmarshal();
+
+    if (!created.equals(unmarshalled.getActivities()))
+      throw new IllegalStateException(
+          "unmarshalled activities differ: " + unmarshalled.getActivities() + " != " + created);
+  }
+
+  @TearDown
+  public void tearDown() {
+    fixture.stop();
+  }
+
+  @Benchmark
+  public byte[] marshal() {
+    return ActivityFixture.marshal(extension);
+  }
+
+  @Benchmark
+  public ActivitiesExtension unmarshal() throws XmlPullParserException, IOException {
+    // see XMPPReceiver#processBinaryXMPPExtension
+    parser.setInput(new ByteArrayInputStream(marshalled), "UTF-8");
+    parser.next();
+
+    PacketExtension packetExtension = ActivitiesExtension.PROVIDER.parseExtension(parser);
+
+    return ActivitiesExtension.PROVIDER.getPayload(packetExtension);
+  }
+}
@@ -0,0 +1,226 @@
+package saros.communication.extensions;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.expect;
+import static saros.test.util.OperationHelper.D;
+import static saros.test.util.OperationHelper.I;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.easymock.EasyMock;
+import saros.activities.ChecksumActivity;
+import saros.activities.IActivity;
+import saros.activities.JupiterActivity;
+import saros.activities.TextSelectionActivity;
+import saros.activities.ViewportActivity;
+import saros.concurrent.jupiter.Operation;
+import saros.concurrent.jupiter.internal.JupiterVectorTime;
+import saros.editor.text.TextPosition;
+import saros.editor.text.TextSelection;
+import saros.filesystem.IFile;
+import saros.filesystem.IReferencePoint;
+import saros.filesystem.IResource.Type;
+import saros.misc.xstream.ResourceTransportWrapperConverter;
+import saros.misc.xstream.UserConverter;
+import saros.net.xmpp.JID;
+import saros.session.ISarosSession;
+import saros.session.User;
+
+/**
+ * Creates realistic activities for the network benchmarks and registers the session dependent
+ * converters needed to marshal them with the {@link ActivitiesExtension#PROVIDER}.
+ */
+public final class ActivityFixture {
+
+  /** The mixes of activities as they are sent during a session. */
+  public enum Mix {
+    /** Single character insertions and deletions while typing. */
+    TYPING,
+    /** Insertions of larger text blocks. */
+    PASTE,
+    /** Selection and viewport updates while navigating. */
+    AWARENESS,
+    /** Mostly typing, interleaved with awareness information and checksums. */
+    MIXED
+  }
+
+  private static final String SESSION_ID = "benchmark";
+
+  private static final String REFERENCE_POINT_ID = "0";
+
+  private static final String PASTE_LINE =
+      "    result.add(transform(operation, context, Boolean.TRUE));\n";
+
+  private final User user;
+  private final IFile file;
+
+  private final UserConverter userConverter;
+  private final ResourceTransportWrapperConverter resourceConverter;
+
+  private int localOperationCount;
+
+  public ActivityFixture() {
+    JID jid = new JID("alice@saros-con.imp.fu-berlin.de/Saros");
+
+    user = new User(jid, true, true, null);
+    user.setInSession(true);
+
+    Path path = Paths.get("src/saros/concurrent/jupiter/internal/Jupiter.java");
+
+    IReferencePoint referencePoint = EasyMock.createNiceMock(IReferencePoint.class);
+    file = EasyMock.createNiceMock(IFile.class);
+
+    expect(referencePoint.getFile(path)).andStubReturn(file);
+    expect(file.getReferencePoint()).andStubReturn(referencePoint);
+    expect(file.getReferencePointRelativePath()).andStubReturn(path);
+    expect(file.getType()).andStubReturn(Type.FILE);
+
+    ISarosSession session = EasyMock.createNiceMock(ISarosSession.class);
+
+    expect(session.getReferencePointId(referencePoint)).andStubReturn(REFERENCE_POINT_ID);
+    expect(session.getReferencePoint(REFERENCE_POINT_ID)).andStubReturn(referencePoint);
+    expect(session.getUser(anyObject(JID.class))).andStubReturn(user);
+
+    EasyMock.replay(referencePoint, file, session);
+
+    userConverter = new UserConverter(session);
+    resourceConverter = new ResourceTransportWrapperConverter(session);
+  }
+
+  /** Registers the converters needed to marshal the created activities. */
+  public void start() {
+    userConverter.start();
+    resourceConverter.start();
+  }
+
+  /** Unregisters the converters registered by {@link #start()}. */
+  public void stop() {
+    resourceConverter.stop();
+    userConverter.stop();
+  }
+
+  /**
+   * Creates the given number of activities of the given mix. The same seed always results in the
+   * same activities.
+   *
+   * @param mix the mix of activities to create
+   * @param count the number of activities
+   * @param seed the seed for the random choices
+   * @return the created activities
+   */
+  public List<IActivity> createActivities(Mix mix, int count, long seed) {
+    Random random = new Random(seed);
+
+    List<IActivity> activities = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      switch (mix) {
+        case TYPING:
+          activities.add(typing(random));
+          break;
+
+        case PASTE:
+          activities.add(paste(random));
+          break;
+
+        case AWARENESS:
+          activities.add(awareness(random));
+          break;
+
+        case MIXED:
+          int choice = random.nextInt(100);
+
+          if (choice < 70) activities.add(typing(random));
+          else if (choice < 75) activities.add(paste(random));
+          else if (choice < 95) activities.add(awareness(random));
+          else activities.add(checksum(random));
+
+          break;
+
+        default:
+          throw new IllegalArgumentException("unknown mix: " + mix);
+      }
+    }
+
+    return activities;
+  }
+
+  /**
+   * Creates an activities extension containing the given activities.
+   *
+   * @param activities the activities to send
+   * @param sequenceNumber the sequence number of the extension
+   * @return the extension
+   */
+  public ActivitiesExtension createExtension(List<IActivity> activities, int sequenceNumber) {
+    return new ActivitiesExtension(SESSION_ID, activities, sequenceNumber);
+  }
+
+  /**
+   * Marshals the given extension as it is done before sending it.
+   *
+   * @param extension the extension to marshal
+   * @return the marshalled extension
+   */
+  public static byte[] marshal(ActivitiesExtension extension) {
+    try {
+      return ActivitiesExtension.PROVIDER.create(extension).toXML().getBytes("UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private IActivity typing(Random random) {
+    int line = random.nextInt(500);
+    int offset = random.nextInt(80);
+
+    Operation operation =
+        random.nextInt(4) == 0
+            ? D(line, offset, "x")
+            : I(line, offset, String.valueOf((char) ('a' + random.nextInt(26))));
+
+    return jupiter(operation);
+  }
+
+  private IActivity paste(Random random) {
+    StringBuilder text = new StringBuilder();
+
+    for (int i = 1 + random.nextInt(50); i > 0; i--) text.append(PASTE_LINE);
+
+    return jupiter(I(random.nextInt(500), 0, text.toString()));
+  }
+
+  private IActivity awareness(Random random) {
+    int line = random.nextInt(500);
+
+    if (random.nextBoolean()) return new ViewportActivity(user, line, 40, file);
+
+    int offset = random.nextInt(80);
+    int lines = random.nextInt(3);
+
+    TextPosition start = new TextPosition(line, offset);
+    TextPosition end =
+        new TextPosition(line + lines, lines == 0 ? offset + random.nextInt(20) : offset);
+
+    return new TextSelectionActivity(user, new TextSelection(start, end), file);
+  }
+
+  private IActivity checksum(Random random) {
+    return new ChecksumActivity(
+        user,
+        file,
+        random.nextLong(),
+        random.nextInt(100000),
+        new JupiterVectorTime(localOperationCount, random.nextInt(1000)));
+  }
+
+  private IActivity jupiter(Operation operation) {
+    JupiterVectorTime timestamp = new JupiterVectorTime(localOperationCount++, 42);
+
+    return new JupiterActivity(timestamp, operation, user, file);
+  }
+}
@@ -0,0 +1,177 @@
+package saros.concurrent.jupiter.internal;
+
+import static saros.test.util.OperationHelper.I;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.easymock.EasyMock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import saros.activities.JupiterActivity;
+import saros.concurrent.jupiter.Operation;
+import saros.concurrent.jupiter.TransformationException;
+import saros.concurrent.jupiter.test.util.Document;
+import saros.concurrent.jupiter.test.util.JupiterTestCase;
+import saros.filesystem.IFile;
+import saros.session.User;
+
+/**
+ * Measures {@link Jupiter#generateJupiterActivity} and {@link Jupiter#receiveJupiterActivity}.
+ *
+ * <p>{@link #receiveWithUnacknowledgedHistory} measures receiving a remote operation while the
+ * given number of local operations were not acknowledged yet, i.e. the remote operation has to be
+ * transformed against all of them. Before measuring, the same scenario is executed with both sides
+ * applying all operations to a document and the resulting documents are checked to be equal.
+ * Receiving an operation modifies the client, so a fresh client is prepared for every operation
+ * before each iteration. Every iteration receives one operation per prepared client, the score is
+ * the time needed for all {@link #BATCH_SIZE} operations of an iteration.
+ *
+ * <p>{@link #roundTrip} measures the steady state of alternating local and remote operations in
+ * which the history never grows.
+ *
+ * <p>Run with <code>-prof gc</code> to measure the allocations per received operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JupiterBenchmark {
+
+  private static final String DOCUMENT = "Lorem ipsum dolor sit amet";
+
+  /** Number of operations received in an iteration of {@link #receiveWithUnacknowledgedHistory} */
+  private static final int BATCH_SIZE = 256;
+
+  private static final IFile FILE = createFile();
+
+  private static final User ALICE = JupiterTestCase.createUser("alice");
+  private static final User BOB = JupiterTestCase.createUser("bob");
+
+  /** A client with unacknowledged local operations and a concurrent operation of the server. */
+  @State(Scope.Thread)
+  public static class UnacknowledgedHistory {
+
+    @Param({"0", "1", "16", "256", "1024"})
+    public int unacknowledgedOperations;
+
+    private Jupiter[] clients;
+
+    private int nextClient;
+
+    private JupiterActivity remoteActivity;
+
+    @Setup(Level.Trial)
+    public void checkConvergence() throws TransformationException {
+      Document clientDocument = new Document(DOCUMENT, FILE);
+      Document serverDocument = new Document(DOCUMENT, FILE);
+
+      Jupiter client = new Jupiter(true);
+      Jupiter server = new Jupiter(false);
+
+      List<JupiterActivity> localActivities = new ArrayList<>();
+
+      for (int i = 0; i < unacknowledgedOperations; i++) {
+        Operation operation = localOperation(i);
+
+        clientDocument.execOperation(operation);
+        localActivities.add(client.generateJupiterActivity(operation, ALICE, FILE));
+      }
+
+      Operation remoteOperation = remoteOperation();
+
+      serverDocument.execOperation(remoteOperation);
+      JupiterActivity activity = server.generateJupiterActivity(remoteOperation, BOB, FILE);
+
+      clientDocument.execOperation(client.receiveJupiterActivity(activity));
+
+      for (JupiterActivity localActivity : localActivities)
+        serverDocument.execOperation(server.receiveJupiterActivity(localActivity));
+
+      if (!clientDocument.getDocument().equals(serverDocument.getDocument()))
+        throw new IllegalStateException(
+            "documents do not converge: '"
+                + clientDocument.getDocument()
+                + "' != '"
+                + serverDocument.getDocument()
+                + "'");
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      clients = new Jupiter[BATCH_SIZE];
+      nextClient = 0;
+
+      for (int c = 0; c < clients.length; c++) {
+        Jupiter client = new Jupiter(true);
+
+        for (int i = 0; i < unacknowledgedOperations; i++)
+          client.generateJupiterActivity(localOperation(i), ALICE, FILE);
+
+        clients[c] = client;
+      }
+
+      remoteActivity = new Jupiter(false).generateJupiterActivity(remoteOperation(), BOB, FILE);
+    }
+  }
+
+  /** A client and a server exchanging operations alternately, so their histories never grow. */
+  @State(Scope.Thread)
+  public static class RoundTrip {
+
+    private Jupiter client;
+    private Jupiter server;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      client = new Jupiter(true);
+      server = new Jupiter(false);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 20, batchSize = BATCH_SIZE)
+  @Measurement(iterations = 20, batchSize = BATCH_SIZE)
+  public Operation receiveWithUnacknowledgedHistory(UnacknowledgedHistory state)
+      throws TransformationException {
+
+    return state.clients[state.nextClient++].receiveJupiterActivity(state.remoteActivity);
+  }
+
+  @Benchmark
+  public Operation roundTrip(RoundTrip state) throws TransformationException {
+    JupiterActivity local = state.client.generateJupiterActivity(I(0, "a"), ALICE, FILE);
+    state.server.receiveJupiterActivity(local);
+
+    JupiterActivity remote = state.server.generateJupiterActivity(I(0, "b"), BOB, FILE);
+    return state.client.receiveJupiterActivity(remote);
+  }
+
+  /** Alternates inserting text at the start and in the middle of the growing document. */
+  private static Operation localOperation(int index) {
+    return I(index % 2 == 0 ? 0 : 6 + index / 2, "x");
+  }
+
+  private static Operation remoteOperation() {
+    return I(12, "remote");
+  }
+
+  private static IFile createFile() {
+    IFile file = EasyMock.createNiceMock(IFile.class);
+    EasyMock.replay(file);
+
+    return file;
+  }
+}
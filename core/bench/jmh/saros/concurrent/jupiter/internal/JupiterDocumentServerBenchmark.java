@@ -0,0 +1,164 @@
+package saros.concurrent.jupiter.internal;
+
+import static saros.test.util.OperationHelper.D;
+import static saros.test.util.OperationHelper.I;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.easymock.EasyMock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import saros.activities.JupiterActivity;
+import saros.concurrent.jupiter.Operation;
+import saros.concurrent.jupiter.TransformationException;
+import saros.concurrent.jupiter.test.util.Document;
+import saros.concurrent.jupiter.test.util.JupiterTestCase;
+import saros.filesystem.IFile;
+import saros.session.User;
+
+/**
+ * Measures a multi-site session in which all sites concurrently edit the same document.
+ *
+ * <p>Every invocation is one round: each site generates the given number of random insert or delete
+ * operations on its local document, the {@link JupiterDocumentServer} transforms the operations of
+ * all sites and forwards them, and each site receives and applies the operations of the other
+ * sites. All random choices use a fixed seed, so every run executes the same workload. The
+ * documents of all sites are checked to be equal after every iteration.
+ *
+ * <p>The measured time includes applying the operations to the documents of the sites.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JupiterDocumentServerBenchmark {
+
+  private static final String DOCUMENT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit";
+
+  /** The document length up to which inserts are more likely than deletes */
+  private static final int TARGET_LENGTH = 1000;
+
+  private static final long SEED = 4711;
+
+  @Param({"2", "4", "8"})
+  public int sites;
+
+  @Param({"1", "8"})
+  public int operationsPerRound;
+
+  private final IFile file = createFile();
+
+  private Random random;
+
+  private JupiterDocumentServer server;
+
+  private List<Site> clients;
+
+  private static class Site {
+    private final User user;
+    private final Jupiter jupiter = new Jupiter(true);
+    private final Document document;
+    private final List<JupiterActivity> inbox = new ArrayList<>();
+
+    private Site(User user, Document document) {
+      this.user = user;
+      this.document = document;
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    random = new Random(SEED);
+    server = new JupiterDocumentServer(file);
+    clients = new ArrayList<>();
+
+    for (int i = 0; i < sites; i++) {
+      User user = JupiterTestCase.createUser("site" + i);
+
+      server.addProxyClient(user);
+      clients.add(new Site(user, new Document(DOCUMENT, file)));
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void checkConvergence() {
+    String expected = clients.get(0).document.getDocument();
+
+    for (Site site : clients) {
+      if (!site.document.getDocument().equals(expected))
+        throw new IllegalStateException(
+            "documents do not converge: '"
+                + site.document.getDocument()
+                + "' != '"
+                + expected
+                + "'");
+    }
+  }
+
+  @Benchmark
+  public void round() throws TransformationException {
+    List<JupiterActivity> sent = new ArrayList<>();
+
+    for (Site site : clients) {
+      for (int i = 0; i < operationsPerRound; i++) {
+        Operation operation = randomOperation(site.document.getDocument());
+
+        site.document.execOperation(operation);
+        sent.add(site.jupiter.generateJupiterActivity(operation, site.user, file));
+      }
+    }
+
+    for (JupiterActivity activity : sent) {
+      Map<User, JupiterActivity> transformed = server.transformJupiterActivity(activity);
+
+      for (Site site : clients) {
+        JupiterActivity forwarded = transformed.get(site.user);
+
+        if (forwarded != null) site.inbox.add(forwarded);
+      }
+    }
+
+    for (Site site : clients) {
+      for (JupiterActivity activity : site.inbox)
+        site.document.execOperation(site.jupiter.receiveJupiterActivity(activity));
+
+      site.inbox.clear();
+    }
+  }
+
+  private Operation randomOperation(String document) {
+    int length = document.length();
+
+    if (length > 0 && random.nextInt(TARGET_LENGTH) < length) {
+      int offset = random.nextInt(length);
+      int end = Math.min(length, offset + 1 + random.nextInt(5));
+
+      return D(offset, document.substring(offset, end));
+    }
+
+    return I(random.nextInt(length + 1), "x" + random.nextInt(10));
+  }
+
+  private static IFile createFile() {
+    IFile file = EasyMock.createNiceMock(IFile.class);
+    EasyMock.replay(file);
+
+    return file;
+  }
+}
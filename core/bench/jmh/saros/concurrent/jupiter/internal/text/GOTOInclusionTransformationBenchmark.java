@@ -0,0 +1,115 @@
+package saros.concurrent.jupiter.internal.text;
+
+import static saros.test.util.OperationHelper.D;
+import static saros.test.util.OperationHelper.I;
+import static saros.test.util.OperationHelper.NOP;
+import static saros.test.util.OperationHelper.S;
+
+import java.util.concurrent.TimeUnit;
+import org.easymock.EasyMock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import saros.concurrent.jupiter.InclusionTransformation;
+import saros.concurrent.jupiter.Operation;
+import saros.concurrent.jupiter.test.util.Document;
+import saros.filesystem.IFile;
+
+/**
+ * Measures the transformation of two concurrent operations by the {@link
+ * GOTOInclusionTransformation} for all combinations of operation types.
+ *
+ * <p>Before measuring, every combination is checked to fulfill the transformation property TP1,
+ * i.e. applying both operations in either order with the respective transformed operation results
+ * in the same document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GOTOInclusionTransformationBenchmark {
+
+  /** The document both operations are applied to. */
+  private static final String DOCUMENT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit";
+
+  /** The combinations of the operation to transform and the operation used as context. */
+  public enum Combination {
+    INSERT_INSERT(I(6, "foo"), I(6, "bar")),
+    INSERT_DELETE(I(8, "foo"), D(6, "ipsum")),
+    DELETE_INSERT(D(6, "ipsum"), I(8, "foo")),
+    DELETE_DELETE(D(6, "ipsum dolor"), D(12, "dolor sit")),
+    SPLIT_INSERT(S(D(6, "ipsum"), I(6, "foo")), I(18, "bar")),
+    SPLIT_DELETE(S(D(6, "ipsum"), I(6, "foo")), D(4, "m ipsum do")),
+    INSERT_SPLIT(I(18, "bar"), S(D(6, "ipsum"), I(6, "foo"))),
+    SPLIT_SPLIT(S(D(0, "Lorem"), I(0, "foo")), S(D(6, "ipsum"), I(6, "bar"))),
+    NOOP_INSERT(NOP(), I(6, "foo")),
+    INSERT_NOOP(I(6, "foo"), NOP());
+
+    private final Operation operation;
+    private final Operation context;
+
+    Combination(Operation operation, Operation context) {
+      this.operation = operation;
+      this.context = context;
+    }
+  }
+
+  @Param public Combination combination;
+
+  private final InclusionTransformation transformation = new GOTOInclusionTransformation();
+
+  private Operation operation;
+  private Operation context;
+
+  @Setup
+  public void setUp() {
+    operation = combination.operation;
+    context = combination.context;
+
+    checkConvergence();
+  }
+
+  @Benchmark
+  public Operation transform() {
+    return transformation.transform(operation, context, Boolean.TRUE);
+  }
+
+  @Benchmark
+  public Operation transformBothDirections() {
+    transformation.transform(context, operation, Boolean.FALSE);
+
+    return transformation.transform(operation, context, Boolean.TRUE);
+  }
+
+  private void checkConvergence() {
+    IFile file = EasyMock.createNiceMock(IFile.class);
+    EasyMock.replay(file);
+
+    Document first = new Document(DOCUMENT, file);
+    first.execOperation(operation);
+    first.execOperation(transformation.transform(context, operation, Boolean.FALSE));
+
+    Document second = new Document(DOCUMENT, file);
+    second.execOperation(context);
+    second.execOperation(transformation.transform(operation, context, Boolean.TRUE));
+
+    if (!first.getDocument().equals(second.getDocument()))
+      throw new IllegalStateException(
+          combination
+              + " does not converge: '"
+              + first.getDocument()
+              + "' != '"
+              + second.getDocument()
+              + "'");
+  }
+}
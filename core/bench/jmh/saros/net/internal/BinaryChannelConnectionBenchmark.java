@@ -0,0 +1,193 @@
+package saros.net.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import saros.net.stream.ByteStream;
+import saros.net.stream.StreamMode;
+import saros.net.xmpp.JID;
+
+/**
+ * Measures sending payloads over a {@link BinaryChannelConnection} until they were received by the
+ * connection on the other side. Both connections communicate over in-memory piped streams, so only
+ * the framing, fragmentation and the hand-over to the receiving thread are measured.
+ *
+ * <p>{@link #sendAndReceive} measures the latency of single payloads, {@link #sendBatch} the
+ * throughput of payloads sent back to back.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryChannelConnectionBenchmark {
+
+  private static final int PIPE_BUFFER_SIZE = 1024 * 1024;
+
+  private static final int BATCH_SIZE = 64;
+
+  private static final long RECEIVE_TIMEOUT = 10000;
+
+  private static class PipedByteStream implements ByteStream {
+
+    private final InputStream in;
+    private final OutputStream out;
+
+    private PipedByteStream(InputStream in, OutputStream out) {
+      this.in = in;
+      this.out = out;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return in;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+      out.close();
+    }
+
+    @Override
+    public int getReadTimeout() {
+      return 0;
+    }
+
+    @Override
+    public void setReadTimeout(int timeout) {
+      // NOP
+    }
+  }
+
+  private static class NopConnectionListener implements IByteStreamConnectionListener {
+
+    @Override
+    public void connectionClosed(String connectionIdentifier, IByteStreamConnection connection) {
+      // NOP
+    }
+
+    @Override
+    public void connectionChanged(
+        String connectionIdentifier, IByteStreamConnection connection, boolean incomingRequest) {
+      // NOP
+    }
+  }
+
+  @Param({"256", "4096", "65536", "1048576"})
+  public int payloadSize;
+
+  private final JID aliceJID = new JID("alice@saros-con.imp.fu-berlin.de/Saros");
+  private final JID bobJID = new JID("bob@saros-con.imp.fu-berlin.de/Saros");
+
+  private final Semaphore received = new Semaphore(0);
+
+  private BinaryChannelConnection alice;
+  private BinaryChannelConnection bob;
+
+  private TransferDescription description;
+
+  private byte[] payload;
+
+  @Setup
+  public void setUp() throws IOException {
+    PipedOutputStream aliceOut = new PipedOutputStream();
+    PipedInputStream aliceIn = new PipedInputStream(PIPE_BUFFER_SIZE);
+
+    PipedOutputStream bobOut = new PipedOutputStream();
+    PipedInputStream bobIn = new PipedInputStream(PIPE_BUFFER_SIZE);
+
+    aliceOut.connect(bobIn);
+    aliceIn.connect(bobOut);
+
+    alice =
+        new BinaryChannelConnection(
+            aliceJID,
+            bobJID,
+            "benchmark",
+            new PipedByteStream(aliceIn, aliceOut),
+            StreamMode.SOCKS5_DIRECT,
+            new NopConnectionListener());
+
+    bob =
+        new BinaryChannelConnection(
+            bobJID,
+            aliceJID,
+            "benchmark",
+            new PipedByteStream(bobIn, bobOut),
+            StreamMode.SOCKS5_DIRECT,
+            new NopConnectionListener());
+
+    bob.setBinaryXMPPExtensionReceiver(
+        extension -> {
+          if (extension.getPayload().length != payloadSize)
+            throw new IllegalStateException(
+                "received " + extension.getPayload().length + " bytes instead of " + payloadSize);
+
+          received.release();
+        });
+
+    alice.initialize();
+    bob.initialize();
+
+    description =
+        TransferDescription.newDescription()
+            .setNamespace("saros")
+            .setElementName("benchmark")
+            .setSender(aliceJID)
+            .setRecipient(bobJID);
+
+    payload = new byte[payloadSize];
+    new Random(42).nextBytes(payload);
+  }
+
+  @TearDown
+  public void tearDown() {
+    alice.close();
+    bob.close();
+  }
+
+  @Benchmark
+  public void sendAndReceive() throws IOException, InterruptedException {
+    alice.send(description, payload);
+
+    awaitReceived(1);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH_SIZE)
+  public void sendBatch() throws IOException, InterruptedException {
+    for (int i = 0; i < BATCH_SIZE; i++) alice.send(description, payload);
+
+    awaitReceived(BATCH_SIZE);
+  }
+
+  private void awaitReceived(int count) throws InterruptedException {
+    if (!received.tryAcquire(count, RECEIVE_TIMEOUT, TimeUnit.MILLISECONDS))
+      throw new IllegalStateException("payload was not received in time");
+  }
+}
@@ -0,0 +1,105 @@
+package saros.net.internal;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import saros.communication.extensions.ActivityFixture;
+import saros.communication.extensions.ActivityFixture.Mix;
+
+/**
+ * Measures the payload compression of {@link XMPPTransmitter#deflate} and the decompression of
+ * {@link XMPPReceiver#inflate} for different payload sizes.
+ *
+ * <p>The payload either consists of marshalled activities (as sent during a session) or of random
+ * bytes (as contained in archives of the project negotiation), which are nearly incompressible.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+  public enum Content {
+    ACTIVITIES,
+    RANDOM
+  }
+
+  @Param({"256", "4096", "65536", "1048576"})
+  public int payloadSize;
+
+  @Param public Content content;
+
+  private byte[] payload;
+  private byte[] compressed;
+
+  @Setup
+  public void setUp() throws IOException {
+    payload = content == Content.ACTIVITIES ? activities(payloadSize) : random(payloadSize);
+    compressed = XMPPTransmitter.deflate(payload);
+
+    if (!Arrays.equals(payload, XMPPReceiver.inflate(compressed)))
+      throw new IllegalStateException("inflated payload differs from the original one");
+  }
+
+  @Benchmark
+  public byte[] deflate() {
+    return XMPPTransmitter.deflate(payload);
+  }
+
+  @Benchmark
+  public byte[] inflate() throws IOException {
+    return XMPPReceiver.inflate(compressed);
+  }
+
+  /** Returns the given number of bytes of concatenated marshalled activity extensions. */
+  private static byte[] activities(int size) {
+    ActivityFixture fixture = new ActivityFixture();
+
+    fixture.start();
+
+    try {
+      byte[] result = new byte[size];
+
+      int position = 0;
+      int sequenceNumber = 0;
+
+      while (position < size) {
+        byte[] extension =
+            ActivityFixture.marshal(
+                fixture.createExtension(
+                    fixture.createActivities(Mix.MIXED, 16, sequenceNumber), sequenceNumber++));
+
+        int length = Math.min(extension.length, size - position);
+
+        System.arraycopy(extension, 0, result, position, length);
+        position += length;
+      }
+
+      return result;
+
+    } finally {
+      fixture.stop();
+    }
+  }
+
+  private static byte[] random(int size) {
+    byte[] result = new byte[size];
+    new Random(42).nextBytes(result);
+
+    return result;
+  }
+}
@@ -0,0 +1,104 @@
+package saros.session.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the latency probes sent between the simulated participants.
+ *
+ * <p>A probe is a {@link saros.activities.NOPActivity} targeted at one other participant. It is
+ * created like any other local activity and passes the same path as the preceding activities of its
+ * sender (i.e. the activity handler, the sequencer, the transport and the server part of the host).
+ * As the activities of a sender are executed in order, a probe is executed after all activities its
+ * sender created before it, so its latency reflects the queuing delays of the session.
+ *
+ * <p>This class is thread safe.
+ */
+final class LatencyProbes {
+
+  private final AtomicInteger nextId = new AtomicInteger();
+
+  private final Map<Integer, Long> sendTimes = new ConcurrentHashMap<>();
+
+  private long[] latencies = new long[1024];
+  private int received;
+
+  /**
+   * Registers a new probe that is about to be sent.
+   *
+   * @return the id of the probe
+   */
+  int send() {
+    int id = nextId.getAndIncrement();
+
+    sendTimes.put(id, System.nanoTime());
+
+    return id;
+  }
+
+  /**
+   * Records the reception of the probe with the given id.
+   *
+   * @param id the id of the probe
+   */
+  void receive(int id) {
+    Long sendTime = sendTimes.remove(id);
+
+    if (sendTime == null) throw new IllegalStateException("probe " + id + " was received twice");
+
+    long latency = System.nanoTime() - sendTime;
+
+    synchronized (this) {
+      if (received == latencies.length) latencies = Arrays.copyOf(latencies, received * 2);
+
+      latencies[received++] = latency;
+
+      notifyAll();
+    }
+  }
+
+  /** Returns the number of probes that were sent. */
+  int getSent() {
+    return nextId.get();
+  }
+
+  /** Returns the number of probes that were received. */
+  synchronized int getReceived() {
+    return received;
+  }
+
+  /**
+   * Waits until all sent probes were received.
+   *
+   * @param timeout the timeout in milliseconds
+   * @return <code>true</code> if all probes were received
+   * @throws InterruptedException if the current thread was interrupted while waiting
+   */
+  synchronized boolean awaitAll(long timeout) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeout;
+
+    while (received < getSent()) {
+      long remaining = deadline - System.currentTimeMillis();
+
+      if (remaining <= 0) return false;
+
+      wait(remaining);
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the recorded latencies in nanoseconds in ascending order.
+   *
+   * @return the sorted latencies
+   */
+  synchronized long[] getSortedLatencies() {
+    long[] sorted = Arrays.copyOf(latencies, received);
+    Arrays.sort(sorted);
+
+    return sorted;
+  }
+}
@@ -0,0 +1,188 @@
+package saros.session.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The configuration of a {@link LoadGenerator} run.
+ *
+ * <p>The configuration is parsed from <code>key=value</code> arguments. All keys are optional:
+ *
+ * <ul>
+ *   <li><code>clients</code> - number of simulated clients besides the host (default 3)
+ *   <li><code>operations</code> - number of operations performed by every participant (default
+ *       1000)
+ *   <li><code>duration</code> - seconds every participant performs operations, overrides <code>
+ *       operations</code> if positive (default 0)
+ *   <li><code>rate</code> - operations per second and participant, <code>0</code> for as fast as
+ *       possible (default 50)
+ *   <li><code>seed</code> - seed of the generated workloads and, in a deterministic run, of the
+ *       interleaving of the participants (default 42)
+ *   <li><code>deterministic</code> - whether all participants are executed by one thread with an
+ *       interleaving chosen by the seed, so a run can be reproduced exactly; the rate is ignored
+ *       and no duration can be given (default false)
+ *   <li><code>files</code> - number of shared files that are edited (default 4)
+ *   <li><code>probeInterval</code> - number of operations between two latency probes (default 10)
+ *   <li><code>typing</code>, <code>selection</code>, <code>scrolling</code>, <code>
+ *       fileOperations</code> - relative weights of the operation kinds (default 70, 15, 10, 5)
+ *   <li><code>timeout</code> - seconds to wait for the session to settle (default 120)
+ *   <li><code>sampleInterval</code> - seconds between two samples of the throughput and the memory
+ *       usage (default 10)
+ *   <li><code>report</code> - path of a file the JSON report is written to (default none)
+ *   <li><code>record</code> - directory the {@linkplain saros.session.internal.SessionRecorder
+ *       session recordings} of all participants are written to (default none)
+ * </ul>
+ */
+public final class LoadConfiguration {
+
+  private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+  static {
+    DEFAULTS.put("clients", "3");
+    DEFAULTS.put("operations", "1000");
+    DEFAULTS.put("duration", "0");
+    DEFAULTS.put("rate", "50");
+    DEFAULTS.put("seed", "42");
+    DEFAULTS.put("deterministic", "false");
+    DEFAULTS.put("files", "4");
+    DEFAULTS.put("probeInterval", "10");
+    DEFAULTS.put("typing", "70");
+    DEFAULTS.put("selection", "15");
+    DEFAULTS.put("scrolling", "10");
+    DEFAULTS.put("fileOperations", "5");
+    DEFAULTS.put("timeout", "120");
+    DEFAULTS.put("sampleInterval", "10");
+    DEFAULTS.put("report", "");
+    DEFAULTS.put("record", "");
+  }
+
+  private final Map<String, String> values;
+
+  private LoadConfiguration(Map<String, String> values) {
+    this.values = values;
+  }
+
+  /**
+   * Parses the given arguments.
+   *
+   * @param args the arguments in the form <code>key=value</code>
+   * @return the configuration
+   * @throws IllegalArgumentException if an argument is malformed or unknown
+   */
+  public static LoadConfiguration parse(String... args) {
+    Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+
+    for (String arg : args) {
+      int index = arg.indexOf('=');
+
+      if (index == -1)
+        throw new IllegalArgumentException("argument is not a key=value pair: " + arg);
+
+      String key = arg.substring(0, index);
+
+      if (!DEFAULTS.containsKey(key))
+        throw new IllegalArgumentException("unknown argument: " + key);
+
+      values.put(key, arg.substring(index + 1));
+    }
+
+    LoadConfiguration configuration = new LoadConfiguration(values);
+
+    if (configuration.getClients() < 1)
+      throw new IllegalArgumentException("at least one client is required");
+
+    if (configuration.getFiles() < 1)
+      throw new IllegalArgumentException("at least one file is required");
+
+    if (configuration.getProbeInterval() < 1)
+      throw new IllegalArgumentException("the probe interval must be positive");
+
+    if (configuration.getDuration() < 0)
+      throw new IllegalArgumentException("the duration must not be negative");
+
+    if (configuration.getSampleInterval() < 1)
+      throw new IllegalArgumentException("the sample interval must be positive");
+
+    if (configuration.isDeterministic() && configuration.getDuration() > 0)
+      throw new IllegalArgumentException("a deterministic run can not be limited by a duration");
+
+    return configuration;
+  }
+
+  int getClients() {
+    return getInt("clients");
+  }
+
+  int getOperations() {
+    return getInt("operations");
+  }
+
+  int getDuration() {
+    return getInt("duration");
+  }
+
+  int getRate() {
+    return getInt("rate");
+  }
+
+  public long getSeed() {
+    return Long.parseLong(values.get("seed"));
+  }
+
+  boolean isDeterministic() {
+    return Boolean.parseBoolean(values.get("deterministic"));
+  }
+
+  public int getFiles() {
+    return getInt("files");
+  }
+
+  int getProbeInterval() {
+    return getInt("probeInterval");
+  }
+
+  int getTypingWeight() {
+    return getInt("typing");
+  }
+
+  int getSelectionWeight() {
+    return getInt("selection");
+  }
+
+  int getScrollingWeight() {
+    return getInt("scrolling");
+  }
+
+  int getFileOperationWeight() {
+    return getInt("fileOperations");
+  }
+
+  int getTimeout() {
+    return getInt("timeout");
+  }
+
+  int getSampleInterval() {
+    return getInt("sampleInterval");
+  }
+
+  public String getReport() {
+    return values.get("report");
+  }
+
+  String getRecordingDirectory() {
+    return values.get("record").isEmpty() ? null : values.get("record");
+  }
+
+  @Override
+  public String toString() {
+    return values.toString();
+  }
+
+  private int getInt(String key) {
+    try {
+      return Integer.parseInt(values.get(key));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("not a number: " + key + "=" + values.get(key), e);
+    }
+  }
+}
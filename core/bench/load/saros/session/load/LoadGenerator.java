@@ -0,0 +1,488 @@
+package saros.session.load;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import org.apache.log4j.Logger;
+import saros.net.xmpp.JID;
+import saros.session.internal.ActivityLatencyTracker;
+import saros.session.load.Workload.Operation;
+import saros.test.fakes.net.FakeConnectionFactory;
+import saros.test.fakes.net.FakeConnectionFactory.FakeConnectionFactoryResult;
+
+/**
+ * Headless load generator for the activity processing of a Saros session.
+ *
+ * <p>It starts a host and a configurable number of clients as {@link SimulatedParticipant simulated
+ * participants} that are connected by an in-process transport. Every participant performs a seeded
+ * {@link Workload workload} of typing, selecting, scrolling and file operations at a configurable
+ * rate. Afterwards it waits for the session to settle and reports the throughput, the end-to-end
+ * latency of the {@link LatencyProbes probes} sent between the participants and whether all
+ * participants ended up with the same documents.
+ *
+ * <p>The operations every participant performs only depend on the seed. By default the participants
+ * run concurrently, so the interleaving of their activities, and with it the order in which
+ * concurrent operations are transformed, differs between two runs with the same seed. In a
+ * deterministic run, the sent activities are delivered and the UI threads are simulated by a {@link
+ * SeededScheduler} instead, which executes everything in a single thread in an order chosen by the
+ * seed, like the <code>NetworkSimulator</code> of the Jupiter tests. Such a run produces the same
+ * documents for the same seed, so a consistency failure can be reproduced and bisected from its
+ * seed. The measured latencies of a deterministic run are meaningless.
+ *
+ * <p>If the system property <code>saros.session.LATENCY_TRACKING</code> is set to <code>true
+ * </code>, the latencies per processing stage recorded by the {@link ActivityLatencyTracker} of
+ * every participant are printed as well.
+ *
+ * <p>Instead of a fixed number of operations, the participants can perform operations for a
+ * configured duration, e.g. to soak-test a build. The throughput and the memory usage are sampled
+ * periodically during the run.
+ *
+ * <p>The arguments are described in {@link LoadConfiguration}. The process exits with <code>1
+ * </code> if the documents of the participants diverged. Other tools can run the load generator
+ * with {@link #run(LoadConfiguration, Map)} or run the workloads of {@link SimulatedClients} that
+ * are attached to a host that is not simulated, e.g. a Saros server.
+ */
+public final class LoadGenerator {
+
+  private static final Logger log = Logger.getLogger(LoadGenerator.class);
+
+  private static final String DOMAIN = "saros-load";
+
+  /** Milliseconds between two comparisons of the documents with the ones of a real host */
+  private static final long CONTENT_POLL_INTERVAL = 100;
+
+  /**
+   * The system property selecting the dispatch mode of the {@link ActivityHandler} and the mode
+   * that dispatches the activities without a thread of its own, as required by deterministic runs
+   */
+  private static final String DISPATCH_MODE_PROPERTY = "saros.session.ACTIVITY_DISPATCH_MODE";
+
+  private static final String DISPATCH_MODE_ASYNC = "1";
+
+  private final LoadConfiguration configuration;
+
+  private final Map<String, String> initialContents;
+
+  private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+  private LoadGenerator(LoadConfiguration configuration, Map<String, String> initialContents) {
+    this.configuration = configuration;
+    this.initialContents = initialContents;
+  }
+
+  public static void main(String[] args) throws InterruptedException, IOException {
+    LoadConfiguration configuration;
+
+    try {
+      configuration = LoadConfiguration.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.exit(2);
+      return;
+    }
+
+    if (configuration.isDeterministic())
+      System.setProperty(DISPATCH_MODE_PROPERTY, DISPATCH_MODE_ASYNC);
+
+    LoadReport report = new LoadGenerator(configuration, null).run();
+
+    System.out.println(report.toText());
+
+    if (!configuration.getReport().isEmpty())
+      Files.write(
+          Paths.get(configuration.getReport()), report.toJson().getBytes(StandardCharsets.UTF_8));
+
+    System.exit(report.isConsistent() ? 0 : 1);
+  }
+
+  /**
+   * Runs the load generator with the given shared files.
+   *
+   * @param configuration the configuration of the run
+   * @param initialContents the initial content of the shared files, keyed by their reference point
+   *     relative path, the number of files must match the configuration
+   * @return the report of the run
+   * @throws InterruptedException if the calling thread was interrupted during the run
+   */
+  public static LoadReport run(LoadConfiguration configuration, Map<String, String> initialContents)
+      throws InterruptedException {
+
+    if (initialContents.size() != configuration.getFiles())
+      throw new IllegalArgumentException(
+          "expected "
+              + configuration.getFiles()
+              + " shared files but got "
+              + initialContents.size());
+
+    return new LoadGenerator(configuration, new LinkedHashMap<>(initialContents)).run();
+  }
+
+  /**
+   * Runs the workloads of the given clients that are attached to a host that is not simulated. Only
+   * the clients perform operations. After they settled, their documents are compared with the
+   * content of the host until they match or the timeout elapsed. The clients are not stopped.
+   *
+   * @param configuration the configuration of the run, the number of clients and files must match
+   *     the given clients
+   * @param clients the started clients, already added to the session of the host
+   * @return the report of the run
+   * @throws IllegalArgumentException if the configuration does not fit the clients or requires a
+   *     simulated host
+   * @throws InterruptedException if the calling thread was interrupted during the run
+   */
+  public static LoadReport run(LoadConfiguration configuration, SimulatedClients clients)
+      throws InterruptedException {
+
+    if (configuration.isDeterministic())
+      throw new IllegalArgumentException("a deterministic run requires a simulated host");
+
+    if (configuration.getRecordingDirectory() != null)
+      throw new IllegalArgumentException("a recorded run requires a simulated host");
+
+    if (configuration.getClients() != clients.getClientCount())
+      throw new IllegalArgumentException(
+          "expected "
+              + configuration.getClients()
+              + " clients but got "
+              + clients.getClientCount());
+
+    if (configuration.getFiles() != clients.getFileCount())
+      throw new IllegalArgumentException(
+          "expected "
+              + configuration.getFiles()
+              + " shared files but got "
+              + clients.getFileCount());
+
+    clients.use();
+
+    List<SimulatedParticipant> participants = clients.getParticipants();
+
+    log.info("running " + participants.size() + " attached clients: " + configuration);
+
+    LoadReport report =
+        new LoadGenerator(configuration, null)
+            .measure(
+                participants,
+                participants.size() + 1,
+                clients.getProbes(),
+                null,
+                clients::getHostContents,
+                participants,
+                true);
+
+    if (participants.get(0).getLatencyTracker().isEnabled()) printLatencies(participants);
+
+    return report;
+  }
+
+  private LoadReport run() throws InterruptedException {
+    if (configuration.isDeterministic()
+        && !DISPATCH_MODE_ASYNC.equals(System.getProperty(DISPATCH_MODE_PROPERTY)))
+      throw new IllegalStateException(
+          "deterministic runs require -D"
+              + DISPATCH_MODE_PROPERTY
+              + "="
+              + DISPATCH_MODE_ASYNC
+              + " as the activity handler must not use a dispatch thread");
+
+    List<JID> jids = new ArrayList<>();
+
+    jids.add(new JID("host@" + DOMAIN + "/Saros"));
+
+    for (int i = 1; i <= configuration.getClients(); i++)
+      jids.add(new JID("client" + i + "@" + DOMAIN + "/Saros"));
+
+    FakeConnectionFactoryResult connections =
+        FakeConnectionFactory.createConnections(jids.toArray(new JID[0]))
+            .withStrictJIDLookup()
+            .get();
+
+    SharedFiles sharedFiles =
+        initialContents != null
+            ? new SharedFiles(initialContents)
+            : new SharedFiles(configuration.getFiles(), configuration.getSeed());
+    LatencyProbes probes = new LatencyProbes();
+
+    SeededScheduler scheduler =
+        configuration.isDeterministic() ? new SeededScheduler(configuration.getSeed()) : null;
+
+    List<SimulatedParticipant> participants = new ArrayList<>();
+
+    for (int i = 0; i < jids.size(); i++) {
+      JID jid = jids.get(i);
+
+      participants.add(
+          new SimulatedParticipant(
+              i,
+              jids,
+              null,
+              connections.getTransmitter(jid),
+              connections.getReceiver(jid),
+              sharedFiles,
+              probes,
+              configuration.getRecordingDirectory(),
+              scheduler));
+    }
+
+    if (scheduler != null) participants.forEach(participant -> participant.connect(participants));
+
+    if (configuration.getRecordingDirectory() != null) sharedFiles.registerConverters();
+
+    participants.forEach(SimulatedParticipant::start);
+
+    log.info("started session with " + participants.size() + " participants: " + configuration);
+
+    LoadReport report =
+        measure(
+            participants,
+            participants.size(),
+            probes,
+            scheduler,
+            participants.get(0)::getContents,
+            participants.subList(1, participants.size()),
+            false);
+
+    participants.forEach(SimulatedParticipant::stop);
+
+    if (configuration.getRecordingDirectory() != null) sharedFiles.unregisterConverters();
+
+    if (participants.get(0).getLatencyTracker().isEnabled()) printLatencies(participants);
+
+    return report;
+  }
+
+  /**
+   * Performs the workloads of the given participants, waits for the session to settle and creates
+   * the report of the run.
+   *
+   * @param participants the participants that perform a workload
+   * @param sessionSize the number of participants in the session, including a host that is not
+   *     simulated
+   * @param probes the latency probes of the participants
+   * @param scheduler the scheduler of a deterministic run or <code>null</code>
+   * @param expectedContents returns the documents all compared participants must end up with
+   * @param compared the participants whose documents are compared with the expected ones
+   * @param awaitExpectedContents whether the expected documents are not covered by the probes, so
+   *     the documents are compared repeatedly until they match or the timeout elapsed
+   */
+  private LoadReport measure(
+      List<SimulatedParticipant> participants,
+      int sessionSize,
+      LatencyProbes probes,
+      SeededScheduler scheduler,
+      Supplier<Map<String, String>> expectedContents,
+      List<SimulatedParticipant> compared,
+      boolean awaitExpectedContents)
+      throws InterruptedException {
+
+    RuntimeSampler sampler =
+        new RuntimeSampler(
+            () -> participants.stream().mapToLong(SimulatedParticipant::getLocalActivities).sum(),
+            configuration.getSampleInterval());
+
+    sampler.start();
+
+    long start = System.nanoTime();
+
+    if (scheduler != null) {
+      drive(participants, scheduler);
+    } else {
+      List<Thread> drivers = new ArrayList<>();
+
+      for (SimulatedParticipant participant : participants) {
+        Thread driver =
+            new Thread(() -> drive(participant), "load-driver-" + participant.getIndex());
+        driver.start();
+        drivers.add(driver);
+      }
+
+      for (Thread driver : drivers) driver.join();
+    }
+
+    // the final probes are executed after all other activities of their senders
+    participants.forEach(SimulatedParticipant::sendProbes);
+
+    if (scheduler != null) runScheduler(scheduler);
+
+    long timeout = TimeUnit.SECONDS.toMillis(configuration.getTimeout());
+    long deadline = System.currentTimeMillis() + timeout;
+
+    boolean settled = probes.awaitAll(timeout);
+
+    Map<String, String> contents = expectedContents.get();
+
+    List<String> divergentFiles = compareContents(contents, compared);
+
+    while (awaitExpectedContents
+        && !divergentFiles.isEmpty()
+        && System.currentTimeMillis() < deadline) {
+
+      Thread.sleep(CONTENT_POLL_INTERVAL);
+
+      contents = expectedContents.get();
+      divergentFiles = compareContents(contents, compared);
+    }
+
+    long duration = System.nanoTime() - start;
+
+    sampler.stop();
+
+    if (!settled) errors.add("session did not settle in " + configuration.getTimeout() + " s");
+
+    long localActivities = 0;
+    long executedActivities = 0;
+    long inconsistentEdits = 0;
+
+    for (SimulatedParticipant participant : participants) {
+      localActivities += participant.getLocalActivities();
+      executedActivities += participant.getExecutedActivities();
+      inconsistentEdits += participant.getInconsistentEdits();
+    }
+
+    return new LoadReport(
+        configuration,
+        sessionSize,
+        duration,
+        localActivities,
+        executedActivities,
+        probes.getSent(),
+        probes.getSortedLatencies(),
+        settled,
+        inconsistentEdits,
+        divergentFiles,
+        errors,
+        sampler.getSamples(),
+        contents);
+  }
+
+  /** Performs the workload of the given participant at the configured rate. */
+  private void drive(SimulatedParticipant participant) {
+    Workload workload = new Workload(configuration, participant.getIndex());
+
+    long interval =
+        configuration.getRate() > 0 ? TimeUnit.SECONDS.toNanos(1) / configuration.getRate() : 0;
+
+    long next = System.nanoTime();
+
+    long deadline = next + TimeUnit.SECONDS.toNanos(configuration.getDuration());
+
+    try {
+      for (int i = 1; hasNextOperation(i, deadline); i++) {
+        Operation operation = workload.next();
+
+        if (interval > 0) {
+          next += interval;
+
+          long delay = next - System.nanoTime();
+
+          if (delay > 0) LockSupport.parkNanos(delay);
+        }
+
+        participant.perform(operation);
+
+        if (i % configuration.getProbeInterval() == 0) participant.sendProbes();
+      }
+    } catch (RuntimeException e) {
+      log.error("participant " + participant.getIndex() + " failed", e);
+
+      errors.add("participant " + participant.getIndex() + " failed: " + e);
+    }
+  }
+
+  /**
+   * Performs the workloads of all participants as tasks of the given scheduler, one channel per
+   * participant, and runs the scheduler until all resulting activities were processed.
+   */
+  private void drive(List<SimulatedParticipant> participants, SeededScheduler scheduler) {
+    if (configuration.getOperations() < 1) return;
+
+    for (SimulatedParticipant participant : participants) {
+      Workload workload = new Workload(configuration, participant.getIndex());
+      String channel = "driver-" + participant.getIndex();
+
+      scheduler.schedule(
+          channel,
+          new Runnable() {
+            private int operation = 1;
+
+            @Override
+            public void run() {
+              participant.perform(workload.next());
+
+              if (operation % configuration.getProbeInterval() == 0) participant.sendProbes();
+
+              if (++operation <= configuration.getOperations()) scheduler.schedule(channel, this);
+            }
+          });
+    }
+
+    runScheduler(scheduler);
+  }
+
+  private void runScheduler(SeededScheduler scheduler) {
+    try {
+      scheduler.run();
+    } catch (RuntimeException e) {
+      log.error("deterministic run failed after " + scheduler.getExecutedTasks() + " tasks", e);
+
+      errors.add("deterministic run failed: " + e);
+    }
+  }
+
+  /**
+   * Returns whether a participant has to perform the operation with the given number, either
+   * because the duration has not elapsed yet or because not all operations were performed.
+   */
+  private boolean hasNextOperation(int operation, long deadline) {
+    if (configuration.getDuration() > 0) return System.nanoTime() - deadline < 0;
+
+    return operation <= configuration.getOperations();
+  }
+
+  /** Prints the latencies per stage recorded by every participant. */
+  private static void printLatencies(List<SimulatedParticipant> participants) {
+    Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+
+    for (SimulatedParticipant participant : participants) {
+      System.out.println(
+          "latencies of " + (participant.isHost() ? "host" : "client " + participant.getIndex()));
+
+      participant.getLatencyTracker().writeTo(out);
+
+      System.out.println();
+    }
+  }
+
+  /** Returns the paths of all files of the given participants whose content is not the expected. */
+  private static List<String> compareContents(
+      Map<String, String> expected, List<SimulatedParticipant> participants) {
+
+    List<String> divergentFiles = new ArrayList<>();
+
+    for (SimulatedParticipant participant : participants) {
+      Map<String, String> actual = participant.getContents();
+
+      for (Map.Entry<String, String> entry : expected.entrySet()) {
+        if (!entry.getValue().equals(actual.get(entry.getKey())))
+          divergentFiles.add(participant.getIndex() + ":" + entry.getKey());
+      }
+
+      for (String path : actual.keySet()) {
+        if (!expected.containsKey(path)) divergentFiles.add(participant.getIndex() + ":" + path);
+      }
+    }
+
+    return divergentFiles;
+  }
+}
@@ -0,0 +1,225 @@
+package saros.session.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import saros.session.load.RuntimeSampler.Sample;
+
+/** The results of a {@link LoadGenerator} run. */
+public final class LoadReport {
+
+  private static final double MIB = 1024 * 1024;
+
+  private final LoadConfiguration configuration;
+
+  private final int participants;
+  private final long durationNanos;
+
+  private final long localActivities;
+  private final long executedActivities;
+
+  private final int probesSent;
+  private final long[] latencies;
+
+  private final boolean settled;
+  private final long inconsistentEdits;
+  private final List<String> divergentFiles;
+  private final List<String> errors;
+
+  private final List<Sample> samples;
+  private final Map<String, String> contents;
+
+  LoadReport(
+      LoadConfiguration configuration,
+      int participants,
+      long durationNanos,
+      long localActivities,
+      long executedActivities,
+      int probesSent,
+      long[] latencies,
+      boolean settled,
+      long inconsistentEdits,
+      List<String> divergentFiles,
+      List<String> errors,
+      List<Sample> samples,
+      Map<String, String> contents) {
+
+    this.configuration = configuration;
+    this.participants = participants;
+    this.durationNanos = durationNanos;
+    this.localActivities = localActivities;
+    this.executedActivities = executedActivities;
+    this.probesSent = probesSent;
+    this.latencies = latencies;
+    this.settled = settled;
+    this.inconsistentEdits = inconsistentEdits;
+    this.divergentFiles = new ArrayList<>(divergentFiles);
+    this.errors = new ArrayList<>(errors);
+    this.samples = new ArrayList<>(samples);
+    this.contents = Collections.unmodifiableMap(new TreeMap<>(contents));
+  }
+
+  /**
+   * Returns whether all participants ended up with the same documents.
+   *
+   * @return <code>true</code> if the session settled and no inconsistency was detected
+   */
+  public boolean isConsistent() {
+    return settled && inconsistentEdits == 0 && divergentFiles.isEmpty() && errors.isEmpty();
+  }
+
+  /**
+   * Returns the latency percentile in milliseconds.
+   *
+   * @param percentile the percentile in the range (0, 100]
+   * @return the latency or <code>NaN</code> if no probe was received
+   */
+  double getLatencyPercentile(double percentile) {
+    if (latencies.length == 0) return Double.NaN;
+
+    int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+
+    return latencies[Math.max(0, index)] / 1e6;
+  }
+
+  /**
+   * Returns the documents of the host at the end of the run.
+   *
+   * @return the document contents, keyed by the file path
+   */
+  public Map<String, String> getContents() {
+    return contents;
+  }
+
+  /** Returns the highest sampled heap usage in bytes. */
+  long getPeakHeapUsed() {
+    long peak = 0;
+
+    for (Sample sample : samples) peak = Math.max(peak, sample.heapUsed);
+
+    return peak;
+  }
+
+  /** Returns the number of locally created activities per second over all participants. */
+  double getThroughput() {
+    return localActivities / (durationNanos / 1e9);
+  }
+
+  public String toText() {
+    StringBuilder text = new StringBuilder();
+
+    text.append("configuration:       ").append(configuration).append('\n');
+    text.append("participants:        ").append(participants).append('\n');
+    text.append(format("duration:            %.1f s%n", durationNanos / 1e9));
+    text.append("local activities:    ").append(localActivities).append('\n');
+    text.append("executed activities: ").append(executedActivities).append('\n');
+    text.append(format("throughput:          %.1f activities/s%n", getThroughput()));
+    text.append("probes:              ")
+        .append(latencies.length)
+        .append(" of ")
+        .append(probesSent)
+        .append(" received\n");
+    text.append(
+        format(
+            "latency (ms):        p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+            getLatencyPercentile(50),
+            getLatencyPercentile(90),
+            getLatencyPercentile(99),
+            getLatencyPercentile(100)));
+    text.append("inconsistent edits:  ").append(inconsistentEdits).append('\n');
+    text.append("divergent files:     ").append(divergentFiles).append('\n');
+
+    if (!samples.isEmpty()) {
+      Sample last = samples.get(samples.size() - 1);
+
+      text.append(
+          format(
+              "memory:              peak heap %.1f MiB, %d gcs, %d ms in gc%n",
+              getPeakHeapUsed() / MIB, last.gcCount, last.gcMillis));
+
+      text.append("samples:             elapsed s  activities/s  heap MiB  gcs  gc ms\n");
+
+      for (Sample sample : samples)
+        text.append(
+            format(
+                "                     %9.1f  %12.1f  %8.1f  %3d  %5d%n",
+                sample.elapsedSeconds,
+                sample.throughput,
+                sample.heapUsed / MIB,
+                sample.gcCount,
+                sample.gcMillis));
+    }
+
+    for (String error : errors) text.append("error:               ").append(error).append('\n');
+
+    text.append("result:              ").append(isConsistent() ? "CONSISTENT" : "INCONSISTENT");
+
+    return text.toString();
+  }
+
+  public String toJson() {
+    StringBuilder json = new StringBuilder("{\n");
+
+    json.append("  \"configuration\": \"").append(escape(configuration.toString())).append("\",\n");
+    json.append("  \"participants\": ").append(participants).append(",\n");
+    json.append("  \"durationMillis\": ").append(durationNanos / 1000000).append(",\n");
+    json.append("  \"localActivities\": ").append(localActivities).append(",\n");
+    json.append("  \"executedActivities\": ").append(executedActivities).append(",\n");
+    json.append(format("  \"throughput\": %.3f,%n", getThroughput()));
+    json.append("  \"probesSent\": ").append(probesSent).append(",\n");
+    json.append("  \"probesReceived\": ").append(latencies.length).append(",\n");
+    json.append("  \"latencyMillis\": {");
+    json.append(format("\"p50\": %.3f, ", getLatencyPercentile(50)));
+    json.append(format("\"p90\": %.3f, ", getLatencyPercentile(90)));
+    json.append(format("\"p99\": %.3f, ", getLatencyPercentile(99)));
+    json.append(format("\"max\": %.3f},%n", getLatencyPercentile(100)));
+    json.append("  \"inconsistentEdits\": ").append(inconsistentEdits).append(",\n");
+    json.append("  \"divergentFiles\": ").append(toJsonArray(divergentFiles)).append(",\n");
+    json.append("  \"errors\": ").append(toJsonArray(errors)).append(",\n");
+    json.append("  \"peakHeapBytes\": ").append(getPeakHeapUsed()).append(",\n");
+    json.append("  \"samples\": [");
+
+    for (int i = 0; i < samples.size(); i++) {
+      Sample sample = samples.get(i);
+
+      json.append(i > 0 ? ",\n    " : "\n    ")
+          .append(
+              format(
+                  "{\"elapsedSeconds\": %.3f, \"throughput\": %.3f, \"heapBytes\": %d, "
+                      + "\"gcCount\": %d, \"gcMillis\": %d}",
+                  sample.elapsedSeconds,
+                  sample.throughput,
+                  sample.heapUsed,
+                  sample.gcCount,
+                  sample.gcMillis));
+    }
+
+    json.append(samples.isEmpty() ? "],\n" : "\n  ],\n");
+    json.append("  \"consistent\": ").append(isConsistent()).append("\n}\n");
+
+    return json.toString();
+  }
+
+  private static String format(String format, Object... args) {
+    return String.format(Locale.ROOT, format, args).replace("NaN", "null");
+  }
+
+  private static String toJsonArray(List<String> values) {
+    StringBuilder array = new StringBuilder("[");
+
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) array.append(", ");
+
+      array.append('"').append(escape(values.get(i))).append('"');
+    }
+
+    return array.append(']').toString();
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
@@ -0,0 +1,366 @@
+package saros.session.load;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.log4j.Logger;
+import org.easymock.EasyMock;
+import saros.activities.IActivity;
+import saros.concurrent.management.ConcurrentDocumentClient;
+import saros.concurrent.management.ConcurrentDocumentServer;
+import saros.filesystem.IFile;
+import saros.filesystem.IFolder;
+import saros.filesystem.IReferencePoint;
+import saros.filesystem.IResource;
+import saros.misc.xstream.ResourceTransportWrapperConverter;
+import saros.misc.xstream.UserConverter;
+import saros.monitoring.metrics.MetricsRegistry;
+import saros.net.xmpp.JID;
+import saros.session.IActivityHandlerCallback;
+import saros.session.ISarosSession;
+import saros.session.ISessionListener;
+import saros.session.User;
+import saros.session.internal.ActivityHandler;
+import saros.session.internal.ActivityLatencyTracker;
+import saros.session.internal.ActivityQueuer;
+import saros.test.fakes.synchonize.NonUISynchronizer;
+
+/**
+ * A fresh session participant that a {@linkplain saros.session.internal.SessionRecording session
+ * recording} is replayed into. It consists of the components of a Saros session that transform
+ * activities, i.e. the {@link ActivityQueuer}, {@link ActivityHandler} and the {@link
+ * ConcurrentDocumentClient} as well as the {@link ConcurrentDocumentServer} if the recording was
+ * made by the host.
+ *
+ * <p>Local activities are created in the UI thread and received activities are passed to the
+ * activity handler in the calling thread, just like in a real session. The dispatching of received
+ * activities to the UI thread is not synchronized with the replay, so the interleaving of local and
+ * remote activities may differ from the recorded session.
+ *
+ * <p>The participant is offline: activities sent to the other participants and executed activities
+ * are only collected, so they can be compared with the recorded ones. The users, reference points
+ * and files of the recording are created on demand when the recorded activities are unmarshalled,
+ * which requires the {@linkplain #start() started} participant to be the only one registering
+ * converters.
+ */
+final class ReplayParticipant {
+
+  private static final Logger log = Logger.getLogger(ReplayParticipant.class);
+
+  private final JID localJID;
+  private final JID hostJID;
+
+  private final Map<JID, User> users = new LinkedHashMap<>();
+
+  private final Map<String, IReferencePoint> referencePoints = new ConcurrentHashMap<>();
+  private final Map<IReferencePoint, String> referencePointIDs = new ConcurrentHashMap<>();
+  private final Map<String, IResource> resources = new ConcurrentHashMap<>();
+
+  private final List<ISessionListener> sessionListeners = new CopyOnWriteArrayList<>();
+
+  private final NonUISynchronizer synchronizer = new NonUISynchronizer();
+
+  private final ActivityQueuer activityQueuer = new ActivityQueuer();
+
+  private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+  private final ISarosSession session;
+
+  private final UserConverter userConverter;
+  private final ResourceTransportWrapperConverter resourceConverter;
+
+  private final ConcurrentDocumentServer documentServer;
+  private final ConcurrentDocumentClient documentClient;
+
+  private final ActivityHandler activityHandler;
+
+  private final ActivityLatencyTracker latencyTracker;
+
+  private final List<IActivity> sentActivities = Collections.synchronizedList(new ArrayList<>());
+  private final List<IActivity> executedActivities =
+      Collections.synchronizedList(new ArrayList<>());
+
+  private final IActivityHandlerCallback callback =
+      new IActivityHandlerCallback() {
+
+        @Override
+        public void send(List<User> recipients, IActivity activity) {
+          sentActivities.add(activity);
+        }
+
+        @Override
+        public void execute(IActivity activity) {
+          executedActivities.add(activity);
+        }
+      };
+
+  /**
+   * Creates a participant.
+   *
+   * @param localJID the JID of the recorded participant
+   * @param hostJID the JID of the host of the recorded session
+   */
+  ReplayParticipant(JID localJID, JID hostJID) {
+    this.localJID = localJID;
+    this.hostJID = hostJID;
+
+    getUser(hostJID);
+    getUser(localJID);
+
+    session = createSession();
+
+    userConverter = new UserConverter(session);
+    resourceConverter = new ResourceTransportWrapperConverter(session);
+
+    documentServer = isHost() ? new ConcurrentDocumentServer(session, metricsRegistry) : null;
+    documentClient = new ConcurrentDocumentClient(session, null);
+
+    latencyTracker = new ActivityLatencyTracker(session);
+
+    activityHandler =
+        new ActivityHandler(
+            session, callback, documentServer, documentClient, synchronizer, latencyTracker);
+  }
+
+  /** Registers the converters and starts the components of the participant. */
+  void start() {
+    userConverter.start();
+    resourceConverter.start();
+
+    synchronizer.start();
+
+    if (documentServer != null) documentServer.start();
+
+    documentClient.start();
+    activityHandler.start();
+
+    for (User user : getRemoteUsers()) joined(user);
+  }
+
+  /** Stops the components of the participant and unregisters the converters. */
+  void stop() {
+    activityHandler.stop();
+    documentClient.stop();
+
+    if (documentServer != null) documentServer.stop();
+
+    synchronizer.stop();
+
+    resourceConverter.stop();
+    userConverter.stop();
+  }
+
+  boolean isHost() {
+    return localJID.equals(hostJID);
+  }
+
+  ActivityLatencyTracker getLatencyTracker() {
+    return latencyTracker;
+  }
+
+  /**
+   * Replays activities created by the local user in the UI thread, see
+   * SarosSession#activityListener.
+   *
+   * @param activities the created activities
+   */
+  void created(List<IActivity> activities) {
+    synchronizer.syncExec(() -> activityHandler.handleOutgoingActivities(activities));
+  }
+
+  /**
+   * Replays received activities in the calling thread, see SarosSession#exec.
+   *
+   * @param activities the received activities
+   */
+  void received(List<IActivity> activities) {
+    List<IActivity> valid = new ArrayList<>(activities.size());
+
+    for (IActivity activity : activities) {
+      if (activity.isValid()) valid.add(activity);
+      else log.error("could not handle incoming activity: " + activity);
+    }
+
+    activityHandler.handleIncomingActivities(activityQueuer.process(valid));
+  }
+
+  /**
+   * Makes sure that the given users are part of the session, e.g. the recipients of a recorded
+   * activity that never sent an activity themselves.
+   *
+   * @param jids the JIDs of the users
+   */
+  void ensureUsers(List<JID> jids) {
+    for (JID jid : jids) getUser(jid);
+  }
+
+  /** Waits until all activities passed to the UI thread are executed. */
+  void awaitUIThread() {
+    // activities executed in the UI thread may pass further activities to it
+    synchronizer.syncExec(() -> {});
+    synchronizer.syncExec(() -> {});
+  }
+
+  /**
+   * Returns the activities sent to the other participants during the replay.
+   *
+   * @return a snapshot of the sent activities
+   */
+  List<IActivity> getSentActivities() {
+    synchronized (sentActivities) {
+      return new ArrayList<>(sentActivities);
+    }
+  }
+
+  /**
+   * Returns the activities executed during the replay.
+   *
+   * @return a snapshot of the executed activities
+   */
+  List<IActivity> getExecutedActivities() {
+    synchronized (executedActivities) {
+      return new ArrayList<>(executedActivities);
+    }
+  }
+
+  /** Returns the user with the given JID, adding the user to the session if necessary. */
+  private User getUser(JID jid) {
+    User user;
+
+    synchronized (users) {
+      user = users.get(jid);
+
+      if (user != null) return user;
+
+      user = new User(jid, jid.equals(hostJID), jid.equals(localJID), null);
+      user.setInSession(true);
+
+      users.put(jid, user);
+    }
+
+    // the listeners are notified outside of the lock as they may call back into the session
+    if (session != null && !user.isLocal()) joined(user);
+
+    return user;
+  }
+
+  private void joined(User user) {
+    for (ISessionListener listener : sessionListeners) {
+      listener.userJoined(user);
+      listener.userStartedQueuing(user);
+    }
+  }
+
+  private List<User> getUsers() {
+    synchronized (users) {
+      return new ArrayList<>(users.values());
+    }
+  }
+
+  private List<User> getRemoteUsers() {
+    List<User> remoteUsers = getUsers();
+    remoteUsers.removeIf(User::isLocal);
+
+    return remoteUsers;
+  }
+
+  private IReferencePoint getReferencePoint(String id) {
+    return referencePoints.computeIfAbsent(id, this::createReferencePoint);
+  }
+
+  private IReferencePoint createReferencePoint(String id) {
+    IReferencePoint referencePoint = EasyMock.createNiceMock(IReferencePoint.class);
+
+    EasyMock.expect(referencePoint.getName()).andStubReturn("replay" + id);
+    EasyMock.expect(referencePoint.getFile(EasyMock.anyObject(Path.class)))
+        .andStubAnswer(
+            () ->
+                getResource(
+                    id,
+                    (Path) EasyMock.getCurrentArguments()[0],
+                    IResource.Type.FILE,
+                    IFile.class));
+    EasyMock.expect(referencePoint.getFolder(EasyMock.anyObject(Path.class)))
+        .andStubAnswer(
+            () ->
+                getResource(
+                    id,
+                    (Path) EasyMock.getCurrentArguments()[0],
+                    IResource.Type.FOLDER,
+                    IFolder.class));
+    EasyMock.replay(referencePoint);
+
+    referencePointIDs.put(referencePoint, id);
+
+    return referencePoint;
+  }
+
+  private <T extends IResource> T getResource(
+      String referencePointID, Path path, IResource.Type type, Class<T> resourceClass) {
+
+    String key = referencePointID + ":" + type + ":" + path;
+
+    return resourceClass.cast(
+        resources.computeIfAbsent(
+            key,
+            k -> {
+              T resource = EasyMock.createNiceMock(resourceClass);
+
+              EasyMock.expect(resource.getReferencePoint())
+                  .andStubReturn(getReferencePoint(referencePointID));
+              EasyMock.expect(resource.getReferencePointRelativePath()).andStubReturn(path);
+              EasyMock.expect(resource.getName())
+                  .andStubReturn(path.getFileName() != null ? path.getFileName().toString() : "");
+              EasyMock.expect(resource.getType()).andStubReturn(type);
+              EasyMock.expect(resource.exists()).andStubReturn(true);
+              EasyMock.replay(resource);
+
+              return resource;
+            }));
+  }
+
+  private ISarosSession createSession() {
+    ISarosSession session = EasyMock.createNiceMock(ISarosSession.class);
+
+    EasyMock.expect(session.getID()).andStubReturn("replay");
+    EasyMock.expect(session.getLocalUser()).andStubAnswer(() -> getUser(localJID));
+    EasyMock.expect(session.getHost()).andStubAnswer(() -> getUser(hostJID));
+    EasyMock.expect(session.isHost()).andStubReturn(isHost());
+    EasyMock.expect(session.getUsers()).andStubAnswer(this::getUsers);
+    EasyMock.expect(session.getRemoteUsers()).andStubAnswer(this::getRemoteUsers);
+    EasyMock.expect(session.getUser(EasyMock.anyObject(JID.class)))
+        .andStubAnswer(() -> getUser((JID) EasyMock.getCurrentArguments()[0]));
+    EasyMock.expect(session.getReferencePoint(EasyMock.anyObject(String.class)))
+        .andStubAnswer(() -> getReferencePoint((String) EasyMock.getCurrentArguments()[0]));
+    EasyMock.expect(session.getReferencePointId(EasyMock.anyObject(IReferencePoint.class)))
+        .andStubAnswer(() -> referencePointIDs.get(EasyMock.getCurrentArguments()[0]));
+    EasyMock.expect(session.userHasReferencePoint(EasyMock.anyObject(), EasyMock.anyObject()))
+        .andStubReturn(true);
+    EasyMock.expect(session.getConcurrentDocumentClient()).andStubAnswer(() -> documentClient);
+
+    session.addListener(EasyMock.anyObject());
+    EasyMock.expectLastCall()
+        .andStubAnswer(
+            () -> {
+              sessionListeners.add((ISessionListener) EasyMock.getCurrentArguments()[0]);
+              return null;
+            });
+
+    session.removeListener(EasyMock.anyObject());
+    EasyMock.expectLastCall()
+        .andStubAnswer(
+            () -> {
+              sessionListeners.remove(EasyMock.getCurrentArguments()[0]);
+              return null;
+            });
+
+    EasyMock.replay(session);
+
+    return session;
+  }
+}
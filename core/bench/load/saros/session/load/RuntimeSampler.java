@@ -0,0 +1,165 @@
+package saros.session.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import saros.util.NamedThreadFactory;
+
+/**
+ * Periodically samples the throughput of a run and the memory usage of the process, so that long
+ * runs reveal a degrading throughput or a growing heap.
+ *
+ * <p>The heap usage is sampled without triggering a garbage collection, i.e. it includes garbage. A
+ * growing minimum over the samples is therefore a better indicator for a leak than the peak.
+ */
+final class RuntimeSampler {
+
+  /** A single sample. */
+  static final class Sample {
+    /** The seconds since the sampler was started */
+    final double elapsedSeconds;
+
+    /** The locally created activities per second since the previous sample */
+    final double throughput;
+
+    /** The used heap in bytes */
+    final long heapUsed;
+
+    /** The number of garbage collections since the sampler was started */
+    final long gcCount;
+
+    /** The milliseconds spent in garbage collections since the sampler was started */
+    final long gcMillis;
+
+    private Sample(
+        double elapsedSeconds, double throughput, long heapUsed, long gcCount, long gcMillis) {
+
+      this.elapsedSeconds = elapsedSeconds;
+      this.throughput = throughput;
+      this.heapUsed = heapUsed;
+      this.gcCount = gcCount;
+      this.gcMillis = gcMillis;
+    }
+  }
+
+  private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+  private final List<GarbageCollectorMXBean> collectors =
+      ManagementFactory.getGarbageCollectorMXBeans();
+
+  private final LongSupplier localActivities;
+  private final int interval;
+
+  private final List<Sample> samples = new ArrayList<>();
+
+  private ScheduledExecutorService executor;
+
+  private long startNanos;
+  private long startGcCount;
+  private long startGcMillis;
+
+  private long lastNanos;
+  private long lastActivities;
+
+  /**
+   * Creates a sampler.
+   *
+   * @param localActivities supplies the number of locally created activities of all participants
+   * @param interval the seconds between two samples
+   */
+  RuntimeSampler(LongSupplier localActivities, int interval) {
+    this.localActivities = localActivities;
+    this.interval = interval;
+  }
+
+  /** Starts sampling. */
+  synchronized void start() {
+    startNanos = lastNanos = System.nanoTime();
+    startGcCount = getGcCount();
+    startGcMillis = getGcMillis();
+    lastActivities = localActivities.getAsLong();
+
+    executor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("load-sampler"));
+
+    executor.scheduleAtFixedRate(this::sample, interval, interval, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Stops sampling and takes a final sample, unless the previous sample was taken less than half an
+   * interval ago.
+   */
+  void stop() {
+    ScheduledExecutorService currentExecutor;
+
+    synchronized (this) {
+      currentExecutor = executor;
+      executor = null;
+    }
+
+    if (currentExecutor == null) return;
+
+    currentExecutor.shutdownNow();
+
+    try {
+      currentExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    synchronized (this) {
+      if (samples.isEmpty()
+          || System.nanoTime() - lastNanos >= TimeUnit.SECONDS.toNanos(interval) / 2) sample();
+    }
+  }
+
+  /**
+   * Returns the samples taken so far.
+   *
+   * @return a snapshot of the samples
+   */
+  synchronized List<Sample> getSamples() {
+    return new ArrayList<>(samples);
+  }
+
+  private synchronized void sample() {
+    long now = System.nanoTime();
+    long activities = localActivities.getAsLong();
+
+    double throughput =
+        now > lastNanos ? (activities - lastActivities) / ((now - lastNanos) / 1e9) : 0;
+
+    samples.add(
+        new Sample(
+            (now - startNanos) / 1e9,
+            throughput,
+            memory.getHeapMemoryUsage().getUsed(),
+            getGcCount() - startGcCount,
+            getGcMillis() - startGcMillis));
+
+    lastNanos = now;
+    lastActivities = activities;
+  }
+
+  private long getGcCount() {
+    long count = 0;
+
+    for (GarbageCollectorMXBean collector : collectors)
+      count += Math.max(0, collector.getCollectionCount());
+
+    return count;
+  }
+
+  private long getGcMillis() {
+    long millis = 0;
+
+    for (GarbageCollectorMXBean collector : collectors)
+      millis += Math.max(0, collector.getCollectionTime());
+
+    return millis;
+  }
+}
@@ -0,0 +1,99 @@
+package saros.session.load;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import saros.synchronize.UISynchronizer;
+
+/**
+ * Executes all tasks of a deterministic {@link LoadGenerator} run in the calling thread.
+ *
+ * <p>The tasks are queued in named channels, e.g. the connection from one participant to another or
+ * the UI thread of a participant. The tasks of a channel are executed in the order they were
+ * scheduled, like the packets of a connection are received in the order they were sent. The next
+ * channel is chosen by a random generator with the seed of the run, so the interleaving of the
+ * participants, and with it the transformations of concurrent operations, only depends on the seed.
+ *
+ * <p><b>Note:</b> This class is not thread safe. Tasks must only be scheduled by tasks of the
+ * scheduler or before it is run.
+ */
+final class SeededScheduler {
+
+  private final Random random;
+
+  /** The channels in the order of their creation, so a seed always chooses the same channel */
+  private final Map<String, Deque<Runnable>> channels = new LinkedHashMap<>();
+
+  private long executedTasks;
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param seed the seed used to choose the next channel
+   */
+  SeededScheduler(long seed) {
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Schedules a task in the given channel.
+   *
+   * @param channel the name of the channel
+   * @param task the task to execute after all tasks scheduled before in the same channel
+   */
+  void schedule(String channel, Runnable task) {
+    channels.computeIfAbsent(channel, key -> new ArrayDeque<>()).add(task);
+  }
+
+  /** Executes tasks until all channels are empty. */
+  void run() {
+    List<Deque<Runnable>> pending = new ArrayList<>();
+
+    while (true) {
+      pending.clear();
+
+      for (Deque<Runnable> tasks : channels.values()) if (!tasks.isEmpty()) pending.add(tasks);
+
+      if (pending.isEmpty()) return;
+
+      pending.get(random.nextInt(pending.size())).poll().run();
+
+      executedTasks++;
+    }
+  }
+
+  /** Returns the number of tasks executed so far. */
+  long getExecutedTasks() {
+    return executedTasks;
+  }
+
+  /**
+   * Returns a synchronizer that simulates a UI thread by the given channel. Synchronous tasks are
+   * executed immediately, as all tasks of the scheduler are executed by the same thread.
+   *
+   * @param channel the name of the channel of the UI thread
+   * @return the synchronizer
+   */
+  UISynchronizer createSynchronizer(String channel) {
+    return new UISynchronizer() {
+      @Override
+      public void asyncExec(Runnable runnable) {
+        schedule(channel, runnable);
+      }
+
+      @Override
+      public void syncExec(Runnable runnable) {
+        runnable.run();
+      }
+
+      @Override
+      public boolean isUIThread() {
+        return true;
+      }
+    };
+  }
+}
@@ -0,0 +1,215 @@
+package saros.session.load;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+import saros.activities.IActivity;
+import saros.session.internal.SessionRecorder;
+import saros.session.internal.SessionRecording;
+import saros.session.internal.SessionRecording.Record;
+
+/**
+ * Replays a {@linkplain SessionRecording session recording} offline into a fresh {@linkplain
+ * ReplayParticipant participant}.
+ *
+ * <p>The recorded local activities are passed to the participant as if they were created by the
+ * local user and the recorded received activities as if they were received from the other
+ * participants, either at their original pace or as fast as possible. Afterwards the activities the
+ * participant sent and executed are compared with the recorded ones. Recordings can be created by
+ * the {@link SessionRecorder} of a real session or by the {@link LoadGenerator}.
+ *
+ * <p>The replay reproduces the order in which the activities reached the session, e.g. the order in
+ * which the host received the activities of different clients. The interleaving of local activities
+ * and the execution of received activities in the UI thread is not reproduced, as it depends on the
+ * timing of the dispatch thread. Differences between the recorded and the replayed activities
+ * therefore either point to such races or to non-deterministic processing.
+ *
+ * <p>The arguments are given as <code>key=value</code> pairs:
+ *
+ * <ul>
+ *   <li><code>recording</code> - path of the recording to replay (required)
+ *   <li><code>speed</code> - factor applied to the original pace, <code>0</code> for as fast as
+ *       possible (default 1)
+ * </ul>
+ *
+ * <p>If the system property <code>saros.session.LATENCY_TRACKING</code> is set to <code>true
+ * </code>, the latencies per processing stage recorded during the replay are printed as well. The
+ * process exits with <code>1</code> if the replayed activities differ from the recorded ones.
+ */
+public final class SessionReplay {
+
+  private final String recording;
+
+  private final double speed;
+
+  private final List<IActivity> recordedSentActivities = new ArrayList<>();
+  private final List<IActivity> recordedExecutedActivities = new ArrayList<>();
+
+  private long localActivities;
+  private long receivedActivities;
+
+  private SessionReplay(String recording, double speed) {
+    this.recording = recording;
+    this.speed = speed;
+  }
+
+  public static void main(String[] args) throws IOException {
+    String recording = null;
+    double speed = 1;
+
+    try {
+      for (String arg : args) {
+        if (arg.startsWith("recording=")) recording = arg.substring("recording=".length());
+        else if (arg.startsWith("speed="))
+          speed = Double.parseDouble(arg.substring("speed=".length()));
+        else throw new IllegalArgumentException("unknown argument: " + arg);
+      }
+
+      if (recording == null) throw new IllegalArgumentException("recording=<file> is required");
+
+      if (speed < 0) throw new IllegalArgumentException("the speed must not be negative");
+
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.exit(2);
+      return;
+    }
+
+    System.exit(new SessionReplay(recording, speed).run() ? 0 : 1);
+  }
+
+  /**
+   * Replays the recording and prints the results.
+   *
+   * @return <code>true</code> if the replayed activities are equal to the recorded ones
+   */
+  private boolean run() throws IOException {
+    ReplayParticipant participant;
+
+    long duration;
+
+    try (SessionRecording.Reader reader =
+        new SessionRecording.Reader(new BufferedInputStream(new FileInputStream(recording)))) {
+
+      participant = new ReplayParticipant(reader.getLocalUser(), reader.getHost());
+      participant.start();
+
+      System.out.println(
+          "replaying session "
+              + reader.getSessionID()
+              + " recorded by "
+              + (participant.isHost() ? "the host " : "the client ")
+              + reader.getLocalUser());
+
+      long start = System.nanoTime();
+
+      try {
+        replay(reader, participant, start);
+        participant.awaitUIThread();
+      } finally {
+        duration = System.nanoTime() - start;
+        participant.stop();
+      }
+    }
+
+    System.out.printf(
+        Locale.ROOT,
+        "replayed %d local and %d received activities in %.1f ms%n",
+        localActivities,
+        receivedActivities,
+        duration / 1e6);
+
+    boolean sentEqual = compare("sent", recordedSentActivities, participant.getSentActivities());
+
+    boolean executedEqual =
+        compare("executed", recordedExecutedActivities, participant.getExecutedActivities());
+
+    if (participant.getLatencyTracker().isEnabled()) {
+      System.out.println();
+      participant
+          .getLatencyTracker()
+          .writeTo(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    }
+
+    return sentEqual && executedEqual;
+  }
+
+  private void replay(SessionRecording.Reader reader, ReplayParticipant participant, long start)
+      throws IOException {
+
+    Record record;
+
+    while ((record = reader.read()) != null) {
+      switch (record.getKind()) {
+        case LOCAL:
+          await(start, record.getTime());
+          localActivities += record.getActivities().size();
+          participant.created(record.getActivities());
+          break;
+
+        case RECEIVED:
+          await(start, record.getTime());
+          receivedActivities += record.getActivities().size();
+          participant.received(record.getActivities());
+          break;
+
+        case SENT:
+          participant.ensureUsers(record.getPeers());
+          recordedSentActivities.addAll(record.getActivities());
+          break;
+
+        case EXECUTED:
+          recordedExecutedActivities.addAll(record.getActivities());
+          break;
+      }
+    }
+  }
+
+  /** Waits until the time of a record is reached at the configured speed. */
+  private void await(long start, long time) {
+    if (speed == 0) return;
+
+    long delay = start + (long) (time / speed) - System.nanoTime();
+
+    if (delay > 0) LockSupport.parkNanos(delay);
+  }
+
+  /**
+   * Prints whether the replayed activities are equal to the recorded ones and the first difference.
+   *
+   * @return <code>true</code> if the activities are equal
+   */
+  private static boolean compare(
+      String stream, List<IActivity> recorded, List<IActivity> replayed) {
+    int size = Math.min(recorded.size(), replayed.size());
+
+    int index = 0;
+
+    while (index < size && recorded.get(index).equals(replayed.get(index))) index++;
+
+    if (index == recorded.size() && index == replayed.size()) {
+      System.out.println(stream + " activities: " + recorded.size() + ", identical");
+      return true;
+    }
+
+    System.out.println(
+        stream
+            + " activities: recorded "
+            + recorded.size()
+            + ", replayed "
+            + replayed.size()
+            + ", first difference at index "
+            + index);
+
+    System.out.println("  recorded: " + (index < recorded.size() ? recorded.get(index) : "-"));
+    System.out.println("  replayed: " + (index < replayed.size() ? replayed.get(index) : "-"));
+
+    return false;
+  }
+}
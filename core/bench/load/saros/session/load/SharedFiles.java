@@ -0,0 +1,197 @@
+package saros.session.load;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import org.easymock.EasyMock;
+import saros.filesystem.IFile;
+import saros.filesystem.IReferencePoint;
+import saros.filesystem.IResource;
+import saros.misc.xstream.ResourceTransportWrapperConverter;
+import saros.misc.xstream.UserConverter;
+import saros.session.ISarosSession;
+
+/**
+ * The files of the simulated shared reference point.
+ *
+ * <p>As the simulated participants run in the same process and activities are not serialized, all
+ * participants use the same file handles. The shared files and their initial content are created
+ * from the seed of the run. If the participants are attached to a host that is not simulated, they
+ * use the file handles of the reference point shared by the host instead.
+ *
+ * <p>To marshal activities referring to the shared files, e.g. to record them, the converters have
+ * to be {@linkplain #registerConverters() registered}. As the file handles are shared, one set of
+ * converters serves all participants.
+ */
+final class SharedFiles {
+
+  private static final int INITIAL_LINES = 200;
+
+  private static final String REFERENCE_POINT_ID = "0";
+
+  private final IReferencePoint referencePoint;
+
+  /** Whether the file handles are simulated or belong to a reference point of a real host */
+  private final boolean simulated;
+
+  private final Map<String, IFile> files = new ConcurrentHashMap<>();
+  private final Map<IFile, String> paths = new ConcurrentHashMap<>();
+
+  private final List<IFile> sharedFiles = new ArrayList<>();
+  private final List<String> initialContents = new ArrayList<>();
+
+  private final UserConverter userConverter;
+  private final ResourceTransportWrapperConverter resourceConverter;
+
+  /**
+   * Creates the shared files.
+   *
+   * @param count the number of shared files
+   * @param seed the seed for the initial content of the files
+   */
+  SharedFiles(int count, long seed) {
+    this(createContents(count, seed));
+  }
+
+  /**
+   * Creates the shared files with the given content.
+   *
+   * @param initialContents the initial content of the shared files, keyed by their reference point
+   *     relative path
+   */
+  SharedFiles(Map<String, String> initialContents) {
+    this(createReferencePoint(), true, initialContents);
+  }
+
+  /**
+   * Creates the shared files of the given reference point, e.g. one shared by a real host.
+   *
+   * @param referencePoint the shared reference point
+   * @param initialContents the current content of the shared files, keyed by their reference point
+   *     relative path
+   */
+  SharedFiles(IReferencePoint referencePoint, Map<String, String> initialContents) {
+    this(referencePoint, false, initialContents);
+  }
+
+  private SharedFiles(
+      IReferencePoint referencePoint, boolean simulated, Map<String, String> initialContents) {
+
+    this.referencePoint = referencePoint;
+    this.simulated = simulated;
+
+    ISarosSession session = EasyMock.createNiceMock(ISarosSession.class);
+    EasyMock.expect(session.getReferencePointId(referencePoint)).andStubReturn(REFERENCE_POINT_ID);
+    EasyMock.expect(session.getReferencePoint(REFERENCE_POINT_ID)).andStubReturn(referencePoint);
+    EasyMock.replay(session);
+
+    userConverter = new UserConverter(session);
+    resourceConverter = new ResourceTransportWrapperConverter(session);
+
+    for (Map.Entry<String, String> entry : initialContents.entrySet()) {
+      sharedFiles.add(getFile(entry.getKey()));
+      this.initialContents.add(entry.getValue());
+    }
+  }
+
+  /**
+   * Returns the handle for the file with the given path, creating it if necessary.
+   *
+   * @param path the reference point relative path of the file
+   * @return the file handle
+   */
+  IFile getFile(String path) {
+    return files.computeIfAbsent(path, this::createFile);
+  }
+
+  /**
+   * Returns the path of the given file.
+   *
+   * @param file the file handle
+   * @return the reference point relative path of the file
+   */
+  String getPath(IFile file) {
+    return paths.get(file);
+  }
+
+  /** Registers the converters needed to marshal activities referring to the shared files. */
+  void registerConverters() {
+    userConverter.start();
+    resourceConverter.start();
+  }
+
+  /** Unregisters the converters registered by {@link #registerConverters()}. */
+  void unregisterConverters() {
+    resourceConverter.stop();
+    userConverter.stop();
+  }
+
+  int getSharedFileCount() {
+    return sharedFiles.size();
+  }
+
+  IFile getSharedFile(int index) {
+    return sharedFiles.get(index);
+  }
+
+  String getInitialContent(int index) {
+    return initialContents.get(index);
+  }
+
+  private IFile createFile(String path) {
+    IFile file = simulated ? createSimulatedFile(path) : referencePoint.getFile(Paths.get(path));
+
+    paths.put(file, path);
+
+    return file;
+  }
+
+  private IFile createSimulatedFile(String path) {
+    IFile file = EasyMock.createNiceMock(IFile.class);
+
+    EasyMock.expect(file.getReferencePoint()).andStubReturn(referencePoint);
+    EasyMock.expect(file.getReferencePointRelativePath()).andStubReturn(Paths.get(path));
+    EasyMock.expect(file.getName()).andStubReturn(Paths.get(path).getFileName().toString());
+    EasyMock.expect(file.getType()).andStubReturn(IResource.Type.FILE);
+    EasyMock.expect(file.exists()).andStubReturn(true);
+    EasyMock.replay(file);
+
+    return file;
+  }
+
+  private static IReferencePoint createReferencePoint() {
+    IReferencePoint referencePoint = EasyMock.createNiceMock(IReferencePoint.class);
+    EasyMock.expect(referencePoint.getName()).andStubReturn("load");
+    EasyMock.replay(referencePoint);
+
+    return referencePoint;
+  }
+
+  private static Map<String, String> createContents(int count, long seed) {
+    Random random = new Random(seed);
+
+    Map<String, String> contents = new LinkedHashMap<>();
+
+    for (int i = 0; i < count; i++) contents.put("src/File" + i + ".java", createContent(random));
+
+    return contents;
+  }
+
+  private static String createContent(Random random) {
+    StringBuilder content = new StringBuilder();
+
+    for (int i = 0; i < INITIAL_LINES; i++) {
+      int length = random.nextInt(80);
+
+      for (int j = 0; j < length; j++) content.append((char) ('a' + random.nextInt(26)));
+
+      content.append('\n');
+    }
+
+    return content.toString();
+  }
+}
@@ -0,0 +1,130 @@
+package saros.session.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import saros.filesystem.IReferencePoint;
+import saros.net.xmpp.JID;
+import saros.test.fakes.net.FakeConnectionFactory.FakeConnectionFactoryResult;
+
+/**
+ * Simulated clients attached to a host that is not simulated by the load generator, e.g. a Saros
+ * server running in the same process.
+ *
+ * <p>The clients join the session of the host without a session or resource negotiation. The host
+ * has to add them to its session itself once they were {@linkplain #start() started}. They edit the
+ * files of the reference point shared by the host, so they have to use the same transport and file
+ * handles as the host. Their workloads are run with {@link LoadGenerator#run(LoadConfiguration,
+ * SimulatedClients)}, which compares their documents with the content of the host afterwards.
+ */
+public final class SimulatedClients {
+
+  private final List<SimulatedParticipant> participants = new ArrayList<>();
+
+  private final SharedFiles sharedFiles;
+
+  private final LatencyProbes probes = new LatencyProbes();
+
+  private final Supplier<Map<String, String>> hostContents;
+
+  private boolean used;
+
+  /**
+   * Creates the clients.
+   *
+   * @param sessionID the ID of the session of the host
+   * @param host the JID of the host
+   * @param clients the JIDs of the clients
+   * @param connections the in-process connections of the clients to the host and to each other
+   * @param referencePoint the reference point shared by the host
+   * @param initialContents the current content of the files the clients edit, keyed by their
+   *     reference point relative path
+   * @param hostContents returns the current content of all files of the reference point on the
+   *     host, keyed by their reference point relative path
+   */
+  public SimulatedClients(
+      String sessionID,
+      JID host,
+      List<JID> clients,
+      FakeConnectionFactoryResult connections,
+      IReferencePoint referencePoint,
+      Map<String, String> initialContents,
+      Supplier<Map<String, String>> hostContents) {
+
+    if (clients.isEmpty()) throw new IllegalArgumentException("at least one client is required");
+
+    if (initialContents.isEmpty())
+      throw new IllegalArgumentException("at least one file is required");
+
+    this.sharedFiles = new SharedFiles(referencePoint, new LinkedHashMap<>(initialContents));
+    this.hostContents = hostContents;
+
+    List<JID> jids = new ArrayList<>();
+
+    jids.add(host);
+    jids.addAll(clients);
+
+    for (int i = 1; i < jids.size(); i++) {
+      JID jid = jids.get(i);
+
+      participants.add(
+          new SimulatedParticipant(
+              i,
+              jids,
+              sessionID,
+              connections.getTransmitter(jid),
+              connections.getReceiver(jid),
+              sharedFiles,
+              probes,
+              null,
+              null));
+    }
+  }
+
+  /** Starts the clients, afterwards the host can add them to its session. */
+  public void start() {
+    participants.forEach(SimulatedParticipant::start);
+  }
+
+  /** Stops the clients. */
+  public void stop() {
+    participants.forEach(SimulatedParticipant::stop);
+  }
+
+  /** Returns the number of clients. */
+  public int getClientCount() {
+    return participants.size();
+  }
+
+  /** Returns the number of files the clients edit. */
+  public int getFileCount() {
+    return sharedFiles.getSharedFileCount();
+  }
+
+  List<SimulatedParticipant> getParticipants() {
+    return Collections.unmodifiableList(participants);
+  }
+
+  LatencyProbes getProbes() {
+    return probes;
+  }
+
+  Map<String, String> getHostContents() {
+    return hostContents.get();
+  }
+
+  /**
+   * Marks the clients as used by a run. The probes and counters of the clients are not reset, so
+   * they can only be used by one run.
+   *
+   * @throws IllegalStateException if the clients were already used
+   */
+  void use() {
+    if (used) throw new IllegalStateException("the clients were already used by a run");
+
+    used = true;
+  }
+}
@@ -0,0 +1,643 @@
+package saros.session.load;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.log4j.Logger;
+import org.easymock.EasyMock;
+import saros.activities.FileActivity;
+import saros.activities.IActivity;
+import saros.activities.NOPActivity;
+import saros.activities.TextEditActivity;
+import saros.activities.TextSelectionActivity;
+import saros.activities.ViewportActivity;
+import saros.concurrent.management.ConcurrentDocumentClient;
+import saros.concurrent.management.ConcurrentDocumentServer;
+import saros.editor.text.LineIndex;
+import saros.editor.text.TextPosition;
+import saros.editor.text.TextSelection;
+import saros.filesystem.IFile;
+import saros.monitoring.metrics.MetricsRegistry;
+import saros.net.DispatchThreadContext;
+import saros.net.IReceiver;
+import saros.net.ITransmitter;
+import saros.net.xmpp.JID;
+import saros.session.IActivityConsumer;
+import saros.session.IActivityConsumer.Priority;
+import saros.session.IActivityHandlerCallback;
+import saros.session.ISarosSession;
+import saros.session.ISessionListener;
+import saros.session.User;
+import saros.session.internal.ActivityHandler;
+import saros.session.internal.ActivityLatencyTracker;
+import saros.session.internal.ActivityQueuer;
+import saros.session.internal.ActivitySequencer;
+import saros.session.internal.SessionRecorder;
+import saros.session.load.Workload.Operation;
+import saros.synchronize.UISynchronizer;
+import saros.test.fakes.synchonize.NonUISynchronizer;
+
+/**
+ * A simulated session participant. It consists of the components of a Saros session that process
+ * activities, i.e. the {@link ActivitySequencer}, {@link ActivityQueuer}, {@link ActivityHandler}
+ * and the {@link ConcurrentDocumentClient} as well as the {@link ConcurrentDocumentServer} for the
+ * host. The session itself is simulated, it only provides the users and wires the components the
+ * same way the {@link saros.session.internal.SarosSession SarosSession} does. The open editors are
+ * simulated by plain documents that are edited in a faked UI thread.
+ *
+ * <p>In a deterministic run, the activities are not sent by the sequencer but delivered by a {@link
+ * SeededScheduler}, which also simulates the UI thread. The activity handler then dispatches the
+ * received activities without its own thread, so all components are executed by the thread of the
+ * scheduler.
+ *
+ * <p>As activities are not serialized by the in-process transport, the target of received probes is
+ * mapped to the local user instance, like the user converter does when deserializing an activity.
+ *
+ * <p>Clients can also be attached to a host that is not simulated, e.g. a Saros server running in
+ * the same process. They then join the session of that host and send their probes only to the other
+ * clients, as the host does not execute them.
+ */
+final class SimulatedParticipant {
+
+  private static final Logger log = Logger.getLogger(SimulatedParticipant.class);
+
+  private static final String SESSION_ID = "load";
+
+  /** A simulated editor document. */
+  private static final class Document {
+    private final StringBuilder content;
+    private final LineIndex lineIndex;
+
+    private int cursor;
+
+    private Document(String content) {
+      this.content = new StringBuilder(content);
+      this.lineIndex = new LineIndex(content, "\n");
+    }
+
+    private void replace(int offset, int replacedLength, String newText) {
+      content.replace(offset, offset + replacedLength, newText);
+      lineIndex.update(offset, replacedLength, newText);
+    }
+  }
+
+  private final int index;
+
+  private final String sessionID;
+
+  /** Whether the host is simulated as well, i.e. whether it executes probes */
+  private final boolean simulatedHost;
+
+  private final User localUser;
+  private final User hostUser;
+
+  private final Map<JID, User> users = new LinkedHashMap<>();
+
+  private final SharedFiles sharedFiles;
+  private final LatencyProbes probes;
+
+  private final Map<IFile, Document> documents = new HashMap<>();
+
+  private final List<ISessionListener> sessionListeners = new CopyOnWriteArrayList<>();
+  private final List<IActivityConsumer> activityConsumers = new CopyOnWriteArrayList<>();
+
+  private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+  /** The scheduler of a deterministic run or <code>null</code> */
+  private final SeededScheduler scheduler;
+
+  /** The faked UI thread or <code>null</code> in a deterministic run */
+  private final NonUISynchronizer uiThread;
+
+  private final UISynchronizer synchronizer;
+
+  private final DispatchThreadContext dispatchThreadContext =
+      new DispatchThreadContext(metricsRegistry);
+
+  private final ActivityQueuer activityQueuer = new ActivityQueuer();
+
+  private final ISarosSession session;
+
+  private final ConcurrentDocumentServer documentServer;
+  private final ConcurrentDocumentClient documentClient;
+
+  private final ActivityHandler activityHandler;
+  private final ActivitySequencer activitySequencer;
+
+  private final ActivityLatencyTracker latencyTracker;
+
+  private final SessionRecorder recorder;
+
+  private final AtomicLong localActivities = new AtomicLong();
+  private final AtomicLong executedActivities = new AtomicLong();
+  private final AtomicLong inconsistentEdits = new AtomicLong();
+
+  private int createdFiles;
+  private IFile createdFile;
+
+  /** All participants of a deterministic run, in the order of their users */
+  private List<SimulatedParticipant> participants;
+
+  private final IActivityHandlerCallback callback =
+      new IActivityHandlerCallback() {
+
+        @Override
+        public void send(List<User> recipients, IActivity activity) {
+          send(recipients, activity, 0);
+        }
+
+        @Override
+        public void send(List<User> recipients, IActivity activity, long originTime) {
+          recorder.sent(recipients, activity);
+
+          if (scheduler != null) deliver(recipients, activity);
+          else activitySequencer.sendActivity(recipients, activity, originTime);
+        }
+
+        @Override
+        public void execute(IActivity activity) {
+          for (IActivityConsumer consumer : activityConsumers) consumer.exec(activity);
+
+          executeRemoteActivity(activity);
+        }
+      };
+
+  /**
+   * Creates a participant.
+   *
+   * @param index the index of the participant, the host has the index <code>0</code>
+   * @param participants the JIDs of all participants, starting with the host
+   * @param hostSessionID the ID of the session of a host that is not simulated, e.g. a Saros
+   *     server, or <code>null</code> if the host is one of the simulated participants
+   * @param transmitter the transmitter of the participant, unused in a deterministic run
+   * @param receiver the receiver of the participant, unused in a deterministic run
+   * @param sharedFiles the shared files
+   * @param probes the latency probes of the run
+   * @param recordingDirectory the directory the session recording is written to or <code>null
+   *     </code> to not record the session
+   * @param scheduler the scheduler of a deterministic run or <code>null</code> to process the
+   *     activities concurrently
+   */
+  SimulatedParticipant(
+      int index,
+      List<JID> participants,
+      String hostSessionID,
+      ITransmitter transmitter,
+      IReceiver receiver,
+      SharedFiles sharedFiles,
+      LatencyProbes probes,
+      String recordingDirectory,
+      SeededScheduler scheduler) {
+
+    this.index = index;
+    this.sessionID = hostSessionID != null ? hostSessionID : SESSION_ID;
+    this.simulatedHost = hostSessionID == null;
+    this.sharedFiles = sharedFiles;
+    this.probes = probes;
+    this.scheduler = scheduler;
+
+    if (scheduler != null) {
+      uiThread = null;
+      synchronizer = scheduler.createSynchronizer("ui-" + index);
+    } else {
+      uiThread = new NonUISynchronizer();
+      synchronizer = uiThread;
+    }
+
+    for (int i = 0; i < participants.size(); i++) {
+      User user = new User(participants.get(i), i == 0, i == index, null);
+      user.setInSession(true);
+
+      users.put(participants.get(i), user);
+    }
+
+    localUser = users.get(participants.get(index));
+    hostUser = users.get(participants.get(0));
+
+    for (int i = 0; i < sharedFiles.getSharedFileCount(); i++)
+      documents.put(sharedFiles.getSharedFile(i), new Document(sharedFiles.getInitialContent(i)));
+
+    session = createSession();
+
+    documentServer = isHost() ? new ConcurrentDocumentServer(session, metricsRegistry) : null;
+    documentClient = new ConcurrentDocumentClient(session, null);
+
+    latencyTracker = new ActivityLatencyTracker(session);
+
+    recorder = new SessionRecorder(session, recordingDirectory);
+
+    activityHandler =
+        new ActivityHandler(
+            session, callback, documentServer, documentClient, synchronizer, latencyTracker);
+
+    activitySequencer =
+        scheduler != null
+            ? null
+            : new ActivitySequencer(
+                session, transmitter, receiver, dispatchThreadContext, latencyTracker);
+  }
+
+  /**
+   * Connects the participant to the other participants of a deterministic run.
+   *
+   * @param participants all participants, starting with the host
+   */
+  void connect(List<SimulatedParticipant> participants) {
+    this.participants = participants;
+  }
+
+  /** Starts the components of the participant. */
+  void start() {
+    if (uiThread != null) uiThread.start();
+
+    if (documentServer != null) documentServer.start();
+
+    documentClient.start();
+    activityHandler.start();
+
+    if (activitySequencer != null) activitySequencer.start();
+
+    recorder.start();
+
+    for (User user : getRemoteUsers()) {
+      if (activitySequencer != null) activitySequencer.registerUser(user);
+
+      for (ISessionListener listener : sessionListeners) {
+        listener.userJoined(user);
+        listener.userStartedQueuing(user);
+      }
+    }
+  }
+
+  /** Stops the components of the participant. */
+  void stop() {
+    recorder.stop();
+
+    if (activitySequencer != null) activitySequencer.stop();
+
+    activityHandler.stop();
+    documentClient.stop();
+
+    if (documentServer != null) documentServer.stop();
+
+    if (uiThread != null) uiThread.stop();
+
+    dispatchThreadContext.dispose();
+  }
+
+  boolean isHost() {
+    return index == 0;
+  }
+
+  int getIndex() {
+    return index;
+  }
+
+  long getLocalActivities() {
+    return localActivities.get();
+  }
+
+  long getExecutedActivities() {
+    return executedActivities.get();
+  }
+
+  long getInconsistentEdits() {
+    return inconsistentEdits.get();
+  }
+
+  ActivityLatencyTracker getLatencyTracker() {
+    return latencyTracker;
+  }
+
+  /**
+   * Performs the given operation in the UI thread of the participant.
+   *
+   * @param operation the operation to perform
+   */
+  void perform(Operation operation) {
+    synchronizer.syncExec(() -> performInUIThread(operation));
+  }
+
+  /** Sends a latency probe to every other participant that is simulated. */
+  void sendProbes() {
+    synchronizer.syncExec(
+        () -> {
+          for (User user : getRemoteUsers()) {
+            if (user.isHost() && !simulatedHost) continue;
+
+            createdLocally(new NOPActivity(localUser, user, probes.send()));
+          }
+        });
+  }
+
+  /**
+   * Returns the current content of all documents of the participant.
+   *
+   * @return the document contents, keyed by the file path
+   */
+  Map<String, String> getContents() {
+    Map<String, String> contents = new TreeMap<>();
+
+    synchronizer.syncExec(
+        () -> {
+          for (Map.Entry<IFile, Document> entry : documents.entrySet())
+            contents.put(sharedFiles.getPath(entry.getKey()), entry.getValue().content.toString());
+        });
+
+    return contents;
+  }
+
+  private void performInUIThread(Operation operation) {
+    switch (operation.kind) {
+      case TYPE:
+      case DELETE:
+        edit(operation);
+        break;
+
+      case SELECT:
+        select(operation);
+        break;
+
+      case SCROLL:
+        scroll(operation);
+        break;
+
+      case CREATE_FILE:
+        createFile();
+        break;
+
+      case DELETE_FILE:
+        deleteFile();
+        break;
+    }
+  }
+
+  private void edit(Operation operation) {
+    IFile file = sharedFiles.getSharedFile(operation.file);
+    Document document = documents.get(file);
+
+    int length = document.content.length();
+
+    if (operation.position >= 0) document.cursor = (int) (operation.position * length);
+
+    int offset = Math.min(document.cursor, length);
+
+    String newText;
+    String replacedText;
+
+    if (operation.kind == Workload.Kind.TYPE) {
+      newText = operation.text;
+      replacedText = "";
+    } else {
+      offset = Math.max(0, offset - operation.length);
+      newText = "";
+      replacedText =
+          document.content.substring(offset, Math.min(length, offset + operation.length));
+    }
+
+    TextPosition start = document.lineIndex.getPosition(offset);
+
+    document.replace(offset, replacedText.length(), newText);
+    document.cursor = offset + newText.length();
+
+    createdLocally(
+        TextEditActivity.buildTextEditActivity(localUser, start, newText, replacedText, file));
+  }
+
+  private void select(Operation operation) {
+    IFile file = sharedFiles.getSharedFile(operation.file);
+    Document document = documents.get(file);
+
+    int length = document.content.length();
+    int start = (int) (operation.position * length);
+    int end = Math.min(length, start + operation.length);
+
+    TextSelection selection =
+        new TextSelection(
+            document.lineIndex.getPosition(start), document.lineIndex.getPosition(end));
+
+    createdLocally(new TextSelectionActivity(localUser, selection, file));
+  }
+
+  private void scroll(Operation operation) {
+    IFile file = sharedFiles.getSharedFile(operation.file);
+    Document document = documents.get(file);
+
+    int startLine = (int) (operation.position * document.lineIndex.getLineCount());
+
+    createdLocally(new ViewportActivity(localUser, startLine, operation.length, file));
+  }
+
+  private void createFile() {
+    IFile file = sharedFiles.getFile("participant" + index + "/Created" + createdFiles++ + ".java");
+
+    String content = "class Created" + createdFiles + " {}\n";
+
+    documents.put(file, new Document(content));
+    createdFile = file;
+
+    createdLocally(
+        new FileActivity(
+            localUser,
+            FileActivity.Type.CREATED,
+            FileActivity.Purpose.ACTIVITY,
+            file,
+            null,
+            content.getBytes(StandardCharsets.UTF_8),
+            StandardCharsets.UTF_8.name()));
+  }
+
+  private void deleteFile() {
+    if (createdFile == null) return;
+
+    documents.remove(createdFile);
+
+    createdLocally(
+        new FileActivity(
+            localUser,
+            FileActivity.Type.REMOVED,
+            FileActivity.Purpose.ACTIVITY,
+            createdFile,
+            null,
+            null,
+            null));
+
+    createdFile = null;
+  }
+
+  /** Passes a locally created activity to the session, see SarosSession#activityListener. */
+  private void createdLocally(IActivity activity) {
+    localActivities.incrementAndGet();
+
+    recorder.created(activity);
+
+    activityHandler.handleOutgoingActivities(Collections.singletonList(activity));
+  }
+
+  /** Executes a remote activity in the UI thread, like the editor and resource handlers do. */
+  private void executeRemoteActivity(IActivity activity) {
+    executedActivities.incrementAndGet();
+
+    if (activity instanceof TextEditActivity) {
+      TextEditActivity edit = (TextEditActivity) activity;
+      Document document = documents.get(edit.getResource());
+
+      if (document == null) {
+        log.warn("received text edit for unknown file: " + edit);
+        inconsistentEdits.incrementAndGet();
+        return;
+      }
+
+      int offset = document.lineIndex.getOffset(edit.getStartPosition());
+      int end = offset + edit.getReplacedText().length();
+
+      if (end > document.content.length()
+          || !document.content.substring(offset, end).equals(edit.getReplacedText()))
+        inconsistentEdits.incrementAndGet();
+
+      document.replace(
+          offset, Math.min(end, document.content.length()) - offset, edit.getNewText());
+
+    } else if (activity instanceof FileActivity) {
+      FileActivity fileActivity = (FileActivity) activity;
+
+      if (fileActivity.getType() == FileActivity.Type.CREATED)
+        documents.put(
+            fileActivity.getResource(),
+            new Document(new String(fileActivity.getContent(), StandardCharsets.UTF_8)));
+      else if (fileActivity.getType() == FileActivity.Type.REMOVED)
+        documents.remove(fileActivity.getResource());
+
+    } else if (activity instanceof NOPActivity) {
+      probes.receive(((NOPActivity) activity).getID());
+    }
+  }
+
+  /**
+   * Delivers the given sent activity to the recipients in a deterministic run. Every connection
+   * between two participants is a channel of the scheduler, so the activities sent to a participant
+   * are received in order.
+   */
+  private void deliver(List<User> recipients, IActivity activity) {
+    List<User> allUsers = getUsers();
+
+    for (User recipient : recipients) {
+      SimulatedParticipant peer = participants.get(allUsers.indexOf(recipient));
+
+      scheduler.schedule(
+          index + "->" + peer.index, () -> peer.exec(Collections.singletonList(activity)));
+    }
+  }
+
+  /** Called by the sequencer or the scheduler for received activities, see SarosSession#exec. */
+  private void exec(List<IActivity> activities) {
+    List<IActivity> valid = new ArrayList<>(activities.size());
+
+    for (IActivity activity : activities) {
+      if (!activity.isValid()) {
+        log.error("could not handle incoming activity: " + activity);
+        continue;
+      }
+
+      valid.add(resolveTarget(activity));
+    }
+
+    recorder.received(valid);
+
+    activityHandler.handleIncomingActivities(activityQueuer.process(valid));
+  }
+
+  private IActivity resolveTarget(IActivity activity) {
+    if (!(activity instanceof NOPActivity)) return activity;
+
+    NOPActivity probe = (NOPActivity) activity;
+    User target = probe.getTarget();
+
+    for (User user : users.values()) {
+      if (user.equals(target)) target = user;
+    }
+
+    return target == probe.getTarget()
+        ? probe
+        : new NOPActivity(probe.getSource(), target, probe.getID());
+  }
+
+  private List<User> getUsers() {
+    return new ArrayList<>(users.values());
+  }
+
+  private List<User> getRemoteUsers() {
+    List<User> remoteUsers = getUsers();
+    remoteUsers.remove(localUser);
+
+    return remoteUsers;
+  }
+
+  @SuppressWarnings("unchecked")
+  private ISarosSession createSession() {
+    ISarosSession session = EasyMock.createNiceMock(ISarosSession.class);
+
+    EasyMock.expect(session.getID()).andStubReturn(sessionID);
+    EasyMock.expect(session.getLocalUser()).andStubReturn(localUser);
+    EasyMock.expect(session.getHost()).andStubReturn(hostUser);
+    EasyMock.expect(session.isHost()).andStubReturn(isHost());
+    EasyMock.expect(session.getUsers()).andStubAnswer(this::getUsers);
+    EasyMock.expect(session.getRemoteUsers()).andStubAnswer(this::getRemoteUsers);
+    EasyMock.expect(session.getUser(EasyMock.anyObject(JID.class)))
+        .andStubAnswer(() -> users.get(EasyMock.getCurrentArguments()[0]));
+    EasyMock.expect(session.userHasReferencePoint(EasyMock.anyObject(), EasyMock.anyObject()))
+        .andStubReturn(true);
+    EasyMock.expect(session.getConcurrentDocumentClient()).andStubAnswer(() -> documentClient);
+
+    session.exec(EasyMock.anyObject());
+    EasyMock.expectLastCall()
+        .andStubAnswer(
+            () -> {
+              exec((List<IActivity>) EasyMock.getCurrentArguments()[0]);
+              return null;
+            });
+
+    session.addListener(EasyMock.anyObject());
+    EasyMock.expectLastCall()
+        .andStubAnswer(
+            () -> {
+              sessionListeners.add((ISessionListener) EasyMock.getCurrentArguments()[0]);
+              return null;
+            });
+
+    session.removeListener(EasyMock.anyObject());
+    EasyMock.expectLastCall()
+        .andStubAnswer(
+            () -> {
+              sessionListeners.remove(EasyMock.getCurrentArguments()[0]);
+              return null;
+            });
+
+    session.addActivityConsumer(EasyMock.anyObject(), EasyMock.anyObject(Priority.class));
+    EasyMock.expectLastCall()
+        .andStubAnswer(
+            () -> {
+              activityConsumers.add((IActivityConsumer) EasyMock.getCurrentArguments()[0]);
+              return null;
+            });
+
+    session.removeActivityConsumer(EasyMock.anyObject());
+    EasyMock.expectLastCall()
+        .andStubAnswer(
+            () -> {
+              activityConsumers.remove(EasyMock.getCurrentArguments()[0]);
+              return null;
+            });
+
+    EasyMock.replay(session);
+
+    return session;
+  }
+}
@@ -0,0 +1,129 @@
+package saros.session.load;
+
+import java.util.Random;
+
+/**
+ * Generates the operations of one simulated participant from a seed.
+ *
+ * <p>The generated operations only contain decisions (e.g. which file to edit, the relative
+ * position of the edit and the typed text), the concrete offsets are calculated by the participant
+ * from its current document content when the operation is performed. The sequence of operations of
+ * a participant is therefore identical in every run with the same seed, regardless of how the
+ * operations of the participants interleave.
+ */
+final class Workload {
+
+  /** The kinds of operations performed by a participant. */
+  enum Kind {
+    TYPE,
+    DELETE,
+    SELECT,
+    SCROLL,
+    CREATE_FILE,
+    DELETE_FILE
+  }
+
+  /** A single operation of a participant. */
+  static final class Operation {
+    final Kind kind;
+
+    /** The index of the shared file the operation applies to */
+    final int file;
+
+    /**
+     * The relative position in the file in the range [0, 1) or a negative value to continue at the
+     * current cursor position
+     */
+    final double position;
+
+    /** The typed text */
+    final String text;
+
+    /** The number of deleted or selected characters or the number of visible lines */
+    final int length;
+
+    private Operation(Kind kind, int file, double position, String text, int length) {
+      this.kind = kind;
+      this.file = file;
+      this.position = position;
+      this.text = text;
+      this.length = length;
+    }
+  }
+
+  private static final String[] WORDS = {
+    "int", "value", "return", "if", "(", ")", "{", "}", ";", "=", "+", "saros", "session", " ", " ",
+    " ", "\n"
+  };
+
+  /** Probability to move the cursor before typing or deleting */
+  private static final double CURSOR_JUMP_PROBABILITY = 0.05;
+
+  /** Probability that a typing operation deletes text */
+  private static final double DELETE_PROBABILITY = 0.15;
+
+  private final Random random;
+
+  private final int files;
+
+  private final int typingWeight;
+  private final int selectionWeight;
+  private final int scrollingWeight;
+  private final int totalWeight;
+
+  private boolean hasCreatedFile;
+
+  /**
+   * Creates the workload of one participant.
+   *
+   * @param configuration the configuration of the run
+   * @param participant the index of the participant
+   */
+  Workload(LoadConfiguration configuration, int participant) {
+    this.random = new Random(configuration.getSeed() * 31 + participant);
+    this.files = configuration.getFiles();
+
+    this.typingWeight = configuration.getTypingWeight();
+    this.selectionWeight = configuration.getSelectionWeight();
+    this.scrollingWeight = configuration.getScrollingWeight();
+
+    this.totalWeight =
+        typingWeight + selectionWeight + scrollingWeight + configuration.getFileOperationWeight();
+
+    if (totalWeight <= 0) throw new IllegalArgumentException("all operation weights are zero");
+  }
+
+  /**
+   * Generates the next operation.
+   *
+   * @return the next operation
+   */
+  Operation next() {
+    int choice = random.nextInt(totalWeight);
+
+    int file = random.nextInt(files);
+
+    if (choice < typingWeight) {
+      double position = random.nextDouble() < CURSOR_JUMP_PROBABILITY ? random.nextDouble() : -1;
+
+      if (random.nextDouble() < DELETE_PROBABILITY)
+        return new Operation(Kind.DELETE, file, position, null, 1 + random.nextInt(4));
+
+      return new Operation(Kind.TYPE, file, position, WORDS[random.nextInt(WORDS.length)], 0);
+    }
+
+    choice -= typingWeight;
+
+    if (choice < selectionWeight)
+      return new Operation(Kind.SELECT, file, random.nextDouble(), null, random.nextInt(40));
+
+    choice -= selectionWeight;
+
+    if (choice < scrollingWeight)
+      return new Operation(Kind.SCROLL, file, random.nextDouble(), null, 20 + random.nextInt(40));
+
+    hasCreatedFile = !hasCreatedFile;
+
+    return new Operation(hasCreatedFile ? Kind.CREATE_FILE : Kind.DELETE_FILE, -1, 0, null, 0);
+  }
+}
@@ -8,6 +8,8 @@ val log4j2ApiVersion = ext.get("log4j2ApiVersion") as String
 val log4j2CoreVersion = ext.get("log4j2CoreVersion") as String
 val log4j2BridgeVersion = ext.get("log4j2BridgeVersion") as String
 
+val jmhVersion = ext.get("jmhVersion") as String
+
 configurations {
     // Defined in root build.gradle
     val testConfig by getting {}
@@ -23,6 +25,8 @@ configurations {
     val plain by creating {
         extendsFrom(compile)
     }
+    // Used to reference the load generator, e.g. by the scenario mode of the server
+    val load by creating {}
 }
 
 sarosEclipse {
@@ -63,6 +67,34 @@ sourceSets {
     test {
         java.srcDirs("test/junit")
     }
+    /*
+     * JMH micro benchmarks, they may use the test fixtures (e.g. for correctness checks).
+     * Run them with "./gradlew :saros.core:jmh", optionally passing JMH arguments with
+     * -PjmhArgs="<regex> -p <param>=<value> ...".
+     */
+    create("jmh") {
+        java.srcDirs("bench/jmh")
+        compileClasspath += sourceSets["main"].output + sourceSets["test"].output +
+                configurations["testCompileClasspath"]
+        runtimeClasspath += output + compileClasspath + configurations["testRuntimeClasspath"]
+    }
+    /*
+     * Multi-client session load generator. Run it with "./gradlew :saros.core:sessionLoad",
+     * optionally passing its arguments with -PloadArgs="clients=<n> operations=<n> ...".
+     * Session recordings are replayed with "./gradlew :saros.core:sessionReplay
+     * -PreplayArgs="recording=<file> [speed=<factor>]"".
+     */
+    create("load") {
+        java.srcDirs("bench/load")
+        compileClasspath += sourceSets["main"].output + sourceSets["test"].output +
+                configurations["testCompileClasspath"]
+        runtimeClasspath += output + compileClasspath + configurations["testRuntimeClasspath"]
+    }
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
 }
 
 tasks {
@@ -72,6 +104,11 @@ tasks {
         from(sourceSets["test"].output)
     }
 
+    val loadJar by registering(Jar::class) {
+        classifier = "load"
+        from(sourceSets["load"].output)
+    }
+
     // Jar containing only the core code (the default jar is an osgi bundle
     // containing a lib dir with all dependency jars)
     val plainJar by registering(Jar::class) {
@@ -82,8 +119,52 @@ tasks {
         classifier = "plain"
     }
 
+    val jmh by registering(JavaExec::class) {
+        group = "Verification"
+        description = "Runs the JMH micro benchmarks of the core"
+
+        main = "org.openjdk.jmh.Main"
+        classpath = sourceSets["jmh"].runtimeClasspath
+
+        // report the allocation rate of every benchmark and keep machine readable results
+        val resultFile = file("build/reports/jmh/results.json")
+        doFirst { resultFile.parentFile.mkdirs() }
+        args("-prof", "gc", "-rf", "json", "-rff", resultFile.absolutePath)
+
+        val jmhArgs: String? by project
+        if (jmhArgs != null) args(jmhArgs!!.split(" ").filter { it.isNotBlank() })
+    }
+
+    val sessionLoad by registering(JavaExec::class) {
+        group = "Verification"
+        description = "Simulates a session with multiple clients and reports latency and consistency"
+
+        main = "saros.session.load.LoadGenerator"
+        classpath = sourceSets["load"].runtimeClasspath
+
+        val loadArgs: String? by project
+        if (loadArgs != null) args(loadArgs!!.split(" ").filter { it.isNotBlank() })
+    }
+
+    val sessionReplay by registering(JavaExec::class) {
+        group = "Verification"
+        description = "Replays a session recording and compares the results with the recorded ones"
+
+        main = "saros.session.load.SessionReplay"
+        classpath = sourceSets["load"].runtimeClasspath
+
+        val replayArgs: String? by project
+        if (replayArgs != null) args(replayArgs!!.split(" ").filter { it.isNotBlank() })
+    }
+
+    // only compile the benchmarks to make sure that they stay in sync with the code
+    named("check") {
+        dependsOn("jmhClasses", "loadClasses")
+    }
+
     artifacts {
         add("testing", testJar)
         add("plain", plainJar)
+        add("load", loadJar)
     }
 }
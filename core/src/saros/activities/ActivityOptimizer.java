@@ -5,7 +5,10 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import saros.editor.text.TextPosition;
 import saros.filesystem.IFile;
+import saros.util.LineSeparatorNormalizationUtil;
 
 /** Optimizer for activities. */
 public class ActivityOptimizer {
@@ -25,6 +28,17 @@ public class ActivityOptimizer {
    *         exec(activity)
    * </pre>
    *
+   * <p>Besides dropping selection and viewport activities that are superseded by later ones,
+   * consecutive {@link TextEditActivity text edits} of the same user in the same file are merged
+   * into a single text edit if they touch or overlap each other (see {@link
+   * #merge(TextEditActivity, TextEditActivity)}).
+   *
+   * <p><b>Note:</b> {@link JupiterActivity Jupiter activities} are never merged, as every one of
+   * them carries its own timestamp that is accounted for by the Jupiter algorithm on both sides.
+   * Text edits should therefore be optimized after they were transformed by Jupiter and before they
+   * are executed. Local text edits are merged before they are transformed by Jupiter (see {@link
+   * saros.session.internal.ActivityHandler}).
+   *
    * @param activities a collection containing the activities to optimize
    * @return a list which may contains a reduced amount of activities
    */
@@ -68,8 +82,160 @@ public class ActivityOptimizer {
 
     activityIdx = 0;
 
-    for (IActivity activity : activities) if (!dropActivityIdx[activityIdx++]) result.add(activity);
+    for (IActivity activity : activities) {
+      if (dropActivityIdx[activityIdx++]) continue;
+
+      /*
+       * selections in between text edits were dropped above if they are
+       * superseded, so consecutive edits are now located next to each other
+       */
+      int lastIdx = result.size() - 1;
+
+      if (activity instanceof TextEditActivity
+          && lastIdx >= 0
+          && result.get(lastIdx) instanceof TextEditActivity) {
+
+        TextEditActivity merged =
+            merge((TextEditActivity) result.get(lastIdx), (TextEditActivity) activity);
+
+        if (merged != null) {
+          if (merged.getNewText().isEmpty() && merged.getReplacedText().isEmpty())
+            result.remove(lastIdx);
+          else result.set(lastIdx, merged);
+
+          continue;
+        }
+      }
+
+      result.add(activity);
+    }
 
     return result;
   }
+
+  /**
+   * Merges the two given text edits into one text edit that has the same effect as applying the
+   * first and then the second text edit.
+   *
+   * <p>This is only possible if both edits were made by the same user in the same file and the
+   * region replaced by the second edit touches or overlaps the text inserted by the first edit.
+   * This covers typing, deleting backwards and forwards, correcting typos and pasting text in
+   * multiple chunks.
+   *
+   * @param first the text edit applied first
+   * @param second the text edit applied second
+   * @return the merged text edit or <code>null</code> if the text edits can not be merged
+   */
+  public static TextEditActivity merge(TextEditActivity first, TextEditActivity second) {
+    if (!Objects.equals(first.getSource(), second.getSource())
+        || !Objects.equals(first.getResource(), second.getResource())) return null;
+
+    TextPosition firstStart = first.getStartPosition();
+    TextPosition secondStart = second.getStartPosition();
+
+    String firstNew = first.getNewText();
+    String firstReplaced = first.getReplacedText();
+
+    String secondNew = second.getNewText();
+    String secondReplaced = second.getReplacedText();
+
+    TextPosition start;
+    String newText;
+    String replacedText;
+
+    if (secondStart.compareTo(firstStart) <= 0) {
+      /*
+       * the second edit starts in front of the first one, so the start of
+       * the first edit has to be located in the region replaced by the
+       * second edit
+       */
+      int index = indexOf(secondReplaced, secondStart, firstStart);
+
+      if (index == -1) return null;
+
+      // the part of the second replaced region that is located behind the first edit's start
+      String overlap = secondReplaced.substring(index);
+
+      int overlapLength = Math.min(overlap.length(), firstNew.length());
+
+      if (!overlap.regionMatches(0, firstNew, 0, overlapLength)) return null;
+
+      start = secondStart;
+
+      replacedText =
+          secondReplaced.substring(0, index) + firstReplaced + overlap.substring(overlapLength);
+
+      newText = secondNew + firstNew.substring(overlapLength);
+
+    } else {
+      /*
+       * the second edit starts behind the first one, so it has to start
+       * in (or directly behind) the text inserted by the first edit
+       */
+      // shortcut for the common case of continued typing
+      int index =
+          secondStart.equals(first.getNewEndPosition())
+              ? firstNew.length()
+              : indexOf(firstNew, firstStart, secondStart);
+
+      if (index == -1) return null;
+
+      int overlapLength = Math.min(secondReplaced.length(), firstNew.length() - index);
+
+      if (!secondReplaced.regionMatches(0, firstNew, index, overlapLength)) return null;
+
+      start = firstStart;
+
+      replacedText = firstReplaced + secondReplaced.substring(overlapLength);
+
+      newText =
+          firstNew.substring(0, index) + secondNew + firstNew.substring(index + overlapLength);
+    }
+
+    return TextEditActivity.buildTextEditActivity(
+        first.getSource(), start, newText, replacedText, first.getResource());
+  }
+
+  /**
+   * Returns the index at which the given position is located in the given text if the text starts
+   * at the given text start.
+   *
+   * @param text the text which only contains normalized line separators
+   * @param textStart the position of the first character of the text
+   * @param position the position to locate
+   * @return the index of the position in the text or <code>-1</code> if the position is not located
+   *     in the text or directly behind it
+   */
+  private static int indexOf(String text, TextPosition textStart, TextPosition position) {
+    int lineDelta = position.getLineNumber() - textStart.getLineNumber();
+
+    if (lineDelta < 0) return -1;
+
+    int lineStart = 0;
+    int inLineOffset = position.getInLineOffset();
+
+    if (lineDelta == 0) {
+      inLineOffset -= textStart.getInLineOffset();
+
+      if (inLineOffset < 0) return -1;
+
+    } else {
+      for (int i = 0; i < lineDelta; i++) {
+        int separator =
+            text.indexOf(LineSeparatorNormalizationUtil.NORMALIZED_LINE_SEPARATOR, lineStart);
+
+        if (separator == -1) return -1;
+
+        lineStart = separator + LineSeparatorNormalizationUtil.NORMALIZED_LINE_SEPARATOR.length();
+      }
+    }
+
+    int lineEnd = text.indexOf(LineSeparatorNormalizationUtil.NORMALIZED_LINE_SEPARATOR, lineStart);
+
+    if (lineEnd == -1) lineEnd = text.length();
+
+    int index = lineStart + inLineOffset;
+
+    return index > lineEnd ? -1 : index;
+  }
 }
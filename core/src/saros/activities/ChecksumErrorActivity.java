@@ -3,9 +3,11 @@ package saros.activities;
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
 import com.thoughtworks.xstream.annotations.XStreamImplicit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import saros.concurrent.watchdog.BlockChecksums;
 import saros.filesystem.IFile;
 import saros.session.User;
 
@@ -15,6 +17,10 @@ import saros.session.User;
  *
  * <p>The host will reply with a ChecksumError of the same recoveryID after having sent the last
  * FileActivity (with {@link FileActivity#isRecovery()} being set related to this checksum recovery.
+ *
+ * <p>If the user provides the {@link BlockChecksums} of its local version of all files, the host
+ * may repair the files by sending {@link RecoveryTextEditActivity RecoveryTextEditActivities} for
+ * the divergent regions instead of the complete file contents.
  */
 @XStreamAlias("checksumErrorActivity")
 public class ChecksumErrorActivity extends AbstractActivity implements ITargetedActivity {
@@ -25,10 +31,38 @@ public class ChecksumErrorActivity extends AbstractActivity implements ITargeted
 
   @XStreamImplicit protected List<ResourceTransportWrapper<IFile>> files;
 
+  @XStreamAlias("blocks")
+  protected List<BlockChecksums> blockChecksums;
+
   public ChecksumErrorActivity(User source, User target, List<IFile> files, String recoveryID) {
+    this(source, target, files, null, recoveryID);
+  }
+
+  /**
+   * Creates a new ChecksumErrorActivity.
+   *
+   * @param source the user who requests the recovery
+   * @param target the user to perform the recovery (the host)
+   * @param files the files to recover
+   * @param blockChecksums the block checksums of the local content of the files in the same order
+   *     as the files or <code>null</code> to request a recovery of the complete file contents
+   * @param recoveryID the ID of the recovery
+   */
+  public ChecksumErrorActivity(
+      User source,
+      User target,
+      List<IFile> files,
+      List<BlockChecksums> blockChecksums,
+      String recoveryID) {
 
     super(source);
 
+    if (blockChecksums != null
+        && (files == null
+            || files.size() != blockChecksums.size()
+            || blockChecksums.contains(null)))
+      throw new IllegalArgumentException("block checksums are needed for every file");
+
     if (target == null) throw new IllegalArgumentException("target must not be null");
 
     this.target = target;
@@ -36,6 +70,7 @@ public class ChecksumErrorActivity extends AbstractActivity implements ITargeted
         files == null
             ? null
             : files.stream().map(ResourceTransportWrapper::new).collect(Collectors.toList());
+    this.blockChecksums = blockChecksums == null ? null : new ArrayList<>(blockChecksums);
     this.recoveryID = recoveryID;
   }
 
@@ -50,6 +85,17 @@ public class ChecksumErrorActivity extends AbstractActivity implements ITargeted
         : files.stream().map(ResourceTransportWrapper::getResource).collect(Collectors.toList());
   }
 
+  /**
+   * Returns the block checksums of the user's local version of the files in the same order as
+   * returned by {@link #getFiles()}.
+   *
+   * @return the block checksums or <code>null</code> if the user requested a recovery of the
+   *     complete file contents
+   */
+  public List<BlockChecksums> getBlockChecksums() {
+    return blockChecksums == null ? null : new ArrayList<>(blockChecksums);
+  }
+
   /** Each ChecksumError has a unique ID, which should be used to identify a recovery session */
   public String getRecoveryID() {
     return recoveryID;
@@ -65,6 +111,7 @@ public class ChecksumErrorActivity extends AbstractActivity implements ITargeted
     final int prime = 31;
     int result = super.hashCode();
     result = prime * result + Objects.hashCode(files);
+    result = prime * result + Objects.hashCode(blockChecksums);
     result = prime * result + Objects.hashCode(recoveryID);
     result = prime * result + Objects.hashCode(target);
     return result;
@@ -80,6 +127,7 @@ public class ChecksumErrorActivity extends AbstractActivity implements ITargeted
 
     if (!Objects.equals(this.recoveryID, other.recoveryID)) return false;
     if (!Objects.equals(this.files, other.files)) return false;
+    if (!Objects.equals(this.blockChecksums, other.blockChecksums)) return false;
     if (!Objects.equals(this.target, other.target)) return false;
 
     return true;
@@ -93,6 +141,8 @@ public class ChecksumErrorActivity extends AbstractActivity implements ITargeted
         + target
         + ", files: "
         + getFiles()
+        + ", blocks: "
+        + blockChecksums
         + ", recoveryID: "
         + recoveryID
         + ")";
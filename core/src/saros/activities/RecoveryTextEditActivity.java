@@ -0,0 +1,203 @@
+package saros.activities;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
+import com.thoughtworks.xstream.annotations.XStreamConverter;
+import java.util.Objects;
+import saros.editor.text.TextPosition;
+import saros.editor.text.TextPositionUtils;
+import saros.filesystem.IFile;
+import saros.misc.xstream.UrlEncodingStringConverter;
+import saros.session.User;
+import saros.util.LineSeparatorNormalizationUtil;
+
+/**
+ * A RecoveryTextEditActivity is sent by the host to a single user to repair an inconsistent
+ * document by replacing only the divergent region of the document instead of sending the complete
+ * file content.
+ *
+ * <p>As the host does not know the user's content of the divergent region, the activity only
+ * describes the region by its offset and length. It is converted into a {@link TextEditActivity} on
+ * the receiving side using the local content (see {@link #toTextEdit(String)}). To ensure that the
+ * region description is still valid, the activity also contains the length and hash of the content
+ * it is based on as well as the length and hash the content is expected to have after the repair.
+ *
+ * <p>The offset and the texts refer to the normalized content, i.e. only use the {@link
+ * LineSeparatorNormalizationUtil#NORMALIZED_LINE_SEPARATOR}.
+ */
+@XStreamAlias("recoveryTextEditActivity")
+public class RecoveryTextEditActivity extends AbstractResourceActivity<IFile>
+    implements ITargetedActivity {
+
+  @XStreamAsAttribute private final User target;
+
+  @XStreamAsAttribute private final String recoveryID;
+
+  @XStreamAsAttribute private final int offset;
+
+  @XStreamAsAttribute private final int replacedLength;
+
+  @XStreamConverter(UrlEncodingStringConverter.class)
+  private final String newText;
+
+  @XStreamAsAttribute private final int baseLength;
+
+  @XStreamAsAttribute private final int baseHash;
+
+  @XStreamAsAttribute private final int resultLength;
+
+  @XStreamAsAttribute private final int resultHash;
+
+  /**
+   * Creates a new RecoveryTextEditActivity.
+   *
+   * @param source the user who created the activity (the host)
+   * @param target the user whose document is repaired
+   * @param file the file to repair
+   * @param recoveryID the ID of the recovery this repair belongs to
+   * @param offset the offset of the divergent region
+   * @param replacedLength the length of the divergent region in the target's content
+   * @param newText the content of the divergent region in the host's content
+   * @param baseLength the length of the target's content the region is based on
+   * @param baseHash the hash code of the target's content the region is based on
+   * @param resultLength the length of the content after the repair
+   * @param resultHash the hash code of the content after the repair
+   */
+  public RecoveryTextEditActivity(
+      User source,
+      User target,
+      IFile file,
+      String recoveryID,
+      int offset,
+      int replacedLength,
+      String newText,
+      int baseLength,
+      int baseHash,
+      int resultLength,
+      int resultHash) {
+
+    super(source, file);
+
+    if (target == null) throw new IllegalArgumentException("target must not be null");
+    if (file == null) throw new IllegalArgumentException("file must not be null");
+    if (newText == null) throw new IllegalArgumentException("newText must not be null");
+
+    if (offset < 0 || replacedLength < 0 || offset + replacedLength > baseLength)
+      throw new IllegalArgumentException("region is not located in the base content");
+
+    this.target = target;
+    this.recoveryID = recoveryID;
+    this.offset = offset;
+    this.replacedLength = replacedLength;
+    this.newText = newText;
+    this.baseLength = baseLength;
+    this.baseHash = baseHash;
+    this.resultLength = resultLength;
+    this.resultHash = resultHash;
+  }
+
+  @Override
+  public boolean isValid() {
+    return super.isValid() && (target != null) && (getResource() != null);
+  }
+
+  @Override
+  public User getTarget() {
+    return target;
+  }
+
+  /** Returns the ID of the recovery this repair belongs to. */
+  public String getRecoveryID() {
+    return recoveryID;
+  }
+
+  /**
+   * Returns whether the given content has the length and hash code the host expects the repaired
+   * document to have.
+   *
+   * @param content the normalized content to check, may be <code>null</code>
+   * @return <code>true</code> if the content matches the expected result of the repair
+   */
+  public boolean isResult(String content) {
+    return content != null && content.length() == resultLength && content.hashCode() == resultHash;
+  }
+
+  /**
+   * Converts this repair into a text edit that can be applied to the given content.
+   *
+   * @param content the current normalized content of the document, may be <code>null</code>
+   * @return the text edit replacing the divergent region or <code>null</code> if the given content
+   *     is not the content the repair is based on
+   */
+  public TextEditActivity toTextEdit(String content) {
+    if (content == null || content.length() != baseLength || content.hashCode() != baseHash)
+      return null;
+
+    TextPosition startPosition =
+        TextPositionUtils.calculatePosition(
+            content, offset, LineSeparatorNormalizationUtil.NORMALIZED_LINE_SEPARATOR);
+
+    String replacedText = content.substring(offset, offset + replacedLength);
+
+    return TextEditActivity.buildTextEditActivity(
+        getSource(), startPosition, newText, replacedText, getResource());
+  }
+
+  @Override
+  public void dispatch(IActivityReceiver receiver) {
+    receiver.receive(this);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        super.hashCode(),
+        target,
+        recoveryID,
+        offset,
+        replacedLength,
+        newText,
+        baseLength,
+        baseHash,
+        resultLength,
+        resultHash);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (!super.equals(obj)) return false;
+    if (!(obj instanceof RecoveryTextEditActivity)) return false;
+
+    RecoveryTextEditActivity other = (RecoveryTextEditActivity) obj;
+
+    return this.offset == other.offset
+        && this.replacedLength == other.replacedLength
+        && this.baseLength == other.baseLength
+        && this.baseHash == other.baseHash
+        && this.resultLength == other.resultLength
+        && this.resultHash == other.resultHash
+        && Objects.equals(this.target, other.target)
+        && Objects.equals(this.recoveryID, other.recoveryID)
+        && Objects.equals(this.newText, other.newText);
+  }
+
+  @Override
+  public String toString() {
+    return "RecoveryTextEditActivity(src: "
+        + getSource()
+        + ", target: "
+        + target
+        + ", file: "
+        + getResource()
+        + ", recoveryID: "
+        + recoveryID
+        + ", offset: "
+        + offset
+        + ", replaced length: "
+        + replacedLength
+        + ", new length: "
+        + newText.length()
+        + ")";
+  }
+}
@@ -2,7 +2,13 @@ package saros.activities;
 
 import com.thoughtworks.xstream.annotations.XStreamAlias;
 import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
+import com.thoughtworks.xstream.annotations.XStreamImplicit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import saros.filesystem.IResource;
 import saros.session.User;
 
 /**
@@ -14,6 +20,10 @@ import saros.session.User;
 /**
  * A StopActivity is used for signaling to a user that he should be stopped or started (meaning that
  * no more Activities should be generated by this user).
+ *
+ * <p>A StopActivity may be restricted to a scope of resources (reference points, folders or files).
+ * In this case the user only has to stop modifying the resources of the scope. A StopActivity
+ * without a scope affects the whole session.
  */
 @XStreamAlias("stopActivity")
 public class StopActivity extends AbstractActivity implements ITargetedActivity {
@@ -40,6 +50,9 @@ public class StopActivity extends AbstractActivity implements ITargetedActivity
   /** A stop activity has a unique ID. */
   @XStreamAsAttribute protected final String stopActivityID;
 
+  /** The resources affected by this activity or <code>null</code> for the whole session. */
+  @XStreamImplicit protected final List<ResourceTransportWrapper<IResource>> scope;
+
   /**
    * @param source
    * @param initiator The user who requested the lock/unlock (in most cases this should be the host)
@@ -51,6 +64,28 @@ public class StopActivity extends AbstractActivity implements ITargetedActivity
   public StopActivity(
       User source, User initiator, User affected, Type type, State state, String stopActivityID) {
 
+    this(source, initiator, affected, type, state, stopActivityID, null);
+  }
+
+  /**
+   * @param source
+   * @param initiator The user who requested the lock/unlock (in most cases this should be the host)
+   * @param affected The user to be locked/unlocked by this Activity
+   * @param type
+   * @param state
+   * @param stopActivityID
+   * @param scope the resources the lock/unlock is restricted to or <code>null</code> for the whole
+   *     session
+   */
+  public StopActivity(
+      User source,
+      User initiator,
+      User affected,
+      Type type,
+      State state,
+      String stopActivityID,
+      Collection<? extends IResource> scope) {
+
     super(source);
 
     if (initiator == null) throw new IllegalArgumentException("initiator must not be null");
@@ -61,6 +96,10 @@ public class StopActivity extends AbstractActivity implements ITargetedActivity
     this.state = state;
     this.type = type;
     this.stopActivityID = stopActivityID;
+    this.scope =
+        scope == null
+            ? null
+            : scope.stream().map(ResourceTransportWrapper::new).collect(Collectors.toList());
   }
 
   @Override
@@ -77,6 +116,7 @@ public class StopActivity extends AbstractActivity implements ITargetedActivity
     result = prime * result + Objects.hashCode(stopActivityID);
     result = prime * result + Objects.hashCode(type);
     result = prime * result + Objects.hashCode(affected);
+    result = prime * result + Objects.hashCode(scope);
     return result;
   }
 
@@ -93,6 +133,7 @@ public class StopActivity extends AbstractActivity implements ITargetedActivity
     if (!Objects.equals(this.stopActivityID, other.stopActivityID)) return false;
     if (!Objects.equals(this.initiator, other.initiator)) return false;
     if (!Objects.equals(this.affected, other.affected)) return false;
+    if (!Objects.equals(this.scope, other.scope)) return false;
 
     return true;
   }
@@ -102,6 +143,23 @@ public class StopActivity extends AbstractActivity implements ITargetedActivity
     return affected;
   }
 
+  /**
+   * Returns the resources the lock/unlock is restricted to.
+   *
+   * @return the affected resources or <code>null</code> if the whole session is affected
+   */
+  public List<IResource> getScope() {
+    if (scope == null) return null;
+
+    List<IResource> resources = new ArrayList<>(scope.size());
+
+    for (ResourceTransportWrapper<IResource> wrapper : scope) {
+      if (wrapper != null) resources.add(wrapper.getResource());
+    }
+
+    return resources;
+  }
+
   /**
    * The user who requested the lock/unlock.
    *
@@ -139,7 +197,8 @@ public class StopActivity extends AbstractActivity implements ITargetedActivity
   }
 
   public StopActivity generateAcknowledgment(User source) {
-    return new StopActivity(source, initiator, affected, type, State.ACKNOWLEDGED, stopActivityID);
+    return new StopActivity(
+        source, initiator, affected, type, State.ACKNOWLEDGED, stopActivityID, getScope());
   }
 
   public Type getType() {
@@ -162,6 +221,8 @@ public class StopActivity extends AbstractActivity implements ITargetedActivity
         + initiator
         + ", affected user: "
         + affected
+        + ", scope: "
+        + (scope == null ? "session" : scope)
         + ", src: "
         + getSource()
         + ")";
@@ -16,5 +16,12 @@ public @interface Component {
   /** Returns the name of the module this component belongs to. Default is "Misc" */
   String module() default DEFAULT_MODULE;
 
+  /**
+   * Returns whether the component may be created on first use instead of during the initialization
+   * of its context. Only components that neither listen to events nor implement a lifecycle
+   * interface should be lazy, as nothing may ever request them. Default is <code>false</code>.
+   */
+  boolean lazy() default false;
+
   public static final String DEFAULT_MODULE = "misc";
 }
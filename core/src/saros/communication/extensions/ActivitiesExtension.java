@@ -18,6 +18,7 @@ import saros.activities.JupiterActivity;
 import saros.activities.NOPActivity;
 import saros.activities.PermissionActivity;
 import saros.activities.ProgressActivity;
+import saros.activities.RecoveryTextEditActivity;
 import saros.activities.ResourceTransportWrapper;
 import saros.activities.StartFollowingActivity;
 import saros.activities.StopActivity;
@@ -31,6 +32,7 @@ import saros.concurrent.jupiter.internal.text.InsertOperation;
 import saros.concurrent.jupiter.internal.text.NoOperation;
 import saros.concurrent.jupiter.internal.text.SplitOperation;
 import saros.concurrent.jupiter.internal.text.TimestampOperation;
+import saros.concurrent.watchdog.BlockChecksums;
 import saros.net.xmpp.JID;
 import saros.session.User;
 
@@ -45,6 +47,20 @@ public class ActivitiesExtension extends SarosSessionPacketExtension {
   @XStreamAsAttribute
   private final int sequenceNumber;
 
+  /** Only present if the sender tracks the activity latency */
+  @XStreamAlias("sent")
+  @XStreamAsAttribute
+  private final Long sentTime;
+
+  /**
+   * The age in milliseconds of every activity at the time it was sent, separated by commas. Empty
+   * for activities whose origin time is unknown. Only present if the sender tracks the activity
+   * latency.
+   */
+  @XStreamAlias("ages")
+  @XStreamAsAttribute
+  private final String activityAges;
+
   /**
    * Creates an object that can be transformed into a {@linkplain PacketExtension} using the
    * provider of this extension. All object parameters <b>must not be <code>null</code></b>. @Note
@@ -59,6 +75,42 @@ public class ActivitiesExtension extends SarosSessionPacketExtension {
     super(sessionID);
     this.activities = activities;
     this.sequenceNumber = sequenceNumber;
+    this.sentTime = null;
+    this.activityAges = null;
+  }
+
+  /**
+   * Creates an object that additionally carries the timestamps needed to track the latency of the
+   * activities on the receiving side. All object parameters <b>must not be <code>null</code></b>.
+   *
+   * @param sessionID the session id the {@linkplain IActivity activities} belong to
+   * @param activities the {@linkplain IActivity activities} that should be included in this
+   *     extension
+   * @param sequenceNumber the sequence number of the <b>first</b> {@linkplain IActivity activity}
+   * @param sentTime the wall clock time in milliseconds at which the activities are sent
+   * @param originTimes the wall clock time in milliseconds at which every activity was originally
+   *     created or <code>0</code> if unknown
+   */
+  public ActivitiesExtension(
+      String sessionID,
+      List<IActivity> activities,
+      int sequenceNumber,
+      long sentTime,
+      long[] originTimes) {
+    super(sessionID);
+    this.activities = activities;
+    this.sequenceNumber = sequenceNumber;
+    this.sentTime = sentTime;
+
+    StringBuilder ages = new StringBuilder();
+
+    for (int i = 0; i < originTimes.length; i++) {
+      if (i > 0) ages.append(',');
+
+      if (originTimes[i] != 0) ages.append(Math.max(0, sentTime - originTimes[i]));
+    }
+
+    this.activityAges = ages.toString();
   }
 
   /**
@@ -83,6 +135,40 @@ public class ActivitiesExtension extends SarosSessionPacketExtension {
     return sequenceNumber;
   }
 
+  /**
+   * Returns the wall clock time at which the activities were sent.
+   *
+   * @return the time in milliseconds or <code>-1</code> if the sender does not track the latency
+   */
+  public long getSentTime() {
+    return sentTime == null ? -1 : sentTime;
+  }
+
+  /**
+   * Returns the wall clock time at which every activity returned from {@link #getActivities()} was
+   * originally created.
+   *
+   * @return the times in milliseconds, <code>0</code> for unknown times, or <code>null</code> if
+   *     the sender does not track the latency
+   */
+  public long[] getOriginTimes() {
+    if (sentTime == null || activityAges == null) return null;
+
+    long[] originTimes = new long[activities.size()];
+
+    String[] ages = activityAges.split(",", -1);
+
+    try {
+      for (int i = 0; i < originTimes.length && i < ages.length; i++) {
+        if (!ages[i].isEmpty()) originTimes[i] = sentTime - Long.parseLong(ages[i]);
+      }
+    } catch (NumberFormatException e) {
+      return null;
+    }
+
+    return originTimes;
+  }
+
   /**
    * @JTourBusStop 4, Creating a new Activity type, XStream registration:
    *
@@ -120,6 +206,9 @@ public class ActivitiesExtension extends SarosSessionPacketExtension {
           // Resource transport wrapper
           ResourceTransportWrapper.class,
 
+          // Consistency watchdog classes
+          BlockChecksums.class,
+
           // Activities
           ChangeColorActivity.class,
           ChecksumActivity.class,
@@ -133,6 +222,7 @@ public class ActivitiesExtension extends SarosSessionPacketExtension {
           NOPActivity.class,
           PermissionActivity.class,
           ProgressActivity.class,
+          RecoveryTextEditActivity.class,
           TargetedFileActivity.class,
           StartFollowingActivity.class,
           StopActivity.class,
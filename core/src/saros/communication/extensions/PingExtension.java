@@ -1,14 +1,41 @@
 package saros.communication.extensions;
 
 import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
 
+/**
+ * Probe sent to check whether a session participant is still reachable. It must be answered with a
+ * {@link PongExtension} that echoes the {@linkplain #getTimestamp() timestamp} of the ping.
+ */
 @XStreamAlias("PING")
 public class PingExtension extends SarosSessionPacketExtension {
 
   public static final Provider PROVIDER = new Provider();
 
+  @XStreamAlias("ts")
+  @XStreamAsAttribute
+  private final long timestamp;
+
   public PingExtension(String sessionID) {
+    this(sessionID, 0);
+  }
+
+  /**
+   * @param sessionID the id of the current session
+   * @param timestamp the local time in milliseconds at which the ping is sent
+   */
+  public PingExtension(String sessionID, long timestamp) {
     super(sessionID);
+    this.timestamp = timestamp;
+  }
+
+  /**
+   * Returns the time at which the ping was sent, measured by the clock of the sender.
+   *
+   * @return the timestamp or <code>0</code> if the sender did not provide one
+   */
+  public long getTimestamp() {
+    return timestamp;
   }
 
   public static class Provider extends SarosSessionPacketExtension.Provider<PingExtension> {
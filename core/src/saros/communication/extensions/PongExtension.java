@@ -1,14 +1,42 @@
 package saros.communication.extensions;
 
 import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
 
+/**
+ * Answer to a {@link PingExtension}. Echoes the timestamp of the ping so that its sender can
+ * calculate the round-trip time.
+ */
 @XStreamAlias("PONG")
 public class PongExtension extends SarosSessionPacketExtension {
 
   public static final Provider PROVIDER = new Provider();
 
+  @XStreamAlias("ts")
+  @XStreamAsAttribute
+  private final long pingTimestamp;
+
   public PongExtension(String sessionID) {
+    this(sessionID, 0);
+  }
+
+  /**
+   * @param sessionID the id of the current session
+   * @param pingTimestamp the {@linkplain PingExtension#getTimestamp() timestamp} of the answered
+   *     ping
+   */
+  public PongExtension(String sessionID, long pingTimestamp) {
     super(sessionID);
+    this.pingTimestamp = pingTimestamp;
+  }
+
+  /**
+   * Returns the timestamp of the answered ping.
+   *
+   * @return the timestamp or <code>0</code> if it is not available
+   */
+  public long getPingTimestamp() {
+    return pingTimestamp;
   }
 
   public static class Provider extends SarosSessionPacketExtension.Provider<PongExtension> {
@@ -244,9 +244,8 @@ public class Jupiter implements Algorithm {
         transformedOp = this.inclusion.transform(newOp, existingOp, Boolean.FALSE);
         existingOp = this.inclusion.transform(existingOp, newOp, Boolean.TRUE);
       }
-      this.ackJupiterActivityList.set(
-          ackJupiterActivityListCnt,
-          new OperationWrapper(existingOp, wrap.getLocalOperationCount()));
+      // the wrappers are private to this algorithm, so they are updated in place
+      wrap.setOperation(existingOp);
 
       newOp = transformedOp;
     }
@@ -283,16 +282,16 @@ public class Jupiter implements Algorithm {
   /**
    * This is a simple helper class used in the implementation of the Jupiter algorithm. A
    * OperationWrapper instance is created with an operation and the current local operation count
-   * and inserted into the outgoing queue (see {@link Jupiter#ackJupiterActivityList}).
+   * and inserted into the outgoing queue (see {@link Jupiter#ackJupiterActivityList}). The
+   * operation is replaced by its transformed counterpart whenever a remote operation is received,
+   * so a wrapper is allocated once per local operation instead of once per transformation.
    *
-   * @valueObject Instances of this class should be treated as value objects and should be treated
-   *     as immutable.
    * @see Jupiter#generateJupiterActivity(Operation, User, IFile)
    * @see Jupiter#receiveJupiterActivity(JupiterActivity)
    */
   protected static class OperationWrapper {
 
-    protected final Operation op;
+    protected Operation op;
 
     protected final int count;
 
@@ -305,6 +304,10 @@ public class Jupiter implements Algorithm {
       return this.op;
     }
 
+    void setOperation(Operation op) {
+      this.op = op;
+    }
+
     int getLocalOperationCount() {
       return this.count;
     }
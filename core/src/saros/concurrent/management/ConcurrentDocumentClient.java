@@ -6,9 +6,11 @@ import org.apache.log4j.Logger;
 import saros.activities.ChecksumActivity;
 import saros.activities.IActivity;
 import saros.activities.JupiterActivity;
+import saros.activities.RecoveryTextEditActivity;
 import saros.activities.TextEditActivity;
 import saros.concurrent.jupiter.Operation;
 import saros.concurrent.jupiter.TransformationException;
+import saros.editor.IEditorManager;
 import saros.filesystem.IFile;
 import saros.repackaged.picocontainer.Startable;
 import saros.session.ISarosSession;
@@ -29,12 +31,15 @@ public class ConcurrentDocumentClient implements Startable {
 
   private final ISarosSession sarosSession;
 
+  private final IEditorManager editorManager;
+
   private final JupiterClient jupiterClient;
 
   private final ResourceActivityFilter resourceActivityFilter;
 
-  public ConcurrentDocumentClient(ISarosSession sarosSession) {
+  public ConcurrentDocumentClient(ISarosSession sarosSession, IEditorManager editorManager) {
     this.sarosSession = sarosSession;
+    this.editorManager = editorManager;
     this.jupiterClient = new JupiterClient(sarosSession);
 
     this.resourceActivityFilter = new ResourceActivityFilter(sarosSession, this::reset);
@@ -122,6 +127,10 @@ public class ConcurrentDocumentClient implements Startable {
 
       } else if (activity instanceof ChecksumActivity) {
         activities.add(receiveChecksum((ChecksumActivity) activity));
+
+      } else if (activity instanceof RecoveryTextEditActivity) {
+        activities.addAll(receiveRecoveryTextEdit((RecoveryTextEditActivity) activity));
+
       } else {
         activities.add(activity);
       }
@@ -177,6 +186,35 @@ public class ConcurrentDocumentClient implements Startable {
     return activities;
   }
 
+  /**
+   * Transforms the RecoveryTextEditActivity into a TextEditActivity for the local content of the
+   * file. The activity itself is passed on as well, so that the consistency watchdog can verify the
+   * result of the repair.
+   *
+   * <p>The JupiterClient of the file is always reset as the host already reset its JupiterServer
+   * for the local user when sending the activity.
+   *
+   * @client
+   */
+  private List<IActivity> receiveRecoveryTextEdit(RecoveryTextEditActivity recoveryTextEdit) {
+
+    List<IActivity> activities = new ArrayList<IActivity>();
+
+    IFile file = recoveryTextEdit.getResource();
+
+    reset(file);
+
+    TextEditActivity textEdit =
+        recoveryTextEdit.toTextEdit(editorManager.getNormalizedContent(file));
+
+    if (textEdit != null) activities.add(textEdit);
+    else log.warn("Local content does not match the base of the recovery: " + recoveryTextEdit);
+
+    activities.add(recoveryTextEdit);
+
+    return activities;
+  }
+
   /**
    * Resets the JupiterClient for the given file.
    *
@@ -12,6 +12,7 @@ import saros.activities.JupiterActivity;
 import saros.activities.QueueItem;
 import saros.concurrent.jupiter.TransformationException;
 import saros.filesystem.IFile;
+import saros.monitoring.metrics.MetricsRegistry;
 import saros.repackaged.picocontainer.Startable;
 import saros.session.ISarosSession;
 import saros.session.ISessionListener;
@@ -51,9 +52,10 @@ public class ConcurrentDocumentServer implements Startable {
         }
       };
 
-  public ConcurrentDocumentServer(final ISarosSession sarosSession) {
+  public ConcurrentDocumentServer(
+      final ISarosSession sarosSession, final MetricsRegistry metricsRegistry) {
     this.sarosSession = sarosSession;
-    this.server = new JupiterServer(sarosSession);
+    this.server = new JupiterServer(sarosSession, metricsRegistry);
 
     Consumer<IFile> deletedFileHandler =
         file -> {
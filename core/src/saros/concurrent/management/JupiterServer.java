@@ -9,6 +9,8 @@ import saros.activities.JupiterActivity;
 import saros.concurrent.jupiter.TransformationException;
 import saros.concurrent.jupiter.internal.JupiterDocumentServer;
 import saros.filesystem.IFile;
+import saros.monitoring.metrics.Counter;
+import saros.monitoring.metrics.MetricsRegistry;
 import saros.session.ISarosSession;
 import saros.session.User;
 
@@ -30,8 +32,15 @@ public class JupiterServer {
 
   private final ISarosSession sarosSession;
 
-  public JupiterServer(final ISarosSession sarosSession) {
+  private final Counter transformations;
+
+  private final Counter checksumTransformations;
+
+  public JupiterServer(final ISarosSession sarosSession, final MetricsRegistry metricsRegistry) {
     this.sarosSession = sarosSession;
+    this.transformations = metricsRegistry.counter("session.jupiter.transformations");
+    this.checksumTransformations =
+        metricsRegistry.counter("session.jupiter.checksum_transformations");
   }
 
   public synchronized void removeFile(final IFile file) {
@@ -94,6 +103,8 @@ public class JupiterServer {
 
     final JupiterDocumentServer docServer = getServer(activity.getResource());
 
+    transformations.increment();
+
     return docServer.transformJupiterActivity(activity);
   }
 
@@ -102,6 +113,8 @@ public class JupiterServer {
 
     final JupiterDocumentServer docServer = getServer(activity.getResource());
 
+    checksumTransformations.increment();
+
     return docServer.withTimestamp(activity);
   }
 }
@@ -0,0 +1,210 @@
+package saros.concurrent.watchdog;
+
+import com.thoughtworks.xstream.annotations.XStreamAlias;
+import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
+import java.util.Arrays;
+
+/**
+ * Checksums of fixed-size blocks of a document's normalized content. They are used to locate the
+ * region in which two versions of a document differ without having to transfer the content of one
+ * of them.
+ *
+ * <p>The blocks are aligned twice: once starting at the beginning of the content ({@link
+ * #getForwardHashes() forward blocks}) and once starting at the end of the content ({@link
+ * #getBackwardHashes() backward blocks}). The forward blocks are used to determine the common
+ * prefix of two contents, the backward blocks to determine the common suffix. Everything in between
+ * is considered to be divergent. This is precise enough for the usual inconsistency which is caused
+ * by a single lost or wrongly transformed text edit, and still correct (but less efficient) for
+ * contents that diverge in multiple places.
+ *
+ * <p>The block size is chosen depending on the content length so that at most {@link #MAX_BLOCKS}
+ * checksums are created per alignment.
+ */
+@XStreamAlias("blockChecksums")
+public class BlockChecksums {
+
+  /** The minimal size of a block. */
+  static final int MIN_BLOCK_SIZE = 256;
+
+  /** The maximal number of blocks per alignment. */
+  static final int MAX_BLOCKS = 1024;
+
+  @XStreamAsAttribute private final int blockSize;
+
+  @XStreamAsAttribute private final int length;
+
+  @XStreamAsAttribute private final int hash;
+
+  private final int[] forward;
+
+  private final int[] backward;
+
+  private BlockChecksums(int blockSize, int length, int hash, int[] forward, int[] backward) {
+    this.blockSize = blockSize;
+    this.length = length;
+    this.hash = hash;
+    this.forward = forward;
+    this.backward = backward;
+  }
+
+  /**
+   * Calculates the block checksums for the given content.
+   *
+   * @param content the normalized document content
+   * @return the block checksums of the content
+   */
+  public static BlockChecksums create(String content) {
+    int length = content.length();
+    int blockSize = Math.max(MIN_BLOCK_SIZE, (length + MAX_BLOCKS - 1) / MAX_BLOCKS);
+    int blocks = (length + blockSize - 1) / blockSize;
+
+    int[] forward = new int[blocks];
+    int[] backward = new int[blocks];
+
+    for (int i = 0; i < blocks; i++) {
+      forward[i] =
+          content.substring(i * blockSize, Math.min(length, (i + 1) * blockSize)).hashCode();
+
+      backward[i] =
+          content
+              .substring(Math.max(0, length - (i + 1) * blockSize), length - i * blockSize)
+              .hashCode();
+    }
+
+    return new BlockChecksums(blockSize, length, content.hashCode(), forward, backward);
+  }
+
+  /**
+   * Returns the length of the content the checksums were calculated for.
+   *
+   * @return the content length
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Returns the {@link String#hashCode() hash code} of the content the checksums were calculated
+   * for.
+   *
+   * @return the content hash
+   */
+  public int getHash() {
+    return hash;
+  }
+
+  /**
+   * Returns the size of the blocks.
+   *
+   * @return the block size
+   */
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * Returns the hashes of the blocks aligned at the beginning of the content. The last block may be
+   * shorter than the block size.
+   *
+   * @return the forward block hashes
+   */
+  public int[] getForwardHashes() {
+    return forward.clone();
+  }
+
+  /**
+   * Returns the hashes of the blocks aligned at the end of the content, starting with the last
+   * block. The first block of the content may be shorter than the block size.
+   *
+   * @return the backward block hashes
+   */
+  public int[] getBackwardHashes() {
+    return backward.clone();
+  }
+
+  /**
+   * Determines the length of the prefix the given content has in common with the content these
+   * checksums were calculated for. The result is a multiple of the block size unless the whole
+   * content matches.
+   *
+   * @param content the content to compare
+   * @return the length of the common prefix
+   */
+  public int getCommonPrefixLength(String content) {
+    int prefix = 0;
+
+    for (int i = 0; i < forward.length; i++) {
+      int blockLength = Math.min(blockSize, length - prefix);
+      int end = prefix + blockLength;
+
+      if (end > content.length() || content.substring(prefix, end).hashCode() != forward[i]) break;
+
+      prefix = end;
+    }
+
+    return prefix;
+  }
+
+  /**
+   * Determines the length of the suffix the given content has in common with the content these
+   * checksums were calculated for. The result is a multiple of the block size unless the whole
+   * content matches.
+   *
+   * @param content the content to compare
+   * @return the length of the common suffix
+   */
+  public int getCommonSuffixLength(String content) {
+    int suffix = 0;
+
+    for (int i = 0; i < backward.length; i++) {
+      int blockLength = Math.min(blockSize, length - suffix);
+      int start = content.length() - suffix - blockLength;
+
+      if (start < 0 || content.substring(start, start + blockLength).hashCode() != backward[i])
+        break;
+
+      suffix += blockLength;
+    }
+
+    return suffix;
+  }
+
+  @Override
+  public int hashCode() {
+    final int prime = 31;
+    int result = 1;
+    result = prime * result + blockSize;
+    result = prime * result + length;
+    result = prime * result + hash;
+    result = prime * result + Arrays.hashCode(forward);
+    result = prime * result + Arrays.hashCode(backward);
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (!(obj instanceof BlockChecksums)) return false;
+
+    BlockChecksums other = (BlockChecksums) obj;
+
+    return blockSize == other.blockSize
+        && length == other.length
+        && hash == other.hash
+        && Arrays.equals(forward, other.forward)
+        && Arrays.equals(backward, other.backward);
+  }
+
+  @Override
+  public String toString() {
+    return "BlockChecksums [length="
+        + length
+        + ", hash="
+        + hash
+        + ", blockSize="
+        + blockSize
+        + ", blocks="
+        + forward.length
+        + "]";
+  }
+}
@@ -0,0 +1,274 @@
+package saros.concurrent.watchdog;
+
+import java.util.ArrayList;
+import java.util.List;
+import saros.editor.text.TextPosition;
+import saros.util.LineSeparatorNormalizationUtil;
+
+/**
+ * A copy of a document's normalized content that is split into chunks of bounded size. Every chunk
+ * caches its own string hash and line separator count. This allows to
+ *
+ * <ul>
+ *   <li>apply text edits by only touching the affected chunks instead of copying the whole content
+ *       and
+ *   <li>calculate the hash of the whole content by combining the cached chunk hashes instead of
+ *       reading every character again.
+ * </ul>
+ *
+ * <p>The combined hash is equal to the {@link String#hashCode() string hash code} of the whole
+ * content, so checksums calculated on this representation can be compared with checksums calculated
+ * on the plain document content.
+ *
+ * <p>The content must only use {@link LineSeparatorNormalizationUtil#NORMALIZED_LINE_SEPARATOR
+ * normalized line separators}.
+ *
+ * <p><b>Note:</b> This class is not thread safe.
+ */
+public final class ChunkedDocumentContent {
+
+  /** The maximum number of characters stored in one chunk. */
+  static final int MAX_CHUNK_LENGTH = 4096;
+
+  /** Chunks smaller than this are merged with their successor when they are modified. */
+  private static final int MIN_CHUNK_LENGTH = MAX_CHUNK_LENGTH / 4;
+
+  /** The multiplier used by {@link String#hashCode()}. */
+  private static final int HASH_MULTIPLIER = 31;
+
+  private static final char LINE_SEPARATOR =
+      LineSeparatorNormalizationUtil.NORMALIZED_LINE_SEPARATOR.charAt(0);
+
+  private final List<Chunk> chunks = new ArrayList<>();
+
+  private int length;
+
+  /**
+   * Creates a new chunked copy of the given content.
+   *
+   * @param content the normalized document content
+   */
+  public ChunkedDocumentContent(String content) {
+    if (content == null) throw new IllegalArgumentException("content must not be null");
+
+    insertChunks(0, content);
+    length = content.length();
+  }
+
+  /**
+   * Returns the length of the content.
+   *
+   * @return the length of the content
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Returns the hash of the content. The returned value is equal to the value returned by {@link
+   * String#hashCode()} for the whole content.
+   *
+   * <p>The hash is combined from the cached chunk hashes, so the runtime of this method only
+   * depends on the number of chunks and not on the length of the content.
+   *
+   * @return the hash of the content
+   */
+  public int getHash() {
+    int hash = 0;
+
+    for (Chunk chunk : chunks) hash = hash * chunk.multiplier + chunk.hash;
+
+    return hash;
+  }
+
+  /**
+   * Returns the number of chunks the content is currently split into.
+   *
+   * @return the number of chunks
+   */
+  public int getChunkCount() {
+    return chunks.size();
+  }
+
+  /**
+   * Returns the content.
+   *
+   * @return the content
+   */
+  public String getContent() {
+    StringBuilder builder = new StringBuilder(length);
+
+    for (Chunk chunk : chunks) builder.append(chunk.text);
+
+    return builder.toString();
+  }
+
+  /**
+   * Calculates the offset of the given text position in the content.
+   *
+   * @param position the text position
+   * @return the offset of the position or <code>-1</code> if the content does not contain the
+   *     position
+   */
+  public int getOffset(TextPosition position) {
+    if (position == null || !position.isValid()) return -1;
+
+    int line = position.getLineNumber();
+    int lineStart = 0;
+
+    if (line > 0) {
+      int linesSeen = 0;
+      int chunkStart = 0;
+
+      lineStart = -1;
+
+      for (Chunk chunk : chunks) {
+        if (linesSeen + chunk.lineSeparators < line) {
+          linesSeen += chunk.lineSeparators;
+          chunkStart += chunk.text.length();
+          continue;
+        }
+
+        int index = -1;
+
+        while (linesSeen < line) {
+          index = chunk.text.indexOf(LINE_SEPARATOR, index + 1);
+          linesSeen++;
+        }
+
+        lineStart = chunkStart + index + 1;
+        break;
+      }
+
+      if (lineStart == -1) return -1;
+    }
+
+    int offset = lineStart + position.getInLineOffset();
+
+    return offset > length ? -1 : offset;
+  }
+
+  /**
+   * Applies the given text edit to the content.
+   *
+   * <p>The edit is only applied if the text located at the given position matches the given
+   * replaced text. Otherwise the content is left untouched and <code>false</code> is returned. This
+   * allows callers to detect that their copy is out of sync with the actual document.
+   *
+   * @param position the position at which the edit starts
+   * @param replacedText the text removed by the edit
+   * @param newText the text inserted by the edit
+   * @return <code>true</code> if the edit was applied, <code>false</code> if the edit does not
+   *     match the content
+   */
+  public boolean applyEdit(TextPosition position, String replacedText, String newText) {
+    int offset = getOffset(position);
+
+    if (offset == -1 || offset + replacedText.length() > length) return false;
+
+    int index = 0;
+    int chunkStart = 0;
+
+    // the first chunk containing the offset; insertions at the end use the last chunk
+    while (index < chunks.size() - 1 && chunkStart + chunks.get(index).text.length() <= offset) {
+      chunkStart += chunks.get(index).text.length();
+      index++;
+    }
+
+    int end = offset + replacedText.length();
+
+    StringBuilder affected = new StringBuilder();
+
+    int lastIndex = index;
+    int affectedEnd = chunkStart;
+
+    while (lastIndex < chunks.size()) {
+      String text = chunks.get(lastIndex).text;
+
+      affected.append(text);
+      affectedEnd += text.length();
+      lastIndex++;
+
+      if (affectedEnd >= end) break;
+    }
+
+    int localOffset = offset - chunkStart;
+
+    if (!affected
+        .substring(localOffset, localOffset + replacedText.length())
+        .equals(replacedText)) {
+      return false;
+    }
+
+    affected.replace(localOffset, localOffset + replacedText.length(), newText);
+
+    // avoid fragmentation by merging small chunks with their successor
+    if (affected.length() < MIN_CHUNK_LENGTH && lastIndex < chunks.size()) {
+      affected.append(chunks.get(lastIndex).text);
+      lastIndex++;
+    }
+
+    chunks.subList(index, lastIndex).clear();
+    insertChunks(index, affected);
+
+    length += newText.length() - replacedText.length();
+
+    return true;
+  }
+
+  /** Splits the given text into chunks of roughly equal size and inserts them at the index. */
+  private void insertChunks(int index, CharSequence text) {
+    int textLength = text.length();
+
+    if (textLength == 0) return;
+
+    int count = (textLength + MAX_CHUNK_LENGTH - 1) / MAX_CHUNK_LENGTH;
+    int chunkLength = (textLength + count - 1) / count;
+
+    List<Chunk> newChunks = new ArrayList<>(count);
+
+    for (int start = 0; start < textLength; start += chunkLength) {
+      newChunks.add(
+          new Chunk(text.subSequence(start, Math.min(start + chunkLength, textLength)).toString()));
+    }
+
+    chunks.addAll(index, newChunks);
+  }
+
+  /**
+   * Returns <code>31^exponent</code> using the integer overflow semantics of {@link
+   * String#hashCode()}.
+   */
+  static int power(int exponent) {
+    int result = 1;
+    int base = HASH_MULTIPLIER;
+
+    while (exponent > 0) {
+      if ((exponent & 1) == 1) result *= base;
+
+      base *= base;
+      exponent >>= 1;
+    }
+
+    return result;
+  }
+
+  private static final class Chunk {
+    private final String text;
+    private final int hash;
+    private final int multiplier;
+    private final int lineSeparators;
+
+    private Chunk(String text) {
+      this.text = text;
+      this.hash = text.hashCode();
+      this.multiplier = power(text.length());
+
+      int count = 0;
+
+      for (int i = 0; i < text.length(); i++) if (text.charAt(i) == LINE_SEPARATOR) count++;
+
+      this.lineSeparators = count;
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package saros.concurrent.watchdog;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
@@ -15,6 +16,7 @@ import org.apache.log4j.Logger;
 import saros.activities.ChecksumActivity;
 import saros.activities.ChecksumErrorActivity;
 import saros.activities.FileActivity;
+import saros.activities.RecoveryTextEditActivity;
 import saros.annotations.Component;
 import saros.editor.IEditorManager;
 import saros.filesystem.IFile;
@@ -37,7 +39,9 @@ import saros.util.CoreUtils;
  *       them. See {@link #performCheck(ChecksumActivity)} If an inconsistency is detected the
  *       inconsistency state is set via the {@link IsInconsistentObservable}.
  *   <li>Send a ChecksumError to the host, if the user wants to recover from an inconsistency. See
- *       {@link #runRecovery}
+ *       {@link #runRecovery}. The ChecksumError contains the {@link BlockChecksums} of the local
+ *       files so that the host only has to send repairs for the divergent regions. If a repair can
+ *       not be applied, the complete file content is requested.
  * </ol>
  *
  * This class both produces and consumes activities.
@@ -58,6 +62,13 @@ public class ConsistencyWatchdogClient extends AbstractActivityProducer implemen
   /** The number of files remaining in the current recovery session. */
   private AtomicInteger filesRemaining = new AtomicInteger();
 
+  /**
+   * The number of recovery requests of the current recovery session the host has not answered yet.
+   * Besides the initial request, a request for the complete content is sent for every file whose
+   * repair could not be applied. The host answers every request with a done marker.
+   */
+  private AtomicInteger requestsRemaining = new AtomicInteger();
+
   /** The id of the currently running recovery */
   private volatile String recoveryID;
 
@@ -99,7 +110,9 @@ public class ConsistencyWatchdogClient extends AbstractActivityProducer implemen
         public void receive(ChecksumErrorActivity error) {
           if (error.getSource().isHost()) {
             String myRecoveryID = recoveryID;
-            if (myRecoveryID != null && myRecoveryID.equals(error.getRecoveryID())) {
+            if (myRecoveryID != null
+                && myRecoveryID.equals(error.getRecoveryID())
+                && requestsRemaining.decrementAndGet() <= 0) {
               filesRemaining.set(0); // Host tell us he is done
             }
           }
@@ -109,15 +122,44 @@ public class ConsistencyWatchdogClient extends AbstractActivityProducer implemen
         public void receive(FileActivity fileActivity) {
           if (!fileActivity.isRecovery()) return;
 
-          int currentValue;
-          while ((currentValue = filesRemaining.get()) > 0) {
-            if (filesRemaining.compareAndSet(currentValue, currentValue - 1)) {
-              break;
-            }
+          fileRecovered();
+        }
+
+        @Override
+        public void receive(RecoveryTextEditActivity recoveryTextEdit) {
+          final IFile file = recoveryTextEdit.getResource();
+
+          if (recoveryTextEdit.isResult(editorManager.getNormalizedContent(file))) {
+            fileRecovered();
+            return;
           }
+
+          log.warn("Could not repair " + file + ", requesting complete file content");
+
+          final String myRecoveryID = recoveryID;
+
+          // the recovery is not done before the host answered this request as well
+          if (myRecoveryID != null && myRecoveryID.equals(recoveryTextEdit.getRecoveryID()))
+            requestsRemaining.incrementAndGet();
+
+          fireActivity(
+              new ChecksumErrorActivity(
+                  session.getLocalUser(),
+                  session.getHost(),
+                  Collections.singletonList(file),
+                  recoveryTextEdit.getRecoveryID()));
         }
       };
 
+  private void fileRecovered() {
+    int currentValue;
+    while ((currentValue = filesRemaining.get()) > 0) {
+      if (filesRemaining.compareAndSet(currentValue, currentValue - 1)) {
+        break;
+      }
+    }
+  }
+
   @Override
   public void start() {
     inconsistencyToResolve.setValue(false);
@@ -203,6 +245,7 @@ public class ConsistencyWatchdogClient extends AbstractActivityProducer implemen
       recoveryID = getNextRecoveryID();
 
       filesRemaining.set(handledFiles.size());
+      requestsRemaining.set(1);
 
       remoteProgress.beginTask(
           "Consistency recovery for user "
@@ -211,7 +254,11 @@ public class ConsistencyWatchdogClient extends AbstractActivityProducer implemen
 
       fireActivity(
           new ChecksumErrorActivity(
-              currentSession.getLocalUser(), currentSession.getHost(), handledFiles, recoveryID));
+              currentSession.getLocalUser(),
+              currentSession.getHost(),
+              handledFiles,
+              calculateBlockChecksums(handledFiles),
+              recoveryID));
 
       try {
         // block until all inconsistencies are resolved
@@ -247,6 +294,27 @@ public class ConsistencyWatchdogClient extends AbstractActivityProducer implemen
     }
   }
 
+  /**
+   * Calculates the block checksums of the local content of the given files.
+   *
+   * @return the block checksums of the files or <code>null</code> if the content of at least one
+   *     file is not available, in which case the complete file contents have to be recovered
+   */
+  private List<BlockChecksums> calculateBlockChecksums(final List<IFile> files) {
+    final List<BlockChecksums> blockChecksums = new ArrayList<>(files.size());
+
+    for (final IFile file : files) {
+      final String normalizedContent =
+          file.exists() ? editorManager.getNormalizedContent(file) : null;
+
+      if (normalizedContent == null) return null;
+
+      blockChecksums.add(BlockChecksums.create(normalizedContent));
+    }
+
+    return blockChecksums;
+  }
+
   private String getNextRecoveryID() {
     return Long.toHexString(RANDOM.nextLong());
   }
@@ -2,6 +2,8 @@ package saros.concurrent.watchdog;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CancellationException;
 import org.apache.log4j.Logger;
@@ -9,6 +11,7 @@ import saros.activities.ChecksumActivity;
 import saros.activities.ChecksumErrorActivity;
 import saros.activities.FileActivity.Purpose;
 import saros.activities.FileActivity.Type;
+import saros.activities.RecoveryTextEditActivity;
 import saros.activities.TargetedFileActivity;
 import saros.annotations.Component;
 import saros.concurrent.management.ConcurrentDocumentServer;
@@ -28,6 +31,13 @@ import saros.util.ThreadUtils;
 /**
  * This component is responsible for handling Consistency Errors on the host. It both produces and
  * consumes activities.
+ *
+ * <p>If the inconsistent user provides {@link BlockChecksums} for all of its files, only the
+ * divergent region of each file is sent as a {@link RecoveryTextEditActivity} and only the
+ * inconsistent user is stopped during the recovery. The user verifies the result of each repair and
+ * requests a recovery of the complete file content if the repair could not be applied, e.g. because
+ * the document was modified concurrently. Otherwise all users are stopped and the complete file
+ * contents are sent.
  */
 @Component(module = "consistency")
 public final class ConsistencyWatchdogHandler extends AbstractActivityProducer
@@ -102,9 +112,21 @@ public final class ConsistencyWatchdogHandler extends AbstractActivityProducer
 
     List<StartHandle> startHandles = null;
 
+    /*
+     * Repairing the divergent regions only modifies the documents of the
+     * inconsistent user, so there is no need to stop the other users.
+     */
+    final Collection<User> usersToStop =
+        checksumError.getBlockChecksums() != null
+            ? Collections.singletonList(checksumError.getSource())
+            : session.getUsers();
+
     try {
 
-      startHandles = session.getStopManager().stop(session.getUsers(), "Consistency recovery");
+      startHandles =
+          session
+              .getStopManager()
+              .stop(usersToStop, checksumError.getFiles(), "Consistency recovery");
 
       recoverFiles(checksumError);
 
@@ -142,27 +164,40 @@ public final class ConsistencyWatchdogHandler extends AbstractActivityProducer
           @Override
           public void run() {
 
-            for (final IFile file : checksumError.getFiles()) {
-
-              recoverFile(checksumError.getSource(), file);
+            final List<IFile> files = checksumError.getFiles();
+            final List<BlockChecksums> blockChecksums = checksumError.getBlockChecksums();
 
-              // Tell the user that we sent all files
-              fireActivity(
-                  new ChecksumErrorActivity(
-                      session.getLocalUser(),
-                      checksumError.getSource(),
-                      null,
-                      checksumError.getRecoveryID()));
+            for (int i = 0; i < files.size(); i++) {
+              recoverFile(
+                  checksumError.getSource(),
+                  files.get(i),
+                  blockChecksums != null ? blockChecksums.get(i) : null,
+                  checksumError.getRecoveryID());
             }
+
+            // Tell the user that we sent all files
+            fireActivity(
+                new ChecksumErrorActivity(
+                    session.getLocalUser(),
+                    checksumError.getSource(),
+                    null,
+                    checksumError.getRecoveryID()));
           }
         });
   }
 
   /**
-   * Recover a single file for the given user (that is either send the file or tell the user to
-   * remove it).
+   * Recover a single file for the given user (that is either send the file, send a repair for the
+   * divergent region of the file, or tell the user to remove it).
+   *
+   * @param blockChecksums the block checksums of the user's version of the file or <code>null
+   *     </code> to send the complete file
    */
-  private void recoverFile(final User from, final IFile file) {
+  private void recoverFile(
+      final User from,
+      final IFile file,
+      final BlockChecksums blockChecksums,
+      final String recoveryID) {
     // Reset jupiter
     concurrentDocumentServer.reset(from, file);
 
@@ -183,6 +218,11 @@ public final class ConsistencyWatchdogHandler extends AbstractActivityProducer
       return;
     }
 
+    if (blockChecksums != null) {
+      recoverFileRegion(from, file, blockChecksums, recoveryID);
+      return;
+    }
+
     String charset = null;
 
     try {
@@ -218,12 +258,75 @@ public final class ConsistencyWatchdogHandler extends AbstractActivityProducer
      * side can verify the recovered file.
      */
 
-    DocumentChecksum checksum = new DocumentChecksum(file);
-
     String normalizedText = editorManager.getNormalizedContent(file);
 
+    fireChecksum(file, normalizedText);
+  }
+
+  /**
+   * Sends a repair for the region in which the user's version of the file diverges from the local
+   * version. The region is determined by comparing the local content with the given block checksums
+   * of the user's content.
+   */
+  private void recoverFileRegion(
+      final User from,
+      final IFile file,
+      final BlockChecksums blockChecksums,
+      final String recoveryID) {
+
+    final String normalizedText = editorManager.getNormalizedContent(file);
+
+    if (normalizedText == null) {
+      log.error("could retrieve content of file: " + file);
+      return;
+    }
+
+    final int remoteLength = blockChecksums.getLength();
+    final int localLength = normalizedText.length();
+
+    final int prefix = blockChecksums.getCommonPrefixLength(normalizedText);
+
+    // the common suffix must not overlap with the common prefix
+    final int suffix =
+        Math.min(
+            blockChecksums.getCommonSuffixLength(normalizedText),
+            Math.min(remoteLength, localLength) - prefix);
+
+    log.debug(
+        "repairing region ["
+            + prefix
+            + ", "
+            + (remoteLength - suffix)
+            + ") of "
+            + file
+            + " instead of sending "
+            + localLength
+            + " characters");
+
+    fireActivity(
+        new RecoveryTextEditActivity(
+            session.getLocalUser(),
+            from,
+            file,
+            recoveryID,
+            prefix,
+            remoteLength - suffix - prefix,
+            normalizedText.substring(prefix, localLength - suffix),
+            remoteLength,
+            blockChecksums.getHash(),
+            localLength,
+            normalizedText.hashCode()));
+
+    fireChecksum(file, normalizedText);
+  }
+
+  private void fireChecksum(final IFile file, final String normalizedText) {
+    DocumentChecksum checksum = new DocumentChecksum(file);
+
     checksum.update(normalizedText);
 
-    fireActivity(new ChecksumActivity(user, file, checksum.getHash(), checksum.getLength(), null));
+    fireActivity(
+        new ChecksumActivity(
+            session.getLocalUser(), file, checksum.getHash(), checksum.getLength(), null));
   }
 }
@@ -1,14 +1,15 @@
 package saros.concurrent.watchdog;
 
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.concurrent.Future;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.log4j.Logger;
 import saros.activities.ChecksumActivity;
 import saros.activities.TextEditActivity;
@@ -17,12 +18,15 @@ import saros.editor.IEditorManager;
 import saros.editor.ISharedEditorListener;
 import saros.editor.remote.UserEditorStateManager;
 import saros.filesystem.IFile;
+import saros.monitoring.metrics.MetricsRegistry;
 import saros.repackaged.picocontainer.Startable;
 import saros.session.AbstractActivityProducer;
 import saros.session.ISarosSession;
+import saros.session.User;
 import saros.synchronize.Blockable;
 import saros.synchronize.StopManager;
 import saros.synchronize.UISynchronizer;
+import saros.util.LatencyHistogram;
 import saros.util.NamedThreadFactory;
 import saros.util.ThreadUtils;
 
@@ -32,6 +36,19 @@ import saros.util.ThreadUtils;
  * session. It then sends these checksums to all watchdog clients, which can compare them with their
  * own checksum calculations to detect inconsistencies and request file recovery if needed.
  *
+ * <p>The checksums are kept up-to-date incrementally by applying every text edit to a {@link
+ * ChunkedDocumentContent chunked copy} of the document (see {@link
+ * DocumentChecksum#applyTextEdit(TextEditActivity)}). The complete document content is only read if
+ * no valid copy exists, i.e. if the document was not checked before or if the copy could not be
+ * updated because it did not match a text edit. As a safety net, the copy is also recreated from
+ * the document content every {@link #FULL_UPDATE_INTERVAL} milliseconds.
+ *
+ * <p>The calculation interval adapts to the editing activity in the session. It is reduced to
+ * {@link #MIN_CHECKSUM_CALCULATION_INTERVAL} while many text edits are made and is doubled up to
+ * {@link #MAX_CHECKSUM_CALCULATION_INTERVAL} while the session is idle. The first text edit or
+ * activated editor after an idle period resets the interval to {@link
+ * #CHECKSUM_CALCULATION_INTERVAL}.
+ *
  * <p>This component is only run on the session's host.
  */
 @Component(module = "consistency")
@@ -41,6 +58,17 @@ public class ConsistencyWatchdogServer extends AbstractActivityProducer
   private static final Logger log = Logger.getLogger(ConsistencyWatchdogServer.class);
 
   private static final long CHECKSUM_CALCULATION_INTERVAL = 10000;
+  private static final long MIN_CHECKSUM_CALCULATION_INTERVAL = 2000;
+  private static final long MAX_CHECKSUM_CALCULATION_INTERVAL = 60000;
+
+  /**
+   * Number of text edits between two calculation cycles from which on the session is considered to
+   * be busy.
+   */
+  private static final int BUSY_EDIT_THRESHOLD = 50;
+
+  private static final long FULL_UPDATE_INTERVAL = 5 * 60 * 1000;
+
   private static final long TERMINATION_TIMEOUT = 10000;
 
   private final ISarosSession session;
@@ -49,11 +77,18 @@ public class ConsistencyWatchdogServer extends AbstractActivityProducer
   private final StopManager stopManager;
   private final UISynchronizer synchronizer;
 
-  private final Map<IFile, DocumentChecksum> documentChecksums = new HashMap<>();
+  private final LatencyHistogram calculationTimes;
+
+  private final Map<IFile, DocumentChecksum> documentChecksums = new ConcurrentHashMap<>();
   private ScheduledThreadPoolExecutor checksumCalculationExecutor;
-  private Future<?> checksumCalculationFuture;
   private boolean blocked;
 
+  private final Object scheduleLock = new Object();
+  private ScheduledFuture<?> checksumCalculationFuture;
+  private long checksumCalculationInterval = CHECKSUM_CALCULATION_INTERVAL;
+
+  private final AtomicInteger editsSinceLastCalculation = new AtomicInteger();
+
   private final Runnable checksumCalculation =
       new Runnable() {
         /**
@@ -66,31 +101,51 @@ public class ConsistencyWatchdogServer extends AbstractActivityProducer
            * be changed while we calculate the checksums. We also do this to
            * synchronize with block().
            */
-          synchronizer.syncExec(
-              ThreadUtils.wrapSafe(
-                  log,
-                  new Runnable() {
-                    @Override
-                    public void run() {
-                      if (blocked) return;
-                      calculateChecksums();
-                    }
-                  }));
+          try {
+            synchronizer.syncExec(
+                ThreadUtils.wrapSafe(
+                    log,
+                    new Runnable() {
+                      @Override
+                      public void run() {
+                        if (blocked) return;
+
+                        long start = System.nanoTime();
+
+                        calculateChecksums();
+
+                        calculationTimes.record(
+                            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                      }
+                    }));
+          } finally {
+            scheduleNextCalculation();
+          }
         }
       };
 
   private ISharedEditorListener sharedEditorListener =
       new ISharedEditorListener() {
         /**
-         * Marks checksums as dirty as soon as their associated documents are modified. With this
-         * information, checksum calculation can be avoided when the document hasn't changed between
-         * checksum iterations.
+         * Updates checksums as soon as their associated documents are modified. If the checksum can
+         * not be updated incrementally, it is marked as dirty and recalculated from the document
+         * content in the next checksum iteration.
          */
         @Override
         public void textEdited(TextEditActivity textEdit) {
+          editsSinceLastCalculation.incrementAndGet();
+
           DocumentChecksum checksum = documentChecksums.get(textEdit.getResource());
 
-          if (checksum != null) checksum.markDirty();
+          if (checksum != null && !checksum.applyTextEdit(textEdit))
+            log.debug("Could not update checksum incrementally: " + checksum);
+
+          wakeUp();
+        }
+
+        @Override
+        public void editorActivated(User user, IFile file) {
+          if (file != null) wakeUp();
         }
       };
 
@@ -102,18 +157,21 @@ public class ConsistencyWatchdogServer extends AbstractActivityProducer
    * @param stopManager {@link StopManager} to listen to for (un)block requests
    * @param synchronizer {@link UISynchronizer} to use
    * @param userEditorStateManager {@link UserEditorStateManager} to get remote editors
+   * @param metricsRegistry {@link MetricsRegistry} to record the checksum calculation times in
    */
   public ConsistencyWatchdogServer(
       ISarosSession session,
       IEditorManager editorManager,
       StopManager stopManager,
       UISynchronizer synchronizer,
-      UserEditorStateManager userEditorStateManager) {
+      UserEditorStateManager userEditorStateManager,
+      MetricsRegistry metricsRegistry) {
     this.session = session;
     this.editorManager = editorManager;
     this.stopManager = stopManager;
     this.synchronizer = synchronizer;
     this.userEditorStateManager = userEditorStateManager;
+    this.calculationTimes = metricsRegistry.histogram("session.watchdog.calculation_us");
   }
 
   @Override
@@ -131,9 +189,11 @@ public class ConsistencyWatchdogServer extends AbstractActivityProducer
 
     checksumCalculationExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
 
-    checksumCalculationFuture =
-        checksumCalculationExecutor.scheduleWithFixedDelay(
-            checksumCalculation, 0, CHECKSUM_CALCULATION_INTERVAL, TimeUnit.MILLISECONDS);
+    synchronized (scheduleLock) {
+      checksumCalculationInterval = CHECKSUM_CALCULATION_INTERVAL;
+      checksumCalculationFuture =
+          checksumCalculationExecutor.schedule(checksumCalculation, 0, TimeUnit.MILLISECONDS);
+    }
   }
 
   @Override
@@ -142,8 +202,10 @@ public class ConsistencyWatchdogServer extends AbstractActivityProducer
     stopManager.removeBlockable(this);
     editorManager.removeSharedEditorListener(sharedEditorListener);
 
-    checksumCalculationFuture.cancel(false);
-    checksumCalculationExecutor.shutdown();
+    synchronized (scheduleLock) {
+      checksumCalculationFuture.cancel(false);
+      checksumCalculationExecutor.shutdown();
+    }
 
     boolean isTerminated = false;
     boolean terminationWasInterrupted = false;
@@ -200,6 +262,57 @@ public class ConsistencyWatchdogServer extends AbstractActivityProducer
     blocked = false;
   }
 
+  /**
+   * Adapts the calculation interval to the number of text edits made since the last calculation and
+   * schedules the next calculation.
+   */
+  private void scheduleNextCalculation() {
+    int edits = editsSinceLastCalculation.getAndSet(0);
+
+    synchronized (scheduleLock) {
+      if (checksumCalculationExecutor.isShutdown()) return;
+
+      if (edits >= BUSY_EDIT_THRESHOLD) {
+        checksumCalculationInterval = MIN_CHECKSUM_CALCULATION_INTERVAL;
+      } else if (edits > 0) {
+        checksumCalculationInterval = CHECKSUM_CALCULATION_INTERVAL;
+      } else {
+        checksumCalculationInterval =
+            Math.min(checksumCalculationInterval * 2, MAX_CHECKSUM_CALCULATION_INTERVAL);
+      }
+
+      checksumCalculationFuture =
+          checksumCalculationExecutor.schedule(
+              checksumCalculation, checksumCalculationInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Ensures that the next calculation is run within {@link #CHECKSUM_CALCULATION_INTERVAL}
+   * milliseconds if the calculation interval was increased because the session was idle.
+   */
+  private void wakeUp() {
+    synchronized (scheduleLock) {
+      if (checksumCalculationInterval <= CHECKSUM_CALCULATION_INTERVAL) return;
+
+      checksumCalculationInterval = CHECKSUM_CALCULATION_INTERVAL;
+
+      if (checksumCalculationExecutor.isShutdown()
+          || checksumCalculationFuture.getDelay(TimeUnit.MILLISECONDS)
+              <= CHECKSUM_CALCULATION_INTERVAL) return;
+
+      /*
+       * If the calculation is already running, it will schedule the next run
+       * on its own.
+       */
+      if (!checksumCalculationFuture.cancel(false)) return;
+
+      checksumCalculationFuture =
+          checksumCalculationExecutor.schedule(
+              checksumCalculation, CHECKSUM_CALCULATION_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+  }
+
   private void calculateChecksums() {
     Set<IFile> localEditors = editorManager.getOpenEditors();
 
@@ -260,6 +373,14 @@ public class ConsistencyWatchdogServer extends AbstractActivityProducer
 
       return;
 
+    } else if (checksum.getHash() != DocumentChecksum.NOT_AVAILABLE
+        && System.currentTimeMillis() - checksum.getLastFullUpdate() >= FULL_UPDATE_INTERVAL) {
+      /*
+       * Recreate the content copy from time to time in case a modification
+       * of the document was not reported as a text edit.
+       */
+      checksum.markDirty();
+
     } else if (!checksum.isDirty()) {
       return;
     }
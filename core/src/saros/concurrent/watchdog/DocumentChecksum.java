@@ -1,10 +1,18 @@
 package saros.concurrent.watchdog;
 
+import saros.activities.TextEditActivity;
 import saros.filesystem.IFile;
 
 /**
  * Represents a checksum of a document in the workspace. It consists of the document's file, the
  * content length, and the content's string hash code.
+ *
+ * <p>After the checksum was calculated once using {@link #update(String)}, it keeps a {@link
+ * ChunkedDocumentContent chunked copy} of the document's content. Subsequent text edits can then be
+ * applied with {@link #applyTextEdit(TextEditActivity)}, which keeps the checksum up-to-date
+ * without having to read and hash the whole document content again.
+ *
+ * <p>This class is thread safe.
  */
 public class DocumentChecksum {
 
@@ -20,6 +28,13 @@ public class DocumentChecksum {
   private int hash;
   private boolean dirty;
 
+  /** Whether the hash has to be recalculated from the content copy. */
+  private boolean hashOutdated;
+
+  private ChunkedDocumentContent content;
+
+  private long lastFullUpdate;
+
   /**
    * Creates a new DocumentChecksum.
    *
@@ -47,7 +62,7 @@ public class DocumentChecksum {
    *
    * @return document content length, or {@link #NOT_AVAILABLE} if the document doesn't exist
    */
-  public int getLength() {
+  public synchronized int getLength() {
     return length;
   }
 
@@ -57,10 +72,14 @@ public class DocumentChecksum {
    * <p>If the document's content is not available ({@link #update} was not called yet or called
    * with <code>null</code> the last time), {@link #NOT_AVAILABLE} is returned.
    *
-   * @return document content hash, or {@link #NOT_AVAILABLE} if not available, or {@link
-   *     #NOT_AVAILABLE} if not available
+   * @return document content hash, or {@link #NOT_AVAILABLE} if not available
    */
-  public int getHash() {
+  public synchronized int getHash() {
+    if (hashOutdated) {
+      hash = content.getHash();
+      hashOutdated = false;
+    }
+
     return hash;
   }
 
@@ -78,7 +97,7 @@ public class DocumentChecksum {
    * @return <code>true</code> if the checksum is out-of-sync, <code>false</code> if it is
    *     up-to-date
    */
-  public boolean isDirty() {
+  public synchronized boolean isDirty() {
     return dirty;
   }
 
@@ -86,8 +105,19 @@ public class DocumentChecksum {
    * Tells the checksum that its content length and hash code are out-of-date because the associated
    * document changed.
    */
-  public void markDirty() {
+  public synchronized void markDirty() {
     dirty = true;
+    content = null;
+  }
+
+  /**
+   * Returns the point in time (as returned by {@link System#currentTimeMillis()}) the checksum was
+   * last calculated from the complete document content by calling {@link #update(String)}.
+   *
+   * @return the time of the last full update, or <code>0</code> if there was none yet
+   */
+  public synchronized long getLastFullUpdate() {
+    return lastFullUpdate;
   }
 
   /**
@@ -99,21 +129,58 @@ public class DocumentChecksum {
    * @param documentContent the document's current content, or <code>null</code> if the document is
    *     does not exist locally
    */
-  public void update(String documentContent) {
+  public synchronized void update(String documentContent) {
     if (!dirty) return;
 
     if (documentContent == null) {
+      content = null;
       length = hash = NOT_AVAILABLE;
     } else {
+      content = new ChunkedDocumentContent(documentContent);
       length = documentContent.length();
       hash = documentContent.hashCode();
     }
 
+    hashOutdated = false;
     dirty = false;
+    lastFullUpdate = System.currentTimeMillis();
+  }
+
+  /**
+   * Updates the checksum by applying the given text edit to the copy of the document's content
+   * created by the last call to {@link #update(String)}. Only the affected parts of the content are
+   * rehashed.
+   *
+   * <p>If the checksum is {@link #isDirty() dirty} or the text edit can not be applied because it
+   * does not match the copied content (e.g. because a previous edit was missed), the checksum is
+   * marked as dirty and has to be recalculated by calling {@link #update(String)}.
+   *
+   * @param textEdit the text edit that was applied to the document
+   * @return <code>true</code> if the checksum is up-to-date, <code>false</code> if it is dirty
+   */
+  public synchronized boolean applyTextEdit(TextEditActivity textEdit) {
+    if (dirty || content == null) {
+      markDirty();
+      return false;
+    }
+
+    boolean applied =
+        content.applyEdit(
+            textEdit.getStartPosition(), textEdit.getReplacedText(), textEdit.getNewText());
+
+    if (!applied) {
+      markDirty();
+      return false;
+    }
+
+    length = content.getLength();
+    hashOutdated = true;
+
+    return true;
   }
 
   @Override
-  public String toString() {
-    return file + " [" + this.length + "," + this.hash + "]";
+  public synchronized String toString() {
+    return file + " [" + length + "," + getHash() + "]";
   }
 }
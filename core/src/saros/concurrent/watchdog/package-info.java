@@ -27,8 +27,9 @@
  * <p>Important components are:
  *
  * <ul>
- *   <li>ConsistencyWatchdogServer --- Generates checksums every 10 seconds for all files which are
- *       opened anywhere (host and clients)
+ *   <li>ConsistencyWatchdogServer --- Generates checksums every 10 seconds (more often during heavy
+ *       editing, less often while the session is idle) for all files which are opened anywhere
+ *       (host and clients)
  *   <li>ConsistencyWatchdogClient --- Receives incoming checksums and checks whether the local
  *       files match the checksums
  *   <li>ConsistencyAction --- Action for starting a recovery if the ConsistencyWatchdogClient found
@@ -1,9 +1,11 @@
 package saros.context;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import org.apache.log4j.Logger;
 import saros.account.XMPPAccountStore;
+import saros.annotations.Component;
 import saros.communication.extensions.ActivitiesExtension;
 import saros.communication.extensions.CancelInviteExtension;
 import saros.communication.extensions.CancelResourceNegotiationExtension;
@@ -28,10 +30,13 @@ import saros.communication.extensions.UserListExtension;
 import saros.communication.extensions.UserListReceivedExtension;
 import saros.net.util.XMPPUtils;
 import saros.net.xmpp.XMPPConnectionService;
+import saros.repackaged.picocontainer.ComponentAdapter;
 import saros.repackaged.picocontainer.ComponentMonitor;
+import saros.repackaged.picocontainer.Disposable;
 import saros.repackaged.picocontainer.MutablePicoContainer;
 import saros.repackaged.picocontainer.PicoBuilder;
 import saros.repackaged.picocontainer.PicoContainer;
+import saros.repackaged.picocontainer.Startable;
 import saros.repackaged.picocontainer.injectors.AnnotatedFieldInjection;
 import saros.repackaged.picocontainer.injectors.CompositeInjection;
 import saros.repackaged.picocontainer.injectors.ConstructorInjection;
@@ -69,6 +74,9 @@ public class ContainerContext implements IContainerContext {
   /** A caching container which holds all the singletons in Saros. */
   private final MutablePicoContainer container;
 
+  /** The profiler of the container or <code>null</code> if profiling is disabled. */
+  private final ContextProfiler profiler;
+
   private boolean initialized;
   private boolean disposed;
 
@@ -88,7 +96,10 @@ public class ContainerContext implements IContainerContext {
             .withCaching()
             .withLifecycle();
 
-    if (componentMonitor != null) builder = builder.withMonitor(componentMonitor);
+    profiler = ContextProfiler.isEnabled() ? ContextProfiler.create(componentMonitor) : null;
+
+    if (profiler != null) builder = builder.withMonitor(profiler);
+    else if (componentMonitor != null) builder = builder.withMonitor(componentMonitor);
 
     container = builder.build();
   }
@@ -163,6 +174,8 @@ public class ContainerContext implements IContainerContext {
 
     container.addComponent(IContainerContext.class, this);
 
+    if (profiler != null) container.addComponent(ContextProfiler.class, profiler);
+
     initAccountStore(container.getComponent(XMPPAccountStore.class));
 
     installPacketExtensionProviders();
@@ -174,7 +187,7 @@ public class ContainerContext implements IContainerContext {
      * dependencies at all and so would never be instantiated although they
      * do critical work, e.g listening to several events
      */
-    final List<Object> components = container.getComponents();
+    final List<Object> components = instantiateComponents(container);
 
     if (log.isDebugEnabled()) {
       for (final Object component : components) {
@@ -185,9 +198,50 @@ public class ContainerContext implements IContainerContext {
     container.start();
     initialized = true;
 
+    if (profiler != null) profiler.report("context initialization");
+
     log.info("successfully initialized context");
   }
 
+  /**
+   * Creates all components of the given container except the ones that are annotated as {@linkplain
+   * Component#lazy() lazy}. Lazy components are created when they are requested for the first time.
+   * Components implementing {@link Startable} or {@link Disposable} are always created, as the
+   * lifecycle of the container requires their instances anyway. Components of the parent container
+   * are not affected.
+   *
+   * @param container the container whose components should be created
+   * @return the created components
+   */
+  public static List<Object> instantiateComponents(final PicoContainer container) {
+    final List<Object> components = new ArrayList<Object>();
+
+    for (final ComponentAdapter<?> adapter : container.getComponentAdapters()) {
+      if (isLazy(adapter)) {
+        if (log.isDebugEnabled())
+          log.debug("deferring creation of lazy component: " + adapter.getComponentKey());
+
+        continue;
+      }
+
+      components.add(container.getComponent(adapter.getComponentKey()));
+    }
+
+    return components;
+  }
+
+  private static boolean isLazy(final ComponentAdapter<?> adapter) {
+    final Class<?> implementation = adapter.getComponentImplementation();
+
+    if (implementation == null
+        || Startable.class.isAssignableFrom(implementation)
+        || Disposable.class.isAssignableFrom(implementation)) return false;
+
+    final Component annotation = implementation.getAnnotation(Component.class);
+
+    return annotation != null && annotation.lazy();
+  }
+
   /**
    * Disposes this context by disposing all components in this context. After the context is
    * disposed it can no longer be used. Does nothing if the context is not initialized yet or
@@ -0,0 +1,359 @@
+package saros.context;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.apache.log4j.Logger;
+import saros.repackaged.picocontainer.BindKey;
+import saros.repackaged.picocontainer.ComponentAdapter;
+import saros.repackaged.picocontainer.ComponentMonitor;
+import saros.repackaged.picocontainer.PicoContainer;
+import saros.repackaged.picocontainer.monitors.AbstractComponentMonitor;
+
+/**
+ * Component monitor that measures how long PicoContainer needs to create and start the components
+ * of a context and records which components they depend on.
+ *
+ * <p>The profiler is installed by the {@link ContainerContext} if the system property <code>
+ * saros.context.PROFILE</code> is set to <code>true</code>. It is shared by the child containers of
+ * the context, so it also covers the components of a session. The measurements are collected until
+ * {@link #report(String)} is called, which happens after the initialization of the context and
+ * after the start of every session.
+ *
+ * <p>If the system property <code>saros.context.DEPENDENCY_GRAPH_FILE</code> is set, the
+ * dependencies of all components created so far are written to that file in the DOT format of
+ * Graphviz on every report. The dependencies are taken from the parameter types of the
+ * constructors, so they name the keys the components are looked up with. Keys that differ from the
+ * implementation of a component are connected to it by a dashed edge.
+ *
+ * <p>Components are identified by the simple name of their implementation, as PicoContainer does
+ * not pass the component key when it starts a component.
+ *
+ * <p>This class is thread safe.
+ */
+public class ContextProfiler extends AbstractComponentMonitor {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Logger log = Logger.getLogger(ContextProfiler.class);
+
+  private static final boolean ENABLED = Boolean.getBoolean("saros.context.PROFILE");
+
+  private static final String DEPENDENCY_GRAPH_FILE =
+      System.getProperty("saros.context.DEPENDENCY_GRAPH_FILE");
+
+  /** The measurements of a single component. */
+  private static final class Entry {
+    private final String name;
+    private long creationNanos;
+    private long startNanos;
+
+    private Entry(String name) {
+      this.name = name;
+    }
+  }
+
+  /** A constructor call that is in progress on the current thread. */
+  private static final class Creation {
+    private final long startNanos = System.nanoTime();
+    private long nestedNanos;
+  }
+
+  private final transient ThreadLocal<Deque<Creation>> creations =
+      ThreadLocal.withInitial(ArrayDeque::new);
+
+  private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+  private final Map<Object, Long> pendingStarts = new IdentityHashMap<>();
+
+  private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+  private final Map<String, String> implementations = new LinkedHashMap<>();
+
+  private final String dependencyGraphFile;
+
+  /**
+   * Creates a profiler.
+   *
+   * @param delegate the monitor that is notified after the profiler, may be <code>null</code>
+   * @param dependencyGraphFile the file the dependency graph is written to, may be <code>null
+   *     </code>
+   */
+  public ContextProfiler(ComponentMonitor delegate, String dependencyGraphFile) {
+    super(delegate != null ? delegate : new AbstractComponentMonitor());
+    this.dependencyGraphFile = dependencyGraphFile;
+  }
+
+  /**
+   * Returns whether the profiling of contexts is enabled by the system property <code>
+   * saros.context.PROFILE</code>.
+   */
+  public static boolean isEnabled() {
+    return ENABLED;
+  }
+
+  /**
+   * Creates a profiler that writes the dependency graph to the file given by the system property
+   * <code>saros.context.DEPENDENCY_GRAPH_FILE</code>.
+   *
+   * @param delegate the monitor that is notified after the profiler, may be <code>null</code>
+   * @return the profiler
+   */
+  public static ContextProfiler create(ComponentMonitor delegate) {
+    return new ContextProfiler(delegate, DEPENDENCY_GRAPH_FILE);
+  }
+
+  @Override
+  public <T> Constructor<T> instantiating(
+      PicoContainer container, ComponentAdapter<T> componentAdapter, Constructor<T> constructor) {
+
+    creations.get().push(new Creation());
+    return super.instantiating(container, componentAdapter, constructor);
+  }
+
+  @Override
+  public <T> void instantiated(
+      PicoContainer container,
+      ComponentAdapter<T> componentAdapter,
+      Constructor<T> constructor,
+      Object instantiated,
+      Object[] injected,
+      long duration) {
+
+    long nanos = finishCreation();
+
+    String name = instantiated.getClass().getSimpleName();
+    String keyName = getName(componentAdapter.getComponentKey());
+
+    Set<String> componentDependencies = new LinkedHashSet<>();
+
+    for (Class<?> parameterType : constructor.getParameterTypes())
+      componentDependencies.add(parameterType.getSimpleName());
+
+    synchronized (this) {
+      getEntry(name).creationNanos += nanos;
+
+      if (!keyName.equals(name)) implementations.put(keyName, name);
+
+      dependencies
+          .computeIfAbsent(name, key -> new LinkedHashSet<>())
+          .addAll(componentDependencies);
+    }
+
+    super.instantiated(container, componentAdapter, constructor, instantiated, injected, duration);
+  }
+
+  @Override
+  public <T> void instantiationFailed(
+      PicoContainer container,
+      ComponentAdapter<T> componentAdapter,
+      Constructor<T> constructor,
+      Exception cause) {
+
+    finishCreation();
+    super.instantiationFailed(container, componentAdapter, constructor, cause);
+  }
+
+  @Override
+  public Object invoking(
+      PicoContainer container,
+      ComponentAdapter<?> componentAdapter,
+      Member member,
+      Object instance,
+      Object[] args) {
+
+    if (isStart(member)) {
+      synchronized (this) {
+        pendingStarts.put(instance, System.nanoTime());
+      }
+    }
+
+    return super.invoking(container, componentAdapter, member, instance, args);
+  }
+
+  @Override
+  public void invoked(
+      PicoContainer container,
+      ComponentAdapter<?> componentAdapter,
+      Member member,
+      Object instance,
+      long duration,
+      Object[] args,
+      Object retVal) {
+
+    if (isStart(member)) {
+      synchronized (this) {
+        Long startNanos = pendingStarts.remove(instance);
+
+        if (startNanos != null)
+          getEntry(instance.getClass().getSimpleName()).startNanos +=
+              System.nanoTime() - startNanos;
+      }
+    }
+
+    super.invoked(container, componentAdapter, member, instance, duration, args, retVal);
+  }
+
+  /**
+   * Logs the measurements collected since the last report, sorted by the time spent on the
+   * components, and writes the dependency graph if a file is configured.
+   *
+   * @param phase describes what was measured, e.g. <code>context initialization</code>
+   * @return the logged report
+   */
+  public String report(String phase) {
+    List<Entry> reported;
+    String graph;
+
+    synchronized (this) {
+      reported = new ArrayList<>(entries.values());
+      entries.clear();
+      pendingStarts.clear();
+      graph = getDependencyGraph();
+    }
+
+    reported.sort(
+        (a, b) -> Long.compare(b.creationNanos + b.startNanos, a.creationNanos + a.startNanos));
+
+    long creationNanos = 0;
+    long startNanos = 0;
+
+    for (Entry entry : reported) {
+      creationNanos += entry.creationNanos;
+      startNanos += entry.startNanos;
+    }
+
+    StringBuilder report = new StringBuilder();
+
+    report.append(
+        String.format(
+            Locale.ROOT,
+            "profile of %s: %d components, created in %.1f ms, started in %.1f ms%n",
+            phase,
+            reported.size(),
+            toMillis(creationNanos),
+            toMillis(startNanos)));
+
+    report.append(
+        String.format(Locale.ROOT, "%12s %12s  %s%n", "create [ms]", "start [ms]", "component"));
+
+    for (Entry entry : reported)
+      report.append(
+          String.format(
+              Locale.ROOT,
+              "%12.2f %12.2f  %s%n",
+              toMillis(entry.creationNanos),
+              toMillis(entry.startNanos),
+              entry.name));
+
+    String text = report.toString();
+
+    log.info(text);
+
+    if (dependencyGraphFile != null) writeDependencyGraph(graph);
+
+    return text;
+  }
+
+  /**
+   * Returns the dependencies of all components created so far in the DOT format of Graphviz.
+   *
+   * @return the dependency graph
+   */
+  synchronized String getDependencyGraph() {
+    StringBuilder graph = new StringBuilder();
+
+    graph.append("digraph saros {\n");
+    graph.append("  rankdir=LR;\n");
+
+    for (Map.Entry<String, Set<String>> component : dependencies.entrySet()) {
+      graph.append("  \"").append(component.getKey()).append("\";\n");
+
+      for (String dependency : component.getValue())
+        graph
+            .append("  \"")
+            .append(component.getKey())
+            .append("\" -> \"")
+            .append(dependency)
+            .append("\";\n");
+    }
+
+    for (Map.Entry<String, String> binding : implementations.entrySet())
+      graph
+          .append("  \"")
+          .append(binding.getKey())
+          .append("\" -> \"")
+          .append(binding.getValue())
+          .append("\" [style=dashed];\n");
+
+    graph.append("}\n");
+
+    return graph.toString();
+  }
+
+  private void writeDependencyGraph(String graph) {
+    try {
+      Files.write(Paths.get(dependencyGraphFile), graph.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      log.warn("could not write the dependency graph to " + dependencyGraphFile, e);
+    }
+  }
+
+  /**
+   * Removes the creation of the current thread that has finished from the stack.
+   *
+   * @return the nanoseconds spent in the constructor, excluding nested creations
+   */
+  private long finishCreation() {
+    Deque<Creation> stack = creations.get();
+
+    Creation creation = stack.poll();
+
+    if (creation == null) return 0;
+
+    long totalNanos = System.nanoTime() - creation.startNanos;
+
+    Creation outer = stack.peek();
+
+    if (outer != null) outer.nestedNanos += totalNanos;
+
+    return totalNanos - creation.nestedNanos;
+  }
+
+  private Entry getEntry(String name) {
+    return entries.computeIfAbsent(name, Entry::new);
+  }
+
+  private static boolean isStart(Member member) {
+    return member instanceof Method && member.getName().equals("start");
+  }
+
+  private static String getName(Object key) {
+    if (key instanceof Class) return ((Class<?>) key).getSimpleName();
+
+    if (key instanceof BindKey) {
+      BindKey<?> bindKey = (BindKey<?>) key;
+      return bindKey.getType().getSimpleName() + "@" + bindKey.getAnnotation().getSimpleName();
+    }
+
+    return String.valueOf(key);
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / 1e6;
+  }
+}
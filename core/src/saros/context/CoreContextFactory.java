@@ -8,6 +8,7 @@ import saros.communication.chat.single.SingleUserChatService;
 import saros.communication.connection.ConnectionHandler;
 import saros.concurrent.watchdog.IsInconsistentObservable;
 import saros.editor.colorstorage.ColorIDSetStorage;
+import saros.monitoring.metrics.MetricsRegistry;
 import saros.monitoring.remote.RemoteProgressManager;
 import saros.negotiation.AdditionalResourceDataFactory;
 import saros.negotiation.SessionNegotiationFactory;
@@ -75,6 +76,9 @@ public class CoreContextFactory extends AbstractContextFactory {
       Component.create(ColorNegotiationHook.class),
       Component.create(ResourceNegotiationTypeHook.class),
 
+      // Metrics
+      Component.create(MetricsRegistry.class),
+
       // Network
       Component.create(DispatchThreadContext.class),
       Component.create(IConnectionManager.class, DataTransferManager.class),
@@ -0,0 +1,249 @@
+package saros.editor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import saros.activities.IActivity;
+import saros.activities.TextSelectionActivity;
+import saros.activities.ViewportActivity;
+import saros.filesystem.IFile;
+import saros.session.ISarosSession;
+import saros.session.internal.ActivitySequencer;
+
+/**
+ * Coalesces the awareness activities (i.e. {@link ViewportActivity viewport} and {@link
+ * TextSelectionActivity selection} activities) generated by the local editors. Scrolling through a
+ * file or selecting text with the mouse generates a new event for nearly every pixel, but the other
+ * participants are only interested in the latest state.
+ *
+ * <p>The first awareness activity after a quiet phase is dispatched immediately. All following
+ * activities are held back and only the latest viewport and selection of every file is dispatched
+ * once the user stops scrolling or selecting (i.e. no new activity is offered for {@link
+ * #QUIET_PERIOD} ms) or the oldest held back activity reaches the current delay. The delay grows
+ * with the number of activities that are still waiting to be sent, so a busy connection is not
+ * flooded with outdated awareness information.
+ *
+ * <p>Other activities (e.g. text edits or editor activities) must not be reordered with the held
+ * back awareness activities. Therefore {@link #flush()} has to be called before dispatching any
+ * other activity of the same producer.
+ *
+ * <p>The minimal and maximal delay can be configured by setting the system properties <code>
+ * saros.editor.awareness.MIN_DELAY</code> and <code>saros.editor.awareness.MAX_DELAY</code> (in
+ * milliseconds). A minimal delay of <code>0</code> disables the coalescing.
+ *
+ * <p><b>Note:</b> This class is not thread safe. All methods and the tasks passed to the {@link
+ * Scheduler} must be executed by the same thread, usually the UI thread of the IDE.
+ */
+public final class AwarenessActivityCoalescer {
+
+  /** Executes tasks after a delay, usually by queuing them in the UI thread of the IDE. */
+  @FunctionalInterface
+  public interface Scheduler {
+    /**
+     * Executes the given task after the given delay.
+     *
+     * @param delay the delay in milliseconds
+     * @param task the task to execute
+     */
+    void schedule(int delay, Runnable task);
+  }
+
+  /**
+   * Time in milliseconds without new awareness activities after which the user is considered idle
+   */
+  static final int QUIET_PERIOD = 50;
+
+  /** Additional delay in milliseconds per activity waiting to be sent */
+  static final int DELAY_PER_QUEUED_ACTIVITY = 10;
+
+  private static final int MIN_DELAY =
+      Math.max(0, Integer.getInteger("saros.editor.awareness.MIN_DELAY", 100));
+
+  private static final int MAX_DELAY =
+      Math.max(MIN_DELAY, Integer.getInteger("saros.editor.awareness.MAX_DELAY", 1000));
+
+  /** Identifies the awareness information of one file. */
+  private static final class Key {
+    private final Class<?> type;
+    private final IFile file;
+
+    private Key(IActivity activity, IFile file) {
+      this.type = activity.getClass();
+      this.file = file;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * type.hashCode() + Objects.hashCode(file);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) return true;
+      if (!(obj instanceof Key)) return false;
+
+      Key other = (Key) obj;
+      return type.equals(other.type) && Objects.equals(file, other.file);
+    }
+  }
+
+  private final Consumer<IActivity> dispatcher;
+  private final Scheduler scheduler;
+  private final IntSupplier queuedActivities;
+  private final LongSupplier clock;
+
+  private final int minDelay;
+  private final int maxDelay;
+
+  /** The held back activities, latest value per key in order of their first occurrence */
+  private final Map<Key, IActivity> pending = new LinkedHashMap<>();
+
+  private boolean isScheduled;
+
+  private long firstPendingTime;
+  private long lastOfferTime;
+  private long lastDispatchTime = Long.MIN_VALUE;
+
+  /**
+   * Creates a coalescer using the configured delays whose delay adapts to the number of activities
+   * waiting to be sent in the given session.
+   *
+   * @param session the session the activities are dispatched in
+   * @param dispatcher the consumer that dispatches the coalesced activities
+   * @param scheduler the scheduler used to dispatch the held back activities
+   */
+  public AwarenessActivityCoalescer(
+      ISarosSession session, Consumer<IActivity> dispatcher, Scheduler scheduler) {
+    this(
+        dispatcher,
+        scheduler,
+        queuedActivities(session),
+        System::currentTimeMillis,
+        MIN_DELAY,
+        MAX_DELAY);
+  }
+
+  AwarenessActivityCoalescer(
+      Consumer<IActivity> dispatcher,
+      Scheduler scheduler,
+      IntSupplier queuedActivities,
+      LongSupplier clock,
+      int minDelay,
+      int maxDelay) {
+
+    this.dispatcher = Objects.requireNonNull(dispatcher);
+    this.scheduler = Objects.requireNonNull(scheduler);
+    this.queuedActivities = Objects.requireNonNull(queuedActivities);
+    this.clock = Objects.requireNonNull(clock);
+    this.minDelay = minDelay;
+    this.maxDelay = maxDelay;
+  }
+
+  /**
+   * Offers a viewport activity. Any held back viewport activity for the same file is replaced.
+   *
+   * @param activity the activity to dispatch
+   */
+  public void offer(ViewportActivity activity) {
+    offer(activity, activity.getResource());
+  }
+
+  /**
+   * Offers a selection activity. Any held back selection activity for the same file is replaced.
+   *
+   * @param activity the activity to dispatch
+   */
+  public void offer(TextSelectionActivity activity) {
+    offer(activity, activity.getResource());
+  }
+
+  /** Dispatches all held back activities immediately. */
+  public void flush() {
+    if (pending.isEmpty()) return;
+
+    List<IActivity> activities = new ArrayList<>(pending.values());
+    pending.clear();
+
+    lastDispatchTime = clock.getAsLong();
+
+    activities.forEach(dispatcher);
+  }
+
+  /** Discards all held back activities. */
+  public void clear() {
+    pending.clear();
+  }
+
+  /** Returns the current delay in milliseconds, depending on the number of queued activities. */
+  int getDelay() {
+    if (minDelay == 0) return 0;
+
+    long delay =
+        minDelay + (long) Math.max(0, queuedActivities.getAsInt()) * DELAY_PER_QUEUED_ACTIVITY;
+
+    return (int) Math.min(maxDelay, delay);
+  }
+
+  private void offer(IActivity activity, IFile file) {
+    long now = clock.getAsLong();
+    int delay = getDelay();
+
+    lastOfferTime = now;
+
+    if (pending.isEmpty() && now - delay >= lastDispatchTime) {
+      lastDispatchTime = now;
+      dispatcher.accept(activity);
+      return;
+    }
+
+    Key key = new Key(activity, file);
+
+    if (pending.isEmpty()) firstPendingTime = now;
+
+    // keep the position of the first occurrence, but use the latest value
+    pending.put(key, activity);
+
+    if (!isScheduled) schedule(Math.min(QUIET_PERIOD, delay));
+  }
+
+  private void schedule(int delay) {
+    isScheduled = true;
+    scheduler.schedule(Math.max(1, delay), this::flushIfDue);
+  }
+
+  private void flushIfDue() {
+    isScheduled = false;
+
+    if (pending.isEmpty()) return;
+
+    long now = clock.getAsLong();
+
+    long quietRemaining = QUIET_PERIOD - (now - lastOfferTime);
+    long delayRemaining = getDelay() - (now - firstPendingTime);
+
+    if (quietRemaining <= 0 || delayRemaining <= 0) {
+      flush();
+      return;
+    }
+
+    schedule((int) Math.min(quietRemaining, delayRemaining));
+  }
+
+  private static IntSupplier queuedActivities(ISarosSession session) {
+    return new IntSupplier() {
+      private ActivitySequencer sequencer;
+
+      @Override
+      public int getAsInt() {
+        if (sequencer == null) sequencer = session.getComponent(ActivitySequencer.class);
+
+        return sequencer == null ? 0 : sequencer.getQueuedActivityCount();
+      }
+    };
+  }
+}
@@ -0,0 +1,264 @@
+package saros.editor.text;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Index of the line start offsets of a document. It allows to convert between {@link TextPosition
+ * text positions} and offsets without scanning the document content and can be updated
+ * incrementally when the document is edited.
+ *
+ * <p>The line starts are kept in an array with a gap at the position of the last edit. Line starts
+ * in front of the gap are stored as absolute offsets, line starts behind the gap are stored
+ * relative to the end of the document. Edits therefore only have to touch the line starts of the
+ * edited region; moving the gap costs time proportional to the number of lines between two
+ * consecutive edits, which is small for the usual local editing. Converting a line number to an
+ * offset takes constant time, converting an offset to a text position logarithmic time.
+ *
+ * <p>The line separator of the document is determined once when creating the index (see {@link
+ * TextPositionUtils#guessLineSeparator(String)}). If the document does not contain a line separator
+ * yet, it is determined from the first edit inserting one.
+ *
+ * <p><b>Note:</b> Edits must not split a {@link TextPositionUtils#WINDOWS_LINE_SEPARATOR Windows
+ * line separator}, i.e. remove or insert text in between its two characters. This class is not
+ * thread safe.
+ */
+public final class LineIndex {
+
+  private static final int INITIAL_GAP = 16;
+
+  private String lineSeparator;
+
+  private int length;
+
+  /** The line starts, see the class documentation for the layout. */
+  private int[] starts;
+
+  private int gapStart;
+
+  private int gapLength;
+
+  /**
+   * Creates a new index for the given text. The line separator is guessed from the content.
+   *
+   * @param text the text to create the index for
+   * @throws NullPointerException if the text is <code>null</code>
+   */
+  public LineIndex(String text) {
+    this(text, TextPositionUtils.guessLineSeparator(text));
+  }
+
+  /**
+   * Creates a new index for the given text using the given line separator.
+   *
+   * @param text the text to create the index for
+   * @param lineSeparator the line separator used in the text or an empty string if the text does
+   *     not contain a line separator yet
+   * @throws NullPointerException if the text or line separator is <code>null</code>
+   */
+  public LineIndex(String text, String lineSeparator) {
+    Objects.requireNonNull(text, "The given text must not be null");
+    Objects.requireNonNull(lineSeparator, "The given line separator must not be null");
+
+    this.lineSeparator = lineSeparator;
+    this.length = text.length();
+
+    int[] lineStarts = new int[INITIAL_GAP];
+    int count = 1;
+
+    if (!lineSeparator.isEmpty()) {
+      for (int index = text.indexOf(lineSeparator);
+          index != -1;
+          index = text.indexOf(lineSeparator, index + lineSeparator.length())) {
+
+        if (count == lineStarts.length) lineStarts = Arrays.copyOf(lineStarts, count * 2);
+
+        lineStarts[count++] = index + lineSeparator.length();
+      }
+    }
+
+    starts = Arrays.copyOf(lineStarts, count + INITIAL_GAP);
+    gapStart = count;
+    gapLength = INITIAL_GAP;
+  }
+
+  /**
+   * Returns the line separator used in the document.
+   *
+   * @return the line separator or an empty string if the document does not contain any line
+   *     separator yet
+   */
+  public String getLineSeparator() {
+    return lineSeparator;
+  }
+
+  /**
+   * Returns the length of the document.
+   *
+   * @return the length of the document
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Returns the number of lines of the document. An empty document consists of one line.
+   *
+   * @return the number of lines
+   */
+  public int getLineCount() {
+    return starts.length - gapLength;
+  }
+
+  /**
+   * Returns the offset at which the given line starts.
+   *
+   * @param line the line number
+   * @return the offset of the first character of the line
+   * @throws IndexOutOfBoundsException if the document does not contain the given line
+   */
+  public int getLineStart(int line) {
+    if (line < 0 || line >= getLineCount())
+      throw new IndexOutOfBoundsException(
+          "line " + line + " is not located in the document - lines: " + getLineCount());
+
+    return get(line);
+  }
+
+  /**
+   * Calculates the offset of the given text position. This is the equivalent of {@link
+   * TextPositionUtils#calculateOffset(String, TextPosition, String)}.
+   *
+   * @param position the position for which to calculate the offset
+   * @return the offset of the given text position
+   * @throws NullPointerException if the given text position is <code>null</code>
+   * @throws IllegalArgumentException if the given text position is invalid
+   * @throws IllegalStateException if the document contains fewer lines than specified by the text
+   *     position
+   */
+  public int getOffset(TextPosition position) {
+    Objects.requireNonNull(position, "The given text position must not be null");
+
+    if (!position.isValid())
+      throw new IllegalArgumentException("The given position must not be invalid");
+
+    if (position.getLineNumber() >= getLineCount())
+      throw new IllegalStateException(
+          "The document contains fewer lines than specified by the text position");
+
+    return get(position.getLineNumber()) + position.getInLineOffset();
+  }
+
+  /**
+   * Calculates the text position of the given offset. This is the equivalent of {@link
+   * TextPositionUtils#calculatePosition(String, int, String)}.
+   *
+   * @param offset the offset for which to calculate the position
+   * @return the text position of the given offset
+   * @throws IllegalArgumentException if the given offset is negative or greater than the length of
+   *     the document
+   */
+  public TextPosition getPosition(int offset) {
+    if (offset < 0 || offset > length)
+      throw new IllegalArgumentException(
+          "The given offset is not located in the document - o: " + offset);
+
+    int line = findLine(offset);
+
+    return new TextPosition(line, offset - get(line));
+  }
+
+  /**
+   * Updates the index after the document was edited.
+   *
+   * @param offset the offset at which the edit starts
+   * @param replacedLength the number of characters removed by the edit
+   * @param newText the text inserted by the edit, using the line separator of the document
+   * @throws IllegalArgumentException if the edited region is not located in the document
+   */
+  public void update(int offset, int replacedLength, String newText) {
+    Objects.requireNonNull(newText, "The given text must not be null");
+
+    if (offset < 0 || replacedLength < 0 || offset + replacedLength > length)
+      throw new IllegalArgumentException(
+          "The edited region is not located in the document - o: "
+              + offset
+              + ", l: "
+              + replacedLength);
+
+    if (lineSeparator.isEmpty()) lineSeparator = TextPositionUtils.guessLineSeparator(newText);
+
+    int end = offset + replacedLength;
+
+    // keep all line starts up to the offset in front of the gap
+    moveGap(findLine(offset) + 1);
+
+    // drop the line starts of the replaced region
+    while (gapStart + gapLength < starts.length && get(gapStart) <= end) gapLength++;
+
+    /*
+     * Line starts behind the gap are stored relative to the end of the
+     * document and therefore do not need to be shifted
+     */
+    length += newText.length() - replacedLength;
+
+    if (lineSeparator.isEmpty()) return;
+
+    for (int index = newText.indexOf(lineSeparator);
+        index != -1;
+        index = newText.indexOf(lineSeparator, index + lineSeparator.length())) {
+
+      if (gapLength == 0) moveGap(gapStart);
+
+      starts[gapStart++] = offset + index + lineSeparator.length();
+      gapLength--;
+    }
+  }
+
+  /** Returns the absolute offset of the start of the given line. */
+  private int get(int line) {
+    return line < gapStart ? starts[line] : length - starts[line + gapLength];
+  }
+
+  /** Returns the number of the line containing the given offset. */
+  private int findLine(int offset) {
+    int low = 0;
+    int high = getLineCount() - 1;
+
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+
+      if (get(mid) <= offset) low = mid;
+      else high = mid - 1;
+    }
+
+    return low;
+  }
+
+  /**
+   * Moves the gap in front of the given line, growing the gap if it is full. The line starts that
+   * change their side of the gap are converted accordingly.
+   */
+  private void moveGap(int line) {
+    if (gapLength == 0) {
+      int[] grown = new int[starts.length * 2];
+      int suffix = starts.length - gapStart;
+
+      System.arraycopy(starts, 0, grown, 0, gapStart);
+      System.arraycopy(starts, gapStart, grown, grown.length - suffix, suffix);
+
+      gapLength = grown.length - starts.length;
+      starts = grown;
+    }
+
+    while (gapStart > line) {
+      gapStart--;
+      starts[gapStart + gapLength] = length - starts[gapStart];
+    }
+
+    while (gapStart < line) {
+      starts[gapStart] = length - starts[gapStart + gapLength];
+      gapStart++;
+    }
+  }
+}
@@ -66,6 +66,37 @@ public class TextPositionUtils {
     return lineStartOffset + position.getInLineOffset();
   }
 
+  /**
+   * Calculates the text position of the given offset in the given text using the given line
+   * separator. This is the inverse operation of {@link #calculateOffset(String, TextPosition,
+   * String)}.
+   *
+   * @param text the text with which to calculate the position
+   * @param offset the offset for which to calculate the position
+   * @param lineSeparator the line separator used in the text
+   * @return the text position of the given offset in the given text
+   * @throws NullPointerException if the given text or line separator is <code>null</code>
+   * @throws IllegalArgumentException if the given offset is negative or greater than the length of
+   *     the given text
+   */
+  public static TextPosition calculatePosition(String text, int offset, String lineSeparator) {
+    Objects.requireNonNull(text, "The given text must not be null");
+    Objects.requireNonNull(lineSeparator, "The given line separator must not be null");
+
+    if (offset < 0 || offset > text.length()) {
+      throw new IllegalArgumentException(
+          "The given offset is not located in the given text - o: " + offset);
+    }
+
+    if (lineSeparator.isEmpty()) {
+      return new TextPosition(0, offset);
+    }
+
+    Pair<Integer, Integer> deltas = calculateDeltas(text.substring(0, offset), lineSeparator);
+
+    return new TextPosition(deltas.getLeft(), deltas.getRight());
+  }
+
   /**
    * Calculates the line and offset delta contained in the text, i.e. how many lines the text
    * contains and how many characters it contains in the last line.
@@ -0,0 +1,181 @@
+package saros.filesystem.ignore;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.log4j.Logger;
+
+/**
+ * Decides whether the files and directories below a root directory are ignored according to the
+ * <code>.gitignore</code> files contained in the directory tree.
+ *
+ * <p>As in Git, the ignore files of deeper directories take precedence over the ones of their
+ * parent directories, everything contained in an ignored directory is ignored as well and <code>
+ * .git</code> directories are always ignored.
+ *
+ * <p>The compiled rules of every directory and the decisions for all directories are cached, so
+ * deciding for a file usually only matches the file against the rules of its directory hierarchy
+ * once. The engine does not watch the file system itself. The owner has to report changed resources
+ * by calling {@link #resourceChanged(String, boolean)}, which discards all cached rules and
+ * decisions if an ignore file might have been modified, created or deleted.
+ *
+ * <p>This class is thread safe.
+ */
+public final class IgnoreEngine {
+
+  private static final Logger log = Logger.getLogger(IgnoreEngine.class);
+
+  /** The name of the ignore files. */
+  public static final String IGNORE_FILE_NAME = ".gitignore";
+
+  private static final String GIT_DIRECTORY_NAME = ".git";
+
+  private final Path root;
+
+  /** The loaded rules per directory, keyed by the root relative directory path */
+  private final Map<String, IgnoreRules> rules = new ConcurrentHashMap<>();
+
+  /** The decisions for directories, keyed by the root relative directory path */
+  private final Map<String, Boolean> directoryDecisions = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an engine for the given root directory.
+   *
+   * @param root the directory containing the top level ignore file
+   */
+  public IgnoreEngine(Path root) {
+    this.root = root;
+  }
+
+  /**
+   * Returns whether the given file or directory is ignored.
+   *
+   * @param path the path relative to the root directory, using <code>/</code> as separator; the
+   *     empty path denotes the root directory which is never ignored
+   * @param isDirectory whether the path denotes a directory
+   * @return <code>true</code> if the resource is ignored
+   */
+  public boolean isIgnored(String path, boolean isDirectory) {
+    if (path.isEmpty()) return false;
+
+    if (isDirectory) return isDirectoryIgnored(path);
+
+    String parent = getParent(path);
+
+    return (!parent.isEmpty() && isDirectoryIgnored(parent)) || decide(path, false);
+  }
+
+  /**
+   * Notifies the engine that the given file or directory was created, modified or deleted. All
+   * cached rules and decisions are discarded if the resource is an ignore file or a directory that
+   * may contain loaded ignore files.
+   *
+   * @param path the path relative to the root directory, using <code>/</code> as separator
+   * @param isDirectory whether the path denotes a directory
+   */
+  public void resourceChanged(String path, boolean isDirectory) {
+    if (isDirectory ? containsLoadedRules(path) : getName(path).equals(IGNORE_FILE_NAME)) {
+      log.debug("ignore file below " + path + " changed, discarding cached ignore decisions");
+
+      invalidate();
+    }
+  }
+
+  /** Discards all cached rules and decisions. */
+  public void invalidate() {
+    rules.clear();
+    directoryDecisions.clear();
+  }
+
+  private boolean isDirectoryIgnored(String path) {
+    Boolean decision = directoryDecisions.get(path);
+
+    if (decision != null) return decision;
+
+    String parent = getParent(path);
+
+    boolean ignored = (!parent.isEmpty() && isDirectoryIgnored(parent)) || decide(path, true);
+
+    directoryDecisions.put(path, ignored);
+
+    return ignored;
+  }
+
+  /**
+   * Matches the path against the rules of all ignore files from its directory up to the root,
+   * assuming that none of its parent directories is ignored.
+   */
+  private boolean decide(String path, boolean isDirectory) {
+    if (isDirectory && getName(path).equals(GIT_DIRECTORY_NAME)) return true;
+
+    String directory = path;
+
+    do {
+      directory = getParent(directory);
+
+      String relativePath = directory.isEmpty() ? path : path.substring(directory.length() + 1);
+
+      Boolean match = getRules(directory).match(relativePath, isDirectory);
+
+      if (match != null) return match;
+
+    } while (!directory.isEmpty());
+
+    return false;
+  }
+
+  private IgnoreRules getRules(String directory) {
+    IgnoreRules loadedRules = rules.get(directory);
+
+    if (loadedRules == null) {
+      loadedRules = load(directory);
+      rules.put(directory, loadedRules);
+    }
+
+    return loadedRules;
+  }
+
+  private IgnoreRules load(String directory) {
+    Path file = getIgnoreFile(directory);
+
+    if (!Files.isRegularFile(file)) return IgnoreRules.EMPTY;
+
+    try {
+      return IgnoreRules.parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+
+    } catch (IOException e) {
+      log.warn("failed to read ignore file " + file, e);
+
+      return IgnoreRules.EMPTY;
+    }
+  }
+
+  /** Returns whether rules were loaded for the given directory or one of its subdirectories. */
+  private boolean containsLoadedRules(String directory) {
+    if (directory.isEmpty()) return !rules.isEmpty();
+
+    String prefix = directory + "/";
+
+    for (String loaded : rules.keySet())
+      if (loaded.equals(directory) || loaded.startsWith(prefix)) return true;
+
+    return false;
+  }
+
+  private Path getIgnoreFile(String directory) {
+    return (directory.isEmpty() ? root : root.resolve(directory)).resolve(IGNORE_FILE_NAME);
+  }
+
+  private static String getParent(String path) {
+    int index = path.lastIndexOf('/');
+
+    return index == -1 ? "" : path.substring(0, index);
+  }
+
+  private static String getName(String path) {
+    return path.substring(path.lastIndexOf('/') + 1);
+  }
+}
@@ -0,0 +1,244 @@
+package saros.filesystem.ignore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The compiled rules of a single ignore file using the <code>.gitignore</code> syntax.
+ *
+ * <p>Supported are comments, negated rules (<code>!pattern</code>), rules only matching directories
+ * (<code>pattern/</code>), rules anchored to the directory of the ignore file (rules containing a
+ * slash that is not the last character) and the wildcards <code>*</code>, <code>?</code>, <code>
+ * [...]</code> and <code>**</code>. Every rule is compiled to a regular expression once when the
+ * file is parsed.
+ *
+ * <p>Instances of this class are immutable.
+ *
+ * @see <a href="https://git-scm.com/docs/gitignore">gitignore documentation</a>
+ */
+public final class IgnoreRules {
+
+  /** Rules that do not match any path. */
+  public static final IgnoreRules EMPTY = new IgnoreRules(Collections.emptyList());
+
+  private static final class Rule {
+    private final Pattern pattern;
+    private final boolean negated;
+    private final boolean directoryOnly;
+
+    private Rule(Pattern pattern, boolean negated, boolean directoryOnly) {
+      this.pattern = pattern;
+      this.negated = negated;
+      this.directoryOnly = directoryOnly;
+    }
+  }
+
+  private final List<Rule> rules;
+
+  private IgnoreRules(List<Rule> rules) {
+    this.rules = rules;
+  }
+
+  /**
+   * Parses the content of an ignore file.
+   *
+   * @param content the content of the ignore file
+   * @return the compiled rules
+   */
+  public static IgnoreRules parse(String content) {
+    List<Rule> rules = new ArrayList<>();
+
+    for (String line : content.split("\r?\n|\r")) {
+      Rule rule = compile(line);
+
+      if (rule != null) rules.add(rule);
+    }
+
+    return rules.isEmpty() ? EMPTY : new IgnoreRules(Collections.unmodifiableList(rules));
+  }
+
+  /**
+   * Returns whether the rules contain no rule at all.
+   *
+   * @return <code>true</code> if no path is matched by these rules
+   */
+  public boolean isEmpty() {
+    return rules.isEmpty();
+  }
+
+  /**
+   * Matches the given path against the rules. As defined by the <code>.gitignore</code> semantics,
+   * the last matching rule determines the result.
+   *
+   * @param path the path relative to the directory of the ignore file, using <code>/</code> as
+   *     separator
+   * @param isDirectory whether the path denotes a directory
+   * @return {@link Boolean#TRUE} if the path is ignored, {@link Boolean#FALSE} if it is explicitly
+   *     included by a negated rule or <code>null</code> if no rule matches the path
+   */
+  public Boolean match(String path, boolean isDirectory) {
+    for (int i = rules.size() - 1; i >= 0; i--) {
+      Rule rule = rules.get(i);
+
+      if (rule.directoryOnly && !isDirectory) continue;
+
+      if (rule.pattern.matcher(path).matches()) return !rule.negated;
+    }
+
+    return null;
+  }
+
+  /** Compiles a single line of an ignore file, returns <code>null</code> for non-rule lines. */
+  private static Rule compile(String line) {
+    line = trimTrailingSpaces(line);
+
+    if (line.isEmpty() || line.startsWith("#")) return null;
+
+    boolean negated = false;
+
+    if (line.startsWith("!")) {
+      negated = true;
+      line = line.substring(1);
+    }
+
+    boolean directoryOnly = false;
+
+    if (line.endsWith("/")) {
+      directoryOnly = true;
+      line = line.substring(0, line.length() - 1);
+    }
+
+    if (line.isEmpty()) return null;
+
+    // patterns without a slash match at any depth, all others relative to the ignore file
+    boolean anchored = line.indexOf('/') != -1;
+
+    if (line.startsWith("/")) line = line.substring(1);
+
+    String regex = toRegex(line);
+
+    if (!anchored) regex = "(?:.*/)?" + regex;
+
+    return new Rule(Pattern.compile(regex), negated, directoryOnly);
+  }
+
+  private static String trimTrailingSpaces(String line) {
+    int end = line.length();
+
+    while (end > 0 && line.charAt(end - 1) == ' ') {
+      if (end > 1 && line.charAt(end - 2) == '\\') break;
+
+      end--;
+    }
+
+    return line.substring(0, end);
+  }
+
+  /** Converts a glob pattern to a regular expression. */
+  private static String toRegex(String glob) {
+    StringBuilder regex = new StringBuilder();
+
+    int length = glob.length();
+
+    for (int i = 0; i < length; i++) {
+      char c = glob.charAt(i);
+
+      switch (c) {
+        case '*':
+          boolean atSegmentStart = i == 0 || glob.charAt(i - 1) == '/';
+
+          if (i + 1 < length && glob.charAt(i + 1) == '*' && atSegmentStart) {
+            if (i + 2 == length) {
+              // trailing "**" matches everything inside
+              regex.append(".*");
+              i++;
+              break;
+
+            } else if (glob.charAt(i + 2) == '/') {
+              // leading or inner "**/" matches zero or more directories
+              regex.append("(?:.*/)?");
+              i += 2;
+              break;
+            }
+          }
+
+          // any other sequence of asterisks matches within one segment
+          while (i + 1 < length && glob.charAt(i + 1) == '*') i++;
+
+          regex.append("[^/]*");
+          break;
+
+        case '?':
+          regex.append("[^/]");
+          break;
+
+        case '[':
+          int end = findClassEnd(glob, i);
+
+          if (end == -1) {
+            regex.append("\\[");
+            break;
+          }
+
+          regex.append(toCharacterClass(glob.substring(i + 1, end)));
+          i = end;
+          break;
+
+        case '\\':
+          if (i + 1 < length) c = glob.charAt(++i);
+
+          regex.append(Pattern.quote(String.valueOf(c)));
+          break;
+
+        default:
+          regex.append(Pattern.quote(String.valueOf(c)));
+      }
+    }
+
+    return regex.toString();
+  }
+
+  /**
+   * Returns the index of the closing bracket of the character class starting at the given index.
+   */
+  private static int findClassEnd(String glob, int start) {
+    int i = start + 1;
+
+    if (i < glob.length() && (glob.charAt(i) == '!' || glob.charAt(i) == '^')) i++;
+
+    // a closing bracket directly after the opening one is part of the class
+    if (i < glob.length() && glob.charAt(i) == ']') i++;
+
+    for (; i < glob.length(); i++) {
+      if (glob.charAt(i) == ']') return i;
+    }
+
+    return -1;
+  }
+
+  private static String toCharacterClass(String content) {
+    StringBuilder regex = new StringBuilder("[");
+
+    int i = 0;
+
+    // character classes never match the separator
+    if (!content.isEmpty() && (content.charAt(0) == '!' || content.charAt(0) == '^')) {
+      regex.append("^/");
+      i++;
+    }
+
+    for (; i < content.length(); i++) {
+      char c = content.charAt(i);
+
+      if (c == '/') continue;
+
+      if (c == '\\' || c == '[' || c == ']' || c == '^' || c == '&') regex.append('\\');
+
+      regex.append(c);
+    }
+
+    return regex.length() == 1 ? "(?!)" : regex.append(']').toString();
+  }
+}
@@ -6,6 +6,8 @@ import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.log4j.Logger;
 import saros.activities.ResourceTransportWrapper;
 import saros.annotations.Component;
@@ -29,6 +31,13 @@ import saros.util.PathUtils;
  * <pre>
  * &lt;saros.activities.ResourceTransportWrapper i="ABC" p="%2Fsrc%2FMain.java" t="FILE"/&gt;
  * </pre>
+ *
+ * <p>Reference points themselves are represented by their id and an empty path.
+ *
+ * <p>The files and folders are cached per reference point by their XML representation, so
+ * unmarshalling a resource that was converted before does neither decode its path nor create a new
+ * handle. The cache of a reference point is discarded once the session returns another reference
+ * point for its id.
  */
 @Component
 public class ResourceTransportWrapperConverter implements Converter, Startable {
@@ -39,8 +48,25 @@ public class ResourceTransportWrapperConverter implements Converter, Startable {
   private static final String REFERENCE_POINT_ID = "i";
   private static final String TYPE = "t";
 
+  /** The maximum number of files and folders cached per reference point. */
+  private static final int MAX_CACHED_RESOURCES = 4096;
+
   private final ISarosSession session;
 
+  private final Map<String, ResourceCache> resourceCaches = new ConcurrentHashMap<>();
+
+  /** The files and folders of a reference point, keyed by their encoded path. */
+  private static final class ResourceCache {
+    private final IReferencePoint referencePoint;
+
+    private final Map<String, IResource> files = new ConcurrentHashMap<>();
+    private final Map<String, IResource> folders = new ConcurrentHashMap<>();
+
+    private ResourceCache(IReferencePoint referencePoint) {
+      this.referencePoint = referencePoint;
+    }
+  }
+
   public ResourceTransportWrapperConverter(ISarosSession session) {
     this.session = session;
   }
@@ -53,6 +79,8 @@ public class ResourceTransportWrapperConverter implements Converter, Startable {
   @Override
   public void stop() {
     ActivitiesExtension.PROVIDER.unregisterConverter(this);
+
+    resourceCaches.clear();
   }
 
   @Override
@@ -81,11 +109,6 @@ public class ResourceTransportWrapperConverter implements Converter, Startable {
 
     Type type = resource.getType();
 
-    if (type != Type.FILE && type != Type.FOLDER) {
-      throw new IllegalStateException(
-          "Illegal resource type " + type + " for resource " + resource);
-    }
-
     String t = type.name();
 
     writer.addAttribute(REFERENCE_POINT_ID, i);
@@ -97,7 +120,7 @@ public class ResourceTransportWrapperConverter implements Converter, Startable {
   public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
 
     String i = reader.getAttribute(REFERENCE_POINT_ID);
-    String p = URLCodec.decode(reader.getAttribute(PATH));
+    String p = reader.getAttribute(PATH);
     String t = reader.getAttribute(TYPE);
 
     IReferencePoint referencePoint = session.getReferencePoint(i);
@@ -109,14 +132,12 @@ public class ResourceTransportWrapperConverter implements Converter, Startable {
       return null;
     }
 
-    Path path = PathUtils.fromPortableString(p);
-
     Type type = Type.valueOf(t);
 
-    if (type == Type.FILE) {
-      return new ResourceTransportWrapper<>(referencePoint.getFile(path));
-    } else if (type == Type.FOLDER) {
-      return new ResourceTransportWrapper<>(referencePoint.getFolder(path));
+    if (type == Type.FILE || type == Type.FOLDER) {
+      return new ResourceTransportWrapper<>(getResource(i, referencePoint, type, p));
+    } else if (type == Type.REFERENCE_POINT) {
+      return new ResourceTransportWrapper<>(referencePoint);
     } else {
       throw new IllegalStateException(
           "Illegal resource type "
@@ -124,4 +145,33 @@ public class ResourceTransportWrapperConverter implements Converter, Startable {
               + ". This should not be possible and might hint at a version mismatch.");
     }
   }
+
+  /**
+   * Returns the file or folder with the given encoded path, creating its handle if it is not cached
+   * yet.
+   */
+  private IResource getResource(
+      String referencePointId, IReferencePoint referencePoint, Type type, String encodedPath) {
+
+    ResourceCache cache = resourceCaches.get(referencePointId);
+
+    if (cache == null || cache.referencePoint != referencePoint) {
+      cache = new ResourceCache(referencePoint);
+      resourceCaches.put(referencePointId, cache);
+    }
+
+    Map<String, IResource> resources = type == Type.FILE ? cache.files : cache.folders;
+
+    IResource resource = resources.get(encodedPath);
+
+    if (resource != null) return resource;
+
+    Path path = PathUtils.fromPortableString(URLCodec.decode(encodedPath));
+
+    resource = type == Type.FILE ? referencePoint.getFile(path) : referencePoint.getFolder(path);
+
+    if (resources.size() < MAX_CACHED_RESOURCES) resources.put(encodedPath, resource);
+
+    return resource;
+  }
 }
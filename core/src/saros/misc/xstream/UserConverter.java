@@ -1,6 +1,8 @@
 package saros.misc.xstream;
 
 import com.thoughtworks.xstream.converters.basic.AbstractSingleValueConverter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import saros.annotations.Component;
 import saros.communication.extensions.ActivitiesExtension;
 import saros.net.xmpp.JID;
@@ -11,12 +13,19 @@ import saros.session.User;
 /**
  * Converts session-dependent User objects to session-independent XML representations, and vice
  * versa.
+ *
+ * <p>As every activity references at least one user, the encoded JIDs and the users they resolve to
+ * are cached, so converting a user does neither parse nor encode its JID again. Users that are no
+ * longer part of the session are never returned from the cache.
  */
 @Component
 public class UserConverter extends AbstractSingleValueConverter implements Startable {
 
   private ISarosSession session;
 
+  private final Map<String, User> users = new ConcurrentHashMap<>();
+  private final Map<String, String> encodedJIDs = new ConcurrentHashMap<>();
+
   public UserConverter(ISarosSession session) {
     this.session = session;
   }
@@ -29,6 +38,9 @@ public class UserConverter extends AbstractSingleValueConverter implements Start
   @Override
   public void stop() {
     ActivitiesExtension.PROVIDER.unregisterConverter(this);
+
+    users.clear();
+    encodedJIDs.clear();
   }
 
   @SuppressWarnings({"rawtypes"})
@@ -39,13 +51,22 @@ public class UserConverter extends AbstractSingleValueConverter implements Start
 
   @Override
   public String toString(Object obj) {
-    JID jid = ((User) obj).getJID();
-    return URLCodec.encode(jid.toString());
+    // keyed by the string as JIDs are equal regardless of their resource
+    return encodedJIDs.computeIfAbsent(((User) obj).getJID().toString(), URLCodec::encode);
   }
 
   @Override
   public Object fromString(String str) {
+    User user = users.get(str);
+
+    if (user != null && user.isInSession()) return user;
+
     JID jid = new JID(URLCodec.decode(str));
-    return session.getUser(jid);
+    user = session.getUser(jid);
+
+    if (user != null && user.isInSession()) users.put(str, user);
+    else users.remove(str);
+
+    return user;
   }
 }
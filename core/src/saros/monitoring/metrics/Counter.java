@@ -0,0 +1,40 @@
+package saros.monitoring.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, e.g. the number of transformed activities.
+ *
+ * <p>This class is thread safe and optimized for frequent concurrent updates.
+ */
+public final class Counter {
+
+  private final LongAdder count = new LongAdder();
+
+  Counter() {
+    // created by the registry
+  }
+
+  /** Increments the count by one. */
+  public void increment() {
+    count.increment();
+  }
+
+  /**
+   * Increments the count by the given amount.
+   *
+   * @param amount the amount to add
+   */
+  public void add(long amount) {
+    count.add(amount);
+  }
+
+  /**
+   * Returns the current count.
+   *
+   * @return the current count
+   */
+  public long get() {
+    return count.sum();
+  }
+}
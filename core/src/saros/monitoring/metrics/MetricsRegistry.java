@@ -0,0 +1,267 @@
+package saros.monitoring.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.apache.log4j.Logger;
+import saros.annotations.Component;
+import saros.repackaged.picocontainer.Startable;
+import saros.util.LatencyHistogram;
+import saros.util.NamedThreadFactory;
+import saros.util.ThreadUtils;
+
+/**
+ * A lightweight registry of named metrics. Components obtain their {@linkplain Counter counters}
+ * and {@linkplain LatencyHistogram histograms} by name and register gauges that are evaluated
+ * whenever the metrics are read. Durations are recorded in microseconds by convention, the names of
+ * the corresponding histograms end with <code>_us</code>.
+ *
+ * <p>Metric names are dot separated and start with the area of the component, e.g. <code>
+ * net.dispatch.backlog</code>. Session components should remove their gauges when the session is
+ * stopped, as a gauge keeps a reference to the component.
+ *
+ * <p>The metrics can be dumped periodically by setting the system property <code>
+ * saros.metrics.DUMP_INTERVAL</code> to the interval in seconds. The metrics are then written to
+ * the file given by the system property <code>saros.metrics.DUMP_FILE</code>, as JSON if the name
+ * of the file ends with <code>.json</code> or as text otherwise. Without a file the metrics are
+ * logged.
+ *
+ * <p>This class is thread safe.
+ */
+@Component(module = "core")
+public class MetricsRegistry implements Startable {
+
+  private static final Logger log = Logger.getLogger(MetricsRegistry.class);
+
+  private static final int DUMP_INTERVAL =
+      Math.max(0, Integer.getInteger("saros.metrics.DUMP_INTERVAL", 0));
+
+  private static final String DUMP_FILE = System.getProperty("saros.metrics.DUMP_FILE");
+
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+  private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService dumpExecutor;
+
+  @Override
+  public synchronized void start() {
+    if (DUMP_INTERVAL == 0) return;
+
+    dumpExecutor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("metrics-dump"));
+
+    dumpExecutor.scheduleWithFixedDelay(
+        ThreadUtils.wrapSafe(log, this::dump), DUMP_INTERVAL, DUMP_INTERVAL, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (dumpExecutor == null) return;
+
+    dumpExecutor.shutdownNow();
+    dumpExecutor = null;
+  }
+
+  /**
+   * Returns the counter with the given name. The counter is created if it does not exist yet.
+   *
+   * @param name the name of the counter
+   * @return the counter
+   */
+  public Counter counter(String name) {
+    return counters.computeIfAbsent(name, key -> new Counter());
+  }
+
+  /**
+   * Returns the histogram with the given name. The histogram is created if it does not exist yet.
+   *
+   * @param name the name of the histogram
+   * @return the histogram
+   */
+  public LatencyHistogram histogram(String name) {
+    return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+  }
+
+  /**
+   * Registers a gauge, replacing any gauge with the same name. The gauge is evaluated every time
+   * the metrics are read, possibly by another thread.
+   *
+   * @param name the name of the gauge
+   * @param gauge supplies the current value
+   */
+  public void gauge(String name, LongSupplier gauge) {
+    gauges.put(name, gauge);
+  }
+
+  /**
+   * Removes the gauge with the given name.
+   *
+   * @param name the name of the gauge
+   */
+  public void removeGauge(String name) {
+    gauges.remove(name);
+  }
+
+  /**
+   * Returns the current values of all counters and gauges, sorted by name. Gauges that fail to
+   * provide a value are omitted.
+   *
+   * @return the current values
+   */
+  public Map<String, Long> getValues() {
+    Map<String, Long> values = new TreeMap<>();
+
+    counters.forEach((name, counter) -> values.put(name, counter.get()));
+
+    gauges.forEach(
+        (name, gauge) -> {
+          try {
+            values.put(name, gauge.getAsLong());
+          } catch (RuntimeException e) {
+            log.debug("gauge " + name + " failed", e);
+          }
+        });
+
+    return values;
+  }
+
+  /**
+   * Returns all histograms, sorted by name.
+   *
+   * @return the histograms
+   */
+  public Map<String, LatencyHistogram> getHistograms() {
+    return new TreeMap<>(histograms);
+  }
+
+  /**
+   * Returns the current metrics as human readable text.
+   *
+   * @return the metrics as text
+   */
+  public String toText() {
+    StringBuilder out = new StringBuilder();
+
+    for (Map.Entry<String, Long> value : getValues().entrySet())
+      out.append(String.format(Locale.ROOT, "%-40s %12d%n", value.getKey(), value.getValue()));
+
+    Map<String, LatencyHistogram> currentHistograms = getHistograms();
+
+    if (currentHistograms.isEmpty()) return out.toString();
+
+    out.append(
+        String.format(
+            Locale.ROOT,
+            "%n%-40s %12s %12s %12s %12s %12s %12s%n",
+            "histogram",
+            "count",
+            "mean",
+            "p50",
+            "p90",
+            "p99",
+            "max"));
+
+    for (Map.Entry<String, LatencyHistogram> entry : currentHistograms.entrySet()) {
+      LatencyHistogram histogram = entry.getValue();
+
+      out.append(
+          String.format(
+              Locale.ROOT,
+              "%-40s %12d %12.1f %12d %12d %12d %12d%n",
+              entry.getKey(),
+              histogram.getCount(),
+              histogram.getMean(),
+              histogram.getValueAtPercentile(50),
+              histogram.getValueAtPercentile(90),
+              histogram.getValueAtPercentile(99),
+              histogram.getMax()));
+    }
+
+    return out.toString();
+  }
+
+  /**
+   * Returns the current metrics as a JSON object with the members <code>timestamp</code>, <code>
+   * values</code> and <code>histograms</code>.
+   *
+   * @return the metrics as JSON
+   */
+  public String toJson() {
+    StringBuilder out = new StringBuilder();
+
+    out.append("{\"timestamp\":").append(System.currentTimeMillis());
+
+    out.append(",\"values\":{");
+
+    String separator = "";
+
+    for (Map.Entry<String, Long> value : getValues().entrySet()) {
+      out.append(separator).append(quote(value.getKey())).append(':').append(value.getValue());
+      separator = ",";
+    }
+
+    out.append("},\"histograms\":{");
+
+    separator = "";
+
+    for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+      LatencyHistogram histogram = entry.getValue();
+
+      out.append(separator)
+          .append(quote(entry.getKey()))
+          .append(":{\"count\":")
+          .append(histogram.getCount())
+          .append(",\"mean\":")
+          .append(String.format(Locale.ROOT, "%.1f", histogram.getMean()))
+          .append(",\"p50\":")
+          .append(histogram.getValueAtPercentile(50))
+          .append(",\"p90\":")
+          .append(histogram.getValueAtPercentile(90))
+          .append(",\"p99\":")
+          .append(histogram.getValueAtPercentile(99))
+          .append(",\"max\":")
+          .append(histogram.getMax())
+          .append('}');
+
+      separator = ",";
+    }
+
+    return out.append("}}").toString();
+  }
+
+  /** Writes the metrics to the configured dump file or to the log if no file is configured. */
+  void dump() {
+    if (DUMP_FILE == null) {
+      log.info("metrics:\n" + toText());
+      return;
+    }
+
+    Path file = Paths.get(DUMP_FILE);
+    Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+    String content = DUMP_FILE.endsWith(".json") ? toJson() : toText();
+
+    // replace the file at once, so readers never see a partially written dump
+    try {
+      Files.write(temporaryFile, content.getBytes(StandardCharsets.UTF_8));
+      Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      log.warn("failed to write metrics to " + file, e);
+    }
+  }
+
+  private static String quote(String value) {
+    return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+}
@@ -7,6 +7,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
 import saros.activities.ProgressActivity;
 import saros.annotations.Component;
 import saros.monitoring.IProgressMonitor;
@@ -21,18 +24,53 @@ import saros.session.ISessionLifecycleListener;
 import saros.session.ISessionListener;
 import saros.session.SessionEndReason;
 import saros.session.User;
+import saros.util.NamedThreadFactory;
+import saros.util.ThreadUtils;
 
 /**
  * The RemoteProgressManager is responsible for creating and managing {@link RemoteProgressMonitor
  * remote progress monitors} which report task progress to remote sites, as well as for listening
  * for remote progress and reporting it through {@link IRemoteProgressIndicator} instances.
+ *
+ * <p>To prevent progress reporting from flooding the network layer, the sending of progress
+ * activities is flow controlled:
+ *
+ * <ul>
+ *   <li>Progress updates ({@link IProgressMonitor#worked(int) worked} and {@link
+ *       IProgressMonitor#subTask(String) subTask}) of a remote progress monitor are coalesced, only
+ *       the latest state is sent and at most once per {@link #MIN_UPDATE_INTERVAL}.
+ *   <li>All remote progress monitors share a budget of {@link #MAX_CREDITS} credits that is
+ *       refilled at a rate of {@link #MAX_CREDITS} credits per second. Sending one progress
+ *       activity costs one credit. Progress updates are deferred while no credits are available, so
+ *       that progress reporting can not crowd out other activities. Progress actions that change
+ *       the structure of a progress (e.g. begin, done or cancel) are never deferred but are charged
+ *       as well.
+ * </ul>
  */
 @Component(module = "core")
-// FIXME this component has NO flow control, it can flood the network layer
 public class RemoteProgressManager extends AbstractActivityProducer {
 
+  private static final Logger log = Logger.getLogger(RemoteProgressManager.class);
+
   private static final Random RANDOM = new Random();
 
+  /** Minimal interval in milliseconds between two progress updates of the same monitor. */
+  static final long MIN_UPDATE_INTERVAL = 250;
+
+  /** Maximal number of available credits, also the number of credits refilled per second. */
+  static final int MAX_CREDITS = 20;
+
+  /** Interval in milliseconds in which one credit is refilled. */
+  private static final long CREDIT_REFILL_INTERVAL = 1000 / MAX_CREDITS;
+
+  private final Object creditLock = new Object();
+
+  private int credits = MAX_CREDITS;
+
+  private long lastCreditRefill = System.currentTimeMillis();
+
+  private final ScheduledThreadPoolExecutor updateScheduler;
+
   private final ISarosSessionManager sessionManager;
   private final IRemoteProgressIndicatorFactory progressIndicatorFactory;
   private volatile ISarosSession session;
@@ -143,6 +181,11 @@ public class RemoteProgressManager extends AbstractActivityProducer {
     this.sessionManager = sessionManager;
     this.sessionManager.addSessionLifecycleListener(sessionLifecycleListener);
     this.progressIndicatorFactory = progressIndicatorFactory;
+
+    updateScheduler =
+        new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("remote-progress-updater"));
+    updateScheduler.setKeepAliveTime(MIN_UPDATE_INTERVAL * 4, TimeUnit.MILLISECONDS);
+    updateScheduler.allowCoreThreadTimeOut(true);
   }
 
   /**
@@ -181,6 +224,83 @@ public class RemoteProgressManager extends AbstractActivityProducer {
     fireActivity(activity);
   }
 
+  /**
+   * Called by a {@link RemoteProgressMonitor} before it sends a progress update. Takes the given
+   * number of credits if that many credits are available.
+   *
+   * @param count the number of progress activities to send
+   * @return <code>true</code> if the credits were taken and the update may be sent, <code>false
+   *     </code> if the update has to be deferred
+   */
+  boolean tryAcquireCredits(int count) {
+    synchronized (creditLock) {
+      refillCredits();
+
+      // allow an update to multiple users even if it exceeds the maximum
+      if (credits < Math.min(count, MAX_CREDITS)) return false;
+
+      credits -= count;
+      return true;
+    }
+  }
+
+  /**
+   * Called by a {@link RemoteProgressMonitor} before it sends a progress action that must not be
+   * deferred. Takes the given number of credits even if they are not available.
+   *
+   * @param count the number of progress activities to send
+   */
+  void chargeCredits(int count) {
+    synchronized (creditLock) {
+      refillCredits();
+      credits -= count;
+    }
+  }
+
+  /**
+   * Returns the time in milliseconds until the given number of credits are available.
+   *
+   * @param count the number of credits needed
+   * @return the time in milliseconds until the credits are available
+   */
+  long getCreditDelay(int count) {
+    synchronized (creditLock) {
+      refillCredits();
+
+      final int missing = Math.min(count, MAX_CREDITS) - credits;
+
+      return missing <= 0 ? 0 : missing * CREDIT_REFILL_INTERVAL;
+    }
+  }
+
+  /**
+   * Called by a {@link RemoteProgressMonitor} that has a deferred progress update. Calls {@link
+   * RemoteProgressMonitor#sendPendingUpdate()} after the given delay.
+   *
+   * @param monitor the monitor with the deferred update
+   * @param delay the delay in milliseconds
+   */
+  void scheduleUpdate(final RemoteProgressMonitor monitor, long delay) {
+    updateScheduler.schedule(
+        ThreadUtils.wrapSafe(log, monitor::sendPendingUpdate),
+        Math.max(delay, CREDIT_REFILL_INTERVAL),
+        TimeUnit.MILLISECONDS);
+  }
+
+  private void refillCredits() {
+    assert Thread.holdsLock(creditLock);
+
+    final long now = System.currentTimeMillis();
+    final long refills = (now - lastCreditRefill) / CREDIT_REFILL_INTERVAL;
+
+    if (refills <= 0) return;
+
+    credits = (int) Math.min(MAX_CREDITS, credits + refills);
+    lastCreditRefill += refills * CREDIT_REFILL_INTERVAL;
+
+    if (credits == MAX_CREDITS) lastCreditRefill = now;
+  }
+
   /**
    * Called by a {@link IRemoteProgressIndicator} if it has stopped, either because {@link
    * IRemoteProgressIndicator#stop} has been called directly or {@link
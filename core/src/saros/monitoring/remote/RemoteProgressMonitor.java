@@ -13,6 +13,10 @@ import saros.util.StackTrace;
  * An {@link IProgressMonitor} implementation which sends all progress as activities to a specific
  * set of users. Instances are created by calling {@link
  * RemoteProgressManager#createRemoteProgressMonitor}.
+ *
+ * <p>Progress updates ({@link #worked(int)} and {@link #subTask(String)}) are coalesced and sent
+ * according to the flow control of the {@link RemoteProgressManager}. All other progress actions
+ * are sent immediately, after any pending progress update.
  */
 class RemoteProgressMonitor implements IProgressMonitor {
 
@@ -27,6 +31,17 @@ class RemoteProgressMonitor implements IProgressMonitor {
   private int worked = 0;
   private int totalWorked = -1;
 
+  /** Whether there is a progress update that was not sent yet. */
+  private boolean hasPendingUpdate;
+
+  /** The latest sub task name of the pending update, or <code>null</code> if there is none. */
+  private String pendingSubTask;
+
+  /** Whether the {@link RemoteProgressManager} will call {@link #sendPendingUpdate()}. */
+  private boolean isUpdateScheduled;
+
+  private long lastUpdate;
+
   /**
    * Creates a RemoteProgressMonitor which wraps an existing {@link IProgressMonitor}. All progress
    * is both forwarded to that monitor and sent out as progress activities.
@@ -52,16 +67,18 @@ class RemoteProgressMonitor implements IProgressMonitor {
   }
 
   @Override
-  public void beginTask(String name, int totalWorked) {
+  public synchronized void beginTask(String name, int totalWorked) {
     monitor.beginTask(name, totalWorked);
     this.totalWorked = totalWorked;
-    createProgressActivityForUsers(0, totalWorked, name, ProgressAction.BEGINTASK);
+    discardPendingUpdate();
+    sendImmediately(0, totalWorked, name, ProgressAction.BEGINTASK);
   }
 
   @Override
-  public void done() {
+  public synchronized void done() {
     monitor.done();
-    createProgressActivityForUsers(0, 0, null, ProgressAction.DONE);
+    discardPendingUpdate();
+    sendImmediately(0, 0, null, ProgressAction.DONE);
   }
 
   @Override
@@ -70,25 +87,33 @@ class RemoteProgressMonitor implements IProgressMonitor {
   }
 
   @Override
-  public void setCanceled(boolean value) {
+  public synchronized void setCanceled(boolean value) {
     monitor.setCanceled(value);
-    createProgressActivityForUsers(worked, totalWorked, "Cancellation", ProgressAction.CANCEL);
+    discardPendingUpdate();
+    sendImmediately(worked, totalWorked, "Cancellation", ProgressAction.CANCEL);
   }
 
   @Override
-  public void setTaskName(String name) {
+  public synchronized void setTaskName(String name) {
     monitor.setTaskName(name);
-    createProgressActivityForUsers(worked, totalWorked, name, ProgressAction.SETTASKNAME);
+
+    if (hasPendingUpdate) {
+      rpm.chargeCredits(remoteUsers.size());
+      flushPendingUpdate();
+    }
+
+    sendImmediately(worked, totalWorked, name, ProgressAction.SETTASKNAME);
   }
 
   @Override
-  public void subTask(String name) {
+  public synchronized void subTask(String name) {
     monitor.subTask(name);
-    createProgressActivityForUsers(worked, totalWorked, name, ProgressAction.SUBTASK);
+    pendingSubTask = name;
+    updateProgress();
   }
 
   @Override
-  public void worked(int work) {
+  public synchronized void worked(int work) {
     monitor.worked(work);
     worked += work;
 
@@ -101,7 +126,65 @@ class RemoteProgressMonitor implements IProgressMonitor {
           new StackTrace());
     }
 
-    createProgressActivityForUsers(worked, totalWorked, null, ProgressAction.UPDATE);
+    updateProgress();
+  }
+
+  /**
+   * Sends the pending progress update if the flow control permits it, otherwise the update is
+   * deferred. Called by the {@link RemoteProgressManager} for deferred updates.
+   */
+  synchronized void sendPendingUpdate() {
+    isUpdateScheduled = false;
+
+    if (!hasPendingUpdate) return;
+
+    final long delay =
+        Math.max(
+            lastUpdate + RemoteProgressManager.MIN_UPDATE_INTERVAL - System.currentTimeMillis(),
+            rpm.getCreditDelay(remoteUsers.size()));
+
+    if (delay > 0 || !rpm.tryAcquireCredits(remoteUsers.size())) {
+      isUpdateScheduled = true;
+      rpm.scheduleUpdate(this, delay);
+      return;
+    }
+
+    flushPendingUpdate();
+  }
+
+  /** Marks the current progress as pending and sends it if the flow control permits it. */
+  private void updateProgress() {
+    hasPendingUpdate = true;
+
+    if (!isUpdateScheduled) sendPendingUpdate();
+  }
+
+  /** Sends the pending progress update, the caller is responsible for the flow control. */
+  private void flushPendingUpdate() {
+    if (!hasPendingUpdate) return;
+
+    final String subTask = pendingSubTask;
+
+    discardPendingUpdate();
+    lastUpdate = System.currentTimeMillis();
+
+    createProgressActivityForUsers(
+        worked,
+        totalWorked,
+        subTask,
+        subTask != null ? ProgressAction.SUBTASK : ProgressAction.UPDATE);
+  }
+
+  private void discardPendingUpdate() {
+    hasPendingUpdate = false;
+    pendingSubTask = null;
+  }
+
+  private void sendImmediately(
+      int workCurrent, int workTotal, String taskName, ProgressAction action) {
+
+    rpm.chargeCredits(remoteUsers.size());
+    createProgressActivityForUsers(workCurrent, workTotal, taskName, action);
   }
 
   private void createProgressActivityForUsers(
@@ -1,9 +1,12 @@
 package saros.net;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.apache.log4j.Logger;
 import saros.annotations.Component;
+import saros.monitoring.metrics.MetricsRegistry;
 import saros.repackaged.picocontainer.Disposable;
 import saros.util.NamedThreadFactory;
 import saros.util.ThreadUtils;
@@ -14,8 +17,26 @@ public class DispatchThreadContext implements Disposable {
 
   private static final Logger log = Logger.getLogger(DispatchThreadContext.class);
 
-  protected ExecutorService dispatch =
-      Executors.newSingleThreadExecutor(new NamedThreadFactory("DispatchContext", false));
+  private final ThreadPoolExecutor executor =
+      new ThreadPoolExecutor(
+          1,
+          1,
+          0L,
+          TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<>(),
+          new NamedThreadFactory("DispatchContext", false));
+
+  protected ExecutorService dispatch = executor;
+
+  /**
+   * Creates a dispatch context that publishes the number of pending tasks as the gauge <code>
+   * net.dispatch.backlog</code>.
+   *
+   * @param metricsRegistry the registry to publish the gauge to
+   */
+  public DispatchThreadContext(MetricsRegistry metricsRegistry) {
+    metricsRegistry.gauge("net.dispatch.backlog", () -> executor.getQueue().size());
+  }
 
   /**
    * Execute the given runnable as if it was received via the network component.
@@ -90,4 +90,13 @@ final class ConnectionPool {
 
     return pool.remove(id);
   }
+
+  /**
+   * Returns the number of connections in the pool.
+   *
+   * @return the number of connections or <code>0</code> if the pool is closed
+   */
+  public synchronized int size() {
+    return pool.size();
+  }
 }
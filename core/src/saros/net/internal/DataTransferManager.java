@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
@@ -16,6 +17,7 @@ import org.jivesoftware.smack.Connection;
 import saros.annotations.Component;
 import saros.context.IContextKeyBindings.IBBStreamService;
 import saros.context.IContextKeyBindings.Socks5StreamService;
+import saros.monitoring.metrics.MetricsRegistry;
 import saros.net.ConnectionState;
 import saros.net.IConnectionManager;
 import saros.net.stream.IStreamService;
@@ -54,6 +56,8 @@ public class DataTransferManager implements IConnectionListener, IConnectionMana
 
   private final ConnectionPool connectionPool = new ConnectionPool();
 
+  private final MetricsRegistry metricsRegistry;
+
   private final Set<String> currentOutgoingConnectionEstablishments = new HashSet<String>();
 
   private final List<IStreamService> streamServices = new CopyOnWriteArrayList<IStreamService>();
@@ -119,6 +123,10 @@ public class DataTransferManager implements IConnectionListener, IConnectionMana
             }
           }
 
+          metricsRegistry
+              .counter("net.connections." + connection.getMode().name().toLowerCase(Locale.ROOT))
+              .increment();
+
           connection.initialize();
         }
 
@@ -133,13 +141,17 @@ public class DataTransferManager implements IConnectionListener, IConnectionMana
   public DataTransferManager(
       XMPPConnectionService connectionService,
       @Nullable @Socks5StreamService IStreamService mainService,
-      @Nullable @IBBStreamService IStreamService fallbackService) {
+      @Nullable @IBBStreamService IStreamService fallbackService,
+      MetricsRegistry metricsRegistry) {
 
     this.fallbackService = fallbackService;
     this.mainService = mainService;
+    this.metricsRegistry = metricsRegistry;
     this.setStreamServices();
 
     connectionService.addListener(this);
+
+    metricsRegistry.gauge("net.connections.open", connectionPool::size);
   }
 
   /** @deprecated */
@@ -304,7 +304,7 @@ public class XMPPReceiver implements IReceiver, IBinaryXMPPExtensionReceiver {
     }
   }
 
-  private static byte[] inflate(byte[] input) throws IOException {
+  static byte[] inflate(byte[] input) throws IOException {
 
     ByteArrayOutputStream bos;
     Inflater decompressor = new Inflater();
@@ -225,7 +225,7 @@ public class XMPPTransmitter implements ITransmitter, IConnectionListener {
     }
   }
 
-  private static byte[] deflate(byte[] input) {
+  static byte[] deflate(byte[] input) {
 
     Deflater compressor = new Deflater(Deflater.DEFLATED);
     compressor.setInput(input);
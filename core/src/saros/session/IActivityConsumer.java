@@ -62,4 +62,16 @@ public interface IActivityConsumer {
    * <p>Implementations may expect that this method is called from the UI thread (EDT).
    */
   public void exec(IActivity activity);
+
+  /**
+   * Gets called after a batch of activities was executed. All activities of a batch are executed in
+   * the same UI runnable and this method is called at the end of that runnable, so consumers may
+   * defer work that only has to be done once per batch (e.g. updating the UI) until then.
+   *
+   * <p>Implementations may expect that this method is called from the UI thread (EDT). The default
+   * implementation does nothing.
+   */
+  public default void batchExecuted() {
+    // NOP
+  }
 }
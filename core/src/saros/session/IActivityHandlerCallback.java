@@ -19,10 +19,34 @@ public interface IActivityHandlerCallback {
    */
   public void send(List<User> recipients, IActivity activity);
 
+  /**
+   * Gets called when an activity should be send to several session users and the time at which it
+   * was originally created is known. The default implementation calls {@link #send(List,
+   * IActivity)}.
+   *
+   * @param recipients a list containing the users that should receive the activity
+   * @param activity the activity to send
+   * @param originTime the wall clock time in milliseconds at which the activity was originally
+   *     created or <code>0</code> if unknown, only known if the activity latency tracking is
+   *     enabled
+   */
+  public default void send(List<User> recipients, IActivity activity, long originTime) {
+    send(recipients, activity);
+  }
+
   /**
    * Gets called when an activity should be executed.
    *
    * @param activity the activity to execute
    */
   public void execute(IActivity activity);
+
+  /**
+   * Gets called after a batch of activities was executed. It is called from the same thread and in
+   * the same UI runnable as the {@link #execute(IActivity)} calls of the batch. The default
+   * implementation does nothing.
+   */
+  public default void batchExecuted() {
+    // NOP
+  }
 }
@@ -0,0 +1,39 @@
+package saros.session;
+
+/**
+ * Provides information about the connections to the other participants of a {@link ISarosSession
+ * session}. The information is gathered by the component that detects lost connections and is
+ * available as a session component.
+ *
+ * <p>On the host side the connections to all other participants are monitored, on the client side
+ * only the connection to the host.
+ */
+public interface ILivenessMonitor {
+
+  /**
+   * Returns the smoothed round-trip time of the connection to the given user.
+   *
+   * @param user the user
+   * @return the round-trip time in milliseconds or <code>-1</code> if it is not known (yet)
+   */
+  long getRoundTripTime(User user);
+
+  /**
+   * Returns the variation (jitter) of the round-trip time of the connection to the given user.
+   *
+   * @param user the user
+   * @return the round-trip time variation in milliseconds or <code>-1</code> if it is not known
+   *     (yet)
+   */
+  long getRoundTripTimeVariation(User user);
+
+  /**
+   * Returns the time that passed since the last sign of life of the given user was received. Every
+   * received activity or probe counts as a sign of life.
+   *
+   * @param user the user
+   * @return the time in milliseconds or <code>-1</code> if the connection to the user is not
+   *     monitored
+   */
+  long getSilenceDuration(User user);
+}
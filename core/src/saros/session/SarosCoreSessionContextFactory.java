@@ -14,11 +14,14 @@ import saros.misc.xstream.UserConverter;
 import saros.negotiation.ResourceNegotiationFactory;
 import saros.repackaged.picocontainer.MutablePicoContainer;
 import saros.session.internal.ActivityHandler;
+import saros.session.internal.ActivityLatencyTracker;
 import saros.session.internal.ActivitySequencer;
 import saros.session.internal.ChangeColorManager;
 import saros.session.internal.DeletionAcknowledgmentDispatcher;
 import saros.session.internal.LeaveAndKickHandler;
 import saros.session.internal.PermissionManager;
+import saros.session.internal.SessionMetrics;
+import saros.session.internal.SessionRecorder;
 import saros.session.internal.UserInformationHandler;
 import saros.session.internal.timeout.ClientSessionTimeoutHandler;
 import saros.session.internal.timeout.ServerSessionTimeoutHandler;
@@ -61,6 +64,7 @@ public class SarosCoreSessionContextFactory implements ISarosSessionContextFacto
 
     // Other
     container.addComponent(ActivityHandler.class);
+    container.addComponent(ActivityLatencyTracker.class);
     container.addComponent(ActivitySequencer.class);
     container.addComponent(ChangeColorManager.class);
     container.addComponent(DeletionAcknowledgmentDispatcher.class);
@@ -68,6 +72,8 @@ public class SarosCoreSessionContextFactory implements ISarosSessionContextFacto
     container.addComponent(FollowModeBroadcaster.class);
     container.addComponent(LeaveAndKickHandler.class);
     container.addComponent(PermissionManager.class);
+    container.addComponent(SessionMetrics.class);
+    container.addComponent(SessionRecorder.class);
     container.addComponent(StopManager.class);
     container.addComponent(UserEditorStateManager.class);
     container.addComponent(UserInformationHandler.class);
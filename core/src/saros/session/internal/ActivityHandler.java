@@ -2,7 +2,9 @@ package saros.session.internal;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.LinkedBlockingQueue;
 import org.apache.log4j.Logger;
 import saros.activities.ActivityOptimizer;
@@ -12,6 +14,7 @@ import saros.activities.IResourceActivity;
 import saros.activities.ITargetedActivity;
 import saros.activities.JupiterActivity;
 import saros.activities.QueueItem;
+import saros.activities.TextEditActivity;
 import saros.concurrent.management.ConcurrentDocumentClient;
 import saros.concurrent.management.ConcurrentDocumentServer;
 import saros.concurrent.management.TransformationResult;
@@ -33,7 +36,22 @@ public final class ActivityHandler implements Startable {
 
   private static final Logger log = Logger.getLogger(ActivityHandler.class);
 
-  private static final List<IActivity> POISON_PILL = new ArrayList<>();
+  /** Activities that are waiting to be dispatched to the UI thread. */
+  private static final class DispatchEntry {
+    private final List<IActivity> activities;
+
+    /** The timestamps of the activities by identity, empty if latency tracking is disabled */
+    private final Map<IActivity, ActivityLatencyTracker.Timestamps> timestamps;
+
+    private DispatchEntry(
+        List<IActivity> activities, Map<IActivity, ActivityLatencyTracker.Timestamps> timestamps) {
+      this.activities = activities;
+      this.timestamps = timestamps;
+    }
+  }
+
+  private static final DispatchEntry POISON_PILL =
+      new DispatchEntry(new ArrayList<>(), Collections.emptyMap());
 
   /** join timeout when stopping this component */
   private static final long TIMEOUT = 10000;
@@ -53,8 +71,8 @@ public final class ActivityHandler implements Startable {
     DISPATCH_MODE = dispatchModeToUse;
   }
 
-  private final LinkedBlockingQueue<List<IActivity>> dispatchQueue =
-      new LinkedBlockingQueue<List<IActivity>>();
+  private final LinkedBlockingQueue<DispatchEntry> dispatchQueue =
+      new LinkedBlockingQueue<DispatchEntry>();
 
   private final IActivityHandlerCallback callback;
 
@@ -66,6 +84,30 @@ public final class ActivityHandler implements Startable {
 
   private final UISynchronizer synchronizer;
 
+  private final ActivityLatencyTracker latencyTracker;
+
+  /*
+   * Local text edit that is not transformed yet as following local text edits
+   * may be merged into it, see #handleOutgoingActivities. All fields of this
+   * buffer are only accessed by the UI thread.
+   */
+  private TextEditActivity pendingTextEdit;
+
+  private long pendingTextEditOriginTime;
+
+  private long pendingTextEditStartTime;
+
+  private boolean isPendingTextEditFlushScheduled;
+
+  private final Runnable pendingTextEditFlushRunnable =
+      new Runnable() {
+        @Override
+        public void run() {
+          isPendingTextEditFlushScheduled = false;
+          flushPendingTextEdit();
+        }
+      };
+
   /*
    * We must use a thread for synchronous execution otherwise we would block
    * the DispatchThreadContext which handles the dispatching of all network
@@ -76,8 +118,10 @@ public final class ActivityHandler implements Startable {
   private final Runnable dispatchThreadRunnable =
       new Runnable() {
 
-        final List<List<IActivity>> pendingActivities = new ArrayList<List<IActivity>>();
+        final List<DispatchEntry> pendingActivities = new ArrayList<DispatchEntry>();
         final List<IActivity> activitiesToExecute = new ArrayList<IActivity>();
+        final Map<IActivity, ActivityLatencyTracker.Timestamps> timestampsToExecute =
+            new IdentityHashMap<IActivity, ActivityLatencyTracker.Timestamps>();
 
         @Override
         public void run() {
@@ -88,6 +132,7 @@ public final class ActivityHandler implements Startable {
           while (!Thread.currentThread().isInterrupted() && !isPoisoned) {
             pendingActivities.clear();
             activitiesToExecute.clear();
+            timestampsToExecute.clear();
 
             try {
               pendingActivities.add(dispatchQueue.take());
@@ -97,16 +142,17 @@ public final class ActivityHandler implements Startable {
 
             dispatchQueue.drainTo(pendingActivities);
 
-            for (final List<IActivity> activities : pendingActivities) {
-              if (activities == POISON_PILL) { // NOPMD - object reference comparison needed
+            for (final DispatchEntry entry : pendingActivities) {
+              if (entry == POISON_PILL) { // NOPMD - object reference comparison needed
                 isPoisoned = true;
                 break;
               }
 
-              activitiesToExecute.addAll(activities);
+              activitiesToExecute.addAll(entry.activities);
+              timestampsToExecute.putAll(entry.timestamps);
             }
 
-            dispatchAndExecuteActivities(activitiesToExecute);
+            dispatchAndExecuteActivities(activitiesToExecute, timestampsToExecute);
           }
 
           log.debug("activity dispatcher stopped");
@@ -129,11 +175,39 @@ public final class ActivityHandler implements Startable {
       ConcurrentDocumentServer documentServer,
       ConcurrentDocumentClient documentClient,
       UISynchronizer synchronizer) {
+    this(
+        session,
+        callback,
+        documentServer,
+        documentClient,
+        synchronizer,
+        ActivityLatencyTracker.DISABLED);
+  }
+
+  // Client CTOR with latency tracking
+  public ActivityHandler(
+      ISarosSession session,
+      IActivityHandlerCallback callback,
+      ConcurrentDocumentClient documentClient,
+      UISynchronizer synchronizer,
+      ActivityLatencyTracker latencyTracker) {
+    this(session, callback, null, documentClient, synchronizer, latencyTracker);
+  }
+
+  // Server CTOR with latency tracking
+  public ActivityHandler(
+      ISarosSession session,
+      IActivityHandlerCallback callback,
+      ConcurrentDocumentServer documentServer,
+      ConcurrentDocumentClient documentClient,
+      UISynchronizer synchronizer,
+      ActivityLatencyTracker latencyTracker) {
     this.session = session;
     this.callback = callback;
     this.documentServer = documentServer;
     this.documentClient = documentClient;
     this.synchronizer = synchronizer;
+    this.latencyTracker = latencyTracker;
   }
 
   /**
@@ -144,6 +218,29 @@ public final class ActivityHandler implements Startable {
    */
   public synchronized void handleIncomingActivities(List<IActivity> activities) {
 
+    /*
+     * The timestamps of the activities received by the calling thread. Activities
+     * that were queued by the activity queuer in the meantime are not tracked.
+     */
+    final Map<IActivity, ActivityLatencyTracker.Timestamps> timestamps =
+        new IdentityHashMap<IActivity, ActivityLatencyTracker.Timestamps>();
+
+    if (latencyTracker.isEnabled()) {
+      Map<IActivity, ActivityLatencyTracker.Timestamps> receivedTimestamps =
+          latencyTracker.getReceivedTimestamps();
+
+      for (IActivity activity : activities) {
+        ActivityLatencyTracker.Timestamps activityTimestamps = receivedTimestamps.get(activity);
+
+        if (activityTimestamps == null) continue;
+
+        latencyTracker.leave(
+            ActivityLatencyTracker.Stage.RECEIVE_QUEUE, activity, activityTimestamps);
+
+        timestamps.put(activity, activityTimestamps);
+      }
+    }
+
     if (session.isHost()) {
       /**
        * @JTourBusStop 8, Activity sending, Activity Server:
@@ -152,10 +249,10 @@ public final class ActivityHandler implements Startable {
        * may transform activities again if necessary and afterward sends them to the correct
        * clients. (Note that the callback.send() methods get an actual list of recipients.)
        */
-      TransformationResult result = directServerActivities(activities);
+      TransformationResult result = directServerActivities(activities, timestamps);
       for (QueueItem item : result.getSendToPeers()) {
         List<User> recipients = getRecipientsForQueueItem(item);
-        callback.send(recipients, item.activity);
+        callback.send(recipients, item.activity, getOriginTime(item.activity, timestamps));
       }
 
       activities = result.getLocalActivities();
@@ -170,8 +267,30 @@ public final class ActivityHandler implements Startable {
      */
     if (activities.isEmpty()) return;
 
-    if (DISPATCH_MODE == DISPATCH_MODE_ASYNC) dispatchAndExecuteActivities(activities);
-    else dispatchQueue.add(activities);
+    final Map<IActivity, ActivityLatencyTracker.Timestamps> dispatchTimestamps;
+
+    if (latencyTracker.isEnabled()) {
+      dispatchTimestamps = new IdentityHashMap<IActivity, ActivityLatencyTracker.Timestamps>();
+
+      for (IActivity activity : activities) {
+        if (timestamps.containsKey(activity))
+          dispatchTimestamps.put(
+              activity, latencyTracker.enter(getOriginTime(activity, timestamps)));
+      }
+    } else {
+      dispatchTimestamps = Collections.emptyMap();
+    }
+
+    if (DISPATCH_MODE == DISPATCH_MODE_ASYNC)
+      dispatchAndExecuteActivities(activities, dispatchTimestamps);
+    else dispatchQueue.add(new DispatchEntry(activities, dispatchTimestamps));
+  }
+
+  private static long getOriginTime(
+      IActivity activity, Map<IActivity, ActivityLatencyTracker.Timestamps> timestamps) {
+    ActivityLatencyTracker.Timestamps activityTimestamps = timestamps.get(activity);
+
+    return activityTimestamps != null ? activityTimestamps.originTime : 0;
   }
 
   /**
@@ -225,6 +344,9 @@ public final class ActivityHandler implements Startable {
    * words, the transformation would be applied to an out-dated state.
    */
   public void handleOutgoingActivities(final List<IActivity> activities) {
+    final long originTime = latencyTracker.isEnabled() ? System.currentTimeMillis() : 0;
+    final long startTime = latencyTracker.isEnabled() ? System.nanoTime() : 0;
+
     /**
      * @JTourBusStop 6, Activity sending, Transforming the IActivity (Client):
      *
@@ -236,6 +358,13 @@ public final class ActivityHandler implements Startable {
      * located at the Host, this is why the only recipient of the result is the session's host.
      * Please note: The Host itself has both client and server part, so even his activities will be
      * "sent" to himself first.
+     *
+     * <p>Every TextEditActivity is transformed into its own JupiterActivity that has to be
+     * transformed by the server and all clients. Consecutive text edits of the local user in the
+     * same file are therefore merged before they are transformed. A text edit is buffered until the
+     * UI thread processed the event that created it, so only the edits made by a single event (e.g.
+     * a replace all or a format operation) or made while the UI thread is busy are merged. Single
+     * keystrokes are therefore sent without a noticeable delay.
      */
     synchronizer.syncExec(
         ThreadUtils.wrapSafe(
@@ -246,14 +375,74 @@ public final class ActivityHandler implements Startable {
               public void run() {
                 for (IActivity activity : activities) {
 
-                  IActivity transformationResult = documentClient.transformToJupiter(activity);
+                  if (activity instanceof TextEditActivity) {
+                    bufferTextEdit((TextEditActivity) activity, originTime, startTime);
+                    continue;
+                  }
 
-                  callback.send(Collections.singletonList(session.getHost()), transformationResult);
+                  flushPendingTextEdit();
+                  transformAndSend(activity, originTime, startTime);
                 }
               }
             }));
   }
 
+  /**
+   * Merges the given local text edit into the pending text edit. If this is not possible, the
+   * pending text edit is transformed and sent and the given text edit becomes the pending one.
+   *
+   * <p>Must be called by the UI thread.
+   */
+  private void bufferTextEdit(TextEditActivity textEdit, long originTime, long startTime) {
+    if (pendingTextEdit != null) {
+      TextEditActivity merged = ActivityOptimizer.merge(pendingTextEdit, textEdit);
+
+      if (merged != null) {
+        // e.g. a character that was typed and deleted again
+        if (merged.getNewText().isEmpty() && merged.getReplacedText().isEmpty())
+          pendingTextEdit = null;
+        else pendingTextEdit = merged;
+
+        return;
+      }
+
+      flushPendingTextEdit();
+    }
+
+    pendingTextEdit = textEdit;
+    pendingTextEditOriginTime = originTime;
+    pendingTextEditStartTime = startTime;
+
+    if (isPendingTextEditFlushScheduled) return;
+
+    isPendingTextEditFlushScheduled = true;
+    synchronizer.asyncExec(ThreadUtils.wrapSafe(log, pendingTextEditFlushRunnable));
+  }
+
+  /**
+   * Transforms and sends the pending local text edit if there is one. This must be done before any
+   * other activity is transformed, as the Jupiter state of the document must include all local text
+   * edits before.
+   *
+   * <p>Must be called by the UI thread.
+   */
+  private void flushPendingTextEdit() {
+    if (pendingTextEdit == null) return;
+
+    TextEditActivity textEdit = pendingTextEdit;
+    pendingTextEdit = null;
+
+    transformAndSend(textEdit, pendingTextEditOriginTime, pendingTextEditStartTime);
+  }
+
+  private void transformAndSend(IActivity activity, long originTime, long startTime) {
+    IActivity transformationResult = documentClient.transformToJupiter(activity);
+
+    if (latencyTracker.isEnabled()) latencyTracker.created(transformationResult, startTime);
+
+    callback.send(Collections.singletonList(session.getHost()), transformationResult, originTime);
+  }
+
   @Override
   public void start() {
     if (DISPATCH_MODE == DISPATCH_MODE_ASYNC) return;
@@ -313,6 +502,7 @@ public final class ActivityHandler implements Startable {
    * </pre>
    *
    * @param activities the activities to execute
+   * @param timestamps the timestamps of the activities by identity
    */
   /*
    * Note: transformation and executing has to be performed together in the
@@ -320,7 +510,9 @@ public final class ActivityHandler implements Startable {
    * between transformation and application of remote operations. In other
    * words, the transformation would be applied to an out-dated state.
    */
-  private void dispatchAndExecuteActivities(final List<IActivity> activities) {
+  private void dispatchAndExecuteActivities(
+      final List<IActivity> activities,
+      final Map<IActivity, ActivityLatencyTracker.Timestamps> timestamps) {
 
     final List<IActivity> optimizedActivities = ActivityOptimizer.optimize(activities);
 
@@ -329,6 +521,39 @@ public final class ActivityHandler implements Startable {
           @Override
           public void run() {
 
+            /*
+             * The local documents already contain the pending text edit, so
+             * it must be transformed before any remote activity.
+             */
+            flushPendingTextEdit();
+
+            /*
+             * Jupiter activities can not be merged as their timestamps are
+             * already accounted for by the Jupiter algorithm, but the text
+             * edits they are transformed into can. As the transformation
+             * of all other activities may depend on the current document
+             * content or Jupiter state, pending text edits are executed
+             * before such an activity is transformed.
+             */
+            final List<IActivity> pendingTextEdits = new ArrayList<IActivity>();
+
+            /*
+             * The timestamps of the activities the transformed activities
+             * were created from, used to track the end-to-end latency.
+             */
+            final Map<IActivity, ActivityLatencyTracker.Timestamps> pendingTimestamps =
+                new IdentityHashMap<IActivity, ActivityLatencyTracker.Timestamps>();
+
+            if (latencyTracker.isEnabled()) {
+              for (IActivity activity : optimizedActivities) {
+                ActivityLatencyTracker.Timestamps activityTimestamps = timestamps.get(activity);
+
+                if (activityTimestamps != null)
+                  latencyTracker.leave(
+                      ActivityLatencyTracker.Stage.DISPATCH_QUEUE, activity, activityTimestamps);
+              }
+            }
+
             for (IActivity activity : optimizedActivities) {
 
               User source = activity.getSource();
@@ -351,16 +576,76 @@ public final class ActivityHandler implements Startable {
                 continue;
               }
 
-              List<IActivity> transformedActivities = documentClient.transformFromJupiter(activity);
+              if (activity instanceof JupiterActivity) {
+                pendingTextEdits.addAll(transformFromJupiter(activity, pendingTimestamps));
+                continue;
+              }
 
-              for (IActivity transformedActivity : transformedActivities) {
-                try {
-                  callback.execute(transformedActivity);
-                } catch (Exception e) {
-                  log.error("failed to execute activity: " + activity, e);
-                }
+              execute(pendingTextEdits, pendingTimestamps);
+              pendingTextEdits.clear();
+              pendingTimestamps.clear();
+
+              final Map<IActivity, ActivityLatencyTracker.Timestamps> transformedTimestamps =
+                  new IdentityHashMap<IActivity, ActivityLatencyTracker.Timestamps>();
+
+              execute(transformFromJupiter(activity, transformedTimestamps), transformedTimestamps);
+            }
+
+            execute(pendingTextEdits, pendingTimestamps);
+
+            try {
+              callback.batchExecuted();
+            } catch (Exception e) {
+              log.error("failed to finish the execution of activities: " + optimizedActivities, e);
+            }
+          }
+
+          /**
+           * Transforms the given activity and adds the timestamps of the activity for the
+           * transformed activities to the given map.
+           */
+          private List<IActivity> transformFromJupiter(
+              IActivity activity,
+              Map<IActivity, ActivityLatencyTracker.Timestamps> transformedTimestamps) {
+
+            List<IActivity> transformedActivities = documentClient.transformFromJupiter(activity);
+
+            ActivityLatencyTracker.Timestamps activityTimestamps = timestamps.get(activity);
+
+            if (activityTimestamps != null) {
+              for (IActivity transformedActivity : transformedActivities)
+                transformedTimestamps.put(transformedActivity, activityTimestamps);
+            }
+
+            return transformedActivities;
+          }
+
+          /**
+           * Executes the given transformed activities and records the end-to-end latency of every
+           * transformed activity that has timestamps, even if it was merged with another one.
+           */
+          private void execute(
+              List<IActivity> transformedActivities,
+              Map<IActivity, ActivityLatencyTracker.Timestamps> transformedTimestamps) {
+
+            for (IActivity transformedActivity :
+                ActivityOptimizer.optimize(transformedActivities)) {
+              try {
+                final long executionStart = latencyTracker.isEnabled() ? System.nanoTime() : 0;
+
+                callback.execute(transformedActivity);
+
+                if (latencyTracker.isEnabled())
+                  latencyTracker.record(
+                      ActivityLatencyTracker.Stage.EXECUTE,
+                      transformedActivity,
+                      System.nanoTime() - executionStart);
+              } catch (Exception e) {
+                log.error("failed to execute activity: " + transformedActivity, e);
               }
             }
+
+            if (latencyTracker.isEnabled()) transformedTimestamps.forEach(latencyTracker::executed);
           }
         };
 
@@ -389,9 +674,12 @@ public final class ActivityHandler implements Startable {
    * clients.
    *
    * @param activities A list of incoming activities
+   * @param timestamps the timestamps of the incoming activities by identity, the timestamps of the
+   *     resulting activities are added to it
    * @return A number of targeted activities.
    */
-  private TransformationResult directServerActivities(List<IActivity> activities) {
+  private TransformationResult directServerActivities(
+      List<IActivity> activities, Map<IActivity, ActivityLatencyTracker.Timestamps> timestamps) {
 
     assert session.isHost() && documentServer != null;
 
@@ -401,6 +689,10 @@ public final class ActivityHandler implements Startable {
     final List<User> allUsers = session.getUsers();
 
     for (IActivity activity : activities) {
+      final long transformationStart = latencyTracker.isEnabled() ? System.nanoTime() : 0;
+      final int localCount = result.executeLocally.size();
+      final int peerCount = result.sendToPeers.size();
+
       documentServer.handleResourceChange(activity);
 
       if (activity instanceof JupiterActivity || activity instanceof ChecksumActivity) {
@@ -428,6 +720,24 @@ public final class ActivityHandler implements Startable {
       } else if (!(session.getLocalUser().equals(activity.getSource()))) {
         result.executeLocally.add(activity);
       }
+
+      if (latencyTracker.isEnabled()) {
+        latencyTracker.record(
+            ActivityLatencyTracker.Stage.SERVER_TRANSFORM,
+            activity,
+            System.nanoTime() - transformationStart);
+
+        ActivityLatencyTracker.Timestamps activityTimestamps = timestamps.get(activity);
+
+        if (activityTimestamps != null) {
+          for (IActivity localActivity :
+              result.executeLocally.subList(localCount, result.executeLocally.size()))
+            timestamps.put(localActivity, activityTimestamps);
+
+          for (QueueItem item : result.sendToPeers.subList(peerCount, result.sendToPeers.size()))
+            timestamps.put(item.activity, activityTimestamps);
+        }
+      }
     }
     return result;
   }
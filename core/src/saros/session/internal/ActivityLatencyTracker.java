@@ -0,0 +1,374 @@
+package saros.session.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.Logger;
+import saros.activities.IActivity;
+import saros.repackaged.picocontainer.Startable;
+import saros.session.ISarosSession;
+import saros.util.LatencyHistogram;
+
+/**
+ * Tracks the time {@linkplain IActivity activities} spend in the different {@linkplain Stage
+ * stages} of their way from the activity producer of one participant to the execution at another
+ * participant. The latencies are recorded in {@linkplain LatencyHistogram histograms} per stage and
+ * per activity type in microseconds.
+ *
+ * <p>The tracking is disabled by default and can be enabled by setting the system property <code>
+ * saros.session.LATENCY_TRACKING</code> to <code>true</code>. The timestamps needed for the
+ * tracking are kept by the queues the activities pass, per queue entry (see {@link Timestamps}).
+ * The origin times of the activities are only transmitted to the other participants if the tracking
+ * is enabled.
+ *
+ * <p>The histograms are written to a file in the directory given by the system property <code>
+ * saros.session.LATENCY_DUMP_DIR</code> when the session stops. They can be queried at any time
+ * using {@link #getHistograms(Stage)} and written using {@link #dump(File)}.
+ *
+ * <p><b>Note:</b> The {@link Stage#NETWORK network} and {@link Stage#END_TO_END end-to-end}
+ * latencies are computed using the wall clocks of two different participants. Their accuracy
+ * depends on how well these clocks are synchronized.
+ */
+public final class ActivityLatencyTracker implements Startable {
+
+  private static final Logger log = Logger.getLogger(ActivityLatencyTracker.class);
+
+  private static final boolean ENABLED = Boolean.getBoolean("saros.session.LATENCY_TRACKING");
+
+  private static final String DUMP_DIR = System.getProperty("saros.session.LATENCY_DUMP_DIR");
+
+  /** Key of the histograms containing the latencies of all activity types */
+  public static final String ALL_TYPES = "*";
+
+  /** A tracker that does not track anything. */
+  static final ActivityLatencyTracker DISABLED = new ActivityLatencyTracker("", false, null);
+
+  /** The stages an activity passes on its way from the producer to the execution. */
+  public enum Stage {
+    /** Waiting for and transforming the local activity in the UI thread of the sender. */
+    CLIENT_TRANSFORM,
+    /** Waiting in the outgoing buffer of the sequencer until it is sent. */
+    SEND_QUEUE,
+    /** Marshalling and writing the packet containing the activity. */
+    TRANSMIT,
+    /** Transmission from the sender to the receiver, based on the clocks of both. */
+    NETWORK,
+    /** Dispatching the received activity and waiting in the activity queuer. */
+    RECEIVE_QUEUE,
+    /** Transforming the activity by the Jupiter server of the host. */
+    SERVER_TRANSFORM,
+    /** Waiting for the UI thread of the receiver. */
+    DISPATCH_QUEUE,
+    /** Transforming and executing the activity in the UI thread of the receiver. */
+    EXECUTE,
+    /** The complete way from the creation to the execution, based on the clocks of both sides. */
+    END_TO_END
+  }
+
+  /**
+   * The timestamps of a queue entry of an activity. Every queue that holds an activity keeps its
+   * own timestamps, as the same activity instance can be queued several times at once, e.g. in the
+   * outgoing buffers of several recipients.
+   */
+  static final class Timestamps {
+
+    /** The wall clock time in milliseconds at which the activity was originally created or 0. */
+    final long originTime;
+
+    /** The {@link System#nanoTime()} at which the entry entered its current stage. */
+    final long stageTime;
+
+    private Timestamps(long originTime, long stageTime) {
+      this.originTime = originTime;
+      this.stageTime = stageTime;
+    }
+  }
+
+  private final String sessionID;
+
+  private final boolean enabled;
+
+  private final String dumpDirectory;
+
+  private final Map<Stage, ConcurrentMap<String, LatencyHistogram>> histograms =
+      new EnumMap<>(Stage.class);
+
+  private final ThreadLocal<Map<IActivity, Timestamps>> receivedTimestamps = new ThreadLocal<>();
+
+  public ActivityLatencyTracker(ISarosSession session) {
+    this(session.getID(), ENABLED, DUMP_DIR);
+  }
+
+  ActivityLatencyTracker(String sessionID, boolean enabled, String dumpDirectory) {
+    this.sessionID = sessionID;
+    this.enabled = enabled;
+    this.dumpDirectory = dumpDirectory;
+
+    for (Stage stage : Stage.values()) histograms.put(stage, new ConcurrentHashMap<>());
+  }
+
+  @Override
+  public void start() {
+    if (enabled) log.info("activity latency tracking is enabled");
+  }
+
+  @Override
+  public void stop() {
+    if (!enabled || dumpDirectory == null) return;
+
+    String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date());
+
+    File file = new File(dumpDirectory, "latency-" + sessionID + "-" + timestamp + ".txt");
+
+    try {
+      dump(file);
+      log.info("wrote activity latencies to " + file);
+    } catch (IOException e) {
+      log.warn("failed to write activity latencies to " + file, e);
+    }
+  }
+
+  /**
+   * Returns whether the latency tracking is enabled.
+   *
+   * @return <code>true</code> if the latencies are tracked
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the histogram of the given stage containing the latencies of all activity types.
+   *
+   * @param stage the stage
+   * @return the histogram containing the latencies in microseconds
+   */
+  public LatencyHistogram getHistogram(Stage stage) {
+    return getOrCreateHistogram(stage, ALL_TYPES);
+  }
+
+  /**
+   * Returns the histograms of the given stage.
+   *
+   * @param stage the stage
+   * @return a sorted snapshot of the histograms containing the latencies in microseconds, keyed by
+   *     the simple class name of the activity type or {@link #ALL_TYPES}
+   */
+  public Map<String, LatencyHistogram> getHistograms(Stage stage) {
+    return Collections.unmodifiableMap(new TreeMap<>(histograms.get(stage)));
+  }
+
+  /** Discards all recorded latencies. */
+  public void reset() {
+    for (Map<String, LatencyHistogram> stageHistograms : histograms.values())
+      stageHistograms.values().forEach(LatencyHistogram::reset);
+  }
+
+  /**
+   * Writes the recorded latencies of all stages as a table in milliseconds.
+   *
+   * @param out the writer to write to
+   */
+  public void writeTo(Writer out) {
+    PrintWriter writer = new PrintWriter(out);
+
+    writer.printf(
+        Locale.ROOT,
+        "%-16s %-28s %10s %10s %10s %10s %10s %10s%n",
+        "stage",
+        "type",
+        "count",
+        "mean",
+        "p50",
+        "p90",
+        "p99",
+        "max");
+
+    for (Stage stage : Stage.values()) {
+      for (Map.Entry<String, LatencyHistogram> entry : getHistograms(stage).entrySet()) {
+        LatencyHistogram histogram = entry.getValue();
+
+        if (histogram.getCount() == 0) continue;
+
+        writer.printf(
+            Locale.ROOT,
+            "%-16s %-28s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+            stage,
+            entry.getKey(),
+            histogram.getCount(),
+            histogram.getMean() / 1000,
+            histogram.getValueAtPercentile(50) / 1000d,
+            histogram.getValueAtPercentile(90) / 1000d,
+            histogram.getValueAtPercentile(99) / 1000d,
+            histogram.getMax() / 1000d);
+      }
+    }
+
+    writer.flush();
+  }
+
+  /**
+   * Writes the recorded latencies of all stages to the given file.
+   *
+   * @param file the file to write to, an existing file is overwritten
+   * @throws IOException if the file could not be written
+   */
+  public void dump(File file) throws IOException {
+    if (file.getParentFile() != null) Files.createDirectories(file.getParentFile().toPath());
+
+    try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      writeTo(out);
+    }
+  }
+
+  /**
+   * Records the time needed to create the given activity.
+   *
+   * @param activity the created activity
+   * @param startTime the {@link System#nanoTime()} at which the creation was started
+   */
+  void created(IActivity activity, long startTime) {
+    record(Stage.CLIENT_TRANSFORM, activity, System.nanoTime() - startTime);
+  }
+
+  /**
+   * Returns the timestamps of a queue entry that enters a new stage now.
+   *
+   * @param originTime the wall clock time in milliseconds at which the activity of the entry was
+   *     originally created or <code>0</code> if unknown
+   * @return the timestamps of the entry
+   */
+  Timestamps enter(long originTime) {
+    return new Timestamps(originTime, System.nanoTime());
+  }
+
+  /**
+   * Records the time since the given queue entry entered its current stage.
+   *
+   * @param stage the stage the entry leaves
+   * @param activity the activity of the entry
+   * @param timestamps the timestamps of the entry
+   */
+  void leave(Stage stage, IActivity activity, Timestamps timestamps) {
+    record(stage, activity, System.nanoTime() - timestamps.stageTime);
+  }
+
+  /**
+   * Records the network latency of the given received activities and runs the given dispatch. The
+   * dispatch can query the timestamps of the received activities using {@link
+   * #getReceivedTimestamps()} until it returns.
+   *
+   * @param activities the received activities
+   * @param sentTime the wall clock time in milliseconds at which the activities were sent or <code>
+   *     -1</code> if unknown
+   * @param originTimes the origin times of the activities, may be <code>null</code>
+   * @param dispatch passes the received activities on to the session
+   */
+  void received(List<IActivity> activities, long sentTime, long[] originTimes, Runnable dispatch) {
+    long now = System.nanoTime();
+    long networkTime = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - sentTime);
+
+    Map<IActivity, Timestamps> timestamps = new IdentityHashMap<>();
+
+    for (int i = 0; i < activities.size(); i++) {
+      IActivity activity = activities.get(i);
+
+      long originTime = originTimes != null && i < originTimes.length ? originTimes[i] : 0;
+
+      timestamps.put(activity, new Timestamps(originTime, now));
+
+      if (sentTime >= 0) record(Stage.NETWORK, activity, networkTime);
+    }
+
+    Map<IActivity, Timestamps> outerTimestamps = receivedTimestamps.get();
+
+    receivedTimestamps.set(timestamps);
+
+    try {
+      dispatch.run();
+    } finally {
+      if (outerTimestamps == null) receivedTimestamps.remove();
+      else receivedTimestamps.set(outerTimestamps);
+    }
+  }
+
+  /**
+   * Returns the timestamps of the activities that are currently dispatched by {@link
+   * #received(List, long, long[], Runnable)} in the calling thread.
+   *
+   * @return the timestamps of the received activities by identity, empty if the calling thread does
+   *     not dispatch received activities
+   */
+  Map<IActivity, Timestamps> getReceivedTimestamps() {
+    Map<IActivity, Timestamps> timestamps = receivedTimestamps.get();
+
+    return timestamps != null ? timestamps : Collections.emptyMap();
+  }
+
+  /**
+   * Records the end-to-end latency of the given executed activity.
+   *
+   * @param activity the executed activity
+   * @param timestamps the timestamps of the entry the activity was executed for
+   */
+  void executed(IActivity activity, Timestamps timestamps) {
+    if (timestamps.originTime == 0) return;
+
+    record(
+        Stage.END_TO_END,
+        activity,
+        TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - timestamps.originTime));
+  }
+
+  /**
+   * Returns the origin times of the given activities.
+   *
+   * @param activities the activities
+   * @param timestamps the timestamps of the queue entries of the activities by identity
+   * @return the origin times in milliseconds, <code>0</code> for unknown times
+   */
+  long[] getOriginTimes(List<IActivity> activities, Map<IActivity, Timestamps> timestamps) {
+    long[] originTimes = new long[activities.size()];
+
+    for (int i = 0; i < originTimes.length; i++) {
+      Timestamps activityTimestamps = timestamps.get(activities.get(i));
+
+      if (activityTimestamps != null) originTimes[i] = activityTimestamps.originTime;
+    }
+
+    return originTimes;
+  }
+
+  /**
+   * Records a latency of the given activity.
+   *
+   * @param stage the stage the latency belongs to
+   * @param activity the activity
+   * @param nanos the latency in nanoseconds
+   */
+  void record(Stage stage, IActivity activity, long nanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+
+    getOrCreateHistogram(stage, ALL_TYPES).record(micros);
+    getOrCreateHistogram(stage, activity.getClass().getSimpleName()).record(micros);
+  }
+
+  private LatencyHistogram getOrCreateHistogram(Stage stage, String type) {
+    return histograms.get(stage).computeIfAbsent(type, key -> new LatencyHistogram());
+  }
+}
@@ -2,9 +2,11 @@ package saros.session.internal;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -44,9 +46,11 @@ public class ActivitySequencer implements Startable {
   private static class SequencedActivities {
     private final int sequenceNumber;
     private final List<IActivity> activites;
+    private final long[] originTimes;
 
-    private SequencedActivities(List<IActivity> activites, int sequenceNumber) {
+    private SequencedActivities(List<IActivity> activites, long[] originTimes, int sequenceNumber) {
       this.activites = activites;
+      this.originTimes = originTimes;
       this.sequenceNumber = sequenceNumber;
     }
   }
@@ -61,6 +65,13 @@ public class ActivitySequencer implements Startable {
     private int nextSequenceNumber;
     private final Deque<T> activities = new LinkedList<T>();
 
+    /**
+     * The timestamps of the buffered activities, only filled for outgoing activities if the latency
+     * tracking is enabled.
+     */
+    private final Deque<ActivityLatencyTracker.Timestamps> timestamps =
+        new LinkedList<ActivityLatencyTracker.Timestamps>();
+
     private ActivityBuffer(int firstSequenceNumber) {
       nextSequenceNumber = firstSequenceNumber;
     }
@@ -99,7 +110,28 @@ public class ActivitySequencer implements Startable {
 
                 List<IActivity> optimizedActivities = ActivityOptimizer.optimize(buffer.activities);
 
+                long[] originTimes = null;
+
+                if (latencyTracker.isEnabled()) {
+                  Map<IActivity, ActivityLatencyTracker.Timestamps> timestamps =
+                      new IdentityHashMap<IActivity, ActivityLatencyTracker.Timestamps>();
+
+                  Iterator<ActivityLatencyTracker.Timestamps> it = buffer.timestamps.iterator();
+
+                  for (IActivity activity : buffer.activities) {
+                    ActivityLatencyTracker.Timestamps activityTimestamps = it.next();
+
+                    latencyTracker.leave(
+                        ActivityLatencyTracker.Stage.SEND_QUEUE, activity, activityTimestamps);
+
+                    timestamps.put(activity, activityTimestamps);
+                  }
+
+                  originTimes = latencyTracker.getOriginTimes(optimizedActivities, timestamps);
+                }
+
                 buffer.activities.clear();
+                buffer.timestamps.clear();
                 buffer.isInTransmission = true;
 
                 int currentSequenceNumber = buffer.nextSequenceNumber;
@@ -107,7 +139,8 @@ public class ActivitySequencer implements Startable {
 
                 activitiesToSend.put(
                     entry.getKey(),
-                    new SequencedActivities(optimizedActivities, currentSequenceNumber));
+                    new SequencedActivities(
+                        optimizedActivities, originTimes, currentSequenceNumber));
               }
 
               if (activitiesToSend.isEmpty()) {
@@ -121,7 +154,11 @@ public class ActivitySequencer implements Startable {
             }
 
             for (Entry<JID, SequencedActivities> e : activitiesToSend.entrySet()) {
-              sendActivities(e.getKey(), e.getValue().activites, e.getValue().sequenceNumber);
+              sendActivities(
+                  e.getKey(),
+                  e.getValue().activites,
+                  e.getValue().originTimes,
+                  e.getValue().sequenceNumber);
             }
 
             synchronized (bufferedOutgoingActivities) {
@@ -160,6 +197,8 @@ public class ActivitySequencer implements Startable {
 
   private final DispatchThreadContext dispatchThread;
 
+  private final ActivityLatencyTracker latencyTracker;
+
   private final Map<JID, ActivityBuffer<IActivity>> bufferedIncomingActivities;
 
   private final Map<JID, ActivityBuffer<IActivity>> bufferedOutgoingActivities;
@@ -169,8 +208,18 @@ public class ActivitySequencer implements Startable {
       final ITransmitter transmitter,
       final IReceiver receiver,
       final DispatchThreadContext threadContext) {
+    this(sarosSession, transmitter, receiver, threadContext, ActivityLatencyTracker.DISABLED);
+  }
+
+  public ActivitySequencer(
+      final ISarosSession sarosSession,
+      final ITransmitter transmitter,
+      final IReceiver receiver,
+      final DispatchThreadContext threadContext,
+      final ActivityLatencyTracker latencyTracker) {
 
     this.dispatchThread = threadContext;
+    this.latencyTracker = latencyTracker;
     this.sarosSession = sarosSession;
     this.transmitter = transmitter;
     this.receiver = receiver;
@@ -287,7 +336,11 @@ public class ActivitySequencer implements Startable {
   }
 
   private void executeActivities(
-      final JID sender, final List<IActivity> activities, final int sequenceNumber) {
+      final JID sender,
+      final List<IActivity> activities,
+      final int sequenceNumber,
+      final long sentTime,
+      final long[] originTimes) {
 
     boolean transmissionError = false;
 
@@ -316,11 +369,36 @@ public class ActivitySequencer implements Startable {
       return;
     }
 
-    sarosSession.exec(activities);
+    exec(activities, sentTime, originTimes);
+  }
+
+  /**
+   * Passes the given activities on to the session. If the latency tracking is enabled, the
+   * timestamps of the activities are available to the session while it processes them.
+   */
+  private void exec(final List<IActivity> activities, long sentTime, long[] originTimes) {
+    if (latencyTracker.isEnabled())
+      latencyTracker.received(
+          activities, sentTime, originTimes, () -> sarosSession.exec(activities));
+    else sarosSession.exec(activities);
   }
 
   /** Sends an activity to the given recipients. */
   public void sendActivity(List<User> recipients, final IActivity activity) {
+    sendActivity(recipients, activity, 0);
+  }
+
+  /**
+   * Sends an activity to the given recipients.
+   *
+   * @param recipients the users that should receive the activity
+   * @param activity the activity to send
+   * @param originTime the wall clock time in milliseconds at which the activity was originally
+   *     created or <code>0</code> if unknown, only used if the latency tracking is enabled
+   */
+  public void sendActivity(List<User> recipients, final IActivity activity, long originTime) {
+
+    final long[] originTimes = {originTime};
 
     ArrayList<User> remoteRecipients = new ArrayList<User>();
     for (User user : recipients) {
@@ -336,13 +414,16 @@ public class ActivitySequencer implements Startable {
           new Runnable() {
             @Override
             public void run() {
-              sarosSession.exec(Collections.singletonList(activity));
+              exec(Collections.singletonList(activity), -1, originTimes);
             }
           });
     }
 
     if (remoteRecipients.isEmpty()) return;
 
+    final ActivityLatencyTracker.Timestamps timestamps =
+        latencyTracker.isEnabled() ? latencyTracker.enter(originTime) : null;
+
     synchronized (bufferedOutgoingActivities) {
       for (User recipient : remoteRecipients) {
         ActivityBuffer<IActivity> buffer = bufferedOutgoingActivities.get(recipient.getJID());
@@ -356,6 +437,8 @@ public class ActivitySequencer implements Startable {
           continue;
         }
         buffer.activities.add(activity);
+
+        if (timestamps != null) buffer.timestamps.add(timestamps);
       }
 
       // ActivitySender thread is flushing the buffers
@@ -394,6 +477,24 @@ public class ActivitySequencer implements Startable {
     unregisterUser(user.getJID());
   }
 
+  /**
+   * Returns the number of activities that are buffered for the recipient with the most pending
+   * activities. Activities that are currently transmitted are not included.
+   *
+   * @return the number of activities waiting to be sent
+   */
+  public int getQueuedActivityCount() {
+    int count = 0;
+
+    synchronized (bufferedOutgoingActivities) {
+      for (ActivityBuffer<IActivity> buffer : bufferedOutgoingActivities.values()) {
+        if (buffer != null) count = Math.max(count, buffer.activities.size());
+      }
+    }
+
+    return count;
+  }
+
   /**
    * Waits until all buffered activities for the specific user are sent. Calling {@link
    * #sendActivity} at the same time may or may not ignore those new activities.
@@ -435,7 +536,8 @@ public class ActivitySequencer implements Startable {
     }
   }
 
-  private void sendActivities(JID recipient, List<IActivity> activities, int sequenceNumber) {
+  private void sendActivities(
+      JID recipient, List<IActivity> activities, long[] originTimes, int sequenceNumber) {
 
     if (activities.size() == 0) return;
 
@@ -458,6 +560,7 @@ public class ActivitySequencer implements Startable {
     int currentFileActivitySize = 0;
 
     final List<IActivity> activitiesToMarshall = new ArrayList<IActivity>();
+    int marshalledCount = 0;
     final Iterator<IActivity> it = activities.iterator();
 
     while (it.hasNext()) {
@@ -480,12 +583,25 @@ public class ActivitySequencer implements Startable {
        * If the marshalling is delayed in the ITransmitter this would cause errors.
        */
 
+      final ActivitiesExtension activitiesExtension;
+
+      if (originTimes != null) {
+        activitiesExtension =
+            new ActivitiesExtension(
+                currentSessionID,
+                new ArrayList<IActivity>(activitiesToMarshall),
+                sequenceNumber,
+                System.currentTimeMillis(),
+                Arrays.copyOfRange(
+                    originTimes, marshalledCount, marshalledCount + activitiesToMarshall.size()));
+      } else {
+        activitiesExtension =
+            new ActivitiesExtension(
+                currentSessionID, new ArrayList<IActivity>(activitiesToMarshall), sequenceNumber);
+      }
+
       final PacketExtension activityPacketExtension =
-          ActivitiesExtension.PROVIDER.create(
-              new ActivitiesExtension(
-                  currentSessionID,
-                  new ArrayList<IActivity>(activitiesToMarshall),
-                  sequenceNumber));
+          ActivitiesExtension.PROVIDER.create(activitiesExtension);
 
       if (log.isTraceEnabled()) {
         log.trace(
@@ -500,7 +616,18 @@ public class ActivitySequencer implements Startable {
       }
 
       try {
+        final long sendStart = latencyTracker.isEnabled() ? System.nanoTime() : 0;
+
         transmitter.send(ISarosSession.SESSION_CONNECTION_ID, recipient, activityPacketExtension);
+
+        if (latencyTracker.isEnabled()) {
+          final long sendTime = System.nanoTime() - sendStart;
+
+          for (IActivity sentActivity : activitiesToMarshall)
+            latencyTracker.record(ActivityLatencyTracker.Stage.TRANSMIT, sentActivity, sendTime);
+        }
+
+        notifyActivitiesSent(recipient);
       } catch (IOException e) {
         log.error("failed to sent activities: " + activities, e);
 
@@ -509,6 +636,7 @@ public class ActivitySequencer implements Startable {
         return;
       } finally {
         sequenceNumber += activitiesToMarshall.size();
+        marshalledCount += activitiesToMarshall.size();
         activitiesToMarshall.clear();
         currentFileActivitySize = 0;
       }
@@ -552,7 +680,14 @@ public class ActivitySequencer implements Startable {
       log.debug("rcvd (" + String.format("%03d", activities.size()) + ") " + from);
     }
 
-    executeActivities(from, activities, payload.getSequenceNumber());
+    notifyActivitiesReceived(from);
+
+    executeActivities(
+        from,
+        activities,
+        payload.getSequenceNumber(),
+        payload.getSentTime(),
+        payload.getOriginTimes());
   }
 
   /**
@@ -572,4 +707,16 @@ public class ActivitySequencer implements Startable {
 
     if (currentCallback != null) currentCallback.transmissionFailed(user);
   }
+
+  private void notifyActivitiesSent(final JID user) {
+    IActivitySequencerCallback currentCallback = callback;
+
+    if (currentCallback != null) currentCallback.activitiesSent(user);
+  }
+
+  private void notifyActivitiesReceived(final JID user) {
+    IActivitySequencerCallback currentCallback = callback;
+
+    if (currentCallback != null) currentCallback.activitiesReceived(user);
+  }
 }
@@ -5,8 +5,9 @@ import saros.session.User;
 
 /**
  * Simple callback interface for monitoring events that occur in the {@link ActivitySequencer}
- * during session runtime. Implementing interfaces <b>must</b> ensure that they will <b>not</b>
- * block on any callback that is made.
+ * during session runtime, e.g. to use the activity traffic as a sign of life of the other users.
+ * Implementing interfaces <b>must</b> ensure that they will <b>not</b> block on any callback that
+ * is made.
  */
 public interface IActivitySequencerCallback {
 
@@ -19,4 +20,22 @@ public interface IActivitySequencerCallback {
    *     ActivitySequencer sequencer}
    */
   public void transmissionFailed(JID jid);
+
+  /**
+   * Gets called after activities were successfully sent to the given user.
+   *
+   * @param jid the {@link JID} of the receiving user
+   */
+  public default void activitiesSent(JID jid) {
+    // NOP
+  }
+
+  /**
+   * Gets called when activities were received from the given user.
+   *
+   * @param jid the {@link JID} of the sending user
+   */
+  public default void activitiesReceived(JID jid) {
+    // NOP
+  }
 }
@@ -11,12 +11,16 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
+import saros.activities.FileActivity;
 import saros.activities.IActivity;
+import saros.activities.IFileSystemModificationActivity;
 import saros.activities.IResourceActivity;
 import saros.activities.NOPActivity;
 import saros.communication.extensions.KickUserExtension;
 import saros.communication.extensions.LeaveSessionExtension;
 import saros.concurrent.management.ConcurrentDocumentClient;
+import saros.context.ContainerContext;
+import saros.context.ContextProfiler;
 import saros.context.IContainerContext;
 import saros.filesystem.IReferencePoint;
 import saros.filesystem.IResource;
@@ -100,6 +104,11 @@ public final class SarosSession implements ISarosSession {
 
   private final UserInformationHandler userListHandler;
 
+  private final SessionRecorder sessionRecorder;
+
+  /** The profiler of the context or <code>null</code> if profiling is disabled. */
+  private final ContextProfiler profiler;
+
   private final String sessionID;
 
   private boolean started = false;
@@ -123,6 +132,10 @@ public final class SarosSession implements ISarosSession {
         public void created(final IActivity activity) {
           if (activity == null) throw new NullPointerException("activity is null");
 
+          invalidateIgnoreCache(activity);
+
+          sessionRecorder.created(activity);
+
           activityHandler.handleOutgoingActivities(Collections.singletonList(activity));
         }
       };
@@ -132,11 +145,18 @@ public final class SarosSession implements ISarosSession {
 
         @Override
         public void send(List<User> recipients, IActivity activity) {
-          sendActivity(recipients, activity);
+          sendActivity(recipients, activity, 0);
+        }
+
+        @Override
+        public void send(List<User> recipients, IActivity activity, long originTime) {
+          sendActivity(recipients, activity, originTime);
         }
 
         @Override
         public void execute(IActivity activity) {
+          invalidateIgnoreCache(activity);
+
           // Filters out resource activities for reference points whose activity execution is
           // disabled
           if (activity instanceof IResourceActivity) {
@@ -183,6 +203,25 @@ public final class SarosSession implements ISarosSession {
             }
           }
         }
+
+        @Override
+        public void batchExecuted() {
+          for (IActivityConsumer consumer : passiveActivityConsumers) {
+            try {
+              consumer.batchExecuted();
+            } catch (RuntimeException e) {
+              log.error("error while finishing batch of passive activity consumer: " + consumer, e);
+            }
+          }
+
+          for (IActivityConsumer consumer : activeActivityConsumers) {
+            try {
+              consumer.batchExecuted();
+            } catch (RuntimeException e) {
+              log.error("error while finishing batch of active activity consumer: " + consumer, e);
+            }
+          }
+        }
       };
 
   // FIXME those parameter passing feels strange, find a better way
@@ -518,6 +557,8 @@ public final class SarosSession implements ISarosSession {
 
     sessionContainer.start();
 
+    if (profiler != null) profiler.report("session " + sessionID + " start");
+
     for (User user : getRemoteUsers()) activitySequencer.registerUser(user);
 
     synchronized (componentAccessLock) {
@@ -634,6 +675,8 @@ public final class SarosSession implements ISarosSession {
       else log.error("could not handle incoming activity: " + activity);
     }
 
+    sessionRecorder.received(valid);
+
     List<IActivity> processed = activityQueuer.process(valid);
     activityHandler.handleIncomingActivities(processed);
   }
@@ -642,7 +685,8 @@ public final class SarosSession implements ISarosSession {
    * FIXME most (if not all checks) to send or not activities should be
    * handled by the activity handler and not here !
    */
-  private void sendActivity(final List<User> recipients, final IActivity activity) {
+  private void sendActivity(
+      final List<User> recipients, final IActivity activity, final long originTime) {
 
     if (recipients == null) throw new IllegalArgumentException();
 
@@ -653,8 +697,10 @@ public final class SarosSession implements ISarosSession {
       return;
     }
 
+    sessionRecorder.sent(recipients, activity);
+
     try {
-      activitySequencer.sendActivity(recipients, activity);
+      activitySequencer.sendActivity(recipients, activity, originTime);
     } catch (IllegalArgumentException e) {
       log.warn("could not serialize activity: " + activity, e);
     }
@@ -691,6 +737,22 @@ public final class SarosSession implements ISarosSession {
     passiveActivityConsumers.remove(consumer);
   }
 
+  /**
+   * Discards the cached ignore decisions for the resources modified by the given activity as the
+   * modification might change whether they are ignored.
+   *
+   * @param activity the created or executed activity
+   */
+  private void invalidateIgnoreCache(IActivity activity) {
+    if (!(activity instanceof IFileSystemModificationActivity)) return;
+
+    referencePointMapper.invalidateIgnoreCache(
+        ((IFileSystemModificationActivity<?>) activity).getResource());
+
+    if (activity instanceof FileActivity)
+      referencePointMapper.invalidateIgnoreCache(((FileActivity) activity).getOldResource());
+  }
+
   @Override
   public boolean isShared(IResource resource) {
     return referencePointMapper.isShared(resource);
@@ -762,7 +824,7 @@ public final class SarosSession implements ISarosSession {
   public void disableQueuing(IReferencePoint referencePoint) {
     activityQueuer.disableQueuing(referencePoint);
     // send us a dummy activity to ensure the queues get flushed
-    sendActivity(Collections.singletonList(localUser), new NOPActivity(localUser, localUser, 0));
+    sendActivity(Collections.singletonList(localUser), new NOPActivity(localUser, localUser, 0), 0);
   }
 
   private SarosSession(
@@ -809,7 +871,7 @@ public final class SarosSession implements ISarosSession {
     factory.createComponents(this, sessionContainer);
 
     // Force the creation of the components added to the session container.
-    sessionContainer.getComponents();
+    ContainerContext.instantiateComponents(sessionContainer);
 
     // Obtained from Application context START
     synchronizer = getComponent(sessionContainer, UISynchronizer.class);
@@ -825,8 +887,11 @@ public final class SarosSession implements ISarosSession {
     permissionManager = getComponent(sessionContainer, PermissionManager.class);
     activitySequencer = getComponent(sessionContainer, ActivitySequencer.class);
     userListHandler = getComponent(sessionContainer, UserInformationHandler.class);
+    sessionRecorder = getComponent(sessionContainer, SessionRecorder.class);
     // Obtained from Session context END
 
+    profiler = sessionContainer.getComponent(ContextProfiler.class);
+
     // ensure that the container uses caching
     assert sessionContainer.getComponent(ActivityHandler.class)
             == sessionContainer.getComponent(ActivityHandler.class)
@@ -0,0 +1,32 @@
+package saros.session.internal;
+
+import saros.monitoring.metrics.MetricsRegistry;
+import saros.repackaged.picocontainer.Startable;
+
+/**
+ * Publishes the gauges of the session components to the {@link MetricsRegistry} while the session
+ * is running.
+ */
+public final class SessionMetrics implements Startable {
+
+  static final String SEQUENCER_QUEUED = "session.sequencer.queued";
+
+  private final MetricsRegistry metricsRegistry;
+
+  private final ActivitySequencer activitySequencer;
+
+  public SessionMetrics(MetricsRegistry metricsRegistry, ActivitySequencer activitySequencer) {
+    this.metricsRegistry = metricsRegistry;
+    this.activitySequencer = activitySequencer;
+  }
+
+  @Override
+  public void start() {
+    metricsRegistry.gauge(SEQUENCER_QUEUED, activitySequencer::getQueuedActivityCount);
+  }
+
+  @Override
+  public void stop() {
+    metricsRegistry.removeGauge(SEQUENCER_QUEUED);
+  }
+}
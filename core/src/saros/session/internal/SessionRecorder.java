@@ -0,0 +1,176 @@
+package saros.session.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import org.apache.log4j.Logger;
+import saros.activities.IActivity;
+import saros.repackaged.picocontainer.Startable;
+import saros.session.IActivityConsumer;
+import saros.session.IActivityConsumer.Priority;
+import saros.session.ISarosSession;
+import saros.session.User;
+import saros.session.internal.SessionRecording.Kind;
+
+/**
+ * Records the activity streams of the local participant of a session into a {@linkplain
+ * SessionRecording session recording}. The recorded streams are the activities created by the local
+ * user, the activities received from and sent to the other participants and the activities executed
+ * locally, each with the time it passed the session.
+ *
+ * <p>The recording is disabled by default and can be enabled by setting the system property <code>
+ * saros.session.RECORDING_DIR</code> to the directory the recordings should be written to. A new
+ * file is created for every session.
+ *
+ * <p>The activities are passed to the recorder by the session, see {@link #created}, {@link
+ * #received} and {@link #sent}. The executed activities are recorded by an {@link
+ * IActivityConsumer}.
+ *
+ * <p><b>Note:</b> The activities are marshalled and written by the threads passing them to the
+ * session, which slows down these threads while the recording is enabled.
+ */
+public final class SessionRecorder implements Startable {
+
+  private static final Logger log = Logger.getLogger(SessionRecorder.class);
+
+  private static final String RECORDING_DIR = System.getProperty("saros.session.RECORDING_DIR");
+
+  private final ISarosSession session;
+
+  private final String recordingDirectory;
+
+  private SessionRecording.Writer writer;
+
+  private final IActivityConsumer executedActivityConsumer =
+      new IActivityConsumer() {
+        @Override
+        public void exec(IActivity activity) {
+          record(Kind.EXECUTED, Collections.emptyList(), activity);
+        }
+      };
+
+  public SessionRecorder(ISarosSession session) {
+    this(session, RECORDING_DIR);
+  }
+
+  /**
+   * Creates a recorder writing to the given directory.
+   *
+   * @param session the session to record
+   * @param recordingDirectory the directory to write the recording to or <code>null</code> to not
+   *     record the session
+   */
+  public SessionRecorder(ISarosSession session, String recordingDirectory) {
+    this.session = session;
+    this.recordingDirectory = recordingDirectory;
+  }
+
+  @Override
+  public void start() {
+    if (recordingDirectory == null) return;
+
+    String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date());
+
+    File file =
+        new File(
+            recordingDirectory,
+            "session-"
+                + session.getID()
+                + "-"
+                + session.getLocalUser().toString().replaceAll("[^\\w.-]", "_")
+                + "-"
+                + timestamp
+                + ".srec");
+
+    try {
+      file.getParentFile().mkdirs();
+
+      SessionRecording.Writer newWriter =
+          new SessionRecording.Writer(
+              new BufferedOutputStream(new FileOutputStream(file)),
+              session.getID(),
+              session.getLocalUser(),
+              session.getHost());
+
+      synchronized (this) {
+        writer = newWriter;
+      }
+
+    } catch (IOException e) {
+      log.warn("failed to create session recording " + file, e);
+      return;
+    }
+
+    session.addActivityConsumer(executedActivityConsumer, Priority.PASSIVE);
+
+    log.info("recording session to " + file);
+  }
+
+  @Override
+  public void stop() {
+    session.removeActivityConsumer(executedActivityConsumer);
+
+    close();
+  }
+
+  /**
+   * Records an activity created by the local user.
+   *
+   * @param activity the created activity
+   */
+  public void created(IActivity activity) {
+    record(Kind.LOCAL, Collections.emptyList(), activity);
+  }
+
+  /**
+   * Records activities received from another participant.
+   *
+   * @param activities the received activities
+   */
+  public void received(List<IActivity> activities) {
+    record(Kind.RECEIVED, Collections.emptyList(), activities);
+  }
+
+  /**
+   * Records an activity sent to other participants.
+   *
+   * @param recipients the recipients of the activity
+   * @param activity the sent activity
+   */
+  public void sent(List<User> recipients, IActivity activity) {
+    record(Kind.SENT, recipients, activity);
+  }
+
+  private void record(Kind kind, List<User> peers, IActivity activity) {
+    record(kind, peers, Collections.singletonList(activity));
+  }
+
+  private synchronized void record(Kind kind, List<User> peers, List<IActivity> activities) {
+    if (writer == null) return;
+
+    try {
+      writer.write(kind, peers, activities);
+    } catch (IOException | RuntimeException e) {
+      log.warn("failed to record activities, stopping the recording", e);
+      close();
+    }
+  }
+
+  private synchronized void close() {
+    if (writer == null) return;
+
+    try {
+      writer.close();
+    } catch (IOException e) {
+      log.warn("failed to close the session recording", e);
+    }
+
+    writer = null;
+  }
+}
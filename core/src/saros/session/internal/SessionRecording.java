@@ -0,0 +1,326 @@
+package saros.session.internal;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import saros.activities.IActivity;
+import saros.communication.extensions.ActivitiesExtension;
+import saros.net.xmpp.JID;
+import saros.session.User;
+
+/**
+ * The binary format of session recordings written by the {@link SessionRecorder}.
+ *
+ * <p>A recording is a GZIP compressed stream that starts with a header containing the session ID,
+ * the local user, the host and the wall clock time at which the recording started. The header is
+ * followed by the {@linkplain Record records} in the order they were written. The time of a record
+ * is stored as the difference to the previous record in nanoseconds. The participants are stored as
+ * their JIDs, which are the string representation of the {@link User users}, once and referenced by
+ * their index afterwards. The activities are stored the way they are sent over the network, i.e.
+ * marshalled by the {@link ActivitiesExtension#PROVIDER}.
+ *
+ * <p><b>Note:</b> Writing and reading activities requires the session dependent converters of the
+ * {@link ActivitiesExtension#PROVIDER} to be registered, i.e. a session must be running or
+ * simulated.
+ */
+public final class SessionRecording {
+
+  private static final int MAGIC = 0x53524543; // SREC
+
+  private static final int VERSION = 1;
+
+  /** The streams a session recording consists of. */
+  public enum Kind {
+    /** Activities created by the local user, before they are transformed. */
+    LOCAL,
+    /** Activities received from the other participants, before they are transformed. */
+    RECEIVED,
+    /** Activities sent to the other participants, the peers are the recipients. */
+    SENT,
+    /** Activities executed locally, after they were transformed. */
+    EXECUTED
+  }
+
+  /** A single entry of a session recording. */
+  public static final class Record {
+    private final Kind kind;
+    private final long time;
+    private final List<JID> peers;
+    private final List<IActivity> activities;
+
+    private Record(Kind kind, long time, List<JID> peers, List<IActivity> activities) {
+      this.kind = kind;
+      this.time = time;
+      this.peers = peers;
+      this.activities = activities;
+    }
+
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * Returns the time of the record.
+     *
+     * @return the time in nanoseconds since the recording was started
+     */
+    public long getTime() {
+      return time;
+    }
+
+    /**
+     * Returns the peers of the record.
+     *
+     * @return the recipients of {@link Kind#SENT sent} activities, an empty list for all other
+     *     kinds
+     */
+    public List<JID> getPeers() {
+      return peers;
+    }
+
+    public List<IActivity> getActivities() {
+      return activities;
+    }
+
+    @Override
+    public String toString() {
+      return "Record [kind=" + kind + ", time=" + time + ", activities=" + activities + "]";
+    }
+  }
+
+  private SessionRecording() {
+    // NOP
+  }
+
+  /** Writes a session recording. This class is not thread safe. */
+  static final class Writer implements Closeable {
+
+    private final DataOutputStream out;
+
+    private final String sessionID;
+
+    private long lastTime = System.nanoTime();
+
+    private final Map<User, Integer> userIndices = new HashMap<>();
+
+    /**
+     * Creates a writer and writes the header of the recording.
+     *
+     * @param out the stream to write to, it is closed when the writer is closed
+     * @param sessionID the ID of the recorded session
+     * @param localUser the local user
+     * @param host the host
+     * @throws IOException if the header could not be written
+     */
+    Writer(OutputStream out, String sessionID, User localUser, User host) throws IOException {
+      this.out = new DataOutputStream(new GZIPOutputStream(out, 64 * 1024));
+      this.sessionID = sessionID;
+
+      this.out.writeInt(MAGIC);
+      this.out.writeShort(VERSION);
+      this.out.writeUTF(sessionID);
+      writeUser(localUser);
+      writeUser(host);
+      this.out.writeLong(System.currentTimeMillis());
+    }
+
+    /**
+     * Appends a record with the current time.
+     *
+     * @param kind the kind of the record
+     * @param peers the peers of the record
+     * @param activities the activities of the record
+     * @throws IOException if the record could not be written
+     */
+    void write(Kind kind, List<User> peers, List<IActivity> activities) throws IOException {
+      byte[] payload =
+          ActivitiesExtension.PROVIDER
+              .create(new ActivitiesExtension(sessionID, activities, 0))
+              .toXML()
+              .getBytes(StandardCharsets.UTF_8);
+
+      long now = Math.max(lastTime, System.nanoTime());
+
+      out.writeByte(kind.ordinal());
+      writeVarLong(now - lastTime);
+      writeVarLong(peers.size());
+
+      for (User peer : peers) writeUser(peer);
+
+      writeVarLong(payload.length);
+      out.write(payload);
+
+      lastTime = now;
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+
+    private void writeUser(User user) throws IOException {
+      Integer index = userIndices.get(user);
+
+      if (index != null) {
+        writeVarLong(index);
+        return;
+      }
+
+      index = userIndices.size();
+      userIndices.put(user, index);
+
+      writeVarLong(index);
+      out.writeUTF(user.toString());
+    }
+
+    private void writeVarLong(long value) throws IOException {
+      while ((value & ~0x7FL) != 0) {
+        out.writeByte((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+
+      out.writeByte((int) value);
+    }
+  }
+
+  /** Reads a session recording. This class is not thread safe. */
+  public static final class Reader implements Closeable {
+
+    private final DataInputStream in;
+
+    private final String sessionID;
+    private final JID localUser;
+    private final JID host;
+    private final long startTime;
+
+    private final List<JID> jids = new ArrayList<>();
+
+    private long time;
+
+    /**
+     * Creates a reader and reads the header of the recording.
+     *
+     * @param in the stream to read from, it is closed when the reader is closed
+     * @throws IOException if the header could not be read or the stream is not a recording
+     */
+    public Reader(InputStream in) throws IOException {
+      this.in = new DataInputStream(new GZIPInputStream(in, 64 * 1024));
+
+      if (this.in.readInt() != MAGIC) throw new IOException("not a session recording");
+
+      int version = this.in.readUnsignedShort();
+
+      if (version != VERSION)
+        throw new IOException("unsupported session recording version: " + version);
+
+      sessionID = this.in.readUTF();
+      localUser = readJID();
+      host = readJID();
+      startTime = this.in.readLong();
+    }
+
+    public String getSessionID() {
+      return sessionID;
+    }
+
+    public JID getLocalUser() {
+      return localUser;
+    }
+
+    public JID getHost() {
+      return host;
+    }
+
+    /**
+     * Returns the wall clock time at which the recording was started.
+     *
+     * @return the start time in milliseconds
+     */
+    public long getStartTime() {
+      return startTime;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the next record or <code>null</code> if the end of the recording is reached
+     * @throws IOException if the record could not be read
+     */
+    public Record read() throws IOException {
+      int kind = in.read();
+
+      if (kind == -1) return null;
+
+      if (kind >= Kind.values().length) throw new IOException("unknown record kind: " + kind);
+
+      time += readVarLong();
+
+      int peerCount = (int) readVarLong();
+
+      List<JID> peers = peerCount == 0 ? Collections.emptyList() : new ArrayList<>(peerCount);
+
+      for (int i = 0; i < peerCount; i++) peers.add(readJID());
+
+      byte[] payload = new byte[(int) readVarLong()];
+      in.readFully(payload);
+
+      return new Record(Kind.values()[kind], time, peers, unmarshal(payload));
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+
+    private static List<IActivity> unmarshal(byte[] payload) throws IOException {
+      ActivitiesExtension extension =
+          ActivitiesExtension.PROVIDER.parseString(new String(payload, StandardCharsets.UTF_8));
+
+      if (extension == null) throw new IOException("malformed activities in recording");
+
+      // XStream omits empty lists
+      List<IActivity> activities = extension.getActivities();
+
+      return activities != null ? activities : Collections.emptyList();
+    }
+
+    private JID readJID() throws IOException {
+      int index = (int) readVarLong();
+
+      if (index < jids.size()) return jids.get(index);
+
+      if (index != jids.size()) throw new IOException("invalid JID reference: " + index);
+
+      JID jid = new JID(in.readUTF());
+      jids.add(jid);
+
+      return jid;
+    }
+
+    private long readVarLong() throws IOException {
+      long value = 0;
+
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = in.readByte();
+
+        value |= (long) (b & 0x7F) << shift;
+
+        if ((b & 0x80) == 0) return value;
+      }
+
+      throw new EOFException("malformed variable length number");
+    }
+  }
+}
@@ -2,16 +2,22 @@ package saros.session.internal;
 
 import static saros.filesystem.IResource.Type.REFERENCE_POINT;
 
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
 import org.apache.log4j.Logger;
 import saros.filesystem.IReferencePoint;
 import saros.filesystem.IResource;
 import saros.session.User;
+import saros.util.PathUtils;
 
 /**
  * This class is responsible for mapping global reference point IDs to local {@linkplain
@@ -21,28 +27,82 @@ import saros.session.User;
  * <p>The reference point IDs are used to identify shared reference points across the network, even
  * when the local names of shared reference points are different. The ID is determined by the
  * reference point/file-host.
+ *
+ * <p>The mapper is consulted for nearly every activity and file system event. Therefore the
+ * mappings are held in an immutable index that is replaced as a whole on every modification, so all
+ * read accesses are lock-free. Modifications are rare and synchronized.
+ *
+ * <p>The decisions whether a resource is ignored are cached per reference point and path. A cached
+ * decision is discarded after {@link #IGNORE_CACHE_TIMEOUT} ms (configurable by setting the system
+ * property <code>saros.session.IGNORE_CACHE_TIMEOUT</code>, <code>0</code> disables the cache) or
+ * when it is {@linkplain #invalidateIgnoreCache(IResource) invalidated} because the resource or one
+ * of its parent folders was modified.
  */
 class SharedReferencePointMapper {
 
   private static final Logger log = Logger.getLogger(SharedReferencePointMapper.class);
 
-  /** Mapping from reference point IDs to currently registered shared reference points. */
-  private final Map<String, IReferencePoint> idToReferencePointMapping;
+  static final long IGNORE_CACHE_TIMEOUT =
+      Math.max(0, Long.getLong("saros.session.IGNORE_CACHE_TIMEOUT", 1000L));
+
+  /** Maximal number of cached ignore decisions per reference point */
+  private static final int MAX_IGNORE_CACHE_SIZE = 10000;
+
+  /** Immutable snapshot of the ID - reference point mappings. */
+  private static final class Index {
+    /** Mapping from reference point IDs to currently registered shared reference points. */
+    private final Map<String, IReferencePoint> idToReferencePointMapping;
 
-  /** Mapping from currently registered shared reference points to their id's. */
-  private final Map<IReferencePoint, String> referencePointToIDMapping;
+    /** Mapping from currently registered shared reference points to their id's. */
+    private final Map<IReferencePoint, String> referencePointToIDMapping;
+
+    private Index(
+        Map<String, IReferencePoint> idToReferencePointMapping,
+        Map<IReferencePoint, String> referencePointToIDMapping) {
+
+      this.idToReferencePointMapping = Collections.unmodifiableMap(idToReferencePointMapping);
+      this.referencePointToIDMapping = Collections.unmodifiableMap(referencePointToIDMapping);
+    }
+  }
+
+  /** A cached decision whether a resource is ignored. */
+  private static final class IgnoreDecision {
+    private final boolean ignored;
+    private final long time;
+
+    private IgnoreDecision(boolean ignored, long time) {
+      this.ignored = ignored;
+      this.time = time;
+    }
+  }
+
+  private volatile Index index = new Index(new HashMap<>(), new HashMap<>());
+
+  /**
+   * Cached ignore decisions per shared reference point, sorted by the portable reference point
+   * relative path so all decisions below a folder can be invalidated at once.
+   */
+  private final ConcurrentMap<IReferencePoint, NavigableMap<String, IgnoreDecision>> ignoreCache =
+      new ConcurrentHashMap<>();
 
   /**
    * Map for storing which clients have which reference points. Used by the host to determine who
    * can currently process an activity related to a particular reference point. (Non-hosts don't
-   * maintain this map.)
+   * maintain this map.) The stored sets are never modified.
    */
-  private final Map<User, List<String>> referencePointsOfUsers;
+  private final Map<User, Set<String>> referencePointsOfUsers = new ConcurrentHashMap<>();
+
+  private final long ignoreCacheTimeout;
+
+  private final LongSupplier clock;
 
   SharedReferencePointMapper() {
-    this.idToReferencePointMapping = new HashMap<>();
-    this.referencePointToIDMapping = new HashMap<>();
-    this.referencePointsOfUsers = new HashMap<>();
+    this(IGNORE_CACHE_TIMEOUT, System::currentTimeMillis);
+  }
+
+  SharedReferencePointMapper(long ignoreCacheTimeout, LongSupplier clock) {
+    this.ignoreCacheTimeout = ignoreCacheTimeout;
+    this.clock = clock;
   }
 
   /**
@@ -59,8 +119,10 @@ class SharedReferencePointMapper {
 
     if (referencePoint == null) throw new NullPointerException("reference point is null");
 
-    String currentReferencePointID = referencePointToIDMapping.get(referencePoint);
-    IReferencePoint currentReferencePoin = idToReferencePointMapping.get(id);
+    Index current = index;
+
+    String currentReferencePointID = current.referencePointToIDMapping.get(referencePoint);
+    IReferencePoint currentReferencePoin = current.idToReferencePointMapping.get(id);
 
     if (id.equals(currentReferencePointID) && referencePoint.equals(currentReferencePoin)) {
       throw new IllegalStateException(
@@ -89,9 +151,16 @@ class SharedReferencePointMapper {
 
     checkForNestedReferencePoints(referencePoint);
 
+    Map<String, IReferencePoint> idToReferencePointMapping =
+        new HashMap<>(current.idToReferencePointMapping);
+    Map<IReferencePoint, String> referencePointToIDMapping =
+        new HashMap<>(current.referencePointToIDMapping);
+
     idToReferencePointMapping.put(id, referencePoint);
     referencePointToIDMapping.put(referencePoint, id);
 
+    index = new Index(idToReferencePointMapping, referencePointToIDMapping);
+
     log.debug("added reference point " + referencePoint + " with ID " + id);
   }
 
@@ -103,7 +172,7 @@ class SharedReferencePointMapper {
    * @throws IllegalStateException if nested reference points are detected
    */
   private void checkForNestedReferencePoints(IReferencePoint addedReferencePoint) {
-    for (IReferencePoint sharedReferencePoint : idToReferencePointMapping.values()) {
+    for (IReferencePoint sharedReferencePoint : index.idToReferencePointMapping.values()) {
       if (addedReferencePoint.isNested(sharedReferencePoint)) {
         throw new IllegalStateException(
             "Reference point "
@@ -122,16 +191,27 @@ class SharedReferencePointMapper {
    * @param id the ID of the reference point to remove
    */
   public synchronized void removeReferencePoint(String id) {
-    IReferencePoint referencePoint = idToReferencePointMapping.get(id);
+    Index current = index;
+
+    IReferencePoint referencePoint = current.idToReferencePointMapping.get(id);
 
     if (referencePoint == null) {
       log.warn("could not remove reference point, no reference point is registered with ID: " + id);
       return;
     }
 
+    Map<String, IReferencePoint> idToReferencePointMapping =
+        new HashMap<>(current.idToReferencePointMapping);
+    Map<IReferencePoint, String> referencePointToIDMapping =
+        new HashMap<>(current.referencePointToIDMapping);
+
     idToReferencePointMapping.remove(id);
     referencePointToIDMapping.remove(referencePoint);
 
+    index = new Index(idToReferencePointMapping, referencePointToIDMapping);
+
+    ignoreCache.remove(referencePoint);
+
     log.debug("removed reference point " + referencePoint + " with ID " + id);
   }
 
@@ -142,8 +222,8 @@ class SharedReferencePointMapper {
    * @return the shared reference point's ID or <code>null</code> if the reference point is not
    *     shared
    */
-  public synchronized String getID(IReferencePoint referencePoint) {
-    return referencePointToIDMapping.get(referencePoint);
+  public String getID(IReferencePoint referencePoint) {
+    return index.referencePointToIDMapping.get(referencePoint);
   }
 
   /**
@@ -153,8 +233,8 @@ class SharedReferencePointMapper {
    * @return the shared reference point for the given ID or <code>null</code> if no shared reference
    *     point is registered with this ID
    */
-  public synchronized IReferencePoint getReferencePoint(String id) {
-    return idToReferencePointMapping.get(id);
+  public IReferencePoint getReferencePoint(String id) {
+    return index.idToReferencePointMapping.get(id);
   }
 
   /**
@@ -163,19 +243,78 @@ class SharedReferencePointMapper {
    * @param resource the resource to check for
    * @return <code>true</code> if the resource is shared, <code>false</code> otherwise
    */
-  public synchronized boolean isShared(IResource resource) {
+  public boolean isShared(IResource resource) {
     if (resource == null) return false;
 
+    Map<IReferencePoint, String> referencePointToIDMapping = index.referencePointToIDMapping;
+
+    if (resource.getType() == REFERENCE_POINT)
+      return referencePointToIDMapping.containsKey(resource);
+
+    IReferencePoint referencePoint = resource.getReferencePoint();
+
+    if (referencePoint == null || !referencePointToIDMapping.containsKey(referencePoint))
+      return false;
+
+    return !isIgnored(referencePoint, resource);
+  }
+
+  /**
+   * Discards the cached ignore decisions for the given resource and, if it is a folder or reference
+   * point, for all resources contained in it.
+   *
+   * @param resource the resource whose ignore decisions to discard
+   */
+  public void invalidateIgnoreCache(IResource resource) {
+    if (resource == null) return;
+
     if (resource.getType() == REFERENCE_POINT) {
-      IReferencePoint referencePoint = (IReferencePoint) resource;
-      return idToReferencePointMapping.containsValue(referencePoint);
+      ignoreCache.remove(resource);
+      return;
     }
 
-    IReferencePoint referencePoint = resource.getReferencePoint();
+    NavigableMap<String, IgnoreDecision> decisions = ignoreCache.get(resource.getReferencePoint());
 
-    if (!idToReferencePointMapping.containsValue(referencePoint)) return false;
+    String path = getPath(resource);
 
-    return !resource.isIgnored();
+    if (decisions == null || path == null) return;
+
+    decisions.remove(path);
+    decisions.subMap(path + "/", path + "/\uffff").clear();
+  }
+
+  /** Discards all cached ignore decisions. */
+  public void invalidateIgnoreCache() {
+    ignoreCache.clear();
+  }
+
+  private boolean isIgnored(IReferencePoint referencePoint, IResource resource) {
+    String path = ignoreCacheTimeout > 0 ? getPath(resource) : null;
+
+    if (path == null) return resource.isIgnored();
+
+    NavigableMap<String, IgnoreDecision> decisions =
+        ignoreCache.computeIfAbsent(referencePoint, r -> new ConcurrentSkipListMap<>());
+
+    long now = clock.getAsLong();
+
+    IgnoreDecision decision = decisions.get(path);
+
+    if (decision != null && now - decision.time < ignoreCacheTimeout) return decision.ignored;
+
+    boolean ignored = resource.isIgnored();
+
+    if (decisions.size() >= MAX_IGNORE_CACHE_SIZE) decisions.clear();
+
+    decisions.put(path, new IgnoreDecision(ignored, now));
+
+    return ignored;
+  }
+
+  private static String getPath(IResource resource) {
+    Path path = resource.getReferencePointRelativePath();
+
+    return path == null ? null : PathUtils.toPortableString(path);
   }
 
   /**
@@ -183,8 +322,8 @@ class SharedReferencePointMapper {
    *
    * @return a newly created {@link Set} with the shared reference points
    */
-  public synchronized Set<IReferencePoint> getReferencePoints() {
-    return new HashSet<>(idToReferencePointMapping.values());
+  public Set<IReferencePoint> getReferencePoints() {
+    return new HashSet<>(index.idToReferencePointMapping.values());
   }
 
   /**
@@ -192,8 +331,8 @@ class SharedReferencePointMapper {
    *
    * @return number of shared reference points
    */
-  public synchronized int size() {
-    return idToReferencePointMapping.size();
+  public int size() {
+    return index.idToReferencePointMapping.size();
   }
 
   /**
@@ -207,11 +346,10 @@ class SharedReferencePointMapper {
    * @return <code>true</code> if the user currently has the reference point, <code>false</code> if
    *     not
    */
-  public synchronized boolean userHasReferencePoint(User user, IReferencePoint referencePoint) {
-    if (referencePointsOfUsers.containsKey(user)) {
-      return referencePointsOfUsers.get(user).contains(getID(referencePoint));
-    }
-    return false;
+  public boolean userHasReferencePoint(User user, IReferencePoint referencePoint) {
+    Set<String> referencePointIds = referencePointsOfUsers.get(user);
+
+    return referencePointIds != null && referencePointIds.contains(getID(referencePoint));
   }
 
   /**
@@ -222,10 +360,10 @@ class SharedReferencePointMapper {
    * @param user user who now has all reference points
    * @see #userHasReferencePoint(User, IReferencePoint)
    */
-  public synchronized void addMissingReferencePointsToUser(User user) {
-    List<String> referencePointIds = new ArrayList<>(idToReferencePointMapping.keySet());
+  public void addMissingReferencePointsToUser(User user) {
+    Set<String> referencePointIds = new HashSet<>(index.idToReferencePointMapping.keySet());
 
-    this.referencePointsOfUsers.put(user, referencePointIds);
+    this.referencePointsOfUsers.put(user, Collections.unmodifiableSet(referencePointIds));
   }
 
   /**
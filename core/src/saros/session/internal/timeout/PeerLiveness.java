@@ -0,0 +1,175 @@
+package saros.session.internal.timeout;
+
+import saros.session.User;
+
+/**
+ * Tracks the liveness and the round-trip time of the connection to one session participant.
+ *
+ * <p>Every received packet counts as a sign of life, so the regular activity traffic keeps a busy
+ * connection alive without any extra packets. Probes are only needed for idle connections. If a
+ * probe is not answered within the {@linkplain #getProbeTimeout() probe timeout}, which is
+ * calculated from the measured round-trip times as in TCP (RFC 6298), it is repeated. The peer is
+ * considered dead if a number of consecutive probes is not answered or if nothing was received for
+ * a maximum amount of time.
+ *
+ * <p>All methods take the current time as argument.
+ */
+final class PeerLiveness {
+
+  enum Action {
+    /** Nothing needs to be done. */
+    NONE,
+    /** A probe has to be sent to the peer. */
+    PROBE,
+    /** The peer is considered to be dead. */
+    DEAD
+  }
+
+  /** The probe timeout used as long as no round-trip time was measured. */
+  static final long INITIAL_PROBE_TIMEOUT = 10000L;
+
+  private final User user;
+
+  private final boolean probeIdleConnection;
+
+  private final long idleInterval;
+
+  private final long maxSilence;
+
+  private final long minProbeTimeout;
+
+  private final int maxProbes;
+
+  private long lastReceived;
+
+  private long lastSent;
+
+  private long lastProbeSent;
+
+  private int unansweredProbes;
+
+  private long smoothedRoundTripTime = -1;
+
+  private long roundTripTimeVariation = -1;
+
+  /**
+   * @param user the peer
+   * @param probeIdleConnection if <code>true</code> a probe is sent as soon as nothing was sent to
+   *     or received from the peer for the idle interval, otherwise a probe is only sent if nothing
+   *     was received for one and a half times the idle interval
+   * @param idleInterval the time in milliseconds after which a connection is considered idle
+   * @param maxSilence the time in milliseconds after which the peer is considered dead if nothing
+   *     was received
+   * @param minProbeTimeout the minimal time in milliseconds to wait for the answer to a probe
+   * @param maxProbes the number of consecutive unanswered probes after which the peer is considered
+   *     dead
+   * @param now the current time in milliseconds
+   */
+  PeerLiveness(
+      User user,
+      boolean probeIdleConnection,
+      long idleInterval,
+      long maxSilence,
+      long minProbeTimeout,
+      int maxProbes,
+      long now) {
+    this.user = user;
+    this.probeIdleConnection = probeIdleConnection;
+    this.idleInterval = idleInterval;
+    this.maxSilence = maxSilence;
+    this.minProbeTimeout = minProbeTimeout;
+    this.maxProbes = maxProbes;
+    this.lastReceived = now;
+    this.lastSent = now;
+  }
+
+  User getUser() {
+    return user;
+  }
+
+  /** Records that something was received from the peer. */
+  synchronized void received(long now) {
+    lastReceived = Math.max(lastReceived, now);
+    unansweredProbes = 0;
+  }
+
+  /** Records that something was sent to the peer. */
+  synchronized void sent(long now) {
+    lastSent = Math.max(lastSent, now);
+  }
+
+  /** Records that a probe was sent to the peer. */
+  synchronized void probeSent(long now) {
+    sent(now);
+    lastProbeSent = now;
+    unansweredProbes++;
+  }
+
+  /**
+   * Updates the round-trip time estimation with the given measurement.
+   *
+   * @param roundTripTime the measured round-trip time in milliseconds
+   */
+  synchronized void roundTripTimeMeasured(long roundTripTime) {
+    if (roundTripTime < 0) return;
+
+    if (smoothedRoundTripTime < 0) {
+      smoothedRoundTripTime = roundTripTime;
+      roundTripTimeVariation = roundTripTime / 2;
+      return;
+    }
+
+    roundTripTimeVariation =
+        (3 * roundTripTimeVariation + Math.abs(smoothedRoundTripTime - roundTripTime)) / 4;
+    smoothedRoundTripTime = (7 * smoothedRoundTripTime + roundTripTime) / 8;
+  }
+
+  /**
+   * Determines what has to be done for the connection to the peer at the given time.
+   *
+   * @param now the current time in milliseconds
+   * @return the action to perform
+   */
+  synchronized Action check(long now) {
+    final long silence = now - lastReceived;
+
+    if (silence > maxSilence) return Action.DEAD;
+
+    if (unansweredProbes > 0) {
+      if (now - lastProbeSent < getProbeTimeout()) return Action.NONE;
+
+      return unansweredProbes >= maxProbes ? Action.DEAD : Action.PROBE;
+    }
+
+    if (probeIdleConnection)
+      return silence >= idleInterval || now - lastSent >= idleInterval ? Action.PROBE : Action.NONE;
+
+    return silence >= idleInterval * 3 / 2 ? Action.PROBE : Action.NONE;
+  }
+
+  /**
+   * Returns the time to wait for the answer to a probe. This is the retransmission timeout of RFC
+   * 6298 bounded by the minimal probe timeout and the idle interval.
+   *
+   * @return the probe timeout in milliseconds
+   */
+  synchronized long getProbeTimeout() {
+    if (smoothedRoundTripTime < 0) return Math.max(minProbeTimeout, INITIAL_PROBE_TIMEOUT);
+
+    final long timeout = smoothedRoundTripTime + 4 * roundTripTimeVariation;
+
+    return Math.min(idleInterval, Math.max(minProbeTimeout, timeout));
+  }
+
+  synchronized long getRoundTripTime() {
+    return smoothedRoundTripTime;
+  }
+
+  synchronized long getRoundTripTimeVariation() {
+    return roundTripTimeVariation;
+  }
+
+  synchronized long getSilenceDuration(long now) {
+    return now - lastReceived;
+  }
+}
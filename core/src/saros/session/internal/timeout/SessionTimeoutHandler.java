@@ -1,23 +1,40 @@
 package saros.session.internal.timeout;
 
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.apache.log4j.Logger;
+import org.jivesoftware.smack.PacketListener;
+import org.jivesoftware.smack.packet.Packet;
+import saros.communication.extensions.PingExtension;
+import saros.communication.extensions.PongExtension;
 import saros.net.IReceiver;
 import saros.net.ITransmitter;
 import saros.net.xmpp.JID;
 import saros.repackaged.picocontainer.Startable;
+import saros.session.ILivenessMonitor;
 import saros.session.ISarosSession;
 import saros.session.ISarosSessionManager;
 import saros.session.SessionEndReason;
 import saros.session.User;
 import saros.session.internal.ActivitySequencer;
 import saros.session.internal.IActivitySequencerCallback;
+import saros.util.NamedThreadFactory;
 import saros.util.ThreadUtils;
 
 /**
  * Abstract base class that is already capable of detecting and handling network errors occurred in
  * the {@link ActivitySequencer} component.
+ *
+ * <p>In addition it monitors the liveness of the connections to the peers registered by the
+ * subclasses (see {@link PeerLiveness}). Activities sent and received by the {@link
+ * ActivitySequencer} count as traffic on a connection, so {@link PingExtension pings} are only sent
+ * if a connection is idle. Every ping is answered with a {@link PongExtension pong} which is also
+ * used to measure the round-trip time of the connection.
  */
-abstract class SessionTimeoutHandler implements Startable {
+abstract class SessionTimeoutHandler implements Startable, ILivenessMonitor {
 
   private static final Logger log = Logger.getLogger(SessionTimeoutHandler.class);
 
@@ -25,16 +42,26 @@ abstract class SessionTimeoutHandler implements Startable {
   protected static final long TIMEOUT = 10000L;
 
   /**
-   * Total timeout in milliseconds to remove a user(host) or stop the session(client) if no ping or
-   * pong packet is received.
+   * Total timeout in milliseconds to remove a user(host) or stop the session(client) if no packet
+   * is received at all.
    */
   protected static final long PING_PONG_TIMEOUT =
       Long.getLong("saros.session.timeout.PING_PONG_TIMEOUT", 60L * 1000L * 5L);
 
-  /** Update interval for sending and / or checking the status of ping and pong packets. */
+  /** Time in milliseconds after which a connection without any traffic is probed. */
   protected static final long PING_PONG_UPDATE_DELAY =
       Long.getLong("saros.session.timeout.PING_PONG_UPDATE_DELAY", 30000L);
 
+  /** Minimal time in milliseconds to wait for the answer to a ping. */
+  protected static final long MIN_PROBE_TIMEOUT =
+      Long.getLong("saros.session.timeout.MIN_PROBE_TIMEOUT", 5000L);
+
+  /** Number of consecutive unanswered pings after which a peer is considered dead. */
+  protected static final int MAX_PROBES = Integer.getInteger("saros.session.timeout.MAX_PROBES", 3);
+
+  /** Interval in milliseconds in which the state of the connections is checked. */
+  private static final long CHECK_INTERVAL = 1000L;
+
   /** Current session the component is run with. */
   protected final ISarosSession session;
 
@@ -48,11 +75,84 @@ abstract class SessionTimeoutHandler implements Startable {
 
   private final ActivitySequencer sequencer;
 
+  private final Map<User, PeerLiveness> peers = new ConcurrentHashMap<User, PeerLiveness>();
+
+  private ScheduledThreadPoolExecutor watchdog;
+
   private final IActivitySequencerCallback callback =
       new IActivitySequencerCallback() {
         @Override
         public void transmissionFailed(final JID jid) {
-          handleNetworkError(jid, "tx");
+          final User user = session.getUser(jid);
+
+          if (user == null) return;
+
+          removePeer(user);
+          handleNetworkError(user, "tx");
+        }
+
+        @Override
+        public void activitiesSent(final JID jid) {
+          PeerLiveness peer = getPeer(jid);
+
+          if (peer != null) peer.sent(System.currentTimeMillis());
+        }
+
+        @Override
+        public void activitiesReceived(final JID jid) {
+          PeerLiveness peer = getPeer(jid);
+
+          if (peer != null) peer.received(System.currentTimeMillis());
+        }
+      };
+
+  private final PacketListener pingPacketListener =
+      new PacketListener() {
+
+        @Override
+        public void processPacket(Packet packet) {
+          final JID jid = new JID(packet.getFrom());
+          final PeerLiveness peer = getPeer(jid);
+
+          if (peer == null) return;
+
+          peer.received(System.currentTimeMillis());
+
+          final PingExtension ping = PingExtension.PROVIDER.getPayload(packet);
+
+          try {
+            transmitter.send(
+                ISarosSession.SESSION_CONNECTION_ID,
+                jid,
+                PongExtension.PROVIDER.create(
+                    new PongExtension(currentSessionID, ping == null ? 0 : ping.getTimestamp())));
+
+            peer.sent(System.currentTimeMillis());
+          } catch (IOException e) {
+            log.error("failed to send pong to: " + jid, e);
+            removePeer(peer.getUser());
+            handleNetworkError(peer.getUser(), "tx");
+          }
+        }
+      };
+
+  private final PacketListener pongPacketListener =
+      new PacketListener() {
+
+        @Override
+        public void processPacket(Packet packet) {
+          final PeerLiveness peer = getPeer(new JID(packet.getFrom()));
+
+          if (peer == null) return;
+
+          final long now = System.currentTimeMillis();
+
+          peer.received(now);
+
+          final PongExtension pong = PongExtension.PROVIDER.getPayload(packet);
+
+          if (pong != null && pong.getPingTimestamp() > 0)
+            peer.roundTripTimeMeasured(now - pong.getPingTimestamp());
         }
       };
 
@@ -73,11 +173,144 @@ abstract class SessionTimeoutHandler implements Startable {
   @Override
   public void start() {
     sequencer.setCallback(callback);
+
+    receiver.addPacketListener(
+        pingPacketListener, PingExtension.PROVIDER.getPacketFilter(currentSessionID));
+
+    receiver.addPacketListener(
+        pongPacketListener, PongExtension.PROVIDER.getPacketFilter(currentSessionID));
+
+    watchdog = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(getWatchdogName()));
+
+    watchdog.scheduleWithFixedDelay(
+        ThreadUtils.wrapSafe(log, this::checkPeers),
+        CHECK_INTERVAL,
+        CHECK_INTERVAL,
+        TimeUnit.MILLISECONDS);
   }
 
   @Override
   public void stop() {
     sequencer.setCallback(null);
+
+    receiver.removePacketListener(pingPacketListener);
+    receiver.removePacketListener(pongPacketListener);
+
+    watchdog.shutdownNow();
+
+    try {
+      if (!watchdog.awaitTermination(TIMEOUT, TimeUnit.MILLISECONDS))
+        log.error(getWatchdogName() + " thread is still running");
+    } catch (InterruptedException e) {
+      log.warn("interrupted while waiting for " + getWatchdogName() + " thread to terminate");
+
+      Thread.currentThread().interrupt();
+    }
+
+    peers.clear();
+  }
+
+  /** Returns the name of the thread that checks the connections. */
+  protected abstract String getWatchdogName();
+
+  /**
+   * Starts to monitor the connection to the given user.
+   *
+   * @param user the user
+   * @param probeIdleConnection whether the connection should be probed as soon as it is idle or
+   *     only if nothing was received from the user for a longer time
+   */
+  protected final void addPeer(final User user, final boolean probeIdleConnection) {
+    peers.put(
+        user,
+        new PeerLiveness(
+            user,
+            probeIdleConnection,
+            PING_PONG_UPDATE_DELAY,
+            PING_PONG_TIMEOUT,
+            MIN_PROBE_TIMEOUT,
+            MAX_PROBES,
+            System.currentTimeMillis()));
+  }
+
+  /**
+   * Stops to monitor the connection to the given user.
+   *
+   * @param user the user
+   */
+  protected final void removePeer(final User user) {
+    peers.remove(user);
+  }
+
+  @Override
+  public long getRoundTripTime(final User user) {
+    final PeerLiveness peer = peers.get(user);
+
+    return peer == null ? -1 : peer.getRoundTripTime();
+  }
+
+  @Override
+  public long getRoundTripTimeVariation(final User user) {
+    final PeerLiveness peer = peers.get(user);
+
+    return peer == null ? -1 : peer.getRoundTripTimeVariation();
+  }
+
+  @Override
+  public long getSilenceDuration(final User user) {
+    final PeerLiveness peer = peers.get(user);
+
+    return peer == null ? -1 : peer.getSilenceDuration(System.currentTimeMillis());
+  }
+
+  private PeerLiveness getPeer(final JID jid) {
+    final User user = session.getUser(jid);
+
+    return user == null ? null : peers.get(user);
+  }
+
+  private void checkPeers() {
+    for (final PeerLiveness peer : peers.values()) {
+
+      final long now = System.currentTimeMillis();
+
+      switch (peer.check(now)) {
+        case DEAD:
+          log.error(
+              "no response from "
+                  + peer.getUser()
+                  + " for "
+                  + peer.getSilenceDuration(now)
+                  + " ms, assuming connection is lost");
+
+          removePeer(peer.getUser());
+          handleNetworkError(peer.getUser(), "rx");
+          break;
+
+        case PROBE:
+          sendPing(peer, now);
+          break;
+
+        default:
+          break;
+      }
+    }
+  }
+
+  private void sendPing(final PeerLiveness peer, final long now) {
+    try {
+      transmitter.send(
+          ISarosSession.SESSION_CONNECTION_ID,
+          peer.getUser().getJID(),
+          PingExtension.PROVIDER.create(new PingExtension(currentSessionID, now)));
+
+      peer.probeSent(now);
+    } catch (IOException e) {
+      log.error("failed to send ping to: " + peer.getUser(), e);
+
+      removePeer(peer.getUser());
+      handleNetworkError(peer.getUser(), "tx");
+    }
   }
 
   /**
@@ -85,22 +318,21 @@ abstract class SessionTimeoutHandler implements Startable {
    * depending on the state of the local user. This method returns immediately and performs its work
    * in the background.
    *
-   * @param jid the {@linkplain JID} of the user
+   * @param user the user the connection to was lost
    * @param reason a reason why a network error occurred
    */
-  protected final void handleNetworkError(final JID jid, final String reason) {
+  protected final void handleNetworkError(final User user, final String reason) {
 
     String threadName = reason == null ? "" : reason;
 
     if (session.isHost()) {
       ThreadUtils.runSafeAsync(
-          "kill-user-" + jid.getName() + "-" + threadName,
+          "kill-user-" + user + "-" + threadName,
           log,
           new Runnable() {
             @Override
             public void run() {
-              User user = session.getUser(jid);
-              if (user != null) session.removeUser(user);
+              session.removeUser(user);
             }
           });
     } else {
@@ -1,5 +1,8 @@
 package saros.synchronize;
 
+import java.util.Set;
+import saros.filesystem.IResource;
+
 /**
  * Implementers of this interface can be blocked by the StopManager. Being blocked means that they
  * don't generate any activities and don't generate local changes that can be realized by the user,
@@ -10,4 +13,18 @@ public interface Blockable {
   public void block();
 
   public void unblock();
+
+  /**
+   * Blocks only the given resources, i.e. changes to resources that are not contained in the given
+   * scope may still be generated. The given scope replaces any previously blocked scope, so this
+   * method may also be called after {@link #block()} to narrow down the blocked resources.
+   *
+   * <p>The default implementation blocks everything by calling {@link #block()}.
+   *
+   * @param scope the reference points, folders and files to block
+   * @see StopManager#isInScope(Set, IResource)
+   */
+  public default void block(Set<IResource> scope) {
+    block();
+  }
 }
@@ -1,7 +1,14 @@
 package saros.synchronize;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.log4j.Logger;
+import saros.filesystem.IResource;
 import saros.session.User;
 import saros.util.StackTrace;
 
@@ -19,16 +26,30 @@ public class StartHandle {
 
   protected String id;
 
+  /** The resources the stop is restricted to or <code>null</code> for the whole session. */
+  protected Collection<IResource> scope;
+
   /** Each start handle may be only started once. This boolean guards this. */
   protected AtomicBoolean startCalled = new AtomicBoolean(false);
 
-  /** Each start handle may be acknowledged once to have been started. */
-  protected AtomicBoolean acknowledged = new AtomicBoolean(false);
+  /**
+   * Each start handle may be acknowledged once to have been started. Completes with <code>false
+   * </code> if no acknowledgment will arrive.
+   */
+  protected final CompletableFuture<Boolean> acknowledged = new CompletableFuture<>();
+
+  /** Point in time after which the acknowledgment of the start is no longer awaited. */
+  private volatile long acknowledgmentDeadline = Long.MAX_VALUE;
 
   StartHandle(User user, StopManager stopManager, String id) {
+    this(user, stopManager, id, null);
+  }
+
+  StartHandle(User user, StopManager stopManager, String id, Collection<IResource> scope) {
     this.user = user;
     this.stopManager = stopManager;
     this.id = id;
+    this.scope = scope == null ? null : Collections.unmodifiableCollection(scope);
   }
 
   /**
@@ -85,6 +106,28 @@ public class StartHandle {
     return false;
   }
 
+  /**
+   * Notifies the StopManager, that the operation for which this StartHandle was returned by a call
+   * to stop has finished.
+   *
+   * @return a future that completes with <code>true</code> once the stopped user acknowledged the
+   *     start, or with <code>false</code> if other StartHandles exist for this user, the user did
+   *     not acknowledge the start in time or left the session
+   * @nonblocking
+   * @throws IllegalStateException if start() is called twice on the same handle.
+   */
+  public CompletableFuture<Boolean> startAsync() {
+
+    log.debug("Called startAsync on " + user);
+
+    if (!startCalled.compareAndSet(false, true))
+      throw new IllegalStateException("start can only be called once per StartHandle");
+
+    if (stopManager.resumeStartHandle(this)) return acknowledged;
+
+    return CompletableFuture.completedFuture(false);
+  }
+
   /**
    * Waits until the StartHandle is acknowledged or the waiting timed out.
    *
@@ -95,15 +138,21 @@ public class StartHandle {
     long timeoutToExceed = System.currentTimeMillis() + StopManager.TIMEOUT;
 
     try {
-      while (!acknowledged.get()
-          && (System.currentTimeMillis() < timeoutToExceed)
-          && user.isInSession()) Thread.sleep(stopManager.MILLISTOWAIT);
+      while (System.currentTimeMillis() < timeoutToExceed && user.isInSession()) {
+        try {
+          return acknowledged.get(stopManager.MILLISTOWAIT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+          // check again if the user is still in the session
+        }
+      }
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       log.error("Code not designed to be interruptible", e);
+    } catch (ExecutionException e) {
+      log.error("unexpected failure while waiting for the acknowledgment", e);
     }
 
-    return acknowledged.get();
+    return isAcknowledged();
   }
 
   /**
@@ -115,6 +164,15 @@ public class StartHandle {
     return user;
   }
 
+  /**
+   * Returns the resources the stop is restricted to.
+   *
+   * @return the stopped resources or <code>null</code> if the whole session is stopped
+   */
+  public Collection<IResource> getScope() {
+    return scope;
+  }
+
   /** @return the internal handle id */
   String getHandleID() {
     return id;
@@ -122,11 +180,28 @@ public class StartHandle {
 
   /** Remember that the stopped user has acknowledged this handle. */
   void acknowledge() {
-    if (!acknowledged.compareAndSet(false, true)) {
+    if (!acknowledged.complete(true)) {
       log.warn("Acknowledge should only be called once per handle", new StackTrace());
     }
   }
 
+  /** Remember that no acknowledgment for this handle will arrive. */
+  void abandonAcknowledgment() {
+    acknowledged.complete(false);
+  }
+
+  boolean isAcknowledged() {
+    return acknowledged.getNow(false);
+  }
+
+  long getAcknowledgmentDeadline() {
+    return acknowledgmentDeadline;
+  }
+
+  void setAcknowledgmentDeadline(long acknowledgmentDeadline) {
+    this.acknowledgmentDeadline = acknowledgmentDeadline;
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
@@ -1,24 +1,33 @@
 package saros.synchronize;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.apache.log4j.Logger;
 import saros.activities.StopActivity;
 import saros.activities.StopActivity.State;
 import saros.activities.StopActivity.Type;
 import saros.annotations.Component;
+import saros.filesystem.IResource;
+import saros.monitoring.metrics.Counter;
+import saros.monitoring.metrics.MetricsRegistry;
 import saros.observables.ObservableValue;
 import saros.repackaged.picocontainer.Startable;
 import saros.session.AbstractActivityConsumer;
@@ -27,6 +36,8 @@ import saros.session.IActivityConsumer;
 import saros.session.IActivityConsumer.Priority;
 import saros.session.ISarosSession;
 import saros.session.User;
+import saros.util.LatencyHistogram;
+import saros.util.NamedThreadFactory;
 import saros.util.ThreadUtils;
 
 /**
@@ -42,6 +53,13 @@ import saros.util.ThreadUtils;
  *
  * <p>A StartHandle will be returned for each stopped user, it can be used to remove the block of
  * remote users.
+ *
+ * <p>The blocking {@link #stop} methods are based on {@link #stopAsync}, which sends the lock
+ * requests to all users at once. All outstanding acknowledgments are tracked in one place and
+ * checked periodically for timeouts and users that left the session.
+ *
+ * <p>A stop can be restricted to a scope of resources. Blockables that support scopes (see {@link
+ * Blockable#block(Set)}) only block the affected resources in this case.
  */
 @Component(module = "core")
 public final class StopManager extends AbstractActivityProducer implements Startable {
@@ -56,6 +74,9 @@ public final class StopManager extends AbstractActivityProducer implements Start
   /** Timeout to abort waiting for a response */
   static final long TIMEOUT = 20000;
 
+  /** Interval in which outstanding acknowledgments are checked */
+  private static final long CHECK_INTERVAL = 1000;
+
   protected List<Blockable> blockables = new CopyOnWriteArrayList<Blockable>();
 
   protected ObservableValue<Boolean> blocked = new ObservableValue<Boolean>(false);
@@ -73,19 +94,45 @@ public final class StopManager extends AbstractActivityProducer implements Start
    * For every initiated unlock (identified by its StopActivity id) there is one acknowledgment
    * expected.
    */
-  private Map<String, StartHandle> startsToBeAcknowledged =
-      Collections.synchronizedMap(new HashMap<String, StartHandle>());
+  private final Map<String, StartHandle> startsToBeAcknowledged =
+      new ConcurrentHashMap<String, StartHandle>();
+
+  /**
+   * For every initiated StopActivity (type: LockRequest, identified by its id) there is one
+   * acknowledgment expected by the request the StopActivity belongs to.
+   */
+  private final Map<String, StopRequest> pendingStopRequests =
+      new ConcurrentHashMap<String, StopRequest>();
 
-  /** For every initiated StopActivity (type: LockRequest) there is one acknowledgment expected. */
-  private Set<StopActivity> expectedAcknowledgments =
-      Collections.synchronizedSet(new HashSet<StopActivity>());
+  /** Checks the outstanding acknowledgments, its thread only exists while there are some. */
+  private final ScheduledThreadPoolExecutor timeoutChecker;
+
+  private final Object timeoutCheckLock = new Object();
+
+  private ScheduledFuture<?> timeoutCheck;
+
+  private final Object blockLock = new Object();
+
+  /** The resources blocked for the local user or <code>null</code> if the session is blocked. */
+  private Set<IResource> blockedScope;
 
-  private final Object notificationLock = new Object();
   /** Indicates of the component is stopped; */
-  private boolean isStopped = false;
+  private volatile boolean isStopped = false;
+
+  /** The time needed by successful stop requests in microseconds */
+  private final LatencyHistogram stopDurations;
+
+  private final Counter stopFailures;
 
-  public StopManager(ISarosSession session) {
+  public StopManager(ISarosSession session, MetricsRegistry metricsRegistry) {
     this.sarosSession = session;
+    this.stopDurations = metricsRegistry.histogram("session.stop.duration_us");
+    this.stopFailures = metricsRegistry.counter("session.stop.failures");
+
+    timeoutChecker = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("stop-manager"));
+    timeoutChecker.setKeepAliveTime(CHECK_INTERVAL * 5, TimeUnit.MILLISECONDS);
+    timeoutChecker.allowCoreThreadTimeOut(true);
+    timeoutChecker.setRemoveOnCancelPolicy(true);
   }
 
   /**
@@ -107,9 +154,9 @@ public final class StopManager extends AbstractActivityProducer implements Start
    * @JTourBusStop 2, StopManager:
    *
    * <p>This is where lock/unlock requests and acknowledgments will be handled. When there are
-   * outgoing lock requests the expected answers will be put into the expectedAcknowledgements set
-   * and when the acknowledgment arrives it will be removed from the set. For incoming lock requests
-   * {@link #lockSession(boolean) lockSession(true)} will be called.
+   * outgoing lock requests the expected answers will be put into the pendingStopRequests map and
+   * when the acknowledgment arrives it will be removed from the map. For incoming lock requests
+   * {@link #updateBlockedState()} will be called.
    */
   private void handleStopActivity(final StopActivity stopActivity) {
     assert sarosSession != null;
@@ -129,29 +176,24 @@ public final class StopManager extends AbstractActivityProducer implements Start
         addStartHandle(generateStartHandle(stopActivity));
         // locks session and acknowledges
 
-        lockSession(true);
+        updateBlockedState();
         fireActivity(stopActivity.generateAcknowledgment(sarosSession.getLocalUser()));
 
         return;
       }
       if (stopActivity.getState() == State.ACKNOWLEDGED) {
-        synchronized (notificationLock) {
-          if (!expectedAcknowledgments.contains(stopActivity)) {
-            log.warn("Received unexpected StopActivity: " + stopActivity);
-            return;
-          }
-
-          /**
-           * Remove from the expectedAcknowledgements set and inform who ever has been waiting for
-           * that to happen. Warn if the removal is failing besides the above check.
-           */
-          if (!expectedAcknowledgments.remove(stopActivity)) {
-            log.warn("Received unexpected " + "StopActivity acknowledgement: " + stopActivity);
-            return;
-          }
-
-          notificationLock.notifyAll();
+        /*
+         * Remove from the pendingStopRequests map and inform the request
+         * that has been waiting for that to happen.
+         */
+        StopRequest request = pendingStopRequests.remove(stopActivity.getActivityID());
+
+        if (request == null) {
+          log.warn("Received unexpected StopActivity: " + stopActivity);
+          return;
         }
+
+        request.acknowledge(stopActivity.getActivityID());
         return;
       }
     }
@@ -191,60 +233,48 @@ public final class StopManager extends AbstractActivityProducer implements Start
    */
   public List<StartHandle> stop(final Collection<User> users, final String cause)
       throws CancellationException {
+    return stop(users, null, cause);
+  }
 
-    final List<StartHandle> resultingHandles =
-        Collections.synchronizedList(new LinkedList<StartHandle>());
-    final LinkedList<Thread> threads = new LinkedList<Thread>();
-
-    final AtomicBoolean isTimeout = new AtomicBoolean(false);
+  /**
+   * Blocking method that asks the given users to halt all user-input on the given resources and
+   * returns a list of handles to be used when the users can start again.
+   *
+   * @param users the participants who has to stop
+   * @param scope the reference points, folders and files the users have to stop modifying or <code>
+   *     null</code> to stop all user-input
+   * @param cause the cause for stopping as it is displayed in the progress monitor
+   * @noGUI this method must not be called from the GUI thread.
+   * @blocking returning after the given users acknowledged the stop
+   * @throws CancellationException if the timeout is exceeded
+   * @see #stopAsync(Collection, Collection, String)
+   */
+  public List<StartHandle> stop(
+      final Collection<User> users, final Collection<? extends IResource> scope, final String cause)
+      throws CancellationException {
 
-    for (final User user : users) {
-      threads.add(
-          ThreadUtils.runSafeAsync(
-              "stop-" + user + "-" + cause,
-              log,
-              new Runnable() {
-                @Override
-                public void run() {
-                  try {
-                    StartHandle startHandle = stop(user, cause);
-                    resultingHandles.add(startHandle);
-                    log.debug("added " + startHandle + " to resulting handles.");
-                  } catch (CancellationException e) {
-                    isTimeout.set(true);
-                    log.error("user " + user + " did not respond");
-                  } catch (InterruptedException e) {
-                    isTimeout.set(true);
-                    log.error("waiting for response of user " + user + " was interrupted");
-                  }
-                }
-              }));
-    }
+    final Future<List<StartHandle>> result = stopAsync(users, scope, cause);
 
-    /**
-     * We have started all threads and we will wait for all of them to finish now. This is the
-     * safest and most simple approach to avoid ending up with ConcurrentModificationExceptions that
-     * might happen when we resume the remote users while some threads still need to be executed.
+    /*
+     * We need to ignore interrupts right now as we would end up with
+     * inconsistent state otherwise. Some remote Users might be blocked
+     * already and would remain blocked.
      */
-    while (!threads.isEmpty()) {
-      try {
-        threads.getFirst().join();
-        threads.removeFirst();
-      } catch (InterruptedException e) {
-        // We need to ignore this right now as we would end up with
-        // inconsistent state at the end of this method. Some remote
-        // Users might be blocked already and would remain blocked. We
-        // will just need to try again until all threads have terminated
-      }
-    }
+    boolean isInterrupted = false;
 
-    if (isTimeout.get()) {
-      // Restart the already stopped users
-      log.error("some users do not respond, restarting already stopped users");
-      for (StartHandle startHandle : resultingHandles) startHandle.start();
-      throw new CancellationException();
+    try {
+      while (true) {
+        try {
+          return result.get();
+        } catch (InterruptedException e) {
+          isInterrupted = true;
+        } catch (ExecutionException e) {
+          throw toCancellationException(e);
+        }
+      }
+    } finally {
+      if (isInterrupted) Thread.currentThread().interrupt();
     }
-    return resultingHandles;
   }
 
   /**
@@ -271,98 +301,208 @@ public final class StopManager extends AbstractActivityProducer implements Start
    */
   public StartHandle stop(User user, String cause)
       throws CancellationException, InterruptedException {
+
+    final CompletableFuture<List<StartHandle>> result =
+        stopAsync(Collections.singletonList(user), null, cause);
+
+    try {
+      return result.get().get(0);
+    } catch (InterruptedException e) {
+      /*
+       * the user did respond or we got interrupted ... just try to resume
+       * ... it does not matter if it fails
+       */
+      if (!result.cancel(false) && !result.isCompletedExceptionally()) result.join().get(0).start();
+
+      throw e;
+    } catch (ExecutionException e) {
+      throw toCancellationException(e);
+    }
+  }
+
+  /**
+   * Asks the given users to halt all user-input on the given resources. The lock requests for all
+   * users are sent at once and the acknowledgments are tracked by this StopManager, so no thread is
+   * blocked while waiting for the users.
+   *
+   * <p>The returned future completes with one StartHandle per user after all users acknowledged the
+   * stop. If a user does not acknowledge the stop in time or leaves the session, the future
+   * completes exceptionally with a {@link CancellationException} and all users that are already
+   * stopped are started again. Cancelling the future has the same effect.
+   *
+   * @param users the participants who has to stop
+   * @param scope the reference points, folders and files the users have to stop modifying or <code>
+   *     null</code> to stop all user-input
+   * @param cause the cause for stopping, used for logging
+   * @return a future providing the StartHandles of the stopped users
+   * @nonblocking
+   */
+  public CompletableFuture<List<StartHandle>> stopAsync(
+      final Collection<User> users,
+      final Collection<? extends IResource> scope,
+      final String cause) {
+
     assert sarosSession != null;
 
-    // Creating StopActivity for asking user to stop
-    User localUser = sarosSession.getLocalUser();
-    final StopActivity stopActivity =
-        new StopActivity(
-            localUser,
-            localUser,
-            user,
-            Type.LOCKREQUEST,
-            State.INITIATED,
-            new SimpleDateFormat("HHmmssSS").format(new Date()) + RANDOM.nextLong());
+    final User localUser = sarosSession.getLocalUser();
+
+    final long start = System.nanoTime();
 
-    StartHandle handle = generateStartHandle(stopActivity);
-    addStartHandle(handle);
+    final StopRequest request = new StopRequest(cause, System.currentTimeMillis() + TIMEOUT);
 
-    // Short cut if affected user is local
-    if (user.isLocal()) {
-      lockSession(true);
-      return handle;
+    final List<StopActivity> lockRequests = new ArrayList<StopActivity>();
+
+    boolean isLocalUserAffected = false;
+
+    for (final User user : users) {
+
+      // Creating StopActivity for asking user to stop
+      final StopActivity stopActivity =
+          new StopActivity(
+              localUser,
+              localUser,
+              user,
+              Type.LOCKREQUEST,
+              State.INITIATED,
+              generateStopActivityID(),
+              scope);
+
+      final StartHandle handle = generateStartHandle(stopActivity);
+      addStartHandle(handle);
+
+      // Short cut if affected user is local
+      if (user.isLocal()) {
+        isLocalUserAffected = true;
+        request.addHandle(handle, false);
+        continue;
+      }
+
+      request.addHandle(handle, true);
+      pendingStopRequests.put(stopActivity.getActivityID(), request);
+      lockRequests.add(stopActivity);
     }
 
-    StopActivity expectedAck = stopActivity.generateAcknowledgment(user);
-    expectedAcknowledgments.add(expectedAck);
+    request.result.whenComplete(
+        (handles, error) -> {
+          if (error != null) {
+            stopFailures.increment();
+            request.abort();
+          } else {
+            stopDurations.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+          }
+        });
+
+    if (isLocalUserAffected) updateBlockedState();
 
-    fireActivity(stopActivity);
+    if (isStopped) {
+      request.fail("the stop manager is stopped");
+      return request.result;
+    }
 
-    // Block until user acknowledged
+    for (final StopActivity lockRequest : lockRequests) fireActivity(lockRequest);
 
-    long timeoutToExceed = System.currentTimeMillis() + StopManager.TIMEOUT;
+    if (!request.completeIfAcknowledged()) scheduleTimeoutCheck();
 
-    boolean isInterrupted = false;
-    boolean acknowledged = false;
-    synchronized (notificationLock) {
-      while ((System.currentTimeMillis() < timeoutToExceed) && user.isInSession()) {
+    return request.result;
+  }
 
-        acknowledged = !expectedAcknowledgments.contains(expectedAck);
+  /**
+   * The goal of this method is to ensure that the local user cannot cause any editing activities
+   * (FileActivities and TextEditActivities) on the resources affected by the StartHandles of the
+   * local user. The Blockables are only notified if the blocked scope changes.
+   */
+  private void updateBlockedState() {
+    synchronized (blockLock) {
+      final List<StartHandle> handles = getStartHandles(sarosSession.getLocalUser());
 
-        if (acknowledged && isStopped) {
-          acknowledged = false;
-          break;
-        }
+      if (handles.isEmpty()) {
+        unblockSession();
+        return;
+      }
 
-        if (acknowledged) break;
+      Set<IResource> scope = new HashSet<IResource>();
 
-        try {
-          notificationLock.wait(1000);
-        } catch (InterruptedException e) {
-          isInterrupted = true;
+      for (StartHandle handle : handles) {
+        if (handle.getScope() == null) {
+          scope = null;
           break;
         }
+
+        scope.addAll(handle.getScope());
       }
-    }
 
-    // clean up
-    expectedAcknowledgments.remove(expectedAck);
+      final boolean isBlocked = blocked.getValue();
 
-    /*
-     * the user did respond or we got interrupted ... do not care to check
-     * if the user is still in session ... just try to resume ... it does
-     * not matter if it fails
-     */
+      if (scope == null) {
+        if (!isBlocked || blockedScope != null) {
+          for (Blockable blockable : blockables) blockable.block();
+        }
+      } else if (!isBlocked || !scope.equals(blockedScope)) {
+        scope = Collections.unmodifiableSet(scope);
+
+        for (Blockable blockable : blockables) blockable.block(scope);
+      }
 
-    if (isInterrupted) {
-      handle.start();
-      throw new InterruptedException();
+      blockedScope = scope;
+      blocked.setValue(true);
     }
+  }
 
-    if (!acknowledged) {
-      log.warn("No acknowledgment arrived, gave up waiting");
+  private void unblockSession() {
+    synchronized (blockLock) {
+      for (Blockable blockable : blockables) blockable.unblock();
 
-      handle.start();
-      throw new CancellationException();
+      blockedScope = null;
+      blocked.setValue(false);
     }
+  }
 
-    log.debug("Acknowledgment arrived " + user);
-
-    return handle;
+  /**
+   * Returns whether the local user is currently not allowed to modify the given resource.
+   *
+   * @param resource the resource to check
+   * @return <code>true</code> if the resource is blocked, <code>false</code> otherwise
+   */
+  public boolean isBlocked(IResource resource) {
+    synchronized (blockLock) {
+      return blocked.getValue() && isInScope(blockedScope, resource);
+    }
   }
 
   /**
-   * The goal of this method is to ensure that the local user cannot cause any editing activities
-   * (FileActivities and TextEditActivities).
+   * Returns whether the given resource is affected by a stop with the given scope.
    *
-   * @param lock if true the session gets locked, else it gets unlocked
+   * @param scope the scope of the stop or <code>null</code> if the stop affects all resources
+   * @param resource the resource to check
+   * @return <code>true</code> if the resource or one of its parents is contained in the scope
+   * @see Blockable#block(Set)
    */
-  private void lockSession(boolean lock) {
-    for (Blockable blockable : blockables) {
-      if (lock) blockable.block();
-      else blockable.unblock();
+  public static boolean isInScope(Set<IResource> scope, IResource resource) {
+    if (scope == null) return true;
+
+    for (IResource blockedResource : scope) {
+      if (contains(blockedResource, resource)) return true;
+    }
+
+    return false;
+  }
+
+  /** Returns whether the given resource is the given container or located inside of it. */
+  private static boolean contains(IResource container, IResource resource) {
+    if (container.equals(resource)) return true;
+
+    if (!container.getReferencePoint().equals(resource.getReferencePoint())) return false;
+
+    switch (container.getType()) {
+      case REFERENCE_POINT:
+        return true;
+      case FOLDER:
+        return resource
+            .getReferencePointRelativePath()
+            .startsWith(container.getReferencePointRelativePath());
+      default:
+        return false;
     }
-    blocked.setValue(lock);
   }
 
   /**
@@ -384,13 +524,14 @@ public final class StopManager extends AbstractActivityProducer implements Start
       log.debug(startHandle + " couldn't be removed because it doesn't exist any more.");
     }
 
+    updateBlockedState();
+
     int remainingHandles = getStartHandles(sarosSession.getLocalUser()).size();
     if (remainingHandles > 0) {
       log.debug(remainingHandles + " startHandles remaining.");
       return false;
     }
 
-    lockSession(false);
     return true;
   }
 
@@ -405,10 +546,13 @@ public final class StopManager extends AbstractActivityProducer implements Start
     // short cut for local user
     if (handle.getUser().isLocal()) {
       executeUnlock(handle);
+      handle.acknowledge();
       return;
     }
 
+    handle.setAcknowledgmentDeadline(System.currentTimeMillis() + TIMEOUT);
     startsToBeAcknowledged.put(handle.getHandleID(), handle);
+    scheduleTimeoutCheck();
 
     final StopActivity activity =
         new StopActivity(
@@ -417,7 +561,8 @@ public final class StopManager extends AbstractActivityProducer implements Start
             handle.getUser(),
             Type.UNLOCKREQUEST,
             State.INITIATED,
-            handle.getHandleID());
+            handle.getHandleID(),
+            handle.getScope());
 
     /**
      * @JTourBusStop 4, Activity sending, Firing the activity:
@@ -464,7 +609,64 @@ public final class StopManager extends AbstractActivityProducer implements Start
 
   private StartHandle generateStartHandle(StopActivity stopActivity) {
     User user = stopActivity.getAffected();
-    return new StartHandle(user, this, stopActivity.getActivityID());
+    return new StartHandle(user, this, stopActivity.getActivityID(), stopActivity.getScope());
+  }
+
+  private static String generateStopActivityID() {
+    return new SimpleDateFormat("HHmmssSS").format(new Date()) + RANDOM.nextLong();
+  }
+
+  private static CancellationException toCancellationException(ExecutionException e) {
+    CancellationException cancellation = new CancellationException(e.getMessage());
+    cancellation.initCause(e.getCause());
+    return cancellation;
+  }
+
+  /** Starts the periodic check of the outstanding acknowledgments if it is not running. */
+  private void scheduleTimeoutCheck() {
+    synchronized (timeoutCheckLock) {
+      if (timeoutCheck != null || isStopped) return;
+
+      timeoutCheck =
+          timeoutChecker.scheduleWithFixedDelay(
+              ThreadUtils.wrapSafe(log, this::checkOutstandingAcknowledgments),
+              CHECK_INTERVAL,
+              CHECK_INTERVAL,
+              TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Fails all stop requests and abandons all start acknowledgments that timed out or wait for users
+   * that left the session. Stops the periodic check if there are no more outstanding
+   * acknowledgments.
+   */
+  private void checkOutstandingAcknowledgments() {
+    final long now = System.currentTimeMillis();
+
+    for (StopRequest request : new HashSet<StopRequest>(pendingStopRequests.values())) {
+      String reason = request.check(now);
+
+      if (reason != null) request.fail(reason);
+    }
+
+    for (StartHandle handle : startsToBeAcknowledged.values()) {
+      if (now < handle.getAcknowledgmentDeadline() && handle.getUser().isInSession()) continue;
+
+      if (startsToBeAcknowledged.remove(handle.getHandleID(), handle)) {
+        log.warn("no acknowledgment arrived for " + handle + ", gave up waiting");
+        handle.abandonAcknowledgment();
+      }
+    }
+
+    synchronized (timeoutCheckLock) {
+      if (timeoutCheck == null
+          || !pendingStopRequests.isEmpty()
+          || !startsToBeAcknowledged.isEmpty()) return;
+
+      timeoutCheck.cancel(false);
+      timeoutCheck = null;
+    }
   }
 
   public void addBlockable(Blockable stoppable) {
@@ -481,13 +683,21 @@ public final class StopManager extends AbstractActivityProducer implements Start
 
   private void clearExpectedAcknowledgments() {
     /**
-     * Clear the expectedAcknowledgements and inform the threads that are blocked in the stop method
-     * that there will be no response.
+     * Fail the outstanding stop requests and inform the ones that are waiting for a start
+     * acknowledgment that there will be no response.
      */
-    synchronized (this) {
-      expectedAcknowledgments.clear();
-      isStopped = true;
-      notifyAll();
+    isStopped = true;
+
+    for (StopRequest request : new HashSet<StopRequest>(pendingStopRequests.values()))
+      request.fail("the stop manager is stopped");
+
+    for (StartHandle handle : startsToBeAcknowledged.values()) handle.abandonAcknowledgment();
+
+    startsToBeAcknowledged.clear();
+
+    synchronized (timeoutCheckLock) {
+      timeoutCheck = null;
+      timeoutChecker.shutdownNow();
     }
   }
 
@@ -528,7 +738,116 @@ public final class StopManager extends AbstractActivityProducer implements Start
   public void stop() {
     sarosSession.removeActivityConsumer(consumer);
     sarosSession.removeActivityProducer(this);
-    lockSession(false);
+    unblockSession();
     clearExpectedAcknowledgments();
   }
+
+  /** Tracks the acknowledgments of the lock requests that were sent by one stop call. */
+  private final class StopRequest {
+
+    private final String cause;
+
+    private final long deadline;
+
+    private final CompletableFuture<List<StartHandle>> result =
+        new CompletableFuture<List<StartHandle>>();
+
+    private final List<StartHandle> handles = new ArrayList<StartHandle>();
+
+    /** Maps the ids of the unacknowledged lock requests to the affected users. */
+    private final Map<String, User> unacknowledged = new HashMap<String, User>();
+
+    private boolean isDone;
+
+    private boolean isAborted;
+
+    private StopRequest(String cause, long deadline) {
+      this.cause = cause;
+      this.deadline = deadline;
+    }
+
+    private synchronized void addHandle(StartHandle handle, boolean awaitAcknowledgment) {
+      handles.add(handle);
+
+      if (awaitAcknowledgment) unacknowledged.put(handle.getHandleID(), handle.getUser());
+    }
+
+    private void acknowledge(String id) {
+      log.debug("Acknowledgment arrived " + id);
+
+      synchronized (this) {
+        unacknowledged.remove(id);
+      }
+
+      completeIfAcknowledged();
+    }
+
+    /**
+     * Completes the request if all lock requests were acknowledged.
+     *
+     * @return <code>true</code> if the request is completed
+     */
+    private boolean completeIfAcknowledged() {
+      final List<StartHandle> result;
+
+      synchronized (this) {
+        if (isDone) return true;
+
+        if (!unacknowledged.isEmpty()) return false;
+
+        isDone = true;
+        result = new ArrayList<StartHandle>(handles);
+      }
+
+      this.result.complete(result);
+      return true;
+    }
+
+    /**
+     * Returns the reason why the request has to fail at the given point in time.
+     *
+     * @return the reason or <code>null</code> if the request may still succeed
+     */
+    private synchronized String check(long now) {
+      if (isDone) return null;
+
+      for (User user : unacknowledged.values()) {
+        if (!user.isInSession()) return "user " + user + " left the session";
+      }
+
+      return now >= deadline ? "users " + unacknowledged.values() + " did not respond" : null;
+    }
+
+    /** Fails the request and starts all users that are already stopped. */
+    private void fail(String reason) {
+      synchronized (this) {
+        if (isDone) return;
+
+        isDone = true;
+      }
+
+      log.error(reason + ", restarting already stopped users [" + cause + "]");
+
+      abort();
+      result.completeExceptionally(new CancellationException(reason));
+    }
+
+    /** Starts all users of this request. Has no effect if called multiple times. */
+    private void abort() {
+      final List<StartHandle> handlesToStart;
+
+      synchronized (this) {
+        if (isAborted) return;
+
+        isAborted = true;
+        isDone = true;
+
+        for (String id : unacknowledged.keySet()) pendingStopRequests.remove(id);
+
+        handlesToStart = new ArrayList<StartHandle>(handles);
+      }
+
+      for (StartHandle handle : handlesToStart) handle.start();
+    }
+  }
 }
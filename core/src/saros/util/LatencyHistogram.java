@@ -0,0 +1,137 @@
+package saros.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies using logarithmic buckets in the spirit of HdrHistogram.
+ *
+ * <p>Values smaller than {@value #LINEAR_LIMIT} are counted exactly. Every larger power of two is
+ * split into {@value #SUB_BUCKETS} linear sub-buckets, so every recorded value and every reported
+ * percentile has a relative error of at most 1/{@value #SUB_BUCKETS}. The memory used by a
+ * histogram is constant and recording a value does not allocate any objects.
+ *
+ * <p>The histogram does not assume a unit. Callers should use one unit per histogram, e.g.
+ * microseconds.
+ *
+ * <p>This class is thread safe. Values can be recorded concurrently while the histogram is read,
+ * readers may therefore see a slightly inconsistent state.
+ */
+public final class LatencyHistogram {
+
+  /** Number of linear sub-buckets per power of two */
+  static final int SUB_BUCKETS = 16;
+
+  private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+  /** Values below this limit are counted exactly */
+  static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+
+  /** Enough buckets for all non-negative long values */
+  private static final int BUCKET_COUNT = indexOf(Long.MAX_VALUE) + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a value. Negative values are recorded as <code>0</code>.
+   *
+   * @param value the value to record
+   */
+  public void record(long value) {
+    if (value < 0) value = 0;
+
+    counts.incrementAndGet(indexOf(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+    max.accumulateAndGet(value, Math::max);
+  }
+
+  /**
+   * Returns the number of recorded values.
+   *
+   * @return the number of recorded values
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns the exact mean of all recorded values.
+   *
+   * @return the mean or <code>0</code> if no value was recorded
+   */
+  public double getMean() {
+    long currentCount = count.get();
+
+    return currentCount == 0 ? 0 : (double) sum.get() / currentCount;
+  }
+
+  /**
+   * Returns the exact maximum of all recorded values.
+   *
+   * @return the maximum or <code>0</code> if no value was recorded
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the value below or at which the given percentage of all recorded values lie. The
+   * returned value is the upper bound of the bucket containing the percentile, but never larger
+   * than the maximum.
+   *
+   * @param percentile the percentile between <code>0</code> and <code>100</code>
+   * @return the value at the percentile or <code>0</code> if no value was recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long currentCount = count.get();
+
+    if (currentCount == 0) return 0;
+
+    long rank = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * currentCount);
+
+    rank = Math.max(1, rank);
+
+    long seen = 0;
+
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+
+      if (seen >= rank) return Math.min(highestValueOf(i), getMax());
+    }
+
+    return getMax();
+  }
+
+  /** Discards all recorded values. */
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) counts.set(i, 0);
+
+    count.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  static int indexOf(long value) {
+    if (value < LINEAR_LIMIT) return (int) value;
+
+    // the number of bits to drop so that the value fits into [SUB_BUCKETS, 2 * SUB_BUCKETS)
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+    return shift * SUB_BUCKETS + (int) (value >>> shift);
+  }
+
+  static long highestValueOf(int index) {
+    if (index < LINEAR_LIMIT) return index;
+
+    int shift = index / SUB_BUCKETS - 1;
+    long subBucket = index - (long) shift * SUB_BUCKETS;
+
+    // wraps around to Long.MAX_VALUE for the very last bucket
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
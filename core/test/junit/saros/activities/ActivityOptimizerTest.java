@@ -1,14 +1,20 @@
 package saros.activities;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
 import saros.editor.text.TextPosition;
+import saros.editor.text.TextPositionUtils;
 import saros.editor.text.TextSelection;
 import saros.filesystem.IFile;
 import saros.net.xmpp.JID;
@@ -134,6 +140,222 @@ public class ActivityOptimizerTest {
     assertRange(23, 23, optimized, nop);
   }
 
+  @Test
+  public void testMergeTyping() {
+    List<IActivity> activities = new ArrayList<>();
+
+    String text = "Hello\nWorld";
+
+    for (int i = 0; i < text.length(); i++) {
+      String c = text.substring(i, i + 1);
+
+      activities.add(
+          TextEditActivity.buildTextEditActivity(
+              alice,
+              TextPositionUtils.calculatePosition("xx" + text.substring(0, i), 2 + i, "\n"),
+              c,
+              "",
+              fooFooFile));
+
+      activities.add(
+          new TextSelectionActivity(
+              alice,
+              new TextSelection(new TextPosition(0, i + 1), new TextPosition(0, i + 1)),
+              fooFooFile));
+    }
+
+    List<IActivity> optimized = ActivityOptimizer.optimize(activities);
+
+    assertEquals(2, optimized.size());
+
+    TextEditActivity merged = (TextEditActivity) optimized.get(0);
+
+    assertEquals(new TextPosition(0, 2), merged.getStartPosition());
+    assertEquals(text, merged.getNewText());
+    assertEquals("", merged.getReplacedText());
+    assertEquals(new TextPosition(1, 5), merged.getNewEndPosition());
+
+    assertSame(activities.get(activities.size() - 1), optimized.get(1));
+  }
+
+  @Test
+  public void testMergeBackspaceAndTypoCorrection() {
+    TextEditActivity insert =
+        TextEditActivity.buildTextEditActivity(
+            alice, new TextPosition(3, 4), "teh", "", fooFooFile);
+
+    TextEditActivity delete1 =
+        TextEditActivity.buildTextEditActivity(alice, new TextPosition(3, 6), "", "h", fooFooFile);
+
+    TextEditActivity delete2 =
+        TextEditActivity.buildTextEditActivity(alice, new TextPosition(3, 5), "", "e", fooFooFile);
+
+    TextEditActivity replace =
+        TextEditActivity.buildTextEditActivity(
+            alice, new TextPosition(3, 3), "the", "xt", fooFooFile);
+
+    TextEditActivity merged =
+        ActivityOptimizer.merge(
+            ActivityOptimizer.merge(ActivityOptimizer.merge(insert, delete1), delete2), replace);
+
+    assertEquals(new TextPosition(3, 3), merged.getStartPosition());
+    assertEquals("the", merged.getNewText());
+    assertEquals("x", merged.getReplacedText());
+  }
+
+  @Test
+  public void testMergeRejectsUnrelatedEdits() {
+    TextEditActivity edit =
+        TextEditActivity.buildTextEditActivity(alice, new TextPosition(1, 1), "ab", "", fooFooFile);
+
+    assertNull(
+        ActivityOptimizer.merge(
+            edit,
+            TextEditActivity.buildTextEditActivity(
+                bob, new TextPosition(1, 3), "c", "", fooFooFile)));
+
+    assertNull(
+        ActivityOptimizer.merge(
+            edit,
+            TextEditActivity.buildTextEditActivity(
+                alice, new TextPosition(1, 3), "c", "", fooBarFile)));
+
+    assertNull(
+        ActivityOptimizer.merge(
+            edit,
+            TextEditActivity.buildTextEditActivity(
+                alice, new TextPosition(1, 4), "c", "", fooFooFile)));
+
+    assertNull(
+        ActivityOptimizer.merge(
+            edit,
+            TextEditActivity.buildTextEditActivity(
+                alice, new TextPosition(0, 1), "c", "", fooFooFile)));
+
+    assertNull(
+        ActivityOptimizer.merge(
+            edit,
+            TextEditActivity.buildTextEditActivity(
+                alice, new TextPosition(2, 0), "c", "", fooFooFile)));
+  }
+
+  /**
+   * Property: executing the optimized activities must always lead to the same document contents as
+   * executing the original activities.
+   */
+  @Test
+  public void testOptimizedTextEditsProduceSameContent() {
+    Random random = new Random(1337);
+
+    IFile[] files = {fooFooFile, fooBarFile};
+    User[] users = {alice, bob};
+
+    int originalEdits = 0;
+    int optimizedEdits = 0;
+
+    for (int run = 0; run < 500; run++) {
+      Map<IFile, String> initial = new HashMap<>();
+
+      for (IFile file : files) initial.put(file, randomText(random, random.nextInt(200)));
+
+      Map<IFile, String> expected = new HashMap<>(initial);
+      Map<IFile, Integer> lastOffsets = new HashMap<>();
+
+      List<IActivity> activities = new ArrayList<>();
+
+      for (int i = 0; i < 50; i++) {
+        int kind = random.nextInt(20);
+
+        if (kind == 0) {
+          activities.add(nop);
+          continue;
+        }
+
+        IFile file = kind < 3 ? files[1] : files[0];
+        User user = kind < 5 ? users[1] : users[0];
+
+        String content = expected.get(file);
+
+        Integer lastOffset = lastOffsets.get(file);
+
+        int offset;
+
+        // most edits are located next to the previous one
+        if (lastOffset != null && random.nextInt(4) != 0)
+          offset = Math.max(0, Math.min(content.length(), lastOffset + random.nextInt(5) - 2));
+        else offset = random.nextInt(content.length() + 1);
+
+        int end =
+            Math.min(content.length(), offset + (random.nextBoolean() ? 0 : random.nextInt(4)));
+
+        String newText = randomText(random, random.nextInt(3) == 0 ? 0 : random.nextInt(6));
+
+        activities.add(
+            TextEditActivity.buildTextEditActivity(
+                user,
+                TextPositionUtils.calculatePosition(content, offset, "\n"),
+                newText,
+                content.substring(offset, end),
+                file));
+
+        expected.put(file, content.substring(0, offset) + newText + content.substring(end));
+        lastOffsets.put(file, offset + newText.length());
+
+        if (random.nextBoolean()) {
+          activities.add(
+              new TextSelectionActivity(
+                  user, new TextSelection(new TextPosition(0, 0), new TextPosition(0, 0)), file));
+        }
+      }
+
+      List<IActivity> optimized = ActivityOptimizer.optimize(activities);
+
+      Map<IFile, String> actual = new HashMap<>(initial);
+
+      for (IActivity activity : optimized) {
+        if (!(activity instanceof TextEditActivity)) continue;
+
+        optimizedEdits++;
+
+        TextEditActivity edit = (TextEditActivity) activity;
+
+        actual.put(edit.getResource(), apply(actual.get(edit.getResource()), edit));
+      }
+
+      for (IActivity activity : activities)
+        if (activity instanceof TextEditActivity) originalEdits++;
+
+      assertEquals("run " + run + ": " + activities, expected, actual);
+    }
+
+    assertTrue(
+        "edits were not merged: " + optimizedEdits + " of " + originalEdits,
+        optimizedEdits < originalEdits);
+  }
+
+  private static String apply(String content, TextEditActivity edit) {
+    int offset = TextPositionUtils.calculateOffset(content, edit.getStartPosition(), "\n");
+
+    String replacedText = edit.getReplacedText();
+
+    assertEquals(
+        "replaced text does not match the content",
+        replacedText,
+        content.substring(offset, Math.min(content.length(), offset + replacedText.length())));
+
+    return content.substring(0, offset)
+        + edit.getNewText()
+        + content.substring(offset + replacedText.length());
+  }
+
+  private static String randomText(Random random, int length) {
+    StringBuilder builder = new StringBuilder(length);
+
+    for (int i = 0; i < length; i++) builder.append("ab\n".charAt(random.nextInt(3)));
+
+    return builder.toString();
+  }
+
   private void assertRange(int l, int h, List<IActivity> activities, IActivity activity) {
     for (int i = l; i <= h; i++)
       assertSame("optimization resulted in wrong activity order", activity, activities.get(i));
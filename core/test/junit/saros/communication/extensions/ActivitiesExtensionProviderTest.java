@@ -1,11 +1,17 @@
 package saros.communication.extensions;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import org.jivesoftware.smack.packet.PacketExtension;
 import org.junit.Test;
+import org.xmlpull.mxp1.MXParser;
+import org.xmlpull.v1.XmlPullParser;
 import saros.activities.EditorActivity;
 import saros.activities.IActivity;
 import saros.net.xmpp.JID;
@@ -33,4 +39,47 @@ public class ActivitiesExtensionProviderTest {
     assertFalse(marshalled.contains("\t"));
     assertFalse(marshalled.contains("  "));
   }
+
+  @Test
+  public void testLatencyTimestampsAreMarshalled() throws Exception {
+    User user = new User(new JID("alice@test"), true, true, null);
+
+    List<IActivity> activities = new ArrayList<IActivity>();
+
+    activities.add(new EditorActivity(user, EditorActivity.Type.ACTIVATED, null));
+    activities.add(new EditorActivity(user, EditorActivity.Type.ACTIVATED, null));
+
+    ActivitiesExtension unmarshalled =
+        roundTrip(new ActivitiesExtension("Session-ID", activities, 0, 5000, new long[] {4200, 0}));
+
+    assertEquals(2, unmarshalled.getActivities().size());
+    assertEquals(5000, unmarshalled.getSentTime());
+    assertArrayEquals(new long[] {4200, 0}, unmarshalled.getOriginTimes());
+  }
+
+  @Test
+  public void testLatencyTimestampsAreOptional() throws Exception {
+    User user = new User(new JID("alice@test"), true, true, null);
+
+    List<IActivity> activities = new ArrayList<IActivity>();
+
+    activities.add(new EditorActivity(user, EditorActivity.Type.ACTIVATED, null));
+
+    ActivitiesExtension unmarshalled =
+        roundTrip(new ActivitiesExtension("Session-ID", activities, 0));
+
+    assertEquals(-1, unmarshalled.getSentTime());
+    assertNull(unmarshalled.getOriginTimes());
+  }
+
+  private static ActivitiesExtension roundTrip(ActivitiesExtension extension) throws Exception {
+    String marshalled = ActivitiesExtension.PROVIDER.create(extension).toXML();
+
+    XmlPullParser parser = new MXParser();
+    parser.setInput(new StringReader(marshalled));
+    parser.next();
+
+    return ActivitiesExtension.PROVIDER.getPayload(
+        ActivitiesExtension.PROVIDER.parseExtension(parser));
+  }
 }
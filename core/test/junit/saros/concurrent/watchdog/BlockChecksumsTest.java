@@ -0,0 +1,68 @@
+package saros.concurrent.watchdog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+public class BlockChecksumsTest {
+
+  private static final String TEXT = "public class A {\n  int a;\n\n  int b;\n}\n";
+
+  private static final String CONTENT = StringUtils.repeat(TEXT, 200);
+
+  @Test
+  public void testEqualContent() {
+    BlockChecksums checksums = BlockChecksums.create(CONTENT);
+
+    assertEquals(CONTENT.length(), checksums.getLength());
+    assertEquals(CONTENT.hashCode(), checksums.getHash());
+    assertEquals(CONTENT.length(), checksums.getCommonPrefixLength(CONTENT));
+    assertEquals(CONTENT.length(), checksums.getCommonSuffixLength(CONTENT));
+  }
+
+  @Test
+  public void testEmptyContent() {
+    BlockChecksums checksums = BlockChecksums.create("");
+
+    assertEquals(0, checksums.getForwardHashes().length);
+    assertEquals(0, checksums.getCommonPrefixLength(CONTENT));
+    assertEquals(0, checksums.getCommonSuffixLength(CONTENT));
+  }
+
+  @Test
+  public void testSingleDivergentRegion() {
+    int offset = CONTENT.length() / 2;
+
+    String modified = CONTENT.substring(0, offset) + "lost edit" + CONTENT.substring(offset + 5);
+
+    BlockChecksums checksums = BlockChecksums.create(modified);
+
+    int prefix = checksums.getCommonPrefixLength(CONTENT);
+    int suffix = checksums.getCommonSuffixLength(CONTENT);
+
+    int blockSize = checksums.getBlockSize();
+
+    assertEquals(0, prefix % blockSize);
+    assertEquals(offset - offset % blockSize, prefix);
+
+    assertEquals(CONTENT.substring(0, prefix), modified.substring(0, prefix));
+    assertEquals(
+        CONTENT.substring(CONTENT.length() - suffix),
+        modified.substring(modified.length() - suffix));
+
+    // the divergent region is at most two blocks larger than the actual difference
+    assertTrue(CONTENT.length() - prefix - suffix <= 5 + 2 * blockSize);
+  }
+
+  @Test
+  public void testBlockCountIsBounded() {
+    String content = StringUtils.repeat(TEXT, 20000);
+
+    BlockChecksums checksums = BlockChecksums.create(content);
+
+    assertTrue(checksums.getForwardHashes().length <= BlockChecksums.MAX_BLOCKS);
+    assertEquals(content.length(), checksums.getCommonPrefixLength(content));
+  }
+}
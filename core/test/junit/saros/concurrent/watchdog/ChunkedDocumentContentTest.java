@@ -0,0 +1,104 @@
+package saros.concurrent.watchdog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import saros.editor.text.TextPosition;
+
+public class ChunkedDocumentContentTest {
+
+  private static final String TEXT = "public class A {\n  int a;\n\n  int b;\n}";
+
+  @Test
+  public void testHashMatchesStringHash() {
+    String content = StringUtils.repeat(TEXT, 1000);
+
+    ChunkedDocumentContent chunked = new ChunkedDocumentContent(content);
+
+    assertTrue(chunked.getChunkCount() > 1);
+    assertEquals(content.length(), chunked.getLength());
+    assertEquals(content.hashCode(), chunked.getHash());
+    assertEquals(content, chunked.getContent());
+  }
+
+  @Test
+  public void testEmptyContent() {
+    ChunkedDocumentContent chunked = new ChunkedDocumentContent("");
+
+    assertEquals(0, chunked.getLength());
+    assertEquals("".hashCode(), chunked.getHash());
+
+    assertTrue(chunked.applyEdit(new TextPosition(0, 0), "", "abc"));
+    assertEquals("abc".hashCode(), chunked.getHash());
+
+    assertTrue(chunked.applyEdit(new TextPosition(0, 0), "abc", ""));
+    assertEquals("", chunked.getContent());
+  }
+
+  @Test
+  public void testGetOffset() {
+    ChunkedDocumentContent chunked = new ChunkedDocumentContent(TEXT);
+
+    assertEquals(0, chunked.getOffset(new TextPosition(0, 0)));
+    assertEquals(19, chunked.getOffset(new TextPosition(1, 2)));
+    assertEquals(26, chunked.getOffset(new TextPosition(2, 0)));
+    assertEquals(TEXT.length(), chunked.getOffset(new TextPosition(4, 1)));
+
+    assertEquals(-1, chunked.getOffset(new TextPosition(5, 0)));
+    assertEquals(-1, chunked.getOffset(new TextPosition(4, 2)));
+  }
+
+  @Test
+  public void testRejectsMismatchingEdit() {
+    ChunkedDocumentContent chunked = new ChunkedDocumentContent(TEXT);
+
+    assertFalse(chunked.applyEdit(new TextPosition(1, 2), "long", ""));
+    assertFalse(chunked.applyEdit(new TextPosition(9, 0), "", "x"));
+
+    assertEquals(TEXT, chunked.getContent());
+  }
+
+  @Test
+  public void testRandomEdits() {
+    Random random = new Random(4711);
+
+    StringBuilder expected = new StringBuilder(StringUtils.repeat(TEXT, 500));
+
+    ChunkedDocumentContent chunked = new ChunkedDocumentContent(expected.toString());
+
+    for (int i = 0; i < 2000; i++) {
+      int offset = random.nextInt(expected.length() + 1);
+      int end = Math.min(expected.length(), offset + random.nextInt(i % 10 == 0 ? 10000 : 20));
+
+      String replacedText = expected.substring(offset, end);
+      String newText = StringUtils.repeat("x\n", random.nextInt(i % 7 == 0 ? 5000 : 5));
+
+      assertTrue(chunked.applyEdit(toPosition(expected, offset), replacedText, newText));
+
+      expected.replace(offset, end, newText);
+
+      assertEquals(expected.length(), chunked.getLength());
+      assertEquals(expected.toString().hashCode(), chunked.getHash());
+    }
+
+    assertEquals(expected.toString(), chunked.getContent());
+  }
+
+  private static TextPosition toPosition(CharSequence text, int offset) {
+    int line = 0;
+    int lineStart = 0;
+
+    for (int i = 0; i < offset; i++) {
+      if (text.charAt(i) == '\n') {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+
+    return new TextPosition(line, offset - lineStart);
+  }
+}
@@ -0,0 +1,83 @@
+package saros.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import saros.annotations.Component;
+import saros.repackaged.picocontainer.MutablePicoContainer;
+import saros.repackaged.picocontainer.Startable;
+import saros.test.mocks.ContextMocker;
+
+public class ContainerContextTest {
+
+  private static int created;
+
+  public static class Eager {
+    public Eager() {
+      created++;
+    }
+  }
+
+  @Component(lazy = true)
+  public static class Lazy {
+    public Lazy() {
+      created++;
+    }
+  }
+
+  @Component(lazy = true)
+  public static class LazyStartable implements Startable {
+    public LazyStartable() {
+      created++;
+    }
+
+    @Override
+    public void start() {
+      // NOP
+    }
+
+    @Override
+    public void stop() {
+      // NOP
+    }
+  }
+
+  private MutablePicoContainer container;
+
+  @Before
+  public void setUp() {
+    created = 0;
+    container = ContextMocker.emptyContext();
+  }
+
+  @Test
+  public void testLazyComponentsAreNotInstantiated() {
+    container.addComponent(Eager.class);
+    container.addComponent(Lazy.class);
+    container.addComponent(LazyStartable.class);
+
+    List<Object> components = ContainerContext.instantiateComponents(container);
+
+    assertEquals(2, components.size());
+    assertEquals(2, created);
+
+    assertTrue(container.getComponent(Lazy.class) instanceof Lazy);
+    assertEquals(3, created);
+  }
+
+  @Test
+  public void testParentComponentsAreNotInstantiated() {
+    container.addComponent(Eager.class);
+
+    MutablePicoContainer child = container.makeChildContainer();
+    child.addComponent(Lazy.class);
+
+    List<Object> components = ContainerContext.instantiateComponents(child);
+
+    assertTrue(components.isEmpty());
+    assertEquals(0, created);
+  }
+}
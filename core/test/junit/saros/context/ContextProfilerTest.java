@@ -0,0 +1,111 @@
+package saros.context;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import saros.repackaged.picocontainer.MutablePicoContainer;
+import saros.repackaged.picocontainer.PicoBuilder;
+import saros.repackaged.picocontainer.Startable;
+import saros.repackaged.picocontainer.injectors.AnnotatedFieldInjection;
+import saros.repackaged.picocontainer.injectors.CompositeInjection;
+import saros.repackaged.picocontainer.injectors.ConstructorInjection;
+
+public class ContextProfilerTest {
+
+  public static class Storage {
+    // NOP
+  }
+
+  public static class Service implements Startable {
+    public Service(Storage storage) {
+      // NOP
+    }
+
+    @Override
+    public void start() {
+      // NOP
+    }
+
+    @Override
+    public void stop() {
+      // NOP
+    }
+  }
+
+  public static class SessionService {
+    public SessionService(Service service) {
+      // NOP
+    }
+  }
+
+  private ContextProfiler profiler;
+  private MutablePicoContainer container;
+
+  @Before
+  public void setUp() {
+    profiler = new ContextProfiler(null, null);
+
+    container =
+        new PicoBuilder(
+                new CompositeInjection(new ConstructorInjection(), new AnnotatedFieldInjection()))
+            .withCaching()
+            .withLifecycle()
+            .withMonitor(profiler)
+            .build();
+
+    container.addComponent(Storage.class);
+    container.addComponent(Service.class);
+  }
+
+  @Test
+  public void testReport() {
+    container.getComponents();
+    container.start();
+
+    String report = profiler.report("context initialization");
+
+    assertTrue(report, report.startsWith("profile of context initialization: 2 components"));
+    assertTrue(report, report.contains("  Storage"));
+    assertTrue(report, report.contains("  Service"));
+
+    container.stop();
+  }
+
+  @Test
+  public void testReportOfChildContainer() {
+    container.getComponents();
+    container.start();
+    profiler.report("context initialization");
+
+    MutablePicoContainer child = container.makeChildContainer();
+    child.addComponent(SessionService.class);
+    child.getComponents();
+    child.start();
+
+    String report = profiler.report("session start");
+
+    assertTrue(report, report.startsWith("profile of session start: 1 components"));
+    assertTrue(report, report.contains("  SessionService"));
+    assertFalse(report, report.contains("  Storage"));
+
+    container.stop();
+  }
+
+  @Test
+  public void testDependencyGraph() {
+    container.getComponents();
+
+    MutablePicoContainer child = container.makeChildContainer();
+    child.addComponent(SessionService.class);
+    child.getComponents();
+
+    String graph = profiler.getDependencyGraph();
+
+    assertTrue(graph, graph.startsWith("digraph saros {"));
+    assertTrue(graph, graph.contains("\"Service\" -> \"Storage\";"));
+    assertTrue(graph, graph.contains("\"SessionService\" -> \"Service\";"));
+    assertTrue(graph, graph.contains("\"Storage\";"));
+  }
+}
@@ -0,0 +1,193 @@
+package saros.editor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import saros.activities.IActivity;
+import saros.activities.TextSelectionActivity;
+import saros.activities.ViewportActivity;
+import saros.editor.text.TextPosition;
+import saros.editor.text.TextSelection;
+import saros.filesystem.IFile;
+import saros.session.User;
+
+public class AwarenessActivityCoalescerTest {
+
+  private static final int MIN_DELAY = 100;
+  private static final int MAX_DELAY = 1000;
+
+  private final List<IActivity> dispatched = new ArrayList<>();
+
+  /** The scheduled tasks with their due times */
+  private final List<Object[]> tasks = new ArrayList<>();
+
+  private long now;
+  private int queuedActivities;
+
+  private User user;
+  private IFile fileA;
+  private IFile fileB;
+
+  private AwarenessActivityCoalescer coalescer;
+
+  @Before
+  public void setUp() {
+    user = EasyMock.createNiceMock(User.class);
+    fileA = EasyMock.createNiceMock(IFile.class);
+    fileB = EasyMock.createNiceMock(IFile.class);
+
+    EasyMock.replay(user, fileA, fileB);
+
+    now = 1000;
+
+    coalescer =
+        new AwarenessActivityCoalescer(
+            dispatched::add,
+            (delay, task) -> tasks.add(new Object[] {now + delay, task}),
+            () -> queuedActivities,
+            () -> now,
+            MIN_DELAY,
+            MAX_DELAY);
+  }
+
+  @Test
+  public void testFirstActivityIsDispatchedImmediately() {
+    ViewportActivity viewport = viewport(fileA, 0);
+
+    coalescer.offer(viewport);
+
+    assertEquals(1, dispatched.size());
+    assertSame(viewport, dispatched.get(0));
+    assertTrue(tasks.isEmpty());
+  }
+
+  @Test
+  public void testLatestValueWinsWhileScrolling() {
+    coalescer.offer(viewport(fileA, 0));
+
+    ViewportActivity last = null;
+
+    // scroll for 80 ms, one event every 10 ms
+    for (int i = 1; i <= 8; i++) {
+      advance(10);
+      last = viewport(fileA, i);
+      coalescer.offer(last);
+    }
+
+    assertEquals(1, dispatched.size());
+
+    // the user stopped scrolling, the latest viewport is sent after the quiet period
+    advance(AwarenessActivityCoalescer.QUIET_PERIOD);
+
+    assertEquals(2, dispatched.size());
+    assertSame(last, dispatched.get(1));
+  }
+
+  @Test
+  public void testContinuousScrollingIsDispatchedAfterDelay() {
+    coalescer.offer(viewport(fileA, 0));
+
+    int line = 1;
+
+    for (int i = 0; i < 2 * MIN_DELAY; i += 10, line++) {
+      advance(10);
+      coalescer.offer(viewport(fileA, line));
+    }
+
+    // the user never stopped scrolling, but the viewport was updated about every MIN_DELAY ms
+    assertTrue(dispatched.size() >= 2);
+    assertTrue(dispatched.size() <= 3);
+  }
+
+  @Test
+  public void testFilesAndTypesAreCoalescedSeparately() {
+    coalescer.offer(viewport(fileA, 0));
+
+    advance(10);
+
+    ViewportActivity viewportA = viewport(fileA, 1);
+    ViewportActivity viewportB = viewport(fileB, 1);
+    TextSelectionActivity selectionA = selection(fileA, 1);
+
+    coalescer.offer(viewportA);
+    coalescer.offer(viewportB);
+    coalescer.offer(selectionA);
+
+    coalescer.flush();
+
+    assertEquals(4, dispatched.size());
+    assertSame(viewportA, dispatched.get(1));
+    assertSame(viewportB, dispatched.get(2));
+    assertSame(selectionA, dispatched.get(3));
+  }
+
+  @Test
+  public void testDelayAdaptsToQueuedActivities() {
+    assertEquals(MIN_DELAY, coalescer.getDelay());
+
+    queuedActivities = 20;
+
+    assertEquals(
+        MIN_DELAY + 20 * AwarenessActivityCoalescer.DELAY_PER_QUEUED_ACTIVITY,
+        coalescer.getDelay());
+
+    queuedActivities = 10000;
+
+    assertEquals(MAX_DELAY, coalescer.getDelay());
+  }
+
+  @Test
+  public void testDisabledCoalescing() {
+    coalescer =
+        new AwarenessActivityCoalescer(
+            dispatched::add,
+            (delay, task) -> tasks.add(new Object[] {now + delay, task}),
+            () -> queuedActivities,
+            () -> now,
+            0,
+            0);
+
+    for (int i = 0; i < 5; i++) coalescer.offer(viewport(fileA, i));
+
+    assertEquals(5, dispatched.size());
+    assertTrue(tasks.isEmpty());
+  }
+
+  /** Advances the clock and runs all tasks that became due. */
+  private void advance(long millis) {
+    long target = now + millis;
+
+    while (true) {
+      Object[] next = null;
+
+      for (Object[] task : tasks) {
+        if ((Long) task[0] <= target && (next == null || (Long) task[0] < (Long) next[0]))
+          next = task;
+      }
+
+      if (next == null) break;
+
+      tasks.remove(next);
+      now = (Long) next[0];
+      ((Runnable) next[1]).run();
+    }
+
+    now = target;
+  }
+
+  private ViewportActivity viewport(IFile file, int startLine) {
+    return new ViewportActivity(user, startLine, 40, file);
+  }
+
+  private TextSelectionActivity selection(IFile file, int line) {
+    TextPosition position = new TextPosition(line, 0);
+
+    return new TextSelectionActivity(user, new TextSelection(position, position), file);
+  }
+}
@@ -0,0 +1,111 @@
+package saros.editor.text;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class LineIndexTest {
+
+  private static final String TEXT = "public class A {\r\n  int a;\r\n\r\n  int b;\r\n}";
+
+  @Test
+  public void testCreate() {
+    LineIndex index = new LineIndex(TEXT);
+
+    assertEquals("\r\n", index.getLineSeparator());
+    assertEquals(TEXT.length(), index.getLength());
+    assertEquals(5, index.getLineCount());
+
+    assertEquals(0, index.getLineStart(0));
+    assertEquals(18, index.getLineStart(1));
+    assertEquals(28, index.getLineStart(2));
+    assertEquals(30, index.getLineStart(3));
+    assertEquals(40, index.getLineStart(4));
+  }
+
+  @Test
+  public void testEmptyText() {
+    LineIndex index = new LineIndex("");
+
+    assertEquals("", index.getLineSeparator());
+    assertEquals(1, index.getLineCount());
+    assertEquals(new TextPosition(0, 0), index.getPosition(0));
+
+    index.update(0, 0, "ab\ncd");
+
+    assertEquals("\n", index.getLineSeparator());
+    assertEquals(2, index.getLineCount());
+    assertEquals(3, index.getOffset(new TextPosition(1, 0)));
+  }
+
+  @Test
+  public void testConversionsMatchTextPositionUtils() {
+    LineIndex index = new LineIndex(TEXT);
+
+    for (int offset = 0; offset <= TEXT.length(); offset++) {
+      if (offset > 0 && TEXT.charAt(offset - 1) == '\r') continue;
+
+      TextPosition position = TextPositionUtils.calculatePosition(TEXT, offset, "\r\n");
+
+      assertEquals(position, index.getPosition(offset));
+      assertEquals(offset, index.getOffset(position));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testOffsetOfMissingLine() {
+    new LineIndex(TEXT).getOffset(new TextPosition(5, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPositionOfOffsetBehindText() {
+    new LineIndex(TEXT).getPosition(TEXT.length() + 1);
+  }
+
+  @Test
+  public void testRandomUpdates() {
+    Random random = new Random(815);
+
+    StringBuilder text = new StringBuilder(TEXT);
+    LineIndex index = new LineIndex(TEXT);
+
+    for (int i = 0; i < 5000; i++) {
+      int offset = random.nextInt(text.length() + 1);
+
+      // do not split line separators
+      while (offset > 0 && text.charAt(offset - 1) == '\r') offset--;
+
+      int end = Math.min(text.length(), offset + random.nextInt(i % 10 == 0 ? 100 : 10));
+
+      while (end > 0 && text.charAt(end - 1) == '\r') end--;
+
+      end = Math.max(offset, end);
+
+      StringBuilder newText = new StringBuilder();
+
+      for (int j = random.nextInt(i % 10 == 0 ? 200 : 10); j > 0; j--)
+        newText.append(random.nextInt(4) == 0 ? "\r\n" : "x");
+
+      index.update(offset, end - offset, newText.toString());
+      text.replace(offset, end, newText.toString());
+
+      String content = text.toString();
+
+      assertEquals(content.length(), index.getLength());
+
+      int probe = random.nextInt(content.length() + 1);
+
+      while (probe > 0 && content.charAt(probe - 1) == '\r') probe--;
+
+      TextPosition position = TextPositionUtils.calculatePosition(content, probe, "\r\n");
+
+      assertEquals(position, index.getPosition(probe));
+      assertEquals(probe, index.getOffset(position));
+    }
+
+    String content = text.toString();
+
+    assertEquals(content.split("\r\n", -1).length, index.getLineCount());
+  }
+}
@@ -347,6 +347,38 @@ public class TextPositionUtilsTest {
         calculatedWindowsOffset);
   }
 
+  @Test
+  public void testOffsetToPositionCalculation() {
+    for (int i = 0; i < UNIX_TEST_STRING_LINE_OFFSETS.length; i++) {
+      TextPosition unixPosition =
+          TextPositionUtils.calculatePosition(
+              UNIX_TEST_STRING, UNIX_TEST_STRING_LINE_OFFSETS[i], UNIX_LINE_SEPARATOR);
+
+      assertEquals(
+          "incorrect Unix position calculation for start of line " + i,
+          new TextPosition(i, 0),
+          unixPosition);
+
+      TextPosition windowsPosition =
+          TextPositionUtils.calculatePosition(
+              WINDOWS_TEST_STRING, WINDOWS_TEST_STRING_LINE_OFFSETS[i], WINDOWS_LINE_SEPARATOR);
+
+      assertEquals(
+          "incorrect Windows position calculation for start of line " + i,
+          new TextPosition(i, 0),
+          windowsPosition);
+    }
+
+    assertEquals(
+        new TextPosition(16, 1),
+        TextPositionUtils.calculatePosition(
+            UNIX_TEST_STRING, UNIX_TEST_STRING.length(), UNIX_LINE_SEPARATOR));
+
+    assertEquals(
+        new TextPosition(2, 4),
+        TextPositionUtils.calculatePosition(UNIX_TEST_STRING, 72, UNIX_LINE_SEPARATOR));
+  }
+
   /**
    * Ease of use method that calculates the line and offset delta for the given text using the Unix
    * line separator.
@@ -0,0 +1,118 @@
+package saros.filesystem.ignore;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IgnoreEngineTest {
+
+  @Rule public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private Path root;
+
+  @Before
+  public void setUp() {
+    root = tmpFolder.getRoot().toPath();
+  }
+
+  @Test
+  public void testGitDirectoryIsAlwaysIgnored() {
+    IgnoreEngine engine = new IgnoreEngine(root);
+
+    assertTrue(engine.isIgnored(".git", true));
+    assertTrue(engine.isIgnored(".git/config", false));
+    assertTrue(engine.isIgnored("module/.git/HEAD", false));
+    assertFalse(engine.isIgnored("", true));
+    assertFalse(engine.isIgnored("src/A.java", false));
+  }
+
+  @Test
+  public void testContentOfIgnoredDirectoryIsIgnored() throws IOException {
+    write(".gitignore", "build/\n!build/keep.txt\n");
+
+    IgnoreEngine engine = new IgnoreEngine(root);
+
+    assertTrue(engine.isIgnored("build", true));
+    assertTrue(engine.isIgnored("build/classes/A.class", false));
+
+    // a file can not be re-included if its directory is ignored
+    assertTrue(engine.isIgnored("build/keep.txt", false));
+  }
+
+  @Test
+  public void testNestedIgnoreFilesTakePrecedence() throws IOException {
+    write(".gitignore", "*.log\n");
+    write("module/.gitignore", "!server.log\ngenerated/\n");
+
+    IgnoreEngine engine = new IgnoreEngine(root);
+
+    assertTrue(engine.isIgnored("client.log", false));
+    assertTrue(engine.isIgnored("module/client.log", false));
+    assertFalse(engine.isIgnored("module/server.log", false));
+    assertTrue(engine.isIgnored("server.log", false));
+    assertTrue(engine.isIgnored("module/generated/A.java", false));
+    assertFalse(engine.isIgnored("generated/A.java", false));
+  }
+
+  @Test
+  public void testChangedIgnoreFileIsReloaded() throws IOException {
+    IgnoreEngine engine = new IgnoreEngine(root);
+
+    assertFalse(engine.isIgnored("out/A.class", false));
+
+    write(".gitignore", "out/\n");
+
+    engine.resourceChanged("out/A.class", false);
+
+    assertFalse(engine.isIgnored("out/A.class", false));
+
+    engine.resourceChanged(".gitignore", false);
+
+    assertTrue(engine.isIgnored("out/A.class", false));
+  }
+
+  @Test
+  public void testChangedDirectoryWithIgnoreFileIsReloaded() throws IOException {
+    write("module/.gitignore", "*.log\n");
+
+    IgnoreEngine engine = new IgnoreEngine(root);
+
+    assertTrue(engine.isIgnored("module/server.log", false));
+
+    Files.delete(root.resolve("module/.gitignore"));
+
+    engine.resourceChanged("module", true);
+
+    assertFalse(engine.isIgnored("module/server.log", false));
+  }
+
+  @Test
+  public void testInvalidate() throws IOException {
+    IgnoreEngine engine = new IgnoreEngine(root);
+
+    assertFalse(engine.isIgnored("out/A.class", false));
+
+    write(".gitignore", "out/\n");
+
+    assertFalse(engine.isIgnored("out/A.class", false));
+
+    engine.invalidate();
+
+    assertTrue(engine.isIgnored("out/A.class", false));
+  }
+
+  private void write(String path, String content) throws IOException {
+    Path file = root.resolve(path);
+
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,83 @@
+package saros.filesystem.ignore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class IgnoreRulesTest {
+
+  @Test
+  public void testCommentsAndBlankLines() {
+    IgnoreRules rules = IgnoreRules.parse("# comment\n\n   \n");
+
+    assertTrue(rules.isEmpty());
+  }
+
+  @Test
+  public void testNameMatchesAtAnyDepth() {
+    IgnoreRules rules = IgnoreRules.parse("*.class\nnode_modules\n");
+
+    assertEquals(Boolean.TRUE, rules.match("A.class", false));
+    assertEquals(Boolean.TRUE, rules.match("a/b/A.class", false));
+    assertEquals(Boolean.TRUE, rules.match("web/node_modules", true));
+    assertNull(rules.match("A.java", false));
+    assertNull(rules.match("a.class/A.java", false));
+  }
+
+  @Test
+  public void testAnchoredRules() {
+    IgnoreRules rules = IgnoreRules.parse("/build\ndoc/*.html\n");
+
+    assertEquals(Boolean.TRUE, rules.match("build", true));
+    assertNull(rules.match("src/build", true));
+    assertEquals(Boolean.TRUE, rules.match("doc/index.html", false));
+    assertNull(rules.match("doc/api/index.html", false));
+    assertNull(rules.match("src/doc/index.html", false));
+  }
+
+  @Test
+  public void testDirectoryRules() {
+    IgnoreRules rules = IgnoreRules.parse("out/\n");
+
+    assertEquals(Boolean.TRUE, rules.match("out", true));
+    assertEquals(Boolean.TRUE, rules.match("module/out", true));
+    assertNull(rules.match("out", false));
+  }
+
+  @Test
+  public void testNegationLastRuleWins() {
+    IgnoreRules rules = IgnoreRules.parse("*.log\n!important.log\n");
+
+    assertEquals(Boolean.TRUE, rules.match("debug.log", false));
+    assertEquals(Boolean.FALSE, rules.match("important.log", false));
+    assertEquals(Boolean.FALSE, rules.match("logs/important.log", false));
+  }
+
+  @Test
+  public void testDoubleAsterisk() {
+    IgnoreRules rules = IgnoreRules.parse("**/tmp\na/**/b\nlib/**\n");
+
+    assertEquals(Boolean.TRUE, rules.match("tmp", true));
+    assertEquals(Boolean.TRUE, rules.match("x/y/tmp", true));
+    assertEquals(Boolean.TRUE, rules.match("a/b", false));
+    assertEquals(Boolean.TRUE, rules.match("a/x/y/b", false));
+    assertEquals(Boolean.TRUE, rules.match("lib/x/y.jar", false));
+    assertNull(rules.match("lib", true));
+  }
+
+  @Test
+  public void testWildcardsAndCharacterClasses() {
+    IgnoreRules rules = IgnoreRules.parse("file?.txt\n[abc].md\n[!x]y\n\\#hash\n\\!bang\n");
+
+    assertEquals(Boolean.TRUE, rules.match("file1.txt", false));
+    assertNull(rules.match("file10.txt", false));
+    assertEquals(Boolean.TRUE, rules.match("b.md", false));
+    assertNull(rules.match("d.md", false));
+    assertEquals(Boolean.TRUE, rules.match("zy", false));
+    assertNull(rules.match("xy", false));
+    assertEquals(Boolean.TRUE, rules.match("#hash", false));
+    assertEquals(Boolean.TRUE, rules.match("!bang", false));
+  }
+}
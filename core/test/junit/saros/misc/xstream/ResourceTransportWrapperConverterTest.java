@@ -3,6 +3,7 @@ package saros.misc.xstream;
 import static org.easymock.EasyMock.expect;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.xml.DomDriver;
@@ -66,6 +67,10 @@ public class ResourceTransportWrapperConverterTest {
     expect(folder.getReferencePointRelativePath()).andStubReturn(folderPath);
     expect(folder.getType()).andStubReturn(Type.FOLDER);
 
+    expect(referencePoint.getReferencePoint()).andStubReturn(referencePoint);
+    expect(referencePoint.getReferencePointRelativePath()).andStubReturn(Paths.get(""));
+    expect(referencePoint.getType()).andStubReturn(Type.REFERENCE_POINT);
+
     EasyMock.replay(referencePoint, file, folder);
   }
 
@@ -105,6 +110,13 @@ public class ResourceTransportWrapperConverterTest {
     ResourceTransportWrapper<?> folderCopy2 =
         (ResourceTransportWrapper<?>) receiver.fromXML(sender.toXML(wrappedFolder));
     assertEquals(wrappedFolder, folderCopy2);
+
+    ResourceTransportWrapper<IReferencePoint> wrappedReferencePoint =
+        new ResourceTransportWrapper<>(referencePoint);
+
+    ResourceTransportWrapper<?> referencePointCopy =
+        (ResourceTransportWrapper<?>) receiver.fromXML(sender.toXML(wrappedReferencePoint));
+    assertEquals(wrappedReferencePoint, referencePointCopy);
   }
 
   @Test
@@ -172,4 +184,52 @@ public class ResourceTransportWrapperConverterTest {
     Dummy copy2 = (Dummy) receiver.fromXML(sender.toXML(dummy));
     assertNull(copy2.resource);
   }
+
+  @Test
+  public void conversionCachesResources() {
+    Path path = Paths.get("foo/src/Main.java");
+
+    IFile cachedFile = EasyMock.createNiceMock(IFile.class);
+    IFile otherFile = EasyMock.createNiceMock(IFile.class);
+
+    /* Mocks */
+    IReferencePoint receiverReferencePoint = EasyMock.createMock(IReferencePoint.class);
+    expect(receiverReferencePoint.getFile(path)).andReturn(cachedFile).once();
+
+    IReferencePoint replacedReferencePoint = EasyMock.createMock(IReferencePoint.class);
+    expect(replacedReferencePoint.getFile(path)).andReturn(otherFile).once();
+
+    ISarosSession senderSession = EasyMock.createMock(ISarosSession.class);
+    expect(senderSession.getReferencePointId(referencePoint)).andStubReturn("ABC");
+
+    ISarosSession receiverSession = EasyMock.createMock(ISarosSession.class);
+    expect(receiverSession.getReferencePoint("ABC")).andReturn(receiverReferencePoint).times(2);
+    expect(receiverSession.getReferencePoint("ABC")).andReturn(replacedReferencePoint);
+
+    EasyMock.replay(
+        cachedFile,
+        otherFile,
+        receiverReferencePoint,
+        replacedReferencePoint,
+        senderSession,
+        receiverSession);
+
+    /* XStream */
+    XStream sender = XStreamFactory.getSecureXStream(new DomDriver());
+    sender.registerConverter(new ResourceTransportWrapperConverter(senderSession));
+
+    XStream receiver = XStreamFactory.getSecureXStream(new DomDriver());
+    receiver.registerConverter(new ResourceTransportWrapperConverter(receiverSession));
+
+    /* Test */
+    String xml = sender.toXML(new ResourceTransportWrapper<>(file));
+
+    assertSame(cachedFile, ((ResourceTransportWrapper<?>) receiver.fromXML(xml)).getResource());
+    assertSame(cachedFile, ((ResourceTransportWrapper<?>) receiver.fromXML(xml)).getResource());
+
+    // the cache must not outlive the reference point it was created for
+    assertSame(otherFile, ((ResourceTransportWrapper<?>) receiver.fromXML(xml)).getResource());
+
+    EasyMock.verify(receiverReferencePoint, replacedReferencePoint, receiverSession);
+  }
 }
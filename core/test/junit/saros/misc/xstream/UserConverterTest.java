@@ -1,6 +1,8 @@
 package saros.misc.xstream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.xml.DomDriver;
@@ -46,4 +48,33 @@ public class UserConverterTest {
     User userCopy = (User) xstream.fromXML(xstream.toXML(user));
     assertEquals(user, userCopy);
   }
+
+  @Test
+  public void conversionCachesUsersInSession() {
+    JID carlJid = new JID("carl@saros-con");
+    User carl = new User(carlJid, false, false, null);
+    carl.setInSession(true);
+
+    /* Mocks */
+    ISarosSession session = EasyMock.createMock(ISarosSession.class);
+    EasyMock.expect(session.getUser(carlJid)).andReturn(carl).once();
+    EasyMock.expect(session.getUser(carlJid)).andReturn(null).once();
+    EasyMock.replay(session);
+
+    /* XStream */
+    XStream cachingXStream = XStreamFactory.getSecureXStream(new DomDriver());
+    cachingXStream.registerConverter(new UserConverter(session));
+
+    /* Test */
+    String xml = cachingXStream.toXML(carl);
+
+    assertSame(carl, cachingXStream.fromXML(xml));
+    assertSame(carl, cachingXStream.fromXML(xml));
+
+    // users that left the session must not be resolved from the cache
+    carl.setInSession(false);
+    assertNull(cachingXStream.fromXML(xml));
+
+    EasyMock.verify(session);
+  }
 }
@@ -0,0 +1,97 @@
+package saros.monitoring.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+  @Test
+  public void testCountersAreSharedByName() {
+    MetricsRegistry registry = new MetricsRegistry();
+
+    Counter counter = registry.counter("a.count");
+
+    counter.increment();
+    registry.counter("a.count").add(2);
+
+    assertSame(counter, registry.counter("a.count"));
+    assertEquals(3, counter.get());
+    assertEquals(Long.valueOf(3), registry.getValues().get("a.count"));
+  }
+
+  @Test
+  public void testGaugesAreEvaluatedOnRead() {
+    MetricsRegistry registry = new MetricsRegistry();
+
+    AtomicLong value = new AtomicLong(1);
+
+    registry.gauge("a.gauge", value::get);
+
+    assertEquals(Long.valueOf(1), registry.getValues().get("a.gauge"));
+
+    value.set(42);
+
+    assertEquals(Long.valueOf(42), registry.getValues().get("a.gauge"));
+
+    registry.removeGauge("a.gauge");
+
+    assertFalse(registry.getValues().containsKey("a.gauge"));
+  }
+
+  @Test
+  public void testFailingGaugeIsOmitted() {
+    MetricsRegistry registry = new MetricsRegistry();
+
+    registry.gauge(
+        "broken",
+        () -> {
+          throw new IllegalStateException();
+        });
+
+    registry.counter("working").increment();
+
+    Map<String, Long> values = registry.getValues();
+
+    assertFalse(values.containsKey("broken"));
+    assertTrue(values.containsKey("working"));
+  }
+
+  @Test
+  public void testText() {
+    MetricsRegistry registry = new MetricsRegistry();
+
+    registry.counter("b.count").increment();
+    registry.gauge("a.gauge", () -> 7);
+    registry.histogram("c.time_us").record(10);
+
+    String text = registry.toText();
+
+    assertTrue(text, text.matches("(?s)a\\.gauge +7\\R+b\\.count +1\\R.*"));
+    assertTrue(text, text.contains("c.time_us"));
+  }
+
+  @Test
+  public void testJson() {
+    MetricsRegistry registry = new MetricsRegistry();
+
+    registry.counter("b.count").increment();
+    registry.gauge("a.\"gauge\"", () -> 7);
+    registry.histogram("c.time_us").record(10);
+
+    String json = registry.toJson();
+
+    assertTrue(json, json.startsWith("{\"timestamp\":"));
+    assertTrue(json, json.contains(",\"values\":{\"a.\\\"gauge\\\"\":7,\"b.count\":1}"));
+    assertTrue(
+        json,
+        json.endsWith(
+            ",\"histograms\":{\"c.time_us\":"
+                + "{\"count\":1,\"mean\":10.0,\"p50\":10,\"p90\":10,\"p99\":10,\"max\":10}}}"));
+  }
+}
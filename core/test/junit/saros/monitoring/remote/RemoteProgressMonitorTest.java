@@ -0,0 +1,102 @@
+package saros.monitoring.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import saros.activities.ProgressActivity;
+import saros.activities.ProgressActivity.ProgressAction;
+import saros.monitoring.NullProgressMonitor;
+import saros.net.xmpp.JID;
+import saros.session.ISarosSessionManager;
+import saros.session.User;
+
+public class RemoteProgressMonitorTest {
+
+  private RemoteProgressManager manager;
+
+  private final List<ProgressActivity> sent = new CopyOnWriteArrayList<ProgressActivity>();
+
+  private final User alice = new User(new JID("alice"), true, true, null);
+  private final User bob = new User(new JID("bob"), false, false, null);
+  private final User carl = new User(new JID("carl"), false, false, null);
+
+  @Before
+  public void setUp() {
+    ISarosSessionManager sessionManager = EasyMock.createNiceMock(ISarosSessionManager.class);
+    EasyMock.replay(sessionManager);
+
+    manager = new RemoteProgressManager(sessionManager, null);
+    manager.addActivityListener(activity -> sent.add((ProgressActivity) activity));
+  }
+
+  @Test
+  public void testUpdatesAreCoalesced() throws Exception {
+    RemoteProgressMonitor monitor = createMonitor(bob);
+
+    monitor.beginTask("task", 1000);
+
+    for (int i = 0; i < 1000; i++) monitor.worked(1);
+
+    assertEquals(ProgressAction.BEGINTASK, sent.get(0).getAction());
+    assertTrue("updates were not coalesced: " + sent.size(), sent.size() <= 2);
+
+    Thread.sleep(RemoteProgressManager.MIN_UPDATE_INTERVAL * 4);
+
+    ProgressActivity last = sent.get(sent.size() - 1);
+
+    assertEquals(ProgressAction.UPDATE, last.getAction());
+    assertEquals(1000, last.getWorkCurrent());
+
+    monitor.done();
+
+    assertEquals(ProgressAction.DONE, sent.get(sent.size() - 1).getAction());
+  }
+
+  @Test
+  public void testSubTaskIsKeptWhenCoalescing() throws Exception {
+    RemoteProgressMonitor monitor = createMonitor(bob, carl);
+
+    monitor.beginTask("task", 10);
+    monitor.worked(1);
+    monitor.subTask("sub task");
+    monitor.worked(1);
+    monitor.worked(1);
+
+    Thread.sleep(RemoteProgressManager.MIN_UPDATE_INTERVAL * 4);
+
+    ProgressActivity last = sent.get(sent.size() - 1);
+
+    assertEquals(ProgressAction.SUBTASK, last.getAction());
+    assertEquals("sub task", last.getTaskName());
+    assertEquals(3, last.getWorkCurrent());
+
+    // one begin task and two updates for each user
+    assertEquals(6, sent.size());
+  }
+
+  @Test
+  public void testDoneDiscardsPendingUpdate() throws Exception {
+    RemoteProgressMonitor monitor = createMonitor(bob);
+
+    monitor.beginTask("task", 10);
+    monitor.worked(1);
+    monitor.worked(1);
+    monitor.done();
+
+    Thread.sleep(RemoteProgressManager.MIN_UPDATE_INTERVAL * 2);
+
+    assertEquals(3, sent.size());
+    assertEquals(ProgressAction.DONE, sent.get(2).getAction());
+  }
+
+  private RemoteProgressMonitor createMonitor(User... users) {
+    return new RemoteProgressMonitor(
+        manager, "id", alice, Arrays.asList(users), new NullProgressMonitor());
+  }
+}
@@ -19,6 +19,7 @@ import org.easymock.EasyMock;
 import org.jivesoftware.smack.Connection;
 import org.junit.Before;
 import org.junit.Test;
+import saros.monitoring.metrics.MetricsRegistry;
 import saros.net.ConnectionState;
 import saros.net.IConnectionManager;
 import saros.net.stream.IStreamService;
@@ -185,6 +186,8 @@ public class DataTransferManagerTest {
 
   private Connection connectionMock;
 
+  private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
   {
     connectionMock = EasyMock.createMock(Connection.class);
     EasyMock.expect(connectionMock.getUser()).andReturn("local@host").anyTimes();
@@ -210,7 +213,8 @@ public class DataTransferManagerTest {
   @Test(expected = NullPointerException.class)
   public void testEstablishConnectionWithNullPeer() throws Exception {
 
-    IConnectionManager dtm = new DataTransferManager(connectionServiceStub, null, null);
+    IConnectionManager dtm =
+        new DataTransferManager(connectionServiceStub, null, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -220,7 +224,8 @@ public class DataTransferManagerTest {
   @Test(expected = NullPointerException.class)
   public void testEstablishConnectionWithNullConnectionID() throws Exception {
 
-    IConnectionManager dtm = new DataTransferManager(connectionServiceStub, null, null);
+    IConnectionManager dtm =
+        new DataTransferManager(connectionServiceStub, null, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -230,7 +235,8 @@ public class DataTransferManagerTest {
   @Test(expected = IOException.class)
   public void testEstablishConnectionWithNoTransports() throws Exception {
 
-    IConnectionManager dtm = new DataTransferManager(connectionServiceStub, null, null);
+    IConnectionManager dtm =
+        new DataTransferManager(connectionServiceStub, null, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -244,7 +250,8 @@ public class DataTransferManagerTest {
     IStreamService fallbackTransport = new Transport(StreamMode.IBB);
 
     IConnectionManager dtm =
-        new DataTransferManager(connectionServiceStub, mainTransport, fallbackTransport);
+        new DataTransferManager(
+            connectionServiceStub, mainTransport, fallbackTransport, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -272,7 +279,8 @@ public class DataTransferManagerTest {
     EasyMock.replay(mainTransport);
 
     IConnectionManager dtm =
-        new DataTransferManager(connectionServiceStub, mainTransport, fallbackTransport);
+        new DataTransferManager(
+            connectionServiceStub, mainTransport, fallbackTransport, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -291,7 +299,8 @@ public class DataTransferManagerTest {
     IStreamService fallbackTransport = new Transport(StreamMode.IBB);
 
     DataTransferManager dtm =
-        new DataTransferManager(connectionServiceStub, mainTransport, fallbackTransport);
+        new DataTransferManager(
+            connectionServiceStub, mainTransport, fallbackTransport, metricsRegistry);
 
     dtm.setServices(IConnectionManager.IBB_SERVICE);
 
@@ -310,7 +319,8 @@ public class DataTransferManagerTest {
 
     Transport mainTransport = new Transport(StreamMode.SOCKS5_DIRECT);
 
-    IConnectionManager dtm = new DataTransferManager(connectionServiceStub, mainTransport, null);
+    IConnectionManager dtm =
+        new DataTransferManager(connectionServiceStub, mainTransport, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -330,7 +340,8 @@ public class DataTransferManagerTest {
   public void testGetTransferMode() throws Exception {
     IStreamService mainTransport = new Transport(StreamMode.SOCKS5_DIRECT);
 
-    IConnectionManager dtm = new DataTransferManager(connectionServiceStub, mainTransport, null);
+    IConnectionManager dtm =
+        new DataTransferManager(connectionServiceStub, mainTransport, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -350,7 +361,8 @@ public class DataTransferManagerTest {
   public void testGetConnectionOnInvalidConnectionIdentifierWithNoConnection() throws Exception {
     IStreamService mainTransport = new Transport(StreamMode.SOCKS5_DIRECT);
 
-    DataTransferManager dtm = new DataTransferManager(connectionServiceStub, mainTransport, null);
+    DataTransferManager dtm =
+        new DataTransferManager(connectionServiceStub, mainTransport, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -360,7 +372,8 @@ public class DataTransferManagerTest {
   public void testGetConnectionOnInvalidConnectionIdentifier() throws Exception {
     IStreamService mainTransport = new Transport(StreamMode.SOCKS5_DIRECT);
 
-    DataTransferManager dtm = new DataTransferManager(connectionServiceStub, mainTransport, null);
+    DataTransferManager dtm =
+        new DataTransferManager(connectionServiceStub, mainTransport, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -372,7 +385,8 @@ public class DataTransferManagerTest {
   public void testGetConnectionOnValidConnectionIdentifier() throws Exception {
     Transport mainTransport = new Transport(StreamMode.SOCKS5_DIRECT);
 
-    DataTransferManager dtm = new DataTransferManager(connectionServiceStub, mainTransport, null);
+    DataTransferManager dtm =
+        new DataTransferManager(connectionServiceStub, mainTransport, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -398,7 +412,8 @@ public class DataTransferManagerTest {
     Transport fallbackTransport = new Transport(StreamMode.IBB);
 
     final IConnectionManager dtm =
-        new DataTransferManager(connectionServiceStub, mainTransport, fallbackTransport);
+        new DataTransferManager(
+            connectionServiceStub, mainTransport, fallbackTransport, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -485,7 +500,8 @@ public class DataTransferManagerTest {
   public void connectWithRemoteSideConnectedFirst() throws Exception {
     Transport mainTransport = new Transport(StreamMode.SOCKS5_DIRECT);
 
-    IConnectionManager dtm = new DataTransferManager(connectionServiceStub, mainTransport, null);
+    IConnectionManager dtm =
+        new DataTransferManager(connectionServiceStub, mainTransport, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -511,7 +527,8 @@ public class DataTransferManagerTest {
     Transport fallbackTransport = new Transport(StreamMode.IBB);
 
     final DataTransferManager dtm =
-        new DataTransferManager(connectionServiceStub, mainTransport, fallbackTransport);
+        new DataTransferManager(
+            connectionServiceStub, mainTransport, fallbackTransport, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -558,7 +575,8 @@ public class DataTransferManagerTest {
   public void testConnectionClosureOnManualClose() throws Exception {
     Transport mainTransport = new Transport(StreamMode.SOCKS5_DIRECT);
 
-    IConnectionManager dtm = new DataTransferManager(connectionServiceStub, mainTransport, null);
+    IConnectionManager dtm =
+        new DataTransferManager(connectionServiceStub, mainTransport, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
@@ -582,7 +600,8 @@ public class DataTransferManagerTest {
   public void testConnectionClosureOnDisconnect() throws Exception {
     Transport mainTransport = new Transport(StreamMode.SOCKS5_DIRECT);
 
-    IConnectionManager dtm = new DataTransferManager(connectionServiceStub, mainTransport, null);
+    IConnectionManager dtm =
+        new DataTransferManager(connectionServiceStub, mainTransport, null, metricsRegistry);
 
     connectionListener.getValue().connectionStateChanged(connectionMock, ConnectionState.CONNECTED);
 
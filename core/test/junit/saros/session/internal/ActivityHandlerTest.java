@@ -37,6 +37,7 @@ import saros.activities.TextSelectionActivity;
 import saros.activities.ViewportActivity;
 import saros.concurrent.management.ConcurrentDocumentClient;
 import saros.concurrent.management.ConcurrentDocumentServer;
+import saros.editor.text.TextPosition;
 import saros.filesystem.IFile;
 import saros.filesystem.IFolder;
 import saros.filesystem.IReferencePoint;
@@ -73,6 +74,9 @@ public class ActivityHandlerTest {
   // Needed to compare localActivities
   private volatile CountDownLatch gate;
 
+  // Needed to wait for the end of a batch
+  private volatile CountDownLatch batchGate;
+
   // Roles of the Users in this Test
   private User target;
   private User source;
@@ -99,6 +103,13 @@ public class ActivityHandlerTest {
 
           if (gateToCountdown != null) gateToCountdown.countDown();
         }
+
+        @Override
+        public void batchExecuted() {
+          CountDownLatch gateToCountdown = batchGate;
+
+          if (gateToCountdown != null) gateToCountdown.countDown();
+        }
       };
 
   @Before
@@ -139,6 +150,9 @@ public class ActivityHandlerTest {
       // SUT-CALL
       handler.handleOutgoingActivities(Collections.singletonList(activity));
 
+      // text edits are buffered until the GUI thread is idle again
+      synchronizer.syncExec(() -> {});
+
       if (!willBeSent) {
         fail("Activity: " + activity + " was not send.");
       } else if (targets.size() == 0) {
@@ -160,6 +174,83 @@ public class ActivityHandlerTest {
     }
   }
 
+  /**
+   * This tests that consecutive local text edits made by a single GUI event are merged before they
+   * are transformed by Jupiter.
+   */
+  @Test
+  public void ClientMergeTextEditsTest() {
+    IFile file = EasyMock.createNiceMock(IFile.class);
+    EasyMock.replay(file);
+
+    List<IActivity> textEdits = new ArrayList<IActivity>();
+
+    for (int i = 0; i < 5; i++)
+      textEdits.add(
+          TextEditActivity.buildTextEditActivity(alice, new TextPosition(0, i), "a", "", file));
+
+    IActivity otherFileEdit =
+        TextEditActivity.buildTextEditActivity(
+            alice, new TextPosition(0, 0), "b", "", EasyMock.createNiceMock(IFile.class));
+
+    textEdits.add(otherFileEdit);
+
+    final List<IActivity> transformed = new ArrayList<IActivity>();
+
+    ConcurrentDocumentClient client = EasyMock.createNiceMock(ConcurrentDocumentClient.class);
+    EasyMock.expect(client.transformToJupiter(EasyMock.anyObject(IActivity.class)))
+        .andAnswer(
+            new IAnswer<IActivity>() {
+              @Override
+              public IActivity answer() throws Throwable {
+                IActivity activity = (IActivity) EasyMock.getCurrentArguments()[0];
+                transformed.add(activity);
+                return activity;
+              }
+            })
+        .anyTimes();
+    EasyMock.replay(client);
+
+    ISarosSession session = EasyMock.createNiceMock(ISarosSession.class);
+    EasyMock.expect(session.getHost()).andStubReturn(alice);
+    EasyMock.replay(session);
+
+    final List<IActivity> sent = new ArrayList<IActivity>();
+
+    IActivityHandlerCallback sendCallback =
+        new IActivityHandlerCallback() {
+          @Override
+          public void send(List<User> recipients, IActivity activity) {
+            sent.add(activity);
+          }
+
+          @Override
+          public void execute(IActivity activity) {
+            // NOP
+          }
+        };
+
+    final ActivityHandler mergingHandler =
+        new ActivityHandler(session, sendCallback, client, synchronizer);
+
+    synchronizer.syncExec(
+        () -> {
+          for (IActivity textEdit : textEdits)
+            mergingHandler.handleOutgoingActivities(Collections.singletonList(textEdit));
+        });
+
+    synchronizer.syncExec(() -> {});
+
+    assertEquals("text edits were not merged", 2, transformed.size());
+    assertEquals(transformed, sent);
+
+    TextEditActivity merged = (TextEditActivity) transformed.get(0);
+
+    assertEquals("aaaaa", merged.getNewText());
+    assertEquals(new TextPosition(0, 0), merged.getStartPosition());
+    assertEquals(otherFileEdit, transformed.get(1));
+  }
+
   /**
    * This tests if the handleIncomingActivities-method at the host produces the right activities to
    * send to others.
@@ -268,6 +359,20 @@ public class ActivityHandlerTest {
     }
   }
 
+  /** This tests that the end of every executed batch is reported to the callback. */
+  @Test
+  public void ClientBatchExecutedTest() throws InterruptedException {
+
+    setParameters(alice, bob, false);
+
+    batchGate = new CountDownLatch(1);
+
+    // SUT-CALL
+    handler.handleIncomingActivities(activities);
+
+    assertTrue("end of batch was not reported", batchGate.await(10, TimeUnit.SECONDS));
+  }
+
   /**
    * Specifies the roles of participants in the session. Should be called at the start of every test
    * case
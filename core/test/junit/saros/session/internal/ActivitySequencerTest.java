@@ -11,6 +11,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.jivesoftware.smack.packet.PacketExtension;
@@ -199,6 +200,77 @@ public class ActivitySequencerTest {
     }
   }
 
+  @Test(timeout = 30000)
+  public void testLatencyTracking() {
+
+    int activityCount = 100;
+
+    long originTime = System.currentTimeMillis() - 1000;
+
+    ActivityLatencyTracker aliceTracker = new ActivityLatencyTracker("0815", true, null);
+    ActivityLatencyTracker bobTracker = new ActivityLatencyTracker("0815", true, null);
+
+    List<Long> receivedOriginTimes = Collections.synchronizedList(new ArrayList<>());
+
+    ISarosSession trackingSessionStubBob =
+        createSessionMock(
+            bobUser,
+            aliceUserInBobSession,
+            bobSessionId,
+            activities -> {
+              for (IActivity activity : activities)
+                receivedOriginTimes.add(
+                    bobTracker.getReceivedTimestamps().get(activity).originTime);
+
+              bobReceivedActivitiesBuffer.addAll(activities);
+            });
+
+    aliceSequencer =
+        new ActivitySequencer(
+            sessionStubAlice, aliceTransmitter, aliceReceiver, null, aliceTracker);
+
+    bobSequencer =
+        new ActivitySequencer(
+            trackingSessionStubBob, bobTransmitter, bobReceiver, null, bobTracker);
+
+    aliceSequencer.start();
+    bobSequencer.start();
+
+    aliceSequencer.registerUser(bobUserInAliceSession);
+    bobSequencer.registerUser(aliceUserInBobSession);
+
+    for (int i = 0; i < activityCount; i++) {
+      NOPActivity activity = new NOPActivity(aliceUser, bobUserInAliceSession, i);
+
+      aliceSequencer.sendActivity(
+          Collections.singletonList(bobUserInAliceSession), activity, originTime);
+    }
+
+    aliceSequencer.flush(bobUserInAliceSession);
+
+    assertEquals("not all activies received", activityCount, bobReceivedActivitiesBuffer.size());
+
+    assertEquals(
+        activityCount,
+        aliceTracker.getHistogram(ActivityLatencyTracker.Stage.SEND_QUEUE).getCount());
+    assertEquals(
+        activityCount, aliceTracker.getHistogram(ActivityLatencyTracker.Stage.TRANSMIT).getCount());
+    assertEquals(
+        activityCount, bobTracker.getHistogram(ActivityLatencyTracker.Stage.NETWORK).getCount());
+
+    assertTrue(
+        aliceTracker
+            .getHistograms(ActivityLatencyTracker.Stage.SEND_QUEUE)
+            .containsKey(NOPActivity.class.getSimpleName()));
+
+    assertEquals(activityCount, receivedOriginTimes.size());
+
+    for (long receivedOriginTime : receivedOriginTimes)
+      assertEquals(originTime, receivedOriginTime);
+
+    assertTrue(bobTracker.getReceivedTimestamps().isEmpty());
+  }
+
   @Test(timeout = 30000)
   public void testSendWithoutRegisteredUser() {
 
@@ -279,6 +351,15 @@ public class ActivitySequencerTest {
       final AtomicReference<String> sessionId,
       final List<IActivity> receivedActivitiesBuffer) {
 
+    return createSessionMock(host, client, sessionId, receivedActivitiesBuffer::addAll);
+  }
+
+  private static ISarosSession createSessionMock(
+      final User host,
+      final User client,
+      final AtomicReference<String> sessionId,
+      final Consumer<List<IActivity>> exec) {
+
     final ISarosSession session = EasyMock.createMock(ISarosSession.class);
 
     EasyMock.expect(session.getID()).andAnswer(() -> sessionId.get()).anyTimes();
@@ -292,7 +373,11 @@ public class ActivitySequencerTest {
     session.exec(EasyMock.capture(capture));
 
     EasyMock.expectLastCall()
-        .andAnswer(() -> receivedActivitiesBuffer.addAll(capture.getValue()))
+        .andAnswer(
+            () -> {
+              exec.accept(capture.getValue());
+              return null;
+            })
         .anyTimes();
 
     EasyMock.replay(session);
@@ -0,0 +1,135 @@
+package saros.session.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import saros.activities.IActivity;
+import saros.activities.NOPActivity;
+import saros.misc.xstream.UserConverter;
+import saros.net.xmpp.JID;
+import saros.session.ISarosSession;
+import saros.session.User;
+import saros.session.internal.SessionRecording.Kind;
+import saros.session.internal.SessionRecording.Record;
+
+public class SessionRecordingTest {
+
+  private static final JID ALICE_JID = new JID("alice@saros-con/Saros");
+  private static final JID BOB_JID = new JID("bob@saros-con/Saros");
+  private static final JID CARL_JID = new JID("carl@saros-con/Saros");
+
+  private final User alice = new User(ALICE_JID, true, true, null);
+  private final User bob = new User(BOB_JID, false, false, null);
+  private final User carl = new User(CARL_JID, false, false, null);
+
+  private UserConverter userConverter;
+
+  @Before
+  public void setUp() {
+    ISarosSession session = EasyMock.createMock(ISarosSession.class);
+    EasyMock.expect(session.getUser(ALICE_JID)).andStubReturn(alice);
+    EasyMock.expect(session.getUser(BOB_JID)).andStubReturn(bob);
+    EasyMock.expect(session.getUser(CARL_JID)).andStubReturn(carl);
+    EasyMock.replay(session);
+
+    userConverter = new UserConverter(session);
+    userConverter.start();
+  }
+
+  @After
+  public void tearDown() {
+    userConverter.stop();
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (SessionRecording.Writer writer = new SessionRecording.Writer(out, "4711", alice, alice)) {
+
+      writer.write(
+          Kind.LOCAL,
+          Collections.emptyList(),
+          Arrays.asList(nop(alice, bob, 1), nop(alice, bob, 2)));
+
+      writer.write(Kind.SENT, Arrays.asList(bob, carl), Arrays.asList(nop(alice, bob, 1)));
+      writer.write(Kind.RECEIVED, Collections.emptyList(), Arrays.asList(nop(bob, alice, 3)));
+      writer.write(Kind.SENT, Arrays.asList(carl), Arrays.asList(nop(bob, carl, 3)));
+      writer.write(Kind.EXECUTED, Collections.emptyList(), Collections.emptyList());
+    }
+
+    try (SessionRecording.Reader reader =
+        new SessionRecording.Reader(new ByteArrayInputStream(out.toByteArray()))) {
+
+      assertEquals("4711", reader.getSessionID());
+      assertEquals(ALICE_JID, reader.getLocalUser());
+      assertEquals(ALICE_JID, reader.getHost());
+
+      Record local = reader.read();
+      assertEquals(Kind.LOCAL, local.getKind());
+      assertEquals(Collections.emptyList(), local.getPeers());
+      assertNOPs(local.getActivities(), alice, bob, 1, 2);
+
+      Record sent = reader.read();
+      assertEquals(Kind.SENT, sent.getKind());
+      assertEquals(Arrays.asList(BOB_JID, CARL_JID), sent.getPeers());
+      assertNOPs(sent.getActivities(), alice, bob, 1);
+
+      Record received = reader.read();
+      assertEquals(Kind.RECEIVED, received.getKind());
+      assertNOPs(received.getActivities(), bob, alice, 3);
+
+      Record forwarded = reader.read();
+      assertEquals(Arrays.asList(CARL_JID), forwarded.getPeers());
+      assertNOPs(forwarded.getActivities(), bob, carl, 3);
+
+      Record executed = reader.read();
+      assertEquals(Kind.EXECUTED, executed.getKind());
+      assertTrue(executed.getActivities().isEmpty());
+
+      assertTrue("record times must not decrease", local.getTime() <= sent.getTime());
+      assertTrue("record times must not decrease", sent.getTime() <= executed.getTime());
+
+      assertNull(reader.read());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadInvalidRecording() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(new byte[] {1, 2, 3, 4, 5, 6});
+    }
+
+    new SessionRecording.Reader(new ByteArrayInputStream(out.toByteArray())).close();
+  }
+
+  private static NOPActivity nop(User source, User target, int id) {
+    return new NOPActivity(source, target, id);
+  }
+
+  private static void assertNOPs(List<IActivity> activities, User source, User target, int... ids) {
+    assertEquals(ids.length, activities.size());
+
+    for (int i = 0; i < ids.length; i++) {
+      NOPActivity activity = (NOPActivity) activities.get(i);
+
+      assertEquals(source, activity.getSource());
+      assertEquals(target, activity.getTarget());
+      assertEquals(ids[i], activity.getID());
+    }
+  }
+}
@@ -6,16 +6,20 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static saros.filesystem.IResource.Type.REFERENCE_POINT;
 
+import java.nio.file.Paths;
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
 import saros.filesystem.IReferencePoint;
 import saros.filesystem.IResource;
+import saros.session.User;
 
 public class SharedReferencePointMapperTest {
 
   private SharedReferencePointMapper mapper;
 
+  private long now;
+
   @Before
   public void setUp() {
     mapper = new SharedReferencePointMapper();
@@ -147,6 +151,86 @@ public class SharedReferencePointMapperTest {
     assertEquals(referencePointMock, mapper.getReferencePoint("0"));
   }
 
+  @Test
+  public void testIgnoreDecisionsAreCached() {
+    mapper = new SharedReferencePointMapper(1000, () -> now);
+
+    IReferencePoint referencePointMock = createReferencePointMock();
+
+    IResource resourceMock = createResourceMock(referencePointMock, "src/A.java");
+    EasyMock.expect(resourceMock.isIgnored()).andReturn(false).times(2);
+    EasyMock.replay(resourceMock);
+
+    mapper.addReferencePoint("0", referencePointMock);
+
+    assertTrue(mapper.isShared(resourceMock));
+    assertTrue(mapper.isShared(resourceMock));
+
+    now += 1000;
+
+    assertTrue(mapper.isShared(resourceMock));
+
+    EasyMock.verify(resourceMock);
+  }
+
+  @Test
+  public void testInvalidateIgnoreCacheOfFolder() {
+    mapper = new SharedReferencePointMapper(1000, () -> now);
+
+    IReferencePoint referencePointMock = createReferencePointMock();
+
+    IResource fileMock = createResourceMock(referencePointMock, "src/A.java");
+    EasyMock.expect(fileMock.isIgnored()).andReturn(false).andReturn(true);
+    EasyMock.replay(fileMock);
+
+    IResource otherFileMock = createResourceMock(referencePointMock, "srcA.java");
+    EasyMock.expect(otherFileMock.isIgnored()).andReturn(false).once();
+    EasyMock.replay(otherFileMock);
+
+    IResource folderMock = createResourceMock(referencePointMock, "src");
+    EasyMock.replay(folderMock);
+
+    mapper.addReferencePoint("0", referencePointMock);
+
+    assertTrue(mapper.isShared(fileMock));
+    assertTrue(mapper.isShared(otherFileMock));
+
+    mapper.invalidateIgnoreCache(folderMock);
+
+    assertFalse(mapper.isShared(fileMock));
+    assertTrue(mapper.isShared(otherFileMock));
+
+    EasyMock.verify(fileMock, otherFileMock);
+  }
+
+  @Test
+  public void testUserHasReferencePoint() {
+    IReferencePoint referencePointMockA = createReferencePointMock();
+    IReferencePoint referencePointMockB = createReferencePointMock();
+
+    User user = EasyMock.createNiceMock(User.class);
+    EasyMock.replay(user);
+
+    mapper.addReferencePoint("0", referencePointMockA);
+    mapper.addMissingReferencePointsToUser(user);
+    mapper.addReferencePoint("1", referencePointMockB);
+
+    assertTrue(mapper.userHasReferencePoint(user, referencePointMockA));
+    assertFalse(mapper.userHasReferencePoint(user, referencePointMockB));
+
+    mapper.userLeft(user);
+
+    assertFalse(mapper.userHasReferencePoint(user, referencePointMockA));
+  }
+
+  private IResource createResourceMock(IReferencePoint referencePoint, String path) {
+    IResource resourceMock = EasyMock.createNiceMock(IResource.class);
+    EasyMock.expect(resourceMock.getReferencePoint()).andStubReturn(referencePoint);
+    EasyMock.expect(resourceMock.getReferencePointRelativePath()).andStubReturn(Paths.get(path));
+    EasyMock.expect(resourceMock.getType()).andStubReturn(IResource.Type.FILE);
+    return resourceMock;
+  }
+
   /*
    * aware that misconfigured mocks may throw IllegalState and
    * IllegalArgumentExceptions as well which may lead to false positive
@@ -8,6 +8,7 @@ import org.junit.runners.Suite;
   ActivityHandlerTest.class,
   ActivityQueuerTest.class,
   ActivitySequencerTest.class,
+  SessionRecordingTest.class,
   SharedReferencePointMapperTest.class,
   UserInformationHandlerTest.class
 })
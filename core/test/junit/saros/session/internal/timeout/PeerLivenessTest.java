@@ -0,0 +1,115 @@
+package saros.session.internal.timeout;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import saros.net.xmpp.JID;
+import saros.session.User;
+import saros.session.internal.timeout.PeerLiveness.Action;
+
+public class PeerLivenessTest {
+
+  private static final long IDLE_INTERVAL = 30000;
+  private static final long MAX_SILENCE = 300000;
+  private static final long MIN_PROBE_TIMEOUT = 5000;
+  private static final int MAX_PROBES = 3;
+
+  private static PeerLiveness create(boolean probeIdleConnection) {
+    return new PeerLiveness(
+        new User(new JID("alice@example.org/Saros"), false, false, null),
+        probeIdleConnection,
+        IDLE_INTERVAL,
+        MAX_SILENCE,
+        MIN_PROBE_TIMEOUT,
+        MAX_PROBES,
+        0);
+  }
+
+  @Test
+  public void testBusyConnectionIsNotProbed() {
+    PeerLiveness peer = create(true);
+
+    for (long now = 1000; now < 10 * IDLE_INTERVAL; now += 1000) {
+      peer.sent(now);
+      peer.received(now);
+      assertEquals(Action.NONE, peer.check(now));
+    }
+  }
+
+  @Test
+  public void testIdleConnectionIsProbed() {
+    PeerLiveness peer = create(true);
+
+    assertEquals(Action.NONE, peer.check(IDLE_INTERVAL - 1));
+
+    // traffic in one direction is not enough
+    peer.received(IDLE_INTERVAL - 1);
+    assertEquals(Action.PROBE, peer.check(IDLE_INTERVAL));
+
+    peer.probeSent(IDLE_INTERVAL);
+    assertEquals(Action.NONE, peer.check(IDLE_INTERVAL + 1000));
+
+    peer.received(IDLE_INTERVAL + 1000);
+    assertEquals(Action.NONE, peer.check(IDLE_INTERVAL + 2000));
+  }
+
+  @Test
+  public void testPassiveSideProbesLater() {
+    PeerLiveness peer = create(false);
+
+    assertEquals(Action.NONE, peer.check(IDLE_INTERVAL));
+    assertEquals(Action.PROBE, peer.check(IDLE_INTERVAL * 3 / 2));
+  }
+
+  @Test
+  public void testUnansweredProbesDeclarePeerDead() {
+    PeerLiveness peer = create(true);
+
+    long now = IDLE_INTERVAL;
+
+    for (int i = 0; i < MAX_PROBES; i++) {
+      assertEquals(Action.PROBE, peer.check(now));
+      peer.probeSent(now);
+
+      assertEquals(Action.NONE, peer.check(now + peer.getProbeTimeout() - 1));
+      now += peer.getProbeTimeout();
+    }
+
+    assertEquals(Action.DEAD, peer.check(now));
+  }
+
+  @Test
+  public void testMaximumSilence() {
+    PeerLiveness peer = create(true);
+
+    peer.sent(MAX_SILENCE);
+
+    assertEquals(Action.DEAD, peer.check(MAX_SILENCE + 1));
+  }
+
+  @Test
+  public void testRoundTripTimeEstimation() {
+    PeerLiveness peer = create(true);
+
+    assertEquals(-1, peer.getRoundTripTime());
+    assertEquals(PeerLiveness.INITIAL_PROBE_TIMEOUT, peer.getProbeTimeout());
+
+    peer.roundTripTimeMeasured(200);
+
+    assertEquals(200, peer.getRoundTripTime());
+    assertEquals(100, peer.getRoundTripTimeVariation());
+
+    for (int i = 0; i < 50; i++) peer.roundTripTimeMeasured(100);
+
+    assertEquals(100, peer.getRoundTripTime(), 5);
+    assertEquals(MIN_PROBE_TIMEOUT, peer.getProbeTimeout());
+
+    for (int i = 0; i < 50; i++) peer.roundTripTimeMeasured(20000);
+
+    assertEquals(20000, peer.getProbeTimeout(), 1000);
+
+    peer.roundTripTimeMeasured(60000);
+
+    assertEquals(IDLE_INTERVAL, peer.getProbeTimeout());
+  }
+}
@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import org.easymock.EasyMock;
 import org.easymock.IAnswer;
 import org.junit.Assert;
@@ -16,6 +17,10 @@ import org.junit.Before;
 import org.junit.Test;
 import saros.activities.IActivity;
 import saros.activities.StopActivity;
+import saros.filesystem.IFile;
+import saros.filesystem.IReferencePoint;
+import saros.filesystem.IResource;
+import saros.monitoring.metrics.MetricsRegistry;
 import saros.net.xmpp.JID;
 import saros.session.IActivityConsumer;
 import saros.session.IActivityListener;
@@ -42,6 +47,8 @@ public class StopManagerTest {
   private User carlsBob;
   private User carlsCarl;
 
+  private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
   @Before
   public void createSessionMocks() {
     alicesSession = EasyMock.createMock(ISarosSession.class);
@@ -166,7 +173,7 @@ public class StopManagerTest {
   /** Verify that a StopManager can be created and registers with the ISarosSession */
   @Test
   public void testCreation() {
-    StopManager stopManager = new StopManager(alicesSession);
+    StopManager stopManager = new StopManager(alicesSession, metricsRegistry);
     stopManager.start();
     stopManager.stop();
     EasyMock.verify(alicesSession);
@@ -222,7 +229,7 @@ public class StopManagerTest {
 
     EasyMock.replay(listener);
 
-    StopManager manager = new StopManager(alicesSession);
+    StopManager manager = new StopManager(alicesSession, metricsRegistry);
     manager.start();
     manager.addActivityListener(listener);
 
@@ -252,7 +259,7 @@ public class StopManagerTest {
     EasyMock.replay(listener);
 
     // create
-    StopManager manager = new StopManager(alicesSession);
+    StopManager manager = new StopManager(alicesSession, metricsRegistry);
     manager.start();
     manager.addActivityListener(listener);
     assertFalse(manager.getBlockedObservable().getValue());
@@ -279,9 +286,9 @@ public class StopManagerTest {
    */
   @Test
   public void testStopStart() throws CancellationException, InterruptedException {
-    final StopManager alicesStopManager = new StopManager(alicesSession);
+    final StopManager alicesStopManager = new StopManager(alicesSession, metricsRegistry);
     alicesStopManager.start();
-    final StopManager bobsStopManager = new StopManager(bobsSession);
+    final StopManager bobsStopManager = new StopManager(bobsSession, metricsRegistry);
     bobsStopManager.start();
 
     // Now make both listeners data to each other
@@ -315,9 +322,9 @@ public class StopManagerTest {
 
   @Test
   public void testStopMultipleUsers() throws CancellationException {
-    final StopManager alicesStopManager = new StopManager(alicesSession);
-    final StopManager bobsStopManager = new StopManager(bobsSession);
-    final StopManager carlsStopManager = new StopManager(carlsSession);
+    final StopManager alicesStopManager = new StopManager(alicesSession, metricsRegistry);
+    final StopManager bobsStopManager = new StopManager(bobsSession, metricsRegistry);
+    final StopManager carlsStopManager = new StopManager(carlsSession, metricsRegistry);
     alicesStopManager.start();
     bobsStopManager.start();
     carlsStopManager.start();
@@ -362,6 +369,55 @@ public class StopManagerTest {
     EasyMock.verify(carlsSession);
   }
 
+  @Test(timeout = 30000)
+  public void testScopedStopAsync() throws Exception {
+    final StopManager alicesStopManager = new StopManager(alicesSession, metricsRegistry);
+    final StopManager bobsStopManager = new StopManager(bobsSession, metricsRegistry);
+    final StopManager carlsStopManager = new StopManager(carlsSession, metricsRegistry);
+    alicesStopManager.start();
+    bobsStopManager.start();
+    carlsStopManager.start();
+
+    alicesStopManager.addActivityListener(createForwarder(bobsConsumer, carlsConsumer));
+    bobsStopManager.addActivityListener(createForwarder(alicesConsumer));
+    carlsStopManager.addActivityListener(createForwarder(alicesConsumer));
+
+    IReferencePoint referencePoint = EasyMock.createNiceMock(IReferencePoint.class);
+    IFile stoppedFile = EasyMock.createNiceMock(IFile.class);
+    IFile otherFile = EasyMock.createNiceMock(IFile.class);
+
+    EasyMock.expect(stoppedFile.getReferencePoint()).andStubReturn(referencePoint);
+    EasyMock.expect(stoppedFile.getType()).andStubReturn(IResource.Type.FILE);
+    EasyMock.expect(otherFile.getReferencePoint()).andStubReturn(referencePoint);
+    EasyMock.expect(otherFile.getType()).andStubReturn(IResource.Type.FILE);
+    EasyMock.replay(referencePoint, stoppedFile, otherFile);
+
+    List<User> users = new LinkedList<User>();
+    users.add(alicesBob);
+    users.add(alicesCarl);
+
+    CompletableFuture<List<StartHandle>> result =
+        alicesStopManager.stopAsync(users, Collections.singletonList(stoppedFile), "test");
+
+    List<StartHandle> handles = result.get();
+    assertEquals(2, handles.size());
+
+    assertTrue(bobsStopManager.getBlockedObservable().getValue());
+    assertTrue(bobsStopManager.isBlocked(stoppedFile));
+    assertFalse(bobsStopManager.isBlocked(otherFile));
+    assertTrue(carlsStopManager.isBlocked(stoppedFile));
+    assertFalse(alicesStopManager.isBlocked(stoppedFile));
+
+    for (StartHandle handle : handles) assertTrue(handle.startAsync().get());
+
+    assertFalse(bobsStopManager.isBlocked(stoppedFile));
+    assertFalse(carlsStopManager.getBlockedObservable().getValue());
+
+    alicesStopManager.stop();
+    bobsStopManager.stop();
+    carlsStopManager.stop();
+  }
+
   /**
    * This tests what happens when a user is leaving a session during the stop/pause process is on.
    */
@@ -402,9 +458,9 @@ public class StopManagerTest {
 
     EasyMock.replay(alicesSession);
 
-    final StopManager alicesStopManager = new StopManager(alicesSession);
-    final StopManager bobsStopManager = new StopManager(bobsSession);
-    final StopManager carlsStopManager = new StopManager(carlsSession);
+    final StopManager alicesStopManager = new StopManager(alicesSession, metricsRegistry);
+    final StopManager bobsStopManager = new StopManager(bobsSession, metricsRegistry);
+    final StopManager carlsStopManager = new StopManager(carlsSession, metricsRegistry);
 
     alicesStopManager.start();
     bobsStopManager.start();
@@ -464,7 +520,7 @@ public class StopManagerTest {
   public void testNoReplyAndLeave() {
 
     // Observe the activities created and remember a lock request.
-    StopManager stopManager = new StopManager(alicesSession);
+    StopManager stopManager = new StopManager(alicesSession, metricsRegistry);
     stopManager.addActivityListener(
         new IActivityListener() {
           @Override
@@ -494,8 +550,8 @@ public class StopManagerTest {
   @Test(timeout = 30000)
   public void testLockAndUserLeaveOnResume() {
 
-    final StopManager alicesStopManager = new StopManager(alicesSession);
-    final StopManager bobsStopManager = new StopManager(bobsSession);
+    final StopManager alicesStopManager = new StopManager(alicesSession, metricsRegistry);
+    final StopManager bobsStopManager = new StopManager(bobsSession, metricsRegistry);
 
     // Observe the activities created and remember a lock request.
     IActivityListener alicesListener =
@@ -548,7 +604,8 @@ public class StopManagerTest {
         rewriteUser(inActivity.getAffected()),
         inActivity.getType(),
         inActivity.getState(),
-        inActivity.getActivityID());
+        inActivity.getActivityID(),
+        inActivity.getScope());
   }
 
   /** This method helps to forward messages from one session into the other. */
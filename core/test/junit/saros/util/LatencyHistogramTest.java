@@ -0,0 +1,97 @@
+package saros.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testEmptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getMean(), 0);
+    assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+  @Test
+  public void testSmallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    for (int i = 1; i <= 20; i++) histogram.record(i);
+
+    assertEquals(20, histogram.getCount());
+    assertEquals(20, histogram.getMax());
+    assertEquals(10.5, histogram.getMean(), 0.0001);
+    assertEquals(10, histogram.getValueAtPercentile(50));
+    assertEquals(18, histogram.getValueAtPercentile(90));
+    assertEquals(20, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void testNegativeValuesAreRecordedAsZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.record(-5);
+
+    assertEquals(1, histogram.getCount());
+    assertEquals(0, histogram.getValueAtPercentile(50));
+  }
+
+  @Test
+  public void testBucketsAreContinuous() {
+    for (int index = 0; index < LatencyHistogram.indexOf(Long.MAX_VALUE); index++) {
+      long highest = LatencyHistogram.highestValueOf(index);
+
+      assertEquals(index, LatencyHistogram.indexOf(highest));
+      assertEquals(index + 1, LatencyHistogram.indexOf(highest + 1));
+    }
+
+    assertEquals(
+        Long.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(Long.MAX_VALUE)));
+  }
+
+  @Test
+  public void testPercentilesWithinRelativeError() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    Random random = new Random(42);
+
+    long[] values = new long[10000];
+
+    for (int i = 0; i < values.length; i++) {
+      values[i] = (long) Math.exp(random.nextDouble() * 20);
+      histogram.record(values[i]);
+    }
+
+    Arrays.sort(values);
+
+    for (double percentile : new double[] {10, 50, 90, 99, 99.9}) {
+      long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+      long actual = histogram.getValueAtPercentile(percentile);
+
+      assertTrue(
+          "percentile " + percentile + ": " + actual + " not close to " + expected,
+          actual >= expected && actual <= expected + expected / LatencyHistogram.SUB_BUCKETS);
+    }
+
+    assertEquals(values[values.length - 1], histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void testReset() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    histogram.record(1000);
+    histogram.reset();
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getValueAtPercentile(50));
+  }
+}
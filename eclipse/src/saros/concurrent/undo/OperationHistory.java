@@ -1,23 +1,38 @@
 package saros.concurrent.undo;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import saros.concurrent.jupiter.InclusionTransformation;
 import saros.concurrent.jupiter.Operation;
 import saros.filesystem.IFile;
 
 /**
  * The Operation History is the data structure for saving operations to calculate undo and redo
  * operations. It contains histories for each editor.
+ *
+ * <p>The history of an editor is a ring buffer holding the latest {@link #MAX_SIZE} operations.
+ * Additionally, the positions of all operations that can be undone or redone are indexed per type
+ * so that the latest operation of a type is found without walking over all remote operations.
+ *
+ * <p>Undoing or redoing an operation requires to transform its inverse against all operations that
+ * were added to the history after it. As the history is only appended to, this transformation never
+ * has to be repeated: the partially transformed inverse is cached per entry and only transformed
+ * against the operations added since it was last requested (see {@link
+ * #getTransformedInverse(IFile, Type, InclusionTransformation)}).
  */
 class OperationHistory {
 
   /** determines how many operations can be saved in history per editor */
   // TODO: has to be dependent on the Eclipse properties
-  private static final int MAX_SIZE = 1000;
+  static final int MAX_SIZE = 1000;
 
-  private final HashMap<IFile, LinkedList<EditorHistoryEntry>> history = new HashMap<>();
+  private final HashMap<IFile, EditorHistory> history = new HashMap<>();
 
   /**
    * An operation can have three types. A local operation can be undone. A remote operation is not
@@ -30,6 +45,104 @@ class OperationHistory {
     REDOABLE
   }
 
+  /**
+   * The history of a single editor. Entries are identified by their sequence number, which is the
+   * number of entries added to the history before them.
+   */
+  private static class EditorHistory {
+    private final Type[] types = new Type[MAX_SIZE];
+    private final Operation[] operations = new Operation[MAX_SIZE];
+
+    /** The cached inverse of an operation, transformed up to {@link #transformedUpTo}. */
+    private final Operation[] transformedInverses = new Operation[MAX_SIZE];
+
+    /** The sequence number of the last entry the cached inverse was transformed against. */
+    private final long[] transformedUpTo = new long[MAX_SIZE];
+
+    /** The sequence numbers of the entries per type, remote entries are not indexed. */
+    private final Map<Type, NavigableSet<Long>> index = new EnumMap<>(Type.class);
+
+    /** The sequence number of the next entry. */
+    private long next;
+
+    private EditorHistory() {
+      index.put(Type.LOCAL, new TreeSet<>());
+      index.put(Type.REDOABLE, new TreeSet<>());
+    }
+
+    private int slot(long sequence) {
+      return (int) (sequence % MAX_SIZE);
+    }
+
+    private long oldest() {
+      return Math.max(0, next - MAX_SIZE);
+    }
+
+    private void add(Type type, Operation operation) {
+      if (next >= MAX_SIZE) {
+        // history shouldn't overflow, remove the oldest element
+        long evicted = next - MAX_SIZE;
+        unindex(evicted, types[slot(evicted)]);
+      }
+
+      int slot = slot(next);
+
+      types[slot] = type;
+      operations[slot] = operation;
+      transformedInverses[slot] = null;
+      transformedUpTo[slot] = next;
+
+      index(next, type);
+
+      next++;
+    }
+
+    private Long latest(Type type) {
+      NavigableSet<Long> sequences = index.get(type);
+
+      if (sequences != null) return sequences.isEmpty() ? null : sequences.last();
+
+      for (long sequence = next - 1; sequence >= oldest(); sequence--)
+        if (types[slot(sequence)] == type) return sequence;
+
+      return null;
+    }
+
+    /** Returns the sequence numbers of all entries of the given type, newest first. */
+    private Iterable<Long> newestFirst(Type type) {
+      NavigableSet<Long> sequences = index.get(type);
+
+      if (sequences != null) return sequences.descendingSet();
+
+      List<Long> result = new ArrayList<>();
+
+      for (long sequence = next - 1; sequence >= oldest(); sequence--)
+        if (types[slot(sequence)] == type) result.add(sequence);
+
+      return result;
+    }
+
+    private void setType(long sequence, Type type) {
+      int slot = slot(sequence);
+
+      unindex(sequence, types[slot]);
+      types[slot] = type;
+      index(sequence, type);
+    }
+
+    private void index(long sequence, Type type) {
+      NavigableSet<Long> sequences = index.get(type);
+
+      if (sequences != null) sequences.add(sequence);
+    }
+
+    private void unindex(long sequence, Type type) {
+      NavigableSet<Long> sequences = index.get(type);
+
+      if (sequences != null) sequences.remove(sequence);
+    }
+  }
+
   class EditorHistoryEntry {
     protected final Type type;
     protected final Operation operation;
@@ -79,21 +192,7 @@ class OperationHistory {
    * @param editor in which the operation was executed
    */
   void add(IFile editor, Type type, Operation operation) {
-
-    LinkedList<EditorHistoryEntry> editorHistory = history.get(editor);
-
-    if (editorHistory == null) {
-      editorHistory = new LinkedList<EditorHistoryEntry>();
-      history.put(editor, editorHistory);
-    }
-
-    // history shouldn't overflow, remove too old elements
-    for (int i = editorHistory.size(); i >= MAX_SIZE; i--) {
-      editorHistory.removeLast();
-    }
-
-    EditorHistoryEntry entry = new EditorHistoryEntry(type, operation);
-    editorHistory.add(0, entry);
+    history.computeIfAbsent(editor, e -> new EditorHistory()).add(type, operation);
   }
 
   /** @return the latest local Operation in the editor's history, null if there is none */
@@ -112,13 +211,51 @@ class OperationHistory {
 
   private Operation getLatestOfType(Type type, IFile editor) {
 
-    List<EditorHistoryEntry> editorHistory = history.get(editor);
+    EditorHistory editorHistory = history.get(editor);
     if (editorHistory == null) return null;
 
-    for (EditorHistoryEntry entry : editorHistory) {
-      if (entry.getType() == type) return entry.getOperation();
+    Long latest = editorHistory.latest(type);
+
+    return latest == null ? null : editorHistory.operations[editorHistory.slot(latest)];
+  }
+
+  /**
+   * Returns the inverse of the latest operation of the given type, transformed against all
+   * operations that were added to the history after it. The result is cached, so subsequent calls
+   * only have to transform against the operations added in the meantime.
+   *
+   * @param editor the editor whose history to use
+   * @param type the type of the operation to invert
+   * @param transformation the transformation used to include the later operations
+   * @return the transformed inverse or <code>null</code> if there is no operation of the given type
+   */
+  Operation getTransformedInverse(IFile editor, Type type, InclusionTransformation transformation) {
+
+    EditorHistory editorHistory = history.get(editor);
+    if (editorHistory == null) return null;
+
+    Long latest = editorHistory.latest(type);
+    if (latest == null) return null;
+
+    int slot = editorHistory.slot(latest);
+
+    Operation inverse = editorHistory.transformedInverses[slot];
+
+    if (inverse == null) inverse = editorHistory.operations[slot].invert();
+
+    for (long sequence = editorHistory.transformedUpTo[slot] + 1;
+        sequence < editorHistory.next;
+        sequence++) {
+
+      inverse =
+          transformation.transform(
+              inverse, editorHistory.operations[editorHistory.slot(sequence)], Boolean.TRUE);
     }
-    return null;
+
+    editorHistory.transformedInverses[slot] = inverse;
+    editorHistory.transformedUpTo[slot] = editorHistory.next - 1;
+
+    return inverse;
   }
 
   /**
@@ -143,37 +280,34 @@ class OperationHistory {
    */
   private List<EditorHistoryEntry> entriesToLatestOfType(Type type, IFile editor) {
 
-    List<EditorHistoryEntry> result = new LinkedList<EditorHistoryEntry>();
+    List<EditorHistoryEntry> result = new ArrayList<EditorHistoryEntry>();
 
-    List<EditorHistoryEntry> editorHistory = history.get(editor);
+    EditorHistory editorHistory = history.get(editor);
     if (editorHistory == null) return result;
 
-    for (EditorHistoryEntry entry : editorHistory) {
-      if (entry.getType() != type) {
-        result.add(0, entry);
-      } else {
-        return result;
-      }
+    Long latest = editorHistory.latest(type);
+
+    long first = latest == null ? editorHistory.oldest() : latest + 1;
+
+    for (long sequence = first; sequence < editorHistory.next; sequence++) {
+      int slot = editorHistory.slot(sequence);
+      result.add(new EditorHistoryEntry(editorHistory.types[slot], editorHistory.operations[slot]));
     }
+
     return result;
   }
 
   void replaceType(IFile editor, Operation operation, Type oldType, Type newType) {
 
-    EditorHistoryEntry oldEntry = new EditorHistoryEntry(oldType, operation);
-    EditorHistoryEntry newEntry = new EditorHistoryEntry(newType, operation);
-
-    LinkedList<EditorHistoryEntry> editorHistory = history.get(editor);
+    EditorHistory editorHistory = history.get(editor);
 
     if (editorHistory == null)
       throw new IllegalArgumentException(
           "Cannot replace type of " + operation + ", history empty for editor " + editor);
 
-    ListIterator<EditorHistoryEntry> it = editorHistory.listIterator(0);
-
-    while (it.hasNext()) {
-      if (it.next().equals(oldEntry)) {
-        it.set(newEntry);
+    for (long sequence : editorHistory.newestFirst(oldType)) {
+      if (Objects.equals(editorHistory.operations[editorHistory.slot(sequence)], operation)) {
+        editorHistory.setType(sequence, newType);
         return;
       }
     }
@@ -189,10 +323,20 @@ class OperationHistory {
     history.clear();
   }
 
+  /** @return all entries of the editor's history (newest first) */
   List<EditorHistoryEntry> getAllEntries(IFile editor) {
-    return (history.get(editor) != null)
-        ? history.get(editor)
-        : new LinkedList<EditorHistoryEntry>();
+    List<EditorHistoryEntry> result = new ArrayList<EditorHistoryEntry>();
+
+    EditorHistory editorHistory = history.get(editor);
+    if (editorHistory == null) return result;
+
+    for (long sequence = editorHistory.next - 1; sequence >= editorHistory.oldest(); sequence--) {
+
+      int slot = editorHistory.slot(sequence);
+      result.add(new EditorHistoryEntry(editorHistory.types[slot], editorHistory.operations[slot]));
+    }
+
+    return result;
   }
 
   boolean canUndo(IFile editor) {
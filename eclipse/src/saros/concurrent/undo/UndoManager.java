@@ -33,7 +33,6 @@ import saros.concurrent.jupiter.internal.text.ITextOperation;
 import saros.concurrent.jupiter.internal.text.InsertOperation;
 import saros.concurrent.jupiter.internal.text.NoOperation;
 import saros.concurrent.jupiter.internal.text.SplitOperation;
-import saros.concurrent.undo.OperationHistory.EditorHistoryEntry;
 import saros.concurrent.undo.OperationHistory.Type;
 import saros.editor.EditorManager;
 import saros.editor.ISharedEditorListener;
@@ -397,16 +396,10 @@ public class UndoManager extends AbstractActivityConsumer implements Disposable
 
     assert lastLocal != null;
 
-    Operation undoOperation = lastLocal.invert();
+    // the inverse transformed against all operations executed after the latest local one
+    Operation undoOperation = undoHistory.getTransformedInverse(editor, Type.LOCAL, transformation);
 
-    for (EditorHistoryEntry entry : undoHistory.entriesToLatestLocal(editor)) {
-
-      Operation operation = entry.getOperation();
-
-      undoOperation = transformation.transform(undoOperation, operation, Boolean.TRUE);
-
-      log.debug("transformed undo: " + undoOperation);
-    }
+    log.debug("transformed undo: " + undoOperation);
 
     undoHistory.replaceType(editor, lastLocal, Type.LOCAL, Type.REMOTE);
     // it is not relevant any more, so it is set remote
@@ -425,12 +418,9 @@ public class UndoManager extends AbstractActivityConsumer implements Disposable
 
     assert lastUndo != null;
 
-    Operation redoOperation = lastUndo.invert();
-
-    for (EditorHistoryEntry entry : undoHistory.entriesToLatestRedoable(editor)) {
+    Operation redoOperation =
+        undoHistory.getTransformedInverse(editor, Type.REDOABLE, transformation);
 
-      redoOperation = transformation.transform(redoOperation, entry.getOperation(), Boolean.TRUE);
-    }
     undoHistory.replaceType(editor, lastUndo, Type.REDOABLE, Type.REMOTE);
     // it is not relevant any more, so it is set remote
 
@@ -1,6 +1,7 @@
 package saros.context;
 
 import org.eclipse.core.resources.ResourcesPlugin;
+import saros.annotations.Component;
 import saros.filesystem.EclipseWorkspaceImpl;
 import saros.filesystem.IWorkspace;
 import saros.filesystem.checksum.EclipseAbsolutePathResolver;
@@ -19,6 +20,7 @@ import saros.session.SarosCoreSessionContextFactory;
 import saros.session.resources.validation.ResourceChangeValidatorSupport;
 
 /** Eclipse implementation of the {@link ISarosSessionContextFactory} interface. */
+@Component(module = "eclipse", lazy = true)
 public class SarosEclipseSessionContextFactory extends SarosCoreSessionContextFactory {
 
   @Override
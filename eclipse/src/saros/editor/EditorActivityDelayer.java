@@ -14,74 +14,68 @@ import saros.util.StackTrace;
 
 /**
  * This class is responsible for delaying and discarding certain activities that are normally
- * generated frequently.
+ * generated frequently. Viewport and selection activities are coalesced by an {@link
+ * AwarenessActivityCoalescer}, all other activities are dispatched immediately after the held back
+ * activities.
  */
-// TODO Viewport activities are also fire to frequently, worst case is selecting text with mouse
-// while scrolling up or down
-
 final class EditorActivityDelayer extends AbstractActivityProducer {
 
-  private static final int DELAY = 100; // ms
-
   private static final Logger log = Logger.getLogger(EditorActivityDelayer.class);
 
   private final Display display;
 
-  private TextSelectionActivity currentSelectionActivity = null;
+  private AwarenessActivityCoalescer coalescer;
 
   EditorActivityDelayer() {
     display = SWTUtils.getDisplay();
   }
 
   void start(final ISarosSession session) {
+    coalescer =
+        new AwarenessActivityCoalescer(
+            session, super::fireActivity, (delay, task) -> display.timerExec(delay, task));
+
     session.addActivityProducer(this);
   }
 
   void stop(final ISarosSession session) {
     session.removeActivityProducer(this);
+
+    if (coalescer != null) coalescer.clear();
+
+    coalescer = null;
   }
 
   void fireActivity(final ViewportActivity activity) {
     if (!checkThreadAccess(activity)) return;
 
-    flushCurrentSelectionActivity();
-    super.fireActivity(activity);
+    if (coalescer != null) coalescer.offer(activity);
+    else super.fireActivity(activity);
   }
 
   void fireActivity(final TextSelectionActivity activity) {
     if (!checkThreadAccess(activity)) return;
 
-    if (currentSelectionActivity == null) {
-      currentSelectionActivity = activity;
-      display.timerExec(DELAY, this::flushCurrentSelectionActivity);
-    } else if (currentSelectionActivity.getResource().equals(activity.getResource())) {
-      currentSelectionActivity = activity;
-    } else {
-      flushCurrentSelectionActivity();
-      currentSelectionActivity = activity;
-      display.timerExec(DELAY, this::flushCurrentSelectionActivity);
-    }
+    if (coalescer != null) coalescer.offer(activity);
+    else super.fireActivity(activity);
   }
 
   void fireActivity(final TextEditActivity activity) {
     if (!checkThreadAccess(activity)) return;
 
-    flushCurrentSelectionActivity();
+    flushAwarenessActivities();
     super.fireActivity(activity);
   }
 
   void fireActivity(final EditorActivity activity) {
     if (!checkThreadAccess(activity)) return;
 
-    flushCurrentSelectionActivity();
+    flushAwarenessActivities();
     super.fireActivity(activity);
   }
 
-  private void flushCurrentSelectionActivity() {
-    if (currentSelectionActivity == null) return;
-
-    super.fireActivity(currentSelectionActivity);
-    currentSelectionActivity = null;
+  private void flushAwarenessActivities() {
+    if (coalescer != null) coalescer.flush();
   }
 
   private boolean checkThreadAccess(final IActivity activity) {
@@ -1,8 +1,14 @@
 package saros.editor;
 
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -15,7 +21,10 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentRewriteSession;
+import org.eclipse.jface.text.DocumentRewriteSessionType;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.IAnnotationModel;
@@ -69,6 +78,7 @@ import saros.session.ISessionListener;
 import saros.session.SessionEndReason;
 import saros.session.User;
 import saros.synchronize.Blockable;
+import saros.synchronize.StopManager;
 import saros.ui.util.SWTUtils;
 import saros.util.LineSeparatorNormalizationUtil;
 import saros.util.Predicate;
@@ -103,6 +113,9 @@ public class EditorManager implements IEditorManager {
 
   boolean isLocked;
 
+  /** The resources the editors are locked for or <code>null</code> if all editors are locked. */
+  private Set<saros.filesystem.IResource> lockedScope;
+
   private ISarosSession session;
 
   private SharedEditorListenerDispatch editorListenerDispatch = new SharedEditorListenerDispatch();
@@ -132,6 +145,16 @@ public class EditorManager implements IEditorManager {
   /** all files that have connected document providers */
   private final Set<IFile> connectedFiles = new HashSet<IFile>();
 
+  /**
+   * Number of remote text edits for one file in one batch after which a document rewrite session is
+   * started. Rewrite sessions make the text viewers redraw only once but are too costly for a few
+   * edits.
+   */
+  private static final int REWRITE_SESSION_THRESHOLD = 8;
+
+  /** the batches of remote text edits that are applied in the current UI runnable */
+  private final Map<saros.filesystem.IFile, TextEditBatch> textEditBatches = new LinkedHashMap<>();
+
   private AnnotationModelHelper annotationModelHelper;
   private LocationAnnotationManager locationAnnotationManager;
   private ContributionAnnotationManager contributionAnnotationManager;
@@ -174,6 +197,14 @@ public class EditorManager implements IEditorManager {
             return;
           }
 
+          /*
+           * Everything besides text edits and awareness information is
+           * executed on the final state of the documents
+           */
+          if (!(activity instanceof TextEditActivity)
+              && !(activity instanceof TextSelectionActivity)
+              && !(activity instanceof ViewportActivity)) flushTextEditBatches();
+
           // First let the remote manager update itself based on the
           // Activity
           remoteWriteAccessManager.exec(activity);
@@ -181,6 +212,11 @@ public class EditorManager implements IEditorManager {
           super.exec(activity);
         }
 
+        @Override
+        public void batchExecuted() {
+          flushTextEditBatches();
+        }
+
         @Override
         public void receive(EditorActivity editorActivity) {
           execEditorActivity(editorActivity);
@@ -198,6 +234,11 @@ public class EditorManager implements IEditorManager {
 
           TextSelection textSelection = activity.getSelection();
 
+          // the selection supersedes the cursor position of previous text edits
+          TextEditBatch batch = textEditBatches.get(file);
+
+          if (batch != null) batch.cursorPositions.remove(user);
+
           for (IEditorPart editorPart : editorPool.getEditors(file)) {
             locationAnnotationManager.setSelection(editorPart, textSelection, user);
           }
@@ -226,21 +267,26 @@ public class EditorManager implements IEditorManager {
       new Blockable() {
         @Override
         public void unblock() {
-          execute(false);
+          execute(false, null);
         }
 
         @Override
         public void block() {
-          execute(true);
+          execute(true, null);
         }
 
-        private void execute(final boolean lock) {
+        @Override
+        public void block(final Set<saros.filesystem.IResource> scope) {
+          execute(true, scope);
+        }
+
+        private void execute(final boolean lock, final Set<saros.filesystem.IResource> scope) {
           SWTUtils.runSafeSWTSync(
               log,
               new Runnable() {
                 @Override
                 public void run() {
-                  lockAllEditors(lock);
+                  lockEditors(lock, scope);
                 }
               });
         }
@@ -640,7 +686,7 @@ public class EditorManager implements IEditorManager {
             normalizedReplacedText,
             wrappedFile);
 
-    if (!hasWriteAccess || isLocked) {
+    if (!hasWriteAccess || isLocked(wrappedFile)) {
       /**
        * TODO If we don't have {@link User.Permission#WRITE_ACCESS}, then receiving this event might
        * indicate that the user somehow achieved to change his document. We should run a consistency
@@ -698,85 +744,164 @@ public class EditorManager implements IEditorManager {
     }
   }
 
+  /**
+   * Applies the given remote text edit to the document of its file.
+   *
+   * <p>Remote text edits are applied in batches: the document provider of a file is connected for
+   * the first edit and stays connected until all edits executed in the current UI runnable were
+   * applied (see {@link #flushTextEditBatches()}). Large batches are applied in a document rewrite
+   * session that is closed at the end of the same UI runnable. The contribution and cursor
+   * annotations of the editing users are only updated once per batch.
+   */
   private void execTextEdit(TextEditActivity textEdit) {
 
     log.trace(".execTextEdit invoked");
 
     saros.filesystem.IFile fileWrapper = textEdit.getResource();
-    IFile file = ResourceConverter.getDelegate(fileWrapper);
 
-    if (!file.exists()) {
-      log.error("TextEditActivity refers to file which" + " is not available locally: " + textEdit);
-      // TODO A consistency check can be started here
+    TextEditBatch batch = getTextEditBatch(fileWrapper);
+
+    if (batch == null) {
+      // TODO Trigger a consistency recovery
       return;
     }
 
     User user = textEdit.getSource();
 
-    FileEditorInput input = new FileEditorInput(file);
-    IDocumentProvider provider = EditorAPI.connect(input);
+    int offset = EditorAPI.calculateOffset(batch.document, textEdit.getStartPosition());
 
-    if (provider == null) {
-      // TODO Trigger a consistency recovery
-      return;
-    }
+    String denormalizedReplacedText =
+        LineSeparatorNormalizationUtil.revertNormalization(
+            textEdit.getReplacedText(), batch.lineSeparator);
+    String denormalizedNewText =
+        LineSeparatorNormalizationUtil.revertNormalization(
+            textEdit.getNewText(), batch.lineSeparator);
+
+    if (++batch.edits == REWRITE_SESSION_THRESHOLD) batch.startRewriteSession();
+
+    /*
+     * Disable documentListener temporarily to avoid being notified of the
+     * change, otherwise this would lead to an infinite activity sending,
+     * crashing the application
+     */
+    editorPool.setDocumentListenerEnabled(false);
 
     try {
-      IDocument doc = provider.getDocument(input);
-      if (doc == null) {
-        log.error(
-            "Could not connect document provider for file: " + file.toString(), new StackTrace());
-        // TODO Trigger a consistency recovery
-        return;
-      }
+      replaceText(
+          fileWrapper, offset, denormalizedReplacedText, denormalizedNewText, user, batch.document);
+    } finally {
+      editorPool.setDocumentListenerEnabled(true);
+    }
 
-      int offset = EditorAPI.calculateOffset(doc, textEdit.getStartPosition());
+    /*
+     * TODO Find out whether this is actually necessary. If we receive a
+     * TextSelectionActivity for each cursor movement, then we don't need to
+     * listen for edits as well.
+     */
+    batch.cursorPositions.put(user, textEdit.getNewEndPosition());
 
-      String replacedText = textEdit.getReplacedText();
-      String text = textEdit.getNewText();
+    // inform all registered ISharedEditorListeners about this text edit
+    editorListenerDispatch.textEdited(textEdit);
+  }
 
-      String lineSeparator = FileUtil.getLineSeparator(file);
+  /**
+   * Returns the batch of remote text edits for the given file, connecting the document provider of
+   * the file if this is the first edit of the batch.
+   *
+   * @return the batch or <code>null</code> if the document of the file is not available
+   */
+  private TextEditBatch getTextEditBatch(saros.filesystem.IFile fileWrapper) {
+    TextEditBatch batch = textEditBatches.get(fileWrapper);
 
-      String denormalizedReplacedText =
-          LineSeparatorNormalizationUtil.revertNormalization(replacedText, lineSeparator);
-      String denormalizedNewText =
-          LineSeparatorNormalizationUtil.revertNormalization(text, lineSeparator);
+    if (batch != null) return batch;
 
-      /*
-       * Disable documentListener temporarily to avoid being notified of the
-       * change, otherwise this would lead to an infinite activity sending,
-       * crashing the application
-       */
-      editorPool.setDocumentListenerEnabled(false);
+    IFile file = ResourceConverter.getDelegate(fileWrapper);
 
-      replaceText(fileWrapper, offset, denormalizedReplacedText, denormalizedNewText, user, doc);
+    if (!file.exists()) {
+      log.error("TextEditActivity refers to file which is not available locally: " + fileWrapper);
+      // TODO A consistency check can be started here
+      return null;
+    }
 
-      editorPool.setDocumentListenerEnabled(true);
+    FileEditorInput input = new FileEditorInput(file);
+    IDocumentProvider provider = EditorAPI.connect(input);
+
+    if (provider == null) return null;
+
+    IDocument document = provider.getDocument(input);
+
+    if (document == null) {
+      log.error(
+          "Could not connect document provider for file: " + file.toString(), new StackTrace());
 
-    } finally {
       provider.disconnect(input);
+      return null;
     }
 
+    batch = new TextEditBatch(input, provider, document, FileUtil.getLineSeparator(file));
+
     /*
-     * TODO Find out whether this is actually necessary. If we receive a
-     * TextSelectionActivity for each cursor movement, then we don't need to
-     * listen for edits as well.
-     */
-    /*
-     * If the text edit ends in the visible region of a local editor, set
-     * the cursor annotation.
-     *
-     * TODO Performance optimization in case of batch operation might make
-     * sense. Problem: How to recognize batch operations?
+     * all activities of the current batch are executed in one UI runnable,
+     * the batch is finished at its end (see IActivityConsumer#batchExecuted)
      */
-    for (IEditorPart editorPart : editorPool.getEditors(fileWrapper)) {
+    if (textEditBatches.isEmpty()) contributionAnnotationManager.startBatch();
+
+    textEditBatches.put(fileWrapper, batch);
+
+    return batch;
+  }
+
+  /**
+   * Finishes the current batches of remote text edits: ends the document rewrite sessions, updates
+   * the contribution annotations, disconnects the document providers and updates the cursor
+   * annotations of the users who made the edits.
+   */
+  private void flushTextEditBatches() {
+    if (textEditBatches.isEmpty()) return;
+
+    Map<saros.filesystem.IFile, TextEditBatch> batches = new LinkedHashMap<>(textEditBatches);
+
+    textEditBatches.clear();
+
+    try {
+      for (TextEditBatch batch : batches.values()) {
+        try {
+          batch.stopRewriteSession();
+        } catch (RuntimeException e) {
+          log.error("could not stop the document rewrite session of " + batch.input, e);
+        }
+      }
+
+      contributionAnnotationManager.finishBatch();
+    } finally {
+      for (TextEditBatch batch : batches.values()) batch.provider.disconnect(batch.input);
+    }
+
+    for (Map.Entry<saros.filesystem.IFile, TextEditBatch> entry : batches.entrySet()) {
+      TextEditBatch batch = entry.getValue();
+
+      /*
+       * If the text edit ends in the visible region of a local editor, set
+       * the cursor annotation.
+       */
+      for (Map.Entry<User, TextPosition> cursor : batch.cursorPositions.entrySet()) {
+        if (!cursor.getKey().isInSession()) continue;
+
+        setCursorIfVisible(entry.getKey(), cursor.getKey(), cursor.getValue());
+      }
+    }
+  }
+
+  private void setCursorIfVisible(
+      saros.filesystem.IFile file, User user, TextPosition cursorPosition) {
+
+    for (IEditorPart editorPart : editorPool.getEditors(file)) {
       ITextViewer viewer = EditorAPI.getViewer(editorPart);
       if (viewer == null) {
         // No text viewer for the editorPart found.
         continue;
       }
 
-      TextPosition cursorPosition = textEdit.getNewEndPosition();
       int cursorLine = cursorPosition.getLineNumber();
 
       if (viewer.getTopIndex() <= cursorLine && cursorLine <= viewer.getBottomIndex()) {
@@ -786,9 +911,47 @@ public class EditorManager implements IEditorManager {
         locationAnnotationManager.setSelection(editorPart, cursorSelection, user);
       }
     }
+  }
 
-    // inform all registered ISharedEditorListeners about this text edit
-    editorListenerDispatch.textEdited(textEdit);
+  /** The state of a file's document while a batch of remote text edits is applied to it. */
+  private static class TextEditBatch {
+    private final FileEditorInput input;
+    private final IDocumentProvider provider;
+    private final IDocument document;
+    private final String lineSeparator;
+
+    /** the position of the cursor after the last edit of each user */
+    private final Map<User, TextPosition> cursorPositions = new LinkedHashMap<>();
+
+    private int edits;
+
+    private DocumentRewriteSession rewriteSession;
+
+    private TextEditBatch(
+        FileEditorInput input,
+        IDocumentProvider provider,
+        IDocument document,
+        String lineSeparator) {
+      this.input = input;
+      this.provider = provider;
+      this.document = document;
+      this.lineSeparator = lineSeparator;
+    }
+
+    private void startRewriteSession() {
+      if (rewriteSession != null || !(document instanceof IDocumentExtension4)) return;
+
+      rewriteSession =
+          ((IDocumentExtension4) document)
+              .startRewriteSession(DocumentRewriteSessionType.UNRESTRICTED);
+    }
+
+    private void stopRewriteSession() {
+      if (rewriteSession == null) return;
+
+      ((IDocumentExtension4) document).stopRewriteSession(rewriteSession);
+      rewriteSession = null;
+    }
   }
 
   @Override
@@ -1130,17 +1293,59 @@ public class EditorManager implements IEditorManager {
       return;
     }
 
-    int length = text.length();
+    for (IAnnotationModel model : getAnnotationModels(editorPool.getEditors(file))) {
+      contributionAnnotationManager.textChanged(
+          model, offset, replacedLength, text.length(), source);
+    }
+  }
 
-    for (IEditorPart editorPart : editorPool.getEditors(file)) {
+  /**
+   * Called after the local user changed the given document. The change is only reported to update
+   * the contribution annotations of other users located around the change.
+   *
+   * @param offset the offset of the change
+   * @param replacedLength the number of removed characters
+   * @param insertedLength the number of inserted characters
+   * @param document the changed document
+   */
+  void textChanged(int offset, int replacedLength, int insertedLength, IDocument document) {
+    if (contributionAnnotationManager == null || !contributionAnnotationManager.hasContributions())
+      return;
+
+    List<IEditorPart> changedEditors = new ArrayList<>();
+
+    for (IEditorPart editor : editorPool.getAllEditors()) {
+      IEditorInput input = editor.getEditorInput();
+
+      if (Objects.equals(EditorAPI.getDocumentProvider(input).getDocument(input), document))
+        changedEditors.add(editor);
+    }
+
+    for (IAnnotationModel model : getAnnotationModels(changedEditors)) {
+      contributionAnnotationManager.textChanged(
+          model, offset, replacedLength, insertedLength, null);
+    }
+  }
+
+  /**
+   * Returns the distinct annotation models of the given editors. Editors showing the same file
+   * share one annotation model.
+   */
+  private static Set<IAnnotationModel> getAnnotationModels(Collection<IEditorPart> editorParts) {
+    Set<IAnnotationModel> models = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    for (IEditorPart editorPart : editorParts) {
 
       if (editorPart instanceof ITextEditor) {
         ITextEditor textEditor = (ITextEditor) editorPart;
         IAnnotationModel model =
             textEditor.getDocumentProvider().getAnnotationModel(textEditor.getEditorInput());
-        contributionAnnotationManager.insertAnnotation(model, offset, length, source);
+
+        if (model != null) models.add(model);
       }
     }
+
+    return models;
   }
 
   /**
@@ -1433,17 +1638,33 @@ public class EditorManager implements IEditorManager {
   }
 
   /**
-   * Locks/unlocks all Editors for writing operations. Locked means local keyboard inputs are not
+   * Locks/unlocks Editors for writing operations. Locked means local keyboard inputs are not
    * applied.
    *
-   * @param lock if true then editors are locked, otherwise they are unlocked
+   * @param lock if true then editors are locked, otherwise all editors are unlocked
+   * @param scope the resources whose editors are locked or <code>null</code> to lock all editors
    */
-  private void lockAllEditors(boolean lock) {
-    log.debug(lock ? "locking all editors" : "unlocking all editors");
-
-    editorPool.setEditable(!lock && session.hasWriteAccess());
+  private void lockEditors(boolean lock, Set<saros.filesystem.IResource> scope) {
+    if (!lock) log.debug("unlocking all editors");
+    else if (scope == null) log.debug("locking all editors");
+    else log.debug("locking editors of " + scope);
 
     isLocked = lock;
+    lockedScope = lock ? scope : null;
+
+    for (IEditorPart editorPart : editorPool.getAllEditors())
+      editorPool.setEditable(
+          editorPart, session.hasWriteAccess() && !isLocked(editorPool.getFile(editorPart)));
+  }
+
+  /**
+   * Returns whether the editors of the given file are locked by the {@link StopManager}.
+   *
+   * @param file the file to check
+   * @return <code>true</code> if local changes of the file are not allowed
+   */
+  boolean isLocked(saros.filesystem.IFile file) {
+    return isLocked && (file == null || StopManager.isInScope(lockedScope, file));
   }
 
   /**
@@ -1752,6 +1973,8 @@ public class EditorManager implements IEditorManager {
   private void uninitialize() {
     checkThreadAccess();
 
+    flushTextEditBatches();
+
     /*
      * FIXME there can be multiple workbench windows (see Eclipse:
      * Window->New Window menu entry)
@@ -146,7 +146,7 @@ final class EditorPool {
      * OMG ... either pull this call out of this class or access the
      * editorManager variables in a better manner
      */
-    setEditable(editorPart, editorManager.hasWriteAccess && !editorManager.isLocked);
+    setEditable(editorPart, editorManager.hasWriteAccess && !editorManager.isLocked(wrappedFile));
 
     final IDocumentProvider documentProvider = EditorAPI.getDocumentProvider(input);
 
@@ -166,7 +166,8 @@ final class EditorPool {
     parts.add(editorPart);
   }
 
-  private void setEditable(IEditorPart editorPart, boolean newIsEditable) {
+  /** Changes the editable state of the given editor. */
+  void setEditable(IEditorPart editorPart, boolean newIsEditable) {
     boolean isEditable = !lockedEditors.contains(editorPart);
 
     // Already as we want it?
@@ -5,8 +5,8 @@ import org.eclipse.jface.text.IDocumentListener;
 
 /**
  * A document listener which informs the given EditorManager of changes before they occur in a
- * document (using documentAboutToBeChanged). This listener can be temporarily disabled which
- * prevents the notification of text change events.
+ * document (using documentAboutToBeChanged) and after they occurred (using documentChanged). This
+ * listener can be temporarily disabled which prevents the notification of text change events.
  */
 public class StoppableDocumentListener implements IDocumentListener {
 
@@ -31,7 +31,17 @@ public class StoppableDocumentListener implements IDocumentListener {
 
   @Override
   public void documentChanged(final DocumentEvent event) {
-    // do nothing. We handled everything in documentAboutToBeChanged
+
+    if (!enabled) return;
+
+    /*
+     * the activity was already created in documentAboutToBeChanged, only
+     * the annotations have to be adjusted to the new content
+     */
+    int insertedLength = event.getText() == null ? 0 : event.getText().length();
+
+    editorManager.textChanged(
+        event.getOffset(), event.getLength(), insertedLength, event.getDocument());
   }
 
   /**
@@ -1,25 +1,22 @@
 package saros.editor.internal;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 import org.apache.log4j.Logger;
 import org.eclipse.jface.preference.IPreferenceStore;
-import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
-import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.IAnnotationModel;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import saros.editor.annotations.ContributionAnnotation;
+import saros.editor.internal.ContributionRanges.Change;
+import saros.editor.internal.ContributionRanges.Range;
 import saros.preferences.EclipsePreferenceConstants;
 import saros.session.ISarosSession;
 import saros.session.ISessionListener;
@@ -32,10 +29,16 @@ import saros.ui.util.SWTUtils;
  * and distinguished by authors (deletions are not highlighted). The Annotations are added in
  * real-time along with the application of the textual changes and are removed when the characters
  * they belong to are deleted, the session ends, or their respective author leaves the session. To
- * avoid cluttering the editors, only the last {@value #MAX_HISTORY_LENGTH} changes are annotated.
+ * avoid cluttering the editors, only the most recent contributions of every user are annotated as
+ * determined by the {@link ContributionHistoryPolicy}.
  *
- * <p>The invariant of the class should be that all handled annotations have a length &lt;= 1. This
- * avoid annotations that are automatically increased by new user input.
+ * <p>The contributions are tracked as ranges per annotation model (see {@link ContributionRanges}).
+ * Adjacent text inserted by the same user forms one range and is represented by one annotation, so
+ * pasting a large block of text results in a single annotation. Every text change in a document
+ * containing contributions has to be reported (see {@link #textChanged}) as the ranges touching the
+ * change are split or merged. The annotations of these ranges are replaced, which also undoes the
+ * automatic extension of annotation positions by the document when text is typed inside or in front
+ * of an annotation.
  *
  * <p>This class takes care of managing the annotations for session participants which involves
  * adding, removing, and splitting of Annotations.
@@ -45,9 +48,57 @@ public class ContributionAnnotationManager {
 
   private static final Logger log = Logger.getLogger(ContributionAnnotationManager.class);
 
-  private final Map<User, ContributionAnnotationHistory> sourceToHistory = new HashMap<>();
+  /** The contributions and their annotations of an annotation model. */
+  private static class ModelContributions {
+    private final ContributionRanges ranges = new ContributionRanges();
+    private final Map<Long, ContributionAnnotation> annotations = new HashMap<>();
+  }
+
+  private final Map<IAnnotationModel, ModelContributions> modelToContributions = new HashMap<>();
+
+  /**
+   * The annotated contributions of a user, mapped to the model they are located in and ordered from
+   * the oldest to the newest contribution, so that expired contributions can be evicted from the
+   * head of the history.
+   */
+  private static class History {
+    private final Map<Long, IAnnotationModel> models = new HashMap<>();
+    private final NavigableSet<Range> ranges =
+        new TreeSet<>(Comparator.comparingLong(Range::getCreated).thenComparingLong(Range::getId));
+    private final Map<Long, Range> idToRange = new HashMap<>();
+
+    private void add(final Range range, final IAnnotationModel model) {
+      models.put(range.getId(), model);
+      idToRange.put(range.getId(), range);
+      ranges.add(range);
+    }
+
+    private void remove(final long id) {
+      final Range range = idToRange.remove(id);
+
+      if (range == null) return;
 
-  static final int MAX_HISTORY_LENGTH = 20;
+      models.remove(id);
+      ranges.remove(range);
+    }
+  }
+
+  /** The annotated contributions of every user. */
+  private final Map<User, History> sourceToHistory = new HashMap<>();
+
+  /** The changes of an annotation model that are deferred until the end of a batch. */
+  private static class PendingModelChange {
+    private final List<ContributionAnnotation> annotationsToRemove = new ArrayList<>();
+    private final Map<Long, ContributionAnnotation> annotationsToAdd = new HashMap<>();
+  }
+
+  /**
+   * The deferred changes of the annotation models while a batch is running or <code>null</code> if
+   * the annotation models are updated immediately.
+   */
+  private Map<IAnnotationModel, PendingModelChange> pendingModelChanges;
+
+  private final ContributionHistoryPolicy historyPolicy;
 
   private final ISarosSession sarosSession;
 
@@ -90,9 +141,17 @@ public class ContributionAnnotationManager {
 
   public ContributionAnnotationManager(
       final ISarosSession sarosSession, final IPreferenceStore preferenceStore) {
+    this(sarosSession, preferenceStore, ContributionHistoryPolicy.fromSystemProperties());
+  }
+
+  ContributionAnnotationManager(
+      final ISarosSession sarosSession,
+      final IPreferenceStore preferenceStore,
+      final ContributionHistoryPolicy historyPolicy) {
 
     this.sarosSession = sarosSession;
     this.preferenceStore = preferenceStore;
+    this.historyPolicy = historyPolicy;
     this.preferenceStore.addPropertyChangeListener(propertyChangeListener);
     this.sarosSession.addListener(sessionListener);
 
@@ -101,132 +160,178 @@ public class ContributionAnnotationManager {
   }
 
   /**
-   * Inserts contribution annotations to given model if there is not already a contribution
-   * annotation at given position. This method should be called after the text has changed.
+   * Returns whether there are currently any annotated contributions.
    *
-   * @param model to add the annotation to.
-   * @param offset start of the annotation to add.
-   * @param length length of the annotation.
-   * @param source of the annotation.
+   * @return <code>true</code> if at least one contribution is annotated
    */
-  public void insertAnnotation(
-      final IAnnotationModel model, final int offset, final int length, final User source) {
+  public boolean hasContributions() {
+    return !modelToContributions.isEmpty();
+  }
+
+  /**
+   * Starts a batch of text changes. Until the batch is finished, the annotation models are not
+   * updated, so the annotations of every model are only replaced once per batch regardless of the
+   * number of text changes.
+   *
+   * @see #finishBatch()
+   */
+  public void startBatch() {
+    if (pendingModelChanges == null) pendingModelChanges = new HashMap<>();
+  }
 
-    // Return if length == 0, (called after a deletion was performed)
-    if (!contribtionAnnotationsEnabled || length <= 0) return;
+  /** Finishes the current batch of text changes and updates the changed annotation models. */
+  public void finishBatch() {
+    applyPendingModelChanges();
+    pendingModelChanges = null;
+  }
 
-    if (length > 1) {
-      // Correct current model state to match with the assumption that all
-      // annotations have length <= 1.
-      enforceAnnotationsWithLengthOne(model);
-    }
+  /** Applies the deferred changes of the annotation models of the current batch. */
+  private void applyPendingModelChanges() {
+    if (pendingModelChanges == null || pendingModelChanges.isEmpty()) return;
+
+    final Map<IAnnotationModel, PendingModelChange> changes = pendingModelChanges;
+
+    pendingModelChanges = new HashMap<>();
 
-    final ContributionAnnotationHistory history = getHistory(source);
+    for (final Map.Entry<IAnnotationModel, PendingModelChange> entry : changes.entrySet()) {
+      final IAnnotationModel model = entry.getKey();
+      final PendingModelChange change = entry.getValue();
 
-    final Map<ContributionAnnotation, Position> annotationsToAdd =
-        createAnnotationsForContributionRange(model, offset, length, source);
+      final Map<ContributionAnnotation, Position> annotationsToAdd = new HashMap<>();
 
-    final Pair<IAnnotationModel, List<ContributionAnnotation>> annotationsToRemove =
-        history.addNewEntry(new ArrayList<>(annotationsToAdd.keySet()));
+      final ModelContributions contributions = modelToContributions.get(model);
 
-    // Case 1: An insert operation is performed and the history is full
-    if (annotationsToRemove != null) {
-      final IAnnotationModel annotationsToRemoveModel = annotationsToRemove.getLeft();
+      // the ranges were possibly moved by later changes of the batch
+      if (contributions != null && !change.annotationsToAdd.isEmpty()) {
+        for (final Range range : contributions.ranges.getRanges()) {
+          final ContributionAnnotation annotation = change.annotationsToAdd.get(range.getId());
 
-      if (annotationsToRemoveModel.equals(model)) {
-        annotationModelHelper.replaceAnnotationsInModel(
-            annotationsToRemoveModel, annotationsToRemove.getRight(), annotationsToAdd);
-      } else {
-        annotationModelHelper.replaceAnnotationsInModel(
-            annotationsToRemoveModel, annotationsToRemove.getRight(), Collections.emptyMap());
-        annotationModelHelper.replaceAnnotationsInModel(
-            model, Collections.emptyList(), annotationsToAdd);
+          if (annotation != null)
+            annotationsToAdd.put(annotation, new Position(range.getOffset(), range.getLength()));
+        }
       }
-    }
-    // Case 2: An insert operation is performed and the history is not full
-    else {
+
       annotationModelHelper.replaceAnnotationsInModel(
-          model, Collections.emptyList(), annotationsToAdd);
+          model, change.annotationsToRemove, annotationsToAdd);
     }
   }
 
   /**
-   * This method is only called if an annotation with length &gt; 1 should be inserted, because if
-   * text is pasted at a position that already contains an annotation, the content change on the
-   * {@link IDocument} that is performed by the caller of {@link #insertAnnotation} leads to an
-   * internal change of the annotation model.
-   *
-   * <p>The annotation with length &gt; 1 is removed, because the new annotation is subsequently
-   * added by {@link #insertAnnotation}
-   *
-   * <p>Therefore, this methods works against the internal mechanisms of eclipse in order to enforce
-   * the invariant of annotations with have a length &lt;= 1.
+   * Updates the contribution annotations of the given model after the text of its document has
+   * changed. This method has to be called for every change of a document, including the changes
+   * made by the local user, so that the annotations stay aligned with the contributed text.
    *
-   * @param model The model that could contain a violation of the invariant.
+   * @param model the annotation model of the changed document
+   * @param offset the offset of the change
+   * @param replacedLength the number of removed characters
+   * @param insertedLength the number of inserted characters
+   * @param source the user whose inserted text should be annotated or <code>null</code> if the
+   *     inserted text is not a contribution (e.g. if it was typed by the local user)
    */
-  private void enforceAnnotationsWithLengthOne(IAnnotationModel model) {
-    List<ContributionAnnotation> annotationsToRemove = new ArrayList<>();
+  public void textChanged(
+      final IAnnotationModel model,
+      final int offset,
+      final int replacedLength,
+      final int insertedLength,
+      final User source) {
 
-    Iterator<Annotation> i = model.getAnnotationIterator();
-    while (i.hasNext()) {
-      Annotation annotation = i.next();
+    if (!contribtionAnnotationsEnabled) return;
 
-      if (!(annotation instanceof ContributionAnnotation)) continue;
+    ModelContributions contributions = modelToContributions.get(model);
 
-      ContributionAnnotation contrAnnotation = (ContributionAnnotation) annotation;
-      Position p = model.getPosition(contrAnnotation);
-      if (p.getLength() > 1) {
-        annotationsToRemove.add(contrAnnotation);
+    if (contributions == null) {
+      // nothing to annotate or to update
+      if (source == null || insertedLength <= 0) return;
 
-        // Expect only one annotation with length > 1 created by
-        // callers content change.
-        break;
-      }
+      contributions = new ModelContributions();
+      modelToContributions.put(model, contributions);
     }
-    annotationModelHelper.replaceAnnotationsInModel(
-        model, annotationsToRemove, Collections.emptyMap());
+
+    final long now = System.currentTimeMillis();
+
+    applyChange(
+        model,
+        contributions,
+        contributions.ranges.replace(offset, replacedLength, insertedLength, source, now));
+
+    removeExpiredContributions(now);
   }
 
   /**
-   * Creates contribution annotations with length 1 for each char contained in the range defined by
-   * {@code offset} and {@code length}.
-   *
-   * @param model the model that is assigned to the created contribution annotations.
-   * @param offset start of the annotation range.
-   * @param length length of the annotation range.
-   * @param source of the annotation.
-   * @return a map containing the annotations and their positions
+   * Replaces the annotations of the removed ranges of the given change with annotations for the
+   * added ranges and updates the histories accordingly.
    */
-  private Map<ContributionAnnotation, Position> createAnnotationsForContributionRange(
-      final IAnnotationModel model, final int offset, final int length, final User source) {
+  private void applyChange(
+      final IAnnotationModel model, final ModelContributions contributions, final Change change) {
+
+    if (change.isEmpty()) return;
+
+    final PendingModelChange pendingChange =
+        pendingModelChanges != null
+            ? pendingModelChanges.computeIfAbsent(model, m -> new PendingModelChange())
+            : null;
 
+    final List<ContributionAnnotation> annotationsToRemove = new ArrayList<>();
     final Map<ContributionAnnotation, Position> annotationsToAdd = new HashMap<>();
 
-    for (int i = 0; i < length; i++) {
-      final Pair<ContributionAnnotation, Position> positionedAnnotation =
-          createPositionedAnnotation(model, offset + i, source);
-      if (positionedAnnotation == null) continue;
+    for (final Long id : change.getRemoved()) {
+      final ContributionAnnotation annotation = contributions.annotations.remove(id);
+
+      if (annotation == null) continue;
+
+      final History history = sourceToHistory.get(annotation.getSource());
 
-      annotationsToAdd.put(positionedAnnotation.getKey(), positionedAnnotation.getValue());
+      if (history != null) history.remove(id);
+
+      // annotations added in the current batch are not part of the model yet
+      if (pendingChange == null) annotationsToRemove.add(annotation);
+      else if (pendingChange.annotationsToAdd.remove(id) == null)
+        pendingChange.annotationsToRemove.add(annotation);
     }
 
-    return annotationsToAdd;
+    for (final Range range : change.getAdded()) {
+      final ContributionAnnotation annotation =
+          new ContributionAnnotation(range.getSource(), model);
+
+      contributions.annotations.put(range.getId(), annotation);
+
+      if (pendingChange == null)
+        annotationsToAdd.put(annotation, new Position(range.getOffset(), range.getLength()));
+      else pendingChange.annotationsToAdd.put(range.getId(), annotation);
+
+      getHistory(range.getSource()).add(range, model);
+    }
+
+    if (!contributions.ranges.hasContributions()) modelToContributions.remove(model);
+
+    if (pendingChange == null)
+      annotationModelHelper.replaceAnnotationsInModel(model, annotationsToRemove, annotationsToAdd);
   }
 
   /**
-   * Creates a contribution annotations with length 1 at position {@code offset}.
-   *
-   * @param model to add the annotation to.
-   * @param offset start of the annotation to add.
-   * @param source of the annotation.
-   * @return a pair containing the annotation and its position.
+   * Removes all contributions that have expired according to the history policy. As the histories
+   * are ordered by age, only the oldest contributions of every user have to be checked.
    */
-  private Pair<ContributionAnnotation, Position> createPositionedAnnotation(
-      final IAnnotationModel model, final int offset, final User source) {
-    final int ANNOTATION_LENGTH = 1;
+  private void removeExpiredContributions(final long now) {
+    for (final History history : sourceToHistory.values()) {
+      while (!history.ranges.isEmpty()) {
+        final Range oldest = history.ranges.first();
+
+        if (!historyPolicy.isExpired(history.ranges.size() - 1, now - oldest.getCreated())) break;
+
+        removeContribution(history, oldest.getId());
+      }
+    }
+  }
+
+  /** Removes the contribution with the given ID from the given history and its annotation. */
+  private void removeContribution(final History history, final long id) {
+    final IAnnotationModel model = history.models.get(id);
+    final ModelContributions contributions = modelToContributions.get(model);
 
-    return new ImmutablePair<ContributionAnnotation, Position>(
-        new ContributionAnnotation(source, model), new Position(offset, ANNOTATION_LENGTH));
+    if (contributions != null) applyChange(model, contributions, contributions.ranges.remove(id));
+
+    history.remove(id);
   }
 
   /**
@@ -236,41 +341,33 @@ public class ContributionAnnotationManager {
    */
   public void refreshAnnotations(final IAnnotationModel model) {
 
-    final List<Annotation> annotationsToRemove = new ArrayList<Annotation>();
-    final Map<Annotation, Position> annotationsToAdd = new HashMap<Annotation, Position>();
-
-    for (final Iterator<Annotation> it = model.getAnnotationIterator(); it.hasNext(); ) {
-
-      final Annotation annotation = it.next();
+    applyPendingModelChanges();
 
-      if (!(annotation instanceof ContributionAnnotation)) continue;
+    final ModelContributions contributions = modelToContributions.get(model);
 
-      final Position position = model.getPosition(annotation);
+    if (contributions == null) return;
 
-      if (position == null) {
-        log.warn("annotation could not be found in the current model: " + annotation);
-        continue;
-      }
+    final List<ContributionAnnotation> annotationsToRemove = new ArrayList<>();
+    final Map<ContributionAnnotation, Position> annotationsToAdd = new HashMap<>();
 
-      /*
-       * we rely on the fact the a user object is unique during a running
-       * session so that user.equals(user) <=> user == user otherwise just
-       * reinserting the annotations would not refresh the colors as the
-       * color id of the user has not changed
-       */
-      annotationsToRemove.add(annotation);
+    /*
+     * we rely on the fact the a user object is unique during a running
+     * session so that user.equals(user) <=> user == user otherwise just
+     * reinserting the annotations would not refresh the colors as the
+     * color id of the user has not changed
+     */
+    for (final Range range : contributions.ranges.getRanges()) {
+      final ContributionAnnotation annotationToAdd =
+          new ContributionAnnotation(range.getSource(), model);
 
-      final ContributionAnnotation annotationToReplace = (ContributionAnnotation) annotation;
-      final User source = annotationToReplace.getSource();
-      final ContributionAnnotation annotationToAdd = new ContributionAnnotation(source, model);
+      final ContributionAnnotation annotationToReplace =
+          contributions.annotations.put(range.getId(), annotationToAdd);
 
-      annotationsToAdd.put(annotationToAdd, position);
+      if (annotationToReplace != null) annotationsToRemove.add(annotationToReplace);
 
-      getHistory(source).replaceInHistory(annotationToReplace, annotationToAdd);
+      annotationsToAdd.put(annotationToAdd, new Position(range.getOffset(), range.getLength()));
     }
 
-    if (annotationsToRemove.isEmpty()) return;
-
     annotationModelHelper.replaceAnnotationsInModel(model, annotationsToRemove, annotationsToAdd);
   }
 
@@ -281,52 +378,39 @@ public class ContributionAnnotationManager {
   }
 
   /** Get the history of the given user. If no history is available a new one is created. */
-  private ContributionAnnotationHistory getHistory(final User user) {
-    return sourceToHistory.computeIfAbsent(
-        user, u -> new ContributionAnnotationHistory(MAX_HISTORY_LENGTH));
+  private History getHistory(final User user) {
+    return sourceToHistory.computeIfAbsent(user, u -> new History());
   }
 
-  /**
-   * Removes all annotations from all annotation models that are currently stored in the history of
-   * all users.
-   */
+  /** Removes all contribution annotations from all annotation models and clears all histories. */
   private void removeAllAnnotations() {
-    removeFromHistoryAndAnnotationModel(sourceToHistory.values());
-  }
+    applyPendingModelChanges();
 
-  /**
-   * Removes all annotations from all annotation models that are currently stored in the history for
-   * the given user. The entries of the history are removed as well.
-   */
-  private void removeAnnotationsForUser(final User user) {
-    final ContributionAnnotationHistory history = sourceToHistory.get(user);
+    for (final Map.Entry<IAnnotationModel, ModelContributions> entry :
+        modelToContributions.entrySet()) {
+
+      annotationModelHelper.replaceAnnotationsInModel(
+          entry.getKey(), entry.getValue().annotations.values(), Collections.emptyMap());
+    }
 
-    if (history != null) removeFromHistoryAndAnnotationModel(Collections.singletonList(history));
+    modelToContributions.clear();
+    sourceToHistory.clear();
   }
 
   /**
-   * Removes all annotations from all annotation models of the given histories. The entries of the
-   * histories are removed as well.
+   * Removes all annotations of the given user from all annotation models. The entries of the
+   * history are removed as well.
    */
-  private void removeFromHistoryAndAnnotationModel(
-      final Collection<ContributionAnnotationHistory> histories) {
+  private void removeAnnotationsForUser(final User user) {
+    final History history = sourceToHistory.remove(user);
 
-    final Set<IAnnotationModel> annotationModels = new HashSet<>();
-    final Set<User> users = new HashSet<>();
+    if (history == null) return;
 
-    for (final ContributionAnnotationHistory history : histories) {
-      final List<ContributionAnnotation> allAnnotationsInHistory = history.clear();
-      for (final ContributionAnnotation annotation : allAnnotationsInHistory) {
-        annotationModels.add(annotation.getModel());
-        users.add(annotation.getSource());
-      }
-    }
+    for (final Map.Entry<Long, IAnnotationModel> entry : history.models.entrySet()) {
+      final ModelContributions contributions = modelToContributions.get(entry.getValue());
 
-    for (final IAnnotationModel annotationModel : annotationModels)
-      annotationModelHelper.removeAnnotationsFromModel(
-          annotationModel,
-          (a) ->
-              a instanceof ContributionAnnotation
-                  && users.contains(((ContributionAnnotation) (a)).getSource()));
+      if (contributions != null)
+        applyChange(entry.getValue(), contributions, contributions.ranges.remove(entry.getKey()));
+    }
   }
 }
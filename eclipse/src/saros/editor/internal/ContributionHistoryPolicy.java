@@ -0,0 +1,55 @@
+package saros.editor.internal;
+
+/**
+ * Determines how long the contributions of a user stay annotated. A contribution is a range of
+ * adjacent text inserted by the same user, so typing a word or pasting a block of text counts as
+ * one contribution.
+ *
+ * <p>The default policy keeps the last {@value #DEFAULT_MAX_CONTRIBUTIONS} contributions of every
+ * user without any time limit. It can be changed by setting the system properties <code>
+ * saros.editor.contribution.MAX_CONTRIBUTIONS</code> and <code>
+ * saros.editor.contribution.MAX_AGE</code> (in milliseconds).
+ */
+final class ContributionHistoryPolicy {
+
+  static final int DEFAULT_MAX_CONTRIBUTIONS = 20;
+
+  private final int maxContributions;
+
+  private final long maxAge;
+
+  /**
+   * @param maxContributions the maximal number of annotated contributions per user or <code>0
+   *     </code> for no limit
+   * @param maxAge the time in milliseconds after which a contribution is no longer annotated or
+   *     <code>0</code> for no limit
+   */
+  ContributionHistoryPolicy(int maxContributions, long maxAge) {
+    if (maxContributions < 0) throw new IllegalArgumentException("maxContributions is negative");
+    if (maxAge < 0) throw new IllegalArgumentException("maxAge is negative");
+
+    this.maxContributions = maxContributions;
+    this.maxAge = maxAge;
+  }
+
+  /** Returns the policy configured by the system properties. */
+  static ContributionHistoryPolicy fromSystemProperties() {
+    return new ContributionHistoryPolicy(
+        Math.max(
+            0,
+            Integer.getInteger(
+                "saros.editor.contribution.MAX_CONTRIBUTIONS", DEFAULT_MAX_CONTRIBUTIONS)),
+        Math.max(0, Long.getLong("saros.editor.contribution.MAX_AGE", 0L)));
+  }
+
+  /**
+   * Returns whether a contribution has to be removed from the history.
+   *
+   * @param index the index of the contribution in the history of its user, starting with the newest
+   *     contribution at index 0
+   * @param age the age of the contribution in milliseconds
+   */
+  boolean isExpired(int index, long age) {
+    return (maxContributions > 0 && index >= maxContributions) || (maxAge > 0 && age > maxAge);
+  }
+}
@@ -0,0 +1,447 @@
+package saros.editor.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import saros.session.User;
+
+/**
+ * Keeps track of the text ranges of a document that were contributed by the session participants.
+ *
+ * <p>The document is represented as a sequence of segments that either belong to a user or are not
+ * contributed at all. Adjacent segments of the same user are merged into one range. The segments
+ * are stored in a treap (a randomized balanced binary tree) that is ordered by the position of the
+ * segments in the document and where every node knows the total length of its subtree. Therefore
+ * inserting and deleting text only touches the segments at the edited position and all following
+ * segments are shifted implicitly in <code>O(log n)</code>.
+ *
+ * <p>Every contributed range has a unique ID. When a range is modified in any way (e.g. extended,
+ * split, shrunk or moved by an edit directly in front of it) it is replaced by a range with a new
+ * ID. The {@link Change changes} returned by the modifying methods describe which ranges were
+ * replaced so that the corresponding annotations can be updated. The nodes of the contributed
+ * ranges are indexed by their ID and know their parent node, so a range is removed by its ID in
+ * <code>O(log n)</code> as well.
+ *
+ * <p><b>Note:</b> This class is not thread safe.
+ */
+final class ContributionRanges {
+
+  private static final AtomicLong NEXT_ID = new AtomicLong(1);
+
+  private static final Random RANDOM = new Random();
+
+  /** A contributed range of the document. */
+  static final class Range {
+    private final long id;
+    private final int offset;
+    private final int length;
+    private final User source;
+    private final long created;
+
+    private Range(long id, int offset, int length, User source, long created) {
+      this.id = id;
+      this.offset = offset;
+      this.length = length;
+      this.source = source;
+      this.created = created;
+    }
+
+    long getId() {
+      return id;
+    }
+
+    int getOffset() {
+      return offset;
+    }
+
+    int getLength() {
+      return length;
+    }
+
+    User getSource() {
+      return source;
+    }
+
+    /**
+     * Returns the time at which the range was created. Ranges that were only split or moved keep
+     * the time of the original range, extending a range renews the time.
+     */
+    long getCreated() {
+      return created;
+    }
+
+    @Override
+    public String toString() {
+      return "Range [id=" + id + ", offset=" + offset + ", length=" + length + ", " + source + "]";
+    }
+  }
+
+  /** The ranges that were removed and added by a modification. */
+  static final class Change {
+    private final List<Long> removed;
+    private final List<Range> added;
+
+    private Change(List<Long> removed, List<Range> added) {
+      // split ranges may be reported more than once
+      this.removed = new ArrayList<>(new LinkedHashSet<>(removed));
+      this.added = added;
+    }
+
+    /** Returns the IDs of the ranges that no longer exist. */
+    List<Long> getRemoved() {
+      return removed;
+    }
+
+    /** Returns the ranges that were created, in document order. */
+    List<Range> getAdded() {
+      return added;
+    }
+
+    boolean isEmpty() {
+      return removed.isEmpty() && added.isEmpty();
+    }
+  }
+
+  private static final class Node {
+    private final int priority = RANDOM.nextInt();
+
+    private int length;
+    private User source;
+    private long id;
+    private long created;
+
+    private Node left;
+    private Node right;
+    private Node parent;
+
+    private int total;
+    private int contributed;
+
+    private Node(int length, User source, long id, long created) {
+      this.length = length;
+      this.source = source;
+      this.id = id;
+      this.created = created;
+      update();
+    }
+
+    private void update() {
+      total = length + total(left) + total(right);
+      contributed = (source != null ? 1 : 0) + contributed(left) + contributed(right);
+
+      if (left != null) left.parent = this;
+      if (right != null) right.parent = this;
+    }
+  }
+
+  private Node root;
+
+  /** The nodes of the contributed ranges, keyed by their ID */
+  private final Map<Long, Node> nodes = new HashMap<>();
+
+  /**
+   * Returns the length of the tracked part of the document. Edits behind this length do not affect
+   * any contributed range.
+   */
+  int getLength() {
+    return total(root);
+  }
+
+  /** Returns whether the document contains at least one contributed range. */
+  boolean hasContributions() {
+    return contributed(root) > 0;
+  }
+
+  /** Returns all contributed ranges in document order. */
+  List<Range> getRanges() {
+    List<Range> ranges = new ArrayList<>(contributed(root));
+
+    collect(root, 0, ranges);
+
+    return ranges;
+  }
+
+  /**
+   * Updates the ranges after the given text change. All ranges touching the changed region are
+   * replaced. If the text was inserted by a user, it is tracked as a new range of this user which
+   * is merged with adjacent ranges of the same user.
+   *
+   * @param offset the offset of the change
+   * @param replacedLength the number of removed characters
+   * @param insertedLength the number of inserted characters
+   * @param source the user who inserted the text or <code>null</code> if the text should not be
+   *     tracked as contribution
+   * @param time the current time
+   * @return the change of the ranges
+   */
+  Change replace(int offset, int replacedLength, int insertedLength, User source, long time) {
+    int length = getLength();
+
+    if (offset > length) {
+      // nothing tracked in this area, simply fill the gap
+      if (source == null) return new Change(Collections.emptyList(), Collections.emptyList());
+
+      setRoot(merge(root, new Node(offset - length, null, 0, 0)));
+      length = offset;
+    }
+
+    replacedLength = Math.min(replacedLength, length - offset);
+
+    List<Long> removed = new ArrayList<>();
+
+    Node[] split = split(root, offset);
+    Node left = split[0];
+
+    split = split(split[1], replacedLength);
+    collectIds(split[0], removed);
+    Node right = split[1];
+
+    // the segments directly in front of and behind the change are rebuilt as well
+    split = splitLast(left);
+    left = split[0];
+    Node before = split[1];
+
+    split = splitFirst(right);
+    Node after = split[0];
+    right = split[1];
+
+    List<Node> middle = new ArrayList<>(3);
+
+    if (before != null) middle.add(before);
+    if (insertedLength > 0) middle.add(new Node(insertedLength, source, 0, time));
+    if (after != null) middle.add(after);
+
+    List<Range> added = new ArrayList<>();
+
+    int position = total(left);
+
+    Node rebuilt = null;
+
+    for (Node node : coalesce(middle, removed)) {
+      if (node.source != null) {
+        node.id = NEXT_ID.getAndIncrement();
+        node.update();
+        nodes.put(node.id, node);
+        added.add(new Range(node.id, position, node.length, node.source, node.created));
+      }
+
+      position += node.length;
+      rebuilt = merge(rebuilt, node);
+    }
+
+    setRoot(merge(merge(left, rebuilt), right));
+
+    for (Long id : removed) nodes.remove(id);
+
+    return new Change(removed, added);
+  }
+
+  /**
+   * Removes the range with the given ID, i.e. marks its text as not contributed.
+   *
+   * @param id the ID of the range
+   * @return the change of the ranges, which is empty if there is no range with the given ID
+   */
+  Change remove(long id) {
+    Node node = nodes.remove(id);
+
+    if (node == null) return new Change(Collections.emptyList(), Collections.emptyList());
+
+    int offset = getOffset(node);
+    int length = node.length;
+
+    Node[] split = split(root, offset);
+    Node left = split[0];
+
+    split = split(split[1], length);
+    Node right = split[1];
+
+    split = splitLast(left);
+    left = split[0];
+    Node before = split[1];
+
+    split = splitFirst(right);
+    Node after = split[0];
+    right = split[1];
+
+    List<Node> middle = new ArrayList<>(3);
+
+    // the neighbors are kept as they are unless they are not contributed
+    if (before != null && before.source != null) left = merge(left, before);
+    else if (before != null) middle.add(before);
+
+    middle.add(new Node(length, null, 0, 0));
+
+    if (after != null && after.source != null) right = merge(after, right);
+    else if (after != null) middle.add(after);
+
+    Node rebuilt = null;
+
+    for (Node coalesced : coalesce(middle, new ArrayList<>())) rebuilt = merge(rebuilt, coalesced);
+
+    setRoot(merge(merge(left, rebuilt), right));
+
+    return new Change(Collections.singletonList(id), Collections.emptyList());
+  }
+
+  /** Removes all ranges. */
+  void clear() {
+    root = null;
+    nodes.clear();
+  }
+
+  private void setRoot(Node node) {
+    root = node;
+
+    if (root != null) root.parent = null;
+  }
+
+  /** Returns the offset of the given node in the document by walking up to the root. */
+  private static int getOffset(Node node) {
+    int offset = total(node.left);
+
+    for (Node child = node; child.parent != null; child = child.parent) {
+      Node parent = child.parent;
+
+      if (parent.right == child) offset += total(parent.left) + parent.length;
+    }
+
+    return offset;
+  }
+
+  /**
+   * Merges adjacent nodes of the same source. The IDs of all given contributed nodes are added to
+   * the removed IDs.
+   */
+  private static List<Node> coalesce(List<Node> nodes, List<Long> removed) {
+    List<Node> result = new ArrayList<>(nodes.size());
+
+    for (Node node : nodes) {
+      if (node.source != null && node.id != 0) removed.add(node.id);
+
+      Node last = result.isEmpty() ? null : result.get(result.size() - 1);
+
+      if (last != null && last.source == node.source) {
+        last.length += node.length;
+        last.created = Math.max(last.created, node.created);
+        last.update();
+      } else {
+        result.add(new Node(node.length, node.source, 0, node.created));
+      }
+    }
+
+    return result;
+  }
+
+  private static void collect(Node node, int offset, List<Range> ranges) {
+    if (node == null || node.contributed == 0) return;
+
+    collect(node.left, offset, ranges);
+
+    int start = offset + total(node.left);
+
+    if (node.source != null)
+      ranges.add(new Range(node.id, start, node.length, node.source, node.created));
+
+    collect(node.right, start + node.length, ranges);
+  }
+
+  private static void collectIds(Node node, List<Long> ids) {
+    if (node == null || node.contributed == 0) return;
+
+    collectIds(node.left, ids);
+
+    if (node.source != null) ids.add(node.id);
+
+    collectIds(node.right, ids);
+  }
+
+  /**
+   * Splits the tree into the part in front of and the part behind the given offset. A node
+   * containing the offset is split into two nodes.
+   */
+  private static Node[] split(Node node, int offset) {
+    if (node == null) return new Node[2];
+
+    int leftTotal = total(node.left);
+
+    if (offset <= leftTotal) {
+      Node[] split = split(node.left, offset);
+      node.left = split[1];
+      node.update();
+      return new Node[] {split[0], node};
+    }
+
+    if (offset >= leftTotal + node.length) {
+      Node[] split = split(node.right, offset - leftTotal - node.length);
+      node.right = split[0];
+      node.update();
+      return new Node[] {node, split[1]};
+    }
+
+    // the offset is located inside of the node
+    int headLength = offset - leftTotal;
+
+    Node tail = new Node(node.length - headLength, node.source, node.id, node.created);
+    tail.right = node.right;
+    tail.update();
+
+    node.length = headLength;
+    node.right = null;
+    node.update();
+
+    return new Node[] {node, tail};
+  }
+
+  /** Splits off the last segment of the tree. */
+  private static Node[] splitLast(Node node) {
+    int total = total(node);
+
+    if (total == 0) return new Node[2];
+
+    Node last = node;
+
+    while (last.right != null) last = last.right;
+
+    return split(node, total - last.length);
+  }
+
+  /** Splits off the first segment of the tree. */
+  private static Node[] splitFirst(Node node) {
+    if (node == null) return new Node[2];
+
+    Node first = node;
+
+    while (first.left != null) first = first.left;
+
+    return split(node, first.length);
+  }
+
+  private static Node merge(Node left, Node right) {
+    if (left == null) return right;
+    if (right == null) return left;
+
+    if (left.priority > right.priority) {
+      left.right = merge(left.right, right);
+      left.update();
+      return left;
+    }
+
+    right.left = merge(left, right.left);
+    right.update();
+    return right;
+  }
+
+  private static int total(Node node) {
+    return node == null ? 0 : node.total;
+  }
+
+  private static int contributed(Node node) {
+    return node == null ? 0 : node.contributed;
+  }
+}
@@ -4,7 +4,7 @@ import saros.annotations.Component;
 import saros.session.User;
 
 /** Eclipse-specific implementation of the {@link IRemoteProgressIndicatorFactory} interface. */
-@Component(module = "core")
+@Component(module = "core", lazy = true)
 public class EclipseRemoteProgressIndicatorFactoryImpl implements IRemoteProgressIndicatorFactory {
 
   /** {@inheritDoc} */
@@ -17,7 +17,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.jobs.IJobManager;
 import org.eclipse.core.runtime.jobs.Job;
-import saros.activities.IActivity;
+import saros.activities.FileActivity;
 import saros.activities.IResourceActivity;
 import saros.annotations.Component;
 import saros.editor.EditorManager;
@@ -74,6 +74,13 @@ public class SharedResourcesManager extends AbstractActivityProducer
    */
   private boolean pause = false;
 
+  /**
+   * The resources the StopManager has paused or <code>null</code> if no resources are paused. The
+   * changes of these resources are ignored while the changes of all other resources are still
+   * replicated.
+   */
+  private volatile Set<IResource> pausedScope;
+
   private final ISarosSession sarosSession;
 
   private final StopManager stopManager;
@@ -91,12 +98,20 @@ public class SharedResourcesManager extends AbstractActivityProducer
         @Override
         public void unblock() {
           SharedResourcesManager.this.pause = false;
+          SharedResourcesManager.this.pausedScope = null;
         }
 
         @Override
         public void block() {
+          SharedResourcesManager.this.pausedScope = null;
           SharedResourcesManager.this.pause = true;
         }
+
+        @Override
+        public void block(Set<IResource> scope) {
+          SharedResourcesManager.this.pausedScope = scope;
+          SharedResourcesManager.this.pause = false;
+        }
       };
 
   @Override
@@ -267,7 +282,28 @@ public class SharedResourcesManager extends AbstractActivityProducer
      * TODO for every activity have to synchronize on the GUI thread, maybe
      * offer a bulk method ?
      */
-    for (final IActivity activity : resourceActivities) fireActivity(activity);
+    final Set<IResource> scope = pausedScope;
+
+    for (final IResourceActivity<? extends IResource> activity : resourceActivities) {
+      if (scope != null && isPaused(scope, activity)) {
+        log.warn("Resource changed while paused: " + activity);
+        continue;
+      }
+
+      fireActivity(activity);
+    }
+  }
+
+  /** Returns whether the given activity affects a resource in the given paused scope. */
+  private static boolean isPaused(
+      Set<IResource> scope, IResourceActivity<? extends IResource> activity) {
+
+    if (activity.getResource() != null && StopManager.isInScope(scope, activity.getResource()))
+      return true;
+
+    return activity instanceof FileActivity
+        && ((FileActivity) activity).getOldResource() != null
+        && StopManager.isInScope(scope, ((FileActivity) activity).getOldResource());
   }
 
   private Map<IProject, Set<IReferencePoint>> createProjectReferencePointMap() {
@@ -8,7 +8,7 @@ import saros.annotations.Component;
 import saros.synchronize.UISynchronizer;
 import saros.util.StackTrace;
 
-@Component(module = "eclipse")
+@Component(module = "eclipse", lazy = true)
 public class EclipseSWTSynchronizer implements UISynchronizer {
 
   private static final Logger log = Logger.getLogger(EclipseSWTSynchronizer.class);
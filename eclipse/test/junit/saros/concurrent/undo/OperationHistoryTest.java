@@ -0,0 +1,116 @@
+package saros.concurrent.undo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static saros.test.util.OperationHelper.D;
+import static saros.test.util.OperationHelper.I;
+
+import java.util.List;
+import java.util.Random;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import saros.concurrent.jupiter.InclusionTransformation;
+import saros.concurrent.jupiter.Operation;
+import saros.concurrent.jupiter.internal.text.GOTOInclusionTransformation;
+import saros.concurrent.undo.OperationHistory.EditorHistoryEntry;
+import saros.concurrent.undo.OperationHistory.Type;
+import saros.filesystem.IFile;
+
+public class OperationHistoryTest {
+
+  private IFile file;
+
+  private OperationHistory history;
+
+  private final InclusionTransformation transformation = new GOTOInclusionTransformation();
+
+  @Before
+  public void setUp() {
+    file = EasyMock.createNiceMock(IFile.class);
+    EasyMock.replay(file);
+
+    history = new OperationHistory();
+  }
+
+  @Test
+  public void testOldestEntriesAreEvicted() {
+    history.add(file, Type.LOCAL, I(0, "a"));
+
+    for (int i = 0; i < OperationHistory.MAX_SIZE; i++) history.add(file, Type.REMOTE, I(i, "b"));
+
+    assertFalse(history.canUndo(file));
+    assertNull(history.getTransformedInverse(file, Type.LOCAL, transformation));
+
+    List<EditorHistoryEntry> entries = history.getAllEntries(file);
+
+    assertEquals(OperationHistory.MAX_SIZE, entries.size());
+    assertEquals(I(OperationHistory.MAX_SIZE - 1, "b"), entries.get(0).getOperation());
+    assertEquals(I(0, "b"), entries.get(entries.size() - 1).getOperation());
+  }
+
+  @Test
+  public void testReplaceTypeUpdatesLatest() {
+    history.add(file, Type.LOCAL, I(0, "a"));
+    history.add(file, Type.LOCAL, I(1, "b"));
+    history.add(file, Type.REMOTE, I(2, "c"));
+
+    assertEquals(I(1, "b"), history.getLatestLocal(file));
+    assertEquals(1, history.entriesToLatestLocal(file).size());
+
+    history.replaceType(file, I(1, "b"), Type.LOCAL, Type.REMOTE);
+
+    assertEquals(I(0, "a"), history.getLatestLocal(file));
+    assertEquals(2, history.entriesToLatestLocal(file).size());
+    assertFalse(history.canRedo(file));
+
+    history.replaceType(file, I(0, "a"), Type.LOCAL, Type.REDOABLE);
+
+    assertFalse(history.canUndo(file));
+    assertTrue(history.canRedo(file));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReplaceTypeOfUnknownOperation() {
+    history.add(file, Type.LOCAL, I(0, "a"));
+
+    history.replaceType(file, I(0, "a"), Type.REDOABLE, Type.REMOTE);
+  }
+
+  @Test
+  public void testTransformedInverseMatchesDirectTransformation() {
+    Random random = new Random(4711);
+
+    int length = 0;
+
+    history.add(file, Type.LOCAL, I(0, "x"));
+    length++;
+
+    for (int round = 0; round < 500; round++) {
+      Operation operation;
+
+      if (length > 0 && random.nextBoolean()) {
+        int offset = random.nextInt(length);
+        operation = D(offset, "y");
+        length--;
+      } else {
+        operation = I(random.nextInt(length + 1), "z");
+        length++;
+      }
+
+      history.add(file, random.nextInt(4) == 0 ? Type.LOCAL : Type.REMOTE, operation);
+
+      // query only from time to time to test the continuation of cached transformations
+      if (random.nextInt(3) != 0) continue;
+
+      Operation expected = history.getLatestLocal(file).invert();
+
+      for (EditorHistoryEntry entry : history.entriesToLatestLocal(file))
+        expected = transformation.transform(expected, entry.getOperation(), Boolean.TRUE);
+
+      assertEquals(expected, history.getTransformedInverse(file, Type.LOCAL, transformation));
+    }
+  }
+}
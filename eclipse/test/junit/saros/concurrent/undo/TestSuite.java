@@ -4,7 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({UndoTest.class})
+@Suite.SuiteClasses({OperationHistoryTest.class, UndoTest.class})
 public class TestSuite {
 
   // the class remains completely empty,
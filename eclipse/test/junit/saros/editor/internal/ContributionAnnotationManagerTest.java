@@ -41,7 +41,7 @@ public class ContributionAnnotationManagerTest {
 
   private Capture<ISessionListener> sessionListenerCapture;
 
-  private static final int MAX_HISTORY_LENGTH = ContributionAnnotationManager.MAX_HISTORY_LENGTH;
+  private static final int MAX_HISTORY_LENGTH = 5;
   private static final User ALICE_TEST_USER =
       new User(new JID("ALICE_TEST_USER@test"), false, false, null);
   private static final User BOB_TEST_USER = new User(new JID("bob@test"), false, false, null);
@@ -54,7 +54,9 @@ public class ContributionAnnotationManagerTest {
     store.setValue(EclipsePreferenceConstants.SHOW_CONTRIBUTION_ANNOTATIONS, true);
     createListenerMocks();
 
-    manager = new ContributionAnnotationManager(sessionMock, store);
+    manager =
+        new ContributionAnnotationManager(
+            sessionMock, store, new ContributionHistoryPolicy(MAX_HISTORY_LENGTH, 0));
     model = new AnnotationModel();
   }
 
@@ -85,29 +87,51 @@ public class ContributionAnnotationManagerTest {
   }
 
   @Test
-  public void testHistoryRemoval() {
-    for (int i = 0; i <= MAX_HISTORY_LENGTH + 1; i++)
-      manager.insertAnnotation(model, i, 1, ALICE_TEST_USER);
+  public void testTypingIsAnnotatedAsOneContribution() {
+    for (int i = 0; i < 10; i++) manager.textChanged(model, i, 0, 1, ALICE_TEST_USER);
 
-    assertEquals(MAX_HISTORY_LENGTH, getAnnotationCount(model));
+    assertEquals(1, getAnnotationCount(model));
+    assertTrue(getAnnotationPositions(model).contains(new Position(0, 10)));
+  }
 
-    manager.insertAnnotation(model, MAX_HISTORY_LENGTH, 1, ALICE_TEST_USER);
+  @Test
+  public void testInsertAnnotationWithLengthGreaterOne() {
+    manager.textChanged(model, 5, 0, 3, ALICE_TEST_USER);
+
+    final List<Position> annotationPositions = getAnnotationPositions(model);
+
+    assertEquals(
+        "pasted text was not annotated as one contribution", 1, annotationPositions.size());
+    assertTrue(annotationPositions.contains(new Position(5, 3)));
+  }
+
+  @Test
+  public void testHistoryRemoval() {
+    // leave a gap between the insertions so that they are not merged
+    for (int i = 0; i <= MAX_HISTORY_LENGTH; i++)
+      manager.textChanged(model, i * 2, 0, 1, ALICE_TEST_USER);
 
     assertEquals(MAX_HISTORY_LENGTH, getAnnotationCount(model));
 
     assertFalse(
         "oldest annotation was not removed",
         getAnnotationPositions(model).contains(new Position(0, 1)));
+
+    assertTrue(getAnnotationPositions(model).contains(new Position(MAX_HISTORY_LENGTH * 2, 1)));
   }
 
   @Test
   public void testHistoryRemovalAfterRefresh() {
-    for (int i = 0; i <= MAX_HISTORY_LENGTH; i++)
-      manager.insertAnnotation(model, i, 1, ALICE_TEST_USER);
+    for (int i = 0; i < MAX_HISTORY_LENGTH; i++)
+      manager.textChanged(model, i * 2, 0, 1, ALICE_TEST_USER);
 
     manager.refreshAnnotations(model);
 
-    manager.insertAnnotation(model, MAX_HISTORY_LENGTH + 1, 1, ALICE_TEST_USER);
+    assertEquals(MAX_HISTORY_LENGTH, getAnnotationCount(model));
+
+    manager.textChanged(model, MAX_HISTORY_LENGTH * 2, 0, 1, ALICE_TEST_USER);
+
+    assertEquals(MAX_HISTORY_LENGTH, getAnnotationCount(model));
 
     assertFalse(
         "oldest annotation was not removed after refresh",
@@ -115,115 +139,79 @@ public class ContributionAnnotationManagerTest {
   }
 
   @Test
-  public void testHistoryRemovelWithLengthGreaterOne() {
-    final int annotationLength = 3;
+  public void testHistoryRemovalWithMultipleModels() {
+    final AnnotationModel model2 = new AnnotationModel();
+    final AnnotationModel model3 = new AnnotationModel();
 
-    for (int i = 0; i < MAX_HISTORY_LENGTH; i++) {
-      manager.insertAnnotation(model, i * annotationLength, annotationLength, ALICE_TEST_USER);
-    }
+    manager.textChanged(model2, 0, 0, 1, ALICE_TEST_USER);
+    manager.textChanged(model3, 0, 0, 1, ALICE_TEST_USER);
 
-    assertEquals(
-        "Inserted not as much annotations as expected",
-        annotationLength * MAX_HISTORY_LENGTH,
-        getAnnotationCount(model));
+    for (int i = 0; i < MAX_HISTORY_LENGTH - 2; i++)
+      manager.textChanged(model, i * 2, 0, 1, ALICE_TEST_USER);
 
-    manager.insertAnnotation(model, annotationLength * MAX_HISTORY_LENGTH + 1, 1, ALICE_TEST_USER);
-    assertEquals(
-        "Inserting an annotation of length 1 should have remove another annotation of length > 1",
-        annotationLength * (MAX_HISTORY_LENGTH - 1) + 1,
-        getAnnotationCount(model));
-  }
+    assertEquals(MAX_HISTORY_LENGTH - 2, getAnnotationCount(model));
+    assertEquals(1, getAnnotationCount(model2));
+    assertEquals(1, getAnnotationCount(model3));
 
-  @Test
-  public void testHistoryRemovelWithDifferentLengths() {
-    final int annotationLength1 = 3;
-    int offset = 0;
-    final int numberOfEntries = 5;
-    for (int i = 0; i < numberOfEntries; i++) {
-      manager.insertAnnotation(model, offset, annotationLength1, ALICE_TEST_USER);
-      offset += annotationLength1;
-    }
+    manager.textChanged(model, MAX_HISTORY_LENGTH * 2, 0, 1, ALICE_TEST_USER);
+
+    assertEquals(
+        "Insertions in another model should lead to removing the oldest annotation",
+        0,
+        getAnnotationCount(model2));
+    assertEquals(1, getAnnotationCount(model3));
 
-    final int annotationLength2 = 5;
+    manager.textChanged(model, MAX_HISTORY_LENGTH * 3, 0, 1, ALICE_TEST_USER);
 
-    for (int i = 0; i < numberOfEntries; i++) {
-      manager.insertAnnotation(model, offset, annotationLength2, ALICE_TEST_USER);
-      offset += annotationLength2;
-    }
+    assertEquals(MAX_HISTORY_LENGTH, getAnnotationCount(model));
+    assertEquals(0, getAnnotationCount(model3));
+  }
 
-    final int annotationLength3 = 10;
+  @Test
+  public void testHistoryRemovalByAge() throws InterruptedException {
+    manager =
+        new ContributionAnnotationManager(sessionMock, store, new ContributionHistoryPolicy(0, 1));
 
-    final int remainingNumberOfEntries = MAX_HISTORY_LENGTH - 2 * numberOfEntries;
-    for (int i = 0; i < remainingNumberOfEntries; i++) {
-      manager.insertAnnotation(model, offset, annotationLength3, ALICE_TEST_USER);
-      offset += annotationLength3;
-    }
+    manager.textChanged(model, 0, 0, 1, ALICE_TEST_USER);
 
-    int expectedAnnotationCount =
-        numberOfEntries * annotationLength1
-            + numberOfEntries * annotationLength2
-            + remainingNumberOfEntries * annotationLength3;
-    assertEquals(expectedAnnotationCount, getAnnotationCount(model));
+    Thread.sleep(20);
 
-    final int newAnnotationLength = 1;
-    for (int i = 0; i < numberOfEntries; i++) {
-      manager.insertAnnotation(model, offset, newAnnotationLength, ALICE_TEST_USER);
-      offset += annotationLength1;
-    }
+    manager.textChanged(model, 2, 0, 1, ALICE_TEST_USER);
 
-    expectedAnnotationCount =
-        numberOfEntries * newAnnotationLength
-            + numberOfEntries * annotationLength2
-            + remainingNumberOfEntries * annotationLength3;
-    assertEquals(expectedAnnotationCount, getAnnotationCount(model));
+    assertEquals(1, getAnnotationCount(model));
+    assertTrue(getAnnotationPositions(model).contains(new Position(2, 1)));
   }
 
   @Test
-  public void testHistoryRemovalWithMultipleModels() {
-    final AnnotationModel model2 = new AnnotationModel();
-    final AnnotationModel model3 = new AnnotationModel();
-    final int numberOfInsertions = 5;
+  public void testLocalEditSplitsContribution() {
+    manager.textChanged(model, 0, 0, 10, ALICE_TEST_USER);
 
-    // Fill history
-    for (int i = 0; i < numberOfInsertions; i++) {
-      manager.insertAnnotation(model2, i, 1, ALICE_TEST_USER);
-    }
+    manager.textChanged(model, 5, 0, 2, null);
 
-    for (int i = 0; i < numberOfInsertions; i++) {
-      manager.insertAnnotation(model3, i, 1, ALICE_TEST_USER);
-    }
+    final List<Position> annotationPositions = getAnnotationPositions(model);
 
-    int offset = 0;
-    final int remainingInsertions = MAX_HISTORY_LENGTH - 2 * numberOfInsertions;
-    for (int i = 0; i < remainingInsertions; i++, offset++) {
-      manager.insertAnnotation(model, offset, 1, ALICE_TEST_USER);
-    }
+    assertEquals(2, annotationPositions.size());
+    assertTrue(annotationPositions.contains(new Position(0, 5)));
+    assertTrue(annotationPositions.contains(new Position(7, 5)));
+  }
 
-    assertEquals(remainingInsertions, getAnnotationCount(model));
-    assertEquals(numberOfInsertions, getAnnotationCount(model2));
-    assertEquals(numberOfInsertions, getAnnotationCount(model3));
+  @Test
+  public void testDeletionRemovesAnnotations() {
+    manager.textChanged(model, 0, 0, 10, ALICE_TEST_USER);
+    manager.textChanged(model, 10, 0, 10, BOB_TEST_USER);
 
-    for (int i = 0; i < numberOfInsertions; i++, offset++) {
-      manager.insertAnnotation(model, offset, 1, ALICE_TEST_USER);
-    }
+    manager.textChanged(model, 5, 10, 0, null);
 
-    assertEquals(remainingInsertions + numberOfInsertions, getAnnotationCount(model));
-    assertEquals(
-        "Insertions in another model should lead to removing all annotations in the model",
-        0,
-        getAnnotationCount(model2));
-    assertEquals(numberOfInsertions, getAnnotationCount(model3));
+    final List<Position> annotationPositions = getAnnotationPositions(model);
 
-    for (int i = 0; i < numberOfInsertions; i++, offset++) {
-      manager.insertAnnotation(model, offset, 1, ALICE_TEST_USER);
-    }
+    assertEquals(2, annotationPositions.size());
+    assertTrue(annotationPositions.contains(new Position(0, 5)));
+    assertTrue(annotationPositions.contains(new Position(5, 5)));
 
-    assertEquals(remainingInsertions + 2 * numberOfInsertions, getAnnotationCount(model));
-    assertEquals(0, getAnnotationCount(model2));
-    assertEquals(
-        "Insertions in another model should lead to removing all annotations in the model",
-        0,
-        getAnnotationCount(model3));
+    manager.textChanged(model, 0, 10, 0, null);
+
+    assertEquals(0, getAnnotationCount(model));
+    assertFalse(manager.hasContributions());
   }
 
   @Test
@@ -235,8 +223,8 @@ public class ContributionAnnotationManagerTest {
     int idx = 0;
 
     for (final User user : users)
-      for (int i = 0; i < MAX_HISTORY_LENGTH; i++, idx++)
-        manager.insertAnnotation(model, idx, 1, user);
+      for (int i = 0; i < MAX_HISTORY_LENGTH; i++, idx += 2)
+        manager.textChanged(model, idx, 0, 1, user);
 
     assertEquals(MAX_HISTORY_LENGTH * users.size(), getAnnotationCount(model));
 
@@ -256,8 +244,8 @@ public class ContributionAnnotationManagerTest {
     int idx = 0;
 
     for (final User user : users)
-      for (int i = 0; i < MAX_HISTORY_LENGTH; i++, idx++)
-        manager.insertAnnotation(model, idx, 1, user);
+      for (int i = 0; i < MAX_HISTORY_LENGTH; i++, idx += 2)
+        manager.textChanged(model, idx, 0, 1, user);
 
     assertEquals(MAX_HISTORY_LENGTH * users.size(), getAnnotationCount(model));
 
@@ -272,33 +260,17 @@ public class ContributionAnnotationManagerTest {
     }
   }
 
-  @Test
-  public void testInsertAnnotationWithLengthGreaterOne() {
-    final int annotationLength = 3;
-
-    manager.insertAnnotation(model, 5, annotationLength, ALICE_TEST_USER);
-
-    final List<Position> annotationPositions = getAnnotationPositions(model);
-
-    assertEquals(
-        "Annotation was not split into multiple annotation of length 1",
-        annotationLength,
-        annotationPositions.size());
-    assertTrue(annotationPositions.contains(new Position(5, 1)));
-    assertTrue(annotationPositions.contains(new Position(6, 1)));
-    assertTrue(annotationPositions.contains(new Position(7, 1)));
-  }
-
   @Test
   public void testInsertAnnotationWithLengthZero() {
-    manager.insertAnnotation(model, 3, 0, ALICE_TEST_USER);
+    manager.textChanged(model, 3, 0, 0, ALICE_TEST_USER);
     assertEquals("Annotation with length 0 was inserted", 0, getAnnotationCount(model));
   }
 
+  @Test
   public void testInsertWhileNotEnable() {
     store.setValue(EclipsePreferenceConstants.SHOW_CONTRIBUTION_ANNOTATIONS, false);
 
-    manager.insertAnnotation(model, 5, 7, ALICE_TEST_USER);
+    manager.textChanged(model, 5, 0, 7, ALICE_TEST_USER);
 
     assertEquals(0, getAnnotationCount(model));
   }
@@ -314,8 +286,8 @@ public class ContributionAnnotationManagerTest {
     int idx = 0;
 
     for (final User user : users)
-      for (int i = 0; i < MAX_HISTORY_LENGTH; i++, idx++)
-        manager.insertAnnotation(model, idx, 1, user);
+      for (int i = 0; i < MAX_HISTORY_LENGTH; i++, idx += 2)
+        manager.textChanged(model, idx, 0, 1, user);
 
     assertEquals(MAX_HISTORY_LENGTH * users.size(), getAnnotationCount(model));
 
@@ -0,0 +1,194 @@
+package saros.editor.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import saros.editor.internal.ContributionRanges.Change;
+import saros.editor.internal.ContributionRanges.Range;
+import saros.net.xmpp.JID;
+import saros.session.User;
+
+public class ContributionRangesTest {
+
+  private static final User ALICE = new User(new JID("alice@test"), false, false, null);
+  private static final User BOB = new User(new JID("bob@test"), false, false, null);
+
+  private ContributionRanges ranges;
+
+  @Before
+  public void setUp() {
+    ranges = new ContributionRanges();
+  }
+
+  @Test
+  public void testTypingIsMergedIntoOneRange() {
+    for (int i = 0; i < 100; i++) ranges.replace(10 + i, 0, 1, ALICE, i);
+
+    List<Range> result = ranges.getRanges();
+
+    assertEquals(1, result.size());
+    assertEquals(10, result.get(0).getOffset());
+    assertEquals(100, result.get(0).getLength());
+    assertEquals(99, result.get(0).getCreated());
+  }
+
+  @Test
+  public void testInsertionOfOtherUserSplitsRange() {
+    Change first = ranges.replace(0, 0, 10, ALICE, 1);
+
+    Change second = ranges.replace(5, 0, 3, null, 2);
+
+    assertEquals(1, first.getAdded().size());
+    assertEquals(
+        "split range was not replaced",
+        first.getAdded().get(0).getId(),
+        (long) second.getRemoved().get(0));
+
+    List<Range> result = ranges.getRanges();
+
+    assertEquals(2, result.size());
+    assertRange(result.get(0), 0, 5, ALICE);
+    assertRange(result.get(1), 8, 5, ALICE);
+    assertEquals("split ranges must keep their creation time", 1, result.get(1).getCreated());
+
+    ranges.replace(8, 0, 2, BOB, 3);
+
+    result = ranges.getRanges();
+
+    assertEquals(3, result.size());
+    assertRange(result.get(1), 8, 2, BOB);
+    assertRange(result.get(2), 10, 5, ALICE);
+  }
+
+  @Test
+  public void testDeletionMergesRanges() {
+    ranges.replace(0, 0, 10, ALICE, 1);
+    ranges.replace(5, 0, 3, null, 2);
+
+    ranges.replace(4, 5, 0, null, 3);
+
+    List<Range> result = ranges.getRanges();
+
+    assertEquals(1, result.size());
+    assertRange(result.get(0), 0, 8, ALICE);
+  }
+
+  @Test
+  public void testRemove() {
+    ranges.replace(0, 0, 5, ALICE, 1);
+    ranges.replace(5, 0, 5, BOB, 2);
+    ranges.replace(10, 0, 5, null, 3);
+
+    long bobsRange = ranges.getRanges().get(1).getId();
+
+    Change change = ranges.remove(bobsRange);
+
+    assertEquals(1, change.getRemoved().size());
+    assertTrue(change.getAdded().isEmpty());
+
+    List<Range> result = ranges.getRanges();
+
+    assertEquals(1, result.size());
+    assertRange(result.get(0), 0, 5, ALICE);
+
+    ranges.remove(result.get(0).getId());
+
+    assertFalse(ranges.hasContributions());
+    assertTrue(ranges.remove(bobsRange).isEmpty());
+  }
+
+  @Test
+  public void testEditsBehindTrackedRegion() {
+    ranges.replace(5, 0, 5, ALICE, 1);
+
+    assertTrue(ranges.replace(100, 3, 7, null, 2).isEmpty());
+
+    ranges.replace(20, 0, 1, BOB, 3);
+
+    List<Range> result = ranges.getRanges();
+
+    assertEquals(2, result.size());
+    assertRange(result.get(0), 5, 5, ALICE);
+    assertRange(result.get(1), 20, 1, BOB);
+  }
+
+  @Test
+  public void testRandomEdits() {
+    Random random = new Random(42);
+
+    List<User> expected = new ArrayList<>();
+    Set<Long> liveIds = new HashSet<>();
+
+    User[] sources = {ALICE, BOB, null};
+
+    for (int i = 0; i < 5000; i++) {
+      int offset = random.nextInt(expected.size() + 1);
+      int replacedLength = Math.min(expected.size() - offset, random.nextInt(4));
+      int insertedLength = random.nextInt(i % 50 == 0 ? 500 : 5);
+      User source = sources[random.nextInt(sources.length)];
+
+      Change change = ranges.replace(offset, replacedLength, insertedLength, source, i);
+
+      for (int j = 0; j < replacedLength; j++) expected.remove(offset);
+      for (int j = 0; j < insertedLength; j++) expected.add(offset, source);
+
+      for (Long id : change.getRemoved()) assertTrue(liveIds.remove(id));
+      for (Range range : change.getAdded()) assertTrue(liveIds.add(range.getId()));
+
+      if (i % 10 == 0 && ranges.hasContributions()) {
+        Range range = ranges.getRanges().get(random.nextInt(ranges.getRanges().size()));
+
+        change = ranges.remove(range.getId());
+
+        for (int j = 0; j < range.getLength(); j++) expected.set(range.getOffset() + j, null);
+
+        for (Long id : change.getRemoved()) assertTrue(liveIds.remove(id));
+      }
+
+      assertRanges(expected, liveIds);
+    }
+  }
+
+  private void assertRanges(List<User> expected, Set<Long> liveIds) {
+    List<Range> result = ranges.getRanges();
+
+    Set<Long> ids = new HashSet<>();
+
+    int position = 0;
+
+    for (Range range : result) {
+      ids.add(range.getId());
+
+      for (; position < range.getOffset(); position++)
+        assertEquals("offset " + position, null, get(expected, position));
+
+      for (; position < range.getOffset() + range.getLength(); position++)
+        assertEquals("offset " + position, range.getSource(), expected.get(position));
+
+      // adjacent characters of the same user belong to the same range
+      assertTrue(position == expected.size() || expected.get(position) != range.getSource());
+    }
+
+    for (; position < expected.size(); position++) assertEquals(null, expected.get(position));
+
+    assertEquals(liveIds, ids);
+  }
+
+  private static User get(List<User> users, int index) {
+    return index < users.size() ? users.get(index) : null;
+  }
+
+  private static void assertRange(Range range, int offset, int length, User source) {
+    assertEquals(offset, range.getOffset());
+    assertEquals(length, range.getLength());
+    assertEquals(source, range.getSource());
+  }
+}
@@ -1,11 +1,13 @@
 package saros.core.monitoring.remote;
 
+import saros.annotations.Component;
 import saros.monitoring.remote.IRemoteProgressIndicator;
 import saros.monitoring.remote.IRemoteProgressIndicatorFactory;
 import saros.monitoring.remote.RemoteProgressManager;
 import saros.session.User;
 
 /** IntelliJ implementation of the {@link IRemoteProgressIndicatorFactory} interface. */
+@Component(module = "core", lazy = true)
 public class IntelliJRemoteProgressIndicatorFactoryImpl implements IRemoteProgressIndicatorFactory {
 
   @Override
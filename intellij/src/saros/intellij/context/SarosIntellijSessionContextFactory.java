@@ -1,5 +1,6 @@
 package saros.intellij.context;
 
+import saros.annotations.Component;
 import saros.filesystem.IWorkspace;
 import saros.filesystem.checksum.IChecksumCache;
 import saros.filesystem.checksum.NullChecksumCache;
@@ -19,6 +20,7 @@ import saros.session.ISarosSessionContextFactory;
 import saros.session.SarosCoreSessionContextFactory;
 
 /** IntelliJ implementation of the {@link ISarosSessionContextFactory} interface. */
+@Component(module = "intellij", lazy = true)
 public class SarosIntellijSessionContextFactory extends SarosCoreSessionContextFactory {
 
   @Override
@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import javax.swing.Timer;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
@@ -22,6 +23,7 @@ import saros.activities.EditorActivity.Type;
 import saros.activities.TextEditActivity;
 import saros.activities.TextSelectionActivity;
 import saros.activities.ViewportActivity;
+import saros.editor.AwarenessActivityCoalescer;
 import saros.editor.IEditorManager;
 import saros.editor.ISharedEditorListener;
 import saros.editor.SharedEditorListenerDispatch;
@@ -32,6 +34,7 @@ import saros.editor.text.TextPosition;
 import saros.editor.text.TextSelection;
 import saros.filesystem.IFile;
 import saros.filesystem.IReferencePoint;
+import saros.filesystem.IResource;
 import saros.intellij.context.SharedIDEContext;
 import saros.intellij.editor.annotations.AnnotationManager;
 import saros.intellij.eventhandler.IProjectEventHandler.ProjectEventHandlerType;
@@ -70,6 +73,11 @@ public class EditorManager extends AbstractActivityProducer implements IEditorMa
         public void block() {
           executeInUIThreadSynchronous(EditorManager.this::lockAllEditors);
         }
+
+        @Override
+        public void block(Set<IResource> scope) {
+          executeInUIThreadSynchronous(() -> editorPool.lockDocuments(scope));
+        }
       };
 
   private final IActivityConsumer consumer =
@@ -694,6 +702,10 @@ public class EditorManager extends AbstractActivityProducer implements IEditorMa
           hasWriteAccess = session.hasWriteAccess();
           session.addListener(sessionListener);
 
+          awarenessActivityCoalescer =
+              new AwarenessActivityCoalescer(
+                  session, EditorManager.this::fireActivity, EditorManager::scheduleOnEDT);
+
           session.addActivityProducer(EditorManager.this);
           session.addActivityConsumer(consumer, Priority.ACTIVE);
 
@@ -713,6 +725,12 @@ public class EditorManager extends AbstractActivityProducer implements IEditorMa
           session.removeListener(sessionListener);
           session.removeActivityProducer(EditorManager.this);
           session.removeActivityConsumer(consumer);
+
+          AwarenessActivityCoalescer coalescer = awarenessActivityCoalescer;
+          awarenessActivityCoalescer = null;
+
+          // the coalescer is not thread safe and is only accessed by the EDT
+          EDTExecutor.invokeLater(coalescer::clear);
         }
       };
 
@@ -728,6 +746,8 @@ public class EditorManager extends AbstractActivityProducer implements IEditorMa
   private SharedIDEContext sharedIDEContext;
 
   /* Session state */
+  private volatile AwarenessActivityCoalescer awarenessActivityCoalescer;
+
   private final BackgroundEditorPool backgroundEditorPool = new BackgroundEditorPool();
   private final EditorPool editorPool = new EditorPool(backgroundEditorPool);
 
@@ -838,6 +858,7 @@ public class EditorManager extends AbstractActivityProducer implements IEditorMa
     if (file == null || session.isShared(file)) {
       editorListenerDispatch.editorActivated(session.getLocalUser(), file);
 
+      flushAwarenessActivities();
       fireActivity(new EditorActivity(session.getLocalUser(), EditorActivity.Type.ACTIVATED, file));
     }
   }
@@ -852,6 +873,7 @@ public class EditorManager extends AbstractActivityProducer implements IEditorMa
     if (session.isShared(file)) {
       editorListenerDispatch.editorClosed(session.getLocalUser(), file);
 
+      flushAwarenessActivities();
       fireActivity(new EditorActivity(session.getLocalUser(), EditorActivity.Type.CLOSED, file));
     }
   }
@@ -862,11 +884,13 @@ public class EditorManager extends AbstractActivityProducer implements IEditorMa
    * @param file the file to generate an editor saved activity for
    */
   void generateEditorSaved(IFile file) {
+    flushAwarenessActivities();
     fireActivity(new EditorActivity(session.getLocalUser(), Type.SAVED, file));
   }
 
   /**
-   * Generates a {@link TextSelectionActivity} and fires it.
+   * Generates a {@link TextSelectionActivity} and fires it. Selection changes following each other
+   * quickly are coalesced, see {@link AwarenessActivityCoalescer}.
    *
    * <p><b>NOTE:</b> This class is meant for internal use only and should generally not be used
    * outside the editor package. If you still need to access this method, please consider whether
@@ -878,12 +902,22 @@ public class EditorManager extends AbstractActivityProducer implements IEditorMa
       TextSelection selection =
           EditorAPI.calculateSelectionPosition(editor, startOffset, endOffset);
 
-      fireActivity(new TextSelectionActivity(session.getLocalUser(), selection, file));
+      TextSelectionActivity activity =
+          new TextSelectionActivity(session.getLocalUser(), selection, file);
+
+      AwarenessActivityCoalescer coalescer = awarenessActivityCoalescer;
+
+      if (coalescer != null) {
+        coalescer.offer(activity);
+      } else {
+        fireActivity(activity);
+      }
     }
   }
 
   /**
-   * Generates a {@link ViewportActivity} and fires it.
+   * Generates a {@link ViewportActivity} and fires it. Viewport changes following each other
+   * quickly (e.g. while scrolling) are coalesced, see {@link AwarenessActivityCoalescer}.
    *
    * <p><b>NOTE:</b> This class is meant for internal use only and should generally not be used
    * outside the editor package. If you still need to access this method, please consider whether
@@ -895,9 +929,41 @@ public class EditorManager extends AbstractActivityProducer implements IEditorMa
       return;
     }
 
-    fireActivity(
+    ViewportActivity activity =
         new ViewportActivity(
-            session.getLocalUser(), viewport.getStartLine(), viewport.getNumberOfLines(), file));
+            session.getLocalUser(), viewport.getStartLine(), viewport.getNumberOfLines(), file);
+
+    AwarenessActivityCoalescer coalescer = awarenessActivityCoalescer;
+
+    if (coalescer != null) {
+      coalescer.offer(activity);
+    } else {
+      fireActivity(activity);
+    }
+  }
+
+  /**
+   * Dispatches all held back viewport and selection activities. This has to be called before any
+   * other activity is fired to preserve the order of the activities.
+   */
+  private void flushAwarenessActivities() {
+    AwarenessActivityCoalescer coalescer = awarenessActivityCoalescer;
+
+    if (coalescer != null) {
+      coalescer.flush();
+    }
+  }
+
+  /**
+   * Executes the given task on the EDT after the given delay.
+   *
+   * @param delay the delay in milliseconds
+   * @param task the task to execute
+   */
+  private static void scheduleOnEDT(int delay, @NotNull Runnable task) {
+    Timer timer = new Timer(delay, event -> task.run());
+    timer.setRepeats(false);
+    timer.start();
   }
 
   /**
@@ -974,6 +1040,7 @@ public class EditorManager extends AbstractActivityProducer implements IEditorMa
       return;
     }
 
+    flushAwarenessActivities();
     fireActivity(textEdit);
 
     editorListenerDispatch.textEdited(textEdit);
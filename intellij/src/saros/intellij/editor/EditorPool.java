@@ -10,6 +10,8 @@ import java.util.Set;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import saros.filesystem.IFile;
+import saros.filesystem.IResource;
+import saros.synchronize.StopManager;
 
 /**
  * The Intellij editor pool. It is used to store a mapping of <code>IFile</code>s onto <code>Editor
@@ -81,6 +83,19 @@ class EditorPool {
     }
   }
 
+  /**
+   * Sets the editors of the files in the given scope to read only and all other editors in the
+   * editor pool to read/write.
+   *
+   * @param scope the resources whose editors are locked
+   * @see StopManager#isInScope(Set, IResource)
+   */
+  void lockDocuments(@NotNull Set<IResource> scope) {
+    for (Map.Entry<IFile, Editor> entry : editors.entrySet()) {
+      entry.getValue().getDocument().setReadOnly(StopManager.isInScope(scope, entry.getKey()));
+    }
+  }
+
   /**
    * Returns the <code>Document</code> for the given file.
    *
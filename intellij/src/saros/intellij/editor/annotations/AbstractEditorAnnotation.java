@@ -410,6 +410,36 @@ abstract class AbstractEditorAnnotation {
     return annotationRanges.isEmpty();
   }
 
+  /**
+   * Moves all annotation ranges of the annotation by the given number of characters.
+   *
+   * <p>Does nothing if the annotation has a local representation (an editor or range highlighters)
+   * as this will be done automatically by the internal Intellij logic.
+   *
+   * <p>This is equivalent to calling {@link #moveAfterAddition(int, int)} or {@link
+   * #moveAfterDeletion(int, int)} for a change located in front of the annotation.
+   *
+   * @param offset the number of characters to move the annotation by; negative values move the
+   *     annotation to the front
+   * @see AnnotationIndex
+   */
+  void move(int offset) {
+    if (editor != null || offset == 0) {
+      return;
+    }
+
+    for (AnnotationRange annotationRange : getAnnotationRanges()) {
+      if (annotationRange.getRangeHighlighter() != null) {
+        continue;
+      }
+
+      replaceAnnotationRange(
+          annotationRange,
+          new AnnotationRange(
+              annotationRange.getStart() + offset, annotationRange.getEnd() + offset));
+    }
+  }
+
   /** Tears down the annotation, removing any remaining range highlighters. */
   protected void dispose() {
     for (AnnotationRange annotationRange : annotationRanges) {
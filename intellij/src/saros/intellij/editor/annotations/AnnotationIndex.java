@@ -0,0 +1,378 @@
+package saros.intellij.editor.annotations;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An index of the annotations of a file that do not have a local representation, i.e. whose
+ * positions are not updated by Intellij and therefore have to be adjusted by Saros for every change
+ * of the file.
+ *
+ * <p>The annotations are held in a treap (a randomized balanced binary tree) ordered by the start
+ * offset of the annotations. Every node knows the maximal end offset of its subtree, which allows
+ * to find the annotations intersecting a given region without looking at all annotations.
+ *
+ * <p>Moving annotations located behind a change is done lazily: the offset is only recorded at the
+ * root of the affected subtree and propagated to the nodes on the next access. The annotation
+ * objects themselves are only updated when they are requested through {@link #flush()} or removed
+ * from the index. Therefore a change of the file takes logarithmic time plus the time needed to
+ * adjust the annotations directly affected by the change, independent of the number of annotations
+ * located behind the change.
+ *
+ * <p>An annotation must not be modified while it is contained in the index. It has to be {@link
+ * #remove(AbstractEditorAnnotation) removed} first and re-added after the modification.
+ *
+ * @param <E> the indexed annotation type
+ */
+final class AnnotationIndex<E extends AbstractEditorAnnotation> {
+
+  private static final Random RANDOM = new Random();
+
+  private static final class Node<E> {
+    private final E annotation;
+    private final int priority = RANDOM.nextInt();
+
+    private int start;
+    private int end;
+    private int maxEnd;
+
+    /** The offset that still has to be applied to all descendants. */
+    private int pendingChildOffset;
+
+    /** The offset that still has to be applied to the annotation of this node. */
+    private int pendingAnnotationOffset;
+
+    private Node<E> left;
+    private Node<E> right;
+    private Node<E> parent;
+
+    private Node(E annotation, int start, int end) {
+      this.annotation = annotation;
+      this.start = start;
+      this.end = end;
+      this.maxEnd = end;
+    }
+  }
+
+  private final Map<E, Node<E>> nodes = new IdentityHashMap<>();
+
+  private Node<E> root;
+
+  /** Whether there are nodes whose annotations were not moved yet. */
+  private boolean hasPendingOffsets;
+
+  /**
+   * Adds the given annotation to the index.
+   *
+   * @param annotation the annotation to add
+   * @return <code>true</code> if the annotation was added, <code>false</code> if it was already
+   *     contained in the index
+   */
+  boolean add(@NotNull E annotation) {
+    if (nodes.containsKey(annotation)) {
+      return false;
+    }
+
+    int start = Integer.MAX_VALUE;
+    int end = 0;
+
+    for (AnnotationRange annotationRange : annotation.getAnnotationRanges()) {
+      start = Math.min(start, annotationRange.getStart());
+      end = Math.max(end, annotationRange.getEnd());
+    }
+
+    Node<E> node = new Node<>(annotation, start, end);
+    nodes.put(annotation, node);
+
+    Node<E>[] split = split(root, start);
+    setRoot(merge(merge(split[0], node), split[1]));
+
+    return true;
+  }
+
+  /**
+   * Removes the given annotation from the index. All offsets not yet applied to the annotation are
+   * applied before it is removed.
+   *
+   * @param annotation the annotation to remove
+   * @return <code>true</code> if the annotation was contained in the index
+   */
+  boolean remove(@NotNull E annotation) {
+    Node<E> node = nodes.remove(annotation);
+
+    if (node == null) {
+      return false;
+    }
+
+    // apply all pending offsets on the path to the node
+    List<Node<E>> path = new ArrayList<>();
+
+    for (Node<E> current = node; current != null; current = current.parent) {
+      path.add(current);
+    }
+
+    for (int i = path.size() - 1; i >= 0; i--) {
+      push(path.get(i));
+    }
+
+    applyPendingOffset(node);
+
+    Node<E> parent = node.parent;
+    Node<E> replacement = merge(node.left, node.right);
+
+    if (parent == null) {
+      setRoot(replacement);
+
+    } else if (parent.left == node) {
+      setLeft(parent, replacement);
+
+    } else {
+      setRight(parent, replacement);
+    }
+
+    for (Node<E> current = parent; current != null; current = current.parent) {
+      update(current);
+    }
+
+    return true;
+  }
+
+  boolean contains(@NotNull E annotation) {
+    return nodes.containsKey(annotation);
+  }
+
+  boolean isEmpty() {
+    return root == null;
+  }
+
+  /**
+   * Removes and returns all annotations whose boundaries intersect the given region, i.e. all
+   * annotations starting before the end of the region and ending after its start.
+   *
+   * @param regionStart the start of the region
+   * @param regionEnd the end of the region
+   * @return the removed annotations, ordered by their start offset
+   */
+  @NotNull
+  List<E> removeIntersecting(int regionStart, int regionEnd) {
+    List<E> intersecting = new ArrayList<>();
+
+    Node<E>[] split = split(root, regionEnd);
+
+    collectEndingAfter(split[0], regionStart, intersecting);
+
+    setRoot(merge(split[0], split[1]));
+
+    intersecting.forEach(this::remove);
+
+    return intersecting;
+  }
+
+  /**
+   * Moves all annotations starting at or behind the given offset by the given number of characters.
+   *
+   * <p>The caller has to ensure that the order of the annotations is not changed by the move, i.e.
+   * that no annotation in front of the given offset ends up behind a moved annotation.
+   *
+   * @param from the offset from which on annotations are moved
+   * @param offset the number of characters to move the annotations by; negative values move the
+   *     annotations to the front
+   */
+  void shift(int from, int offset) {
+    if (offset == 0) {
+      return;
+    }
+
+    Node<E>[] split = split(root, from);
+
+    if (split[1] != null) {
+      applyOffset(split[1], offset);
+      hasPendingOffsets = true;
+    }
+
+    setRoot(merge(split[0], split[1]));
+  }
+
+  /**
+   * Applies all pending moves to the indexed annotations. This must be called before the positions
+   * of the indexed annotations are read.
+   */
+  void flush() {
+    if (!hasPendingOffsets) {
+      return;
+    }
+
+    flush(root);
+
+    hasPendingOffsets = false;
+  }
+
+  /**
+   * Removes all annotations from the index. All pending moves are applied before.
+   *
+   * @return the removed annotations
+   */
+  @NotNull
+  List<E> clear() {
+    flush();
+
+    List<E> annotations = new ArrayList<>(nodes.keySet());
+
+    nodes.clear();
+    root = null;
+
+    return annotations;
+  }
+
+  private void flush(Node<E> node) {
+    if (node == null) {
+      return;
+    }
+
+    push(node);
+    applyPendingOffset(node);
+
+    flush(node.left);
+    flush(node.right);
+  }
+
+  private void collectEndingAfter(Node<E> node, int offset, List<E> result) {
+    if (node == null || node.maxEnd <= offset) {
+      return;
+    }
+
+    push(node);
+
+    collectEndingAfter(node.left, offset, result);
+
+    if (node.end > offset) {
+      result.add(node.annotation);
+    }
+
+    collectEndingAfter(node.right, offset, result);
+  }
+
+  private void applyPendingOffset(Node<E> node) {
+    if (node.pendingAnnotationOffset != 0) {
+      node.annotation.move(node.pendingAnnotationOffset);
+      node.pendingAnnotationOffset = 0;
+    }
+  }
+
+  /** Splits the tree into the nodes starting before the given offset and all other nodes. */
+  private Node<E>[] split(Node<E> node, int offset) {
+    if (node == null) {
+      return newPair();
+    }
+
+    push(node);
+
+    if (node.start < offset) {
+      Node<E>[] split = split(node.right, offset);
+      setRight(node, split[0]);
+      update(node);
+      split[0] = node;
+      return split;
+    }
+
+    Node<E>[] split = split(node.left, offset);
+    setLeft(node, split[1]);
+    update(node);
+    split[1] = node;
+    return split;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E> Node<E>[] newPair() {
+    return (Node<E>[]) new Node[2];
+  }
+
+  private Node<E> merge(Node<E> left, Node<E> right) {
+    if (left == null) {
+      return right;
+    }
+
+    if (right == null) {
+      return left;
+    }
+
+    if (left.priority > right.priority) {
+      push(left);
+      setRight(left, merge(left.right, right));
+      update(left);
+      return left;
+    }
+
+    push(right);
+    setLeft(right, merge(left, right.left));
+    update(right);
+    return right;
+  }
+
+  private void push(Node<E> node) {
+    if (node.pendingChildOffset == 0) {
+      return;
+    }
+
+    if (node.left != null) {
+      applyOffset(node.left, node.pendingChildOffset);
+    }
+
+    if (node.right != null) {
+      applyOffset(node.right, node.pendingChildOffset);
+    }
+
+    node.pendingChildOffset = 0;
+  }
+
+  private void applyOffset(Node<E> node, int offset) {
+    node.start += offset;
+    node.end += offset;
+    node.maxEnd += offset;
+    node.pendingAnnotationOffset += offset;
+    node.pendingChildOffset += offset;
+  }
+
+  private void update(Node<E> node) {
+    int maxEnd = node.end;
+
+    // the offset pending for the children is not yet applied to their values
+    if (node.left != null) {
+      maxEnd = Math.max(maxEnd, node.left.maxEnd + node.pendingChildOffset);
+    }
+
+    if (node.right != null) {
+      maxEnd = Math.max(maxEnd, node.right.maxEnd + node.pendingChildOffset);
+    }
+
+    node.maxEnd = maxEnd;
+  }
+
+  private void setRoot(Node<E> node) {
+    root = node;
+
+    if (node != null) {
+      node.parent = null;
+    }
+  }
+
+  private void setLeft(Node<E> node, Node<E> child) {
+    node.left = child;
+
+    if (child != null) {
+      child.parent = node;
+    }
+  }
+
+  private void setRight(Node<E> node, Node<E> child) {
+    node.right = child;
+
+    if (child != null) {
+      child.parent = node;
+    }
+  }
+}
@@ -14,15 +14,45 @@ public class AnnotationManager implements Disposable {
 
   private static final Logger log = Logger.getLogger(AnnotationManager.class);
 
-  public static final int MAX_CONTRIBUTION_ANNOTATIONS =
-      Integer.getInteger("saros.intellij.MAX_CONTRIBUTION_ANNOTATIONS", 50);
+  /**
+   * Number of ranges assumed per contribution annotation when converting the deprecated limit of
+   * contribution annotations.
+   */
+  private static final int RANGES_PER_CONTRIBUTION_ANNOTATION = 100;
+
+  /**
+   * The maximal number of annotation ranges held by all contribution annotations. As contribution
+   * annotations consist of one character long ranges, this is the number of annotated characters.
+   *
+   * <p>Configured by the system property <code>saros.intellij.MAX_CONTRIBUTION_RANGES</code>. If it
+   * is not set, the deprecated property <code>saros.intellij.MAX_CONTRIBUTION_ANNOTATIONS</code>,
+   * which limited the number of contribution annotations, is converted instead.
+   */
+  public static final int MAX_CONTRIBUTION_RANGES = getMaxContributionRanges();
 
   private final AnnotationStore<SelectionAnnotation> selectionAnnotationStore;
   private final AnnotationQueue<ContributionAnnotation> contributionAnnotationQueue;
 
   public AnnotationManager() {
     this.selectionAnnotationStore = new AnnotationStore<>();
-    this.contributionAnnotationQueue = new AnnotationQueue<>(MAX_CONTRIBUTION_ANNOTATIONS);
+    this.contributionAnnotationQueue = new AnnotationQueue<>(MAX_CONTRIBUTION_RANGES);
+  }
+
+  private static int getMaxContributionRanges() {
+    Integer ranges = Integer.getInteger("saros.intellij.MAX_CONTRIBUTION_RANGES");
+
+    if (ranges != null) return ranges;
+
+    Integer annotations = Integer.getInteger("saros.intellij.MAX_CONTRIBUTION_ANNOTATIONS");
+
+    if (annotations == null) return 5000;
+
+    log.warn(
+        "saros.intellij.MAX_CONTRIBUTION_ANNOTATIONS is deprecated, use"
+            + " saros.intellij.MAX_CONTRIBUTION_RANGES instead");
+
+    return (int)
+        Math.min(Integer.MAX_VALUE, (long) annotations * RANGES_PER_CONTRIBUTION_ANNOTATION);
   }
 
   @Override
@@ -138,7 +168,7 @@ public class AnnotationManager implements Disposable {
       return;
     }
 
-    contributionAnnotationQueue.removeIfFull();
+    contributionAnnotationQueue.removeIfFull(contributionAnnotation);
 
     contributionAnnotationQueue.addAnnotation(contributionAnnotation);
   }
@@ -155,7 +185,8 @@ public class AnnotationManager implements Disposable {
    * invalid annotations from the annotation store.
    *
    * <p>This method should be used to adjust the position of all annotations after text was added to
-   * a currently closed file.
+   * a currently closed file. Only the annotations overlapping with the added text are adjusted
+   * directly, all annotations behind it are moved lazily (see {@link AnnotationIndex}).
    *
    * @param file the file text was added to
    * @param additionStart the start position of added text
@@ -168,13 +199,9 @@ public class AnnotationManager implements Disposable {
       return;
     }
 
-    for (SelectionAnnotation annotation : selectionAnnotationStore.getAnnotations(file)) {
-      annotation.moveAfterAddition(additionStart, additionEnd);
-    }
+    selectionAnnotationStore.moveAfterAddition(file, additionStart, additionEnd);
 
-    for (ContributionAnnotation annotation : contributionAnnotationQueue.getAnnotations(file)) {
-      annotation.moveAfterAddition(additionStart, additionEnd);
-    }
+    contributionAnnotationQueue.moveAfterAddition(file, additionStart, additionEnd);
   }
 
   /**
@@ -189,7 +216,8 @@ public class AnnotationManager implements Disposable {
    * invalid annotations from the annotation store.
    *
    * <p>This method should be used to adjust the position of all annotations after text was added to
-   * a currently closed file.
+   * a currently closed file. Only the annotations overlapping with the removed text are adjusted
+   * directly, all annotations behind it are moved lazily (see {@link AnnotationIndex}).
    *
    * @param file the file text was removed from
    * @param deletionStart the start position of removed text
@@ -202,20 +230,16 @@ public class AnnotationManager implements Disposable {
       return;
     }
 
-    for (SelectionAnnotation annotation : selectionAnnotationStore.getAnnotations(file)) {
-      boolean isInvalid = annotation.moveAfterDeletion(deletionStart, deletionEnd);
+    for (SelectionAnnotation annotation :
+        selectionAnnotationStore.moveAfterDeletion(file, deletionStart, deletionEnd)) {
 
-      if (isInvalid) {
-        selectionAnnotationStore.removeAnnotation(annotation);
-      }
+      selectionAnnotationStore.removeAnnotation(annotation);
     }
 
-    for (ContributionAnnotation annotation : contributionAnnotationQueue.getAnnotations(file)) {
-      boolean isInvalid = annotation.moveAfterDeletion(deletionStart, deletionEnd);
+    for (ContributionAnnotation annotation :
+        contributionAnnotationQueue.moveAfterDeletion(file, deletionStart, deletionEnd)) {
 
-      if (isInvalid) {
-        contributionAnnotationQueue.removeAnnotation(annotation);
-      }
+      contributionAnnotationQueue.removeAnnotation(annotation);
     }
   }
 
@@ -240,6 +264,9 @@ public class AnnotationManager implements Disposable {
     for (ContributionAnnotation annotation : contributionAnnotationQueue.getAnnotations(file)) {
       annotation.addLocalRepresentation(editor);
     }
+
+    selectionAnnotationStore.updateIndex(file);
+    contributionAnnotationQueue.updateIndex(file);
   }
 
   /**
@@ -294,6 +321,9 @@ public class AnnotationManager implements Disposable {
     for (ContributionAnnotation annotation : contributionAnnotationQueue.getAnnotations(file)) {
       annotation.removeLocalRepresentation();
     }
+
+    selectionAnnotationStore.updateIndex(file);
+    contributionAnnotationQueue.updateIndex(file);
   }
 
   /**
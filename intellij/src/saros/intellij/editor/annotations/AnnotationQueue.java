@@ -1,89 +1,120 @@
 package saros.intellij.editor.annotations;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 import saros.filesystem.IFile;
 import saros.session.User;
 
 /**
  * A class to store a limited number of annotations of a certain type. The store operates like a
- * queue, meaning, if the store is full, the oldest annotation is removed. This is not done
- * automatically but rather should be done by the caller by calling {@link #removeIfFull()} before
- * adding new annotations.
+ * queue, meaning, if the store is full, the oldest annotations are removed. This is not done
+ * automatically but rather should be done by the caller by calling {@link
+ * #removeIfFull(AbstractEditorAnnotation)} before adding new annotations.
+ *
+ * <p>The capacity of the queue is not given as a number of annotations but as the number of
+ * annotation ranges held by the annotations. This bounds the memory used by the queue (and the
+ * number of range highlighters in the local editors) independent of the size of the single
+ * annotations. The size of an annotation is determined when it is added to the queue.
  *
  * @param <E> the stored annotation type
  */
 class AnnotationQueue<E extends AbstractEditorAnnotation> extends AnnotationStore<E> {
 
-  private final Queue<E> annotationQueue;
+  /** The queued annotations in insertion order, mapped to their number of annotation ranges. */
+  private final Map<E, Integer> annotationQueue;
+
+  private final int maxRanges;
 
-  private final int maxSize;
+  private int currentRanges;
 
   /**
    * Creates an annotation store with the given capacity. The given capacity needs to be at least 1.
    *
-   * @param maxSize the capacity of the annotation store.
+   * @param maxRanges the capacity of the annotation store in annotation ranges
    */
-  AnnotationQueue(int maxSize) {
+  AnnotationQueue(int maxRanges) {
     super();
 
-    if (maxSize < 1) {
+    if (maxRanges < 1) {
       throw new IllegalArgumentException(
-          "The given size of the queue must be at least 1. maxSize: " + maxSize);
+          "The given size of the queue must be at least 1. maxRanges: " + maxRanges);
     }
 
-    this.maxSize = maxSize;
+    this.maxRanges = maxRanges;
 
-    this.annotationQueue = new ArrayDeque<>(maxSize);
+    this.annotationQueue = new LinkedHashMap<>();
   }
 
   /**
-   * Removes and returns the oldest element of the annotation queue if the queue has reached its
-   * maximum size.
+   * Removes and returns the oldest elements of the annotation queue until there is enough space to
+   * hold the given annotation. If the given annotation on its own exceeds the capacity of the
+   * queue, all other annotations are removed.
    *
    * <p><b>NOTE:</b> This calls {@link AbstractEditorAnnotation#dispose()} on the removed
-   * annotation, removing it from the local editor. This method should always be called before
+   * annotations, removing them from the local editor. This method should always be called before
    * {@link #addAnnotation(AbstractEditorAnnotation)}.
    *
-   * @return the oldest element of the annotation queue if the queue has reached its maximum size or
-   *     <code>null</code> otherwise
+   * @param annotation the annotation that is going to be added
+   * @return the removed annotations, starting with the oldest one
    */
-  @Nullable
-  E removeIfFull() {
-    if (annotationQueue.size() == maxSize) {
-      E removedAnnotation = annotationQueue.remove();
+  @NotNull
+  List<E> removeIfFull(@NotNull E annotation) {
+    List<E> removedAnnotations = new ArrayList<>();
+
+    int remainingRanges = currentRanges;
+    int requiredRanges = getSize(annotation);
 
-      super.removeAnnotation(removedAnnotation);
+    Iterator<Map.Entry<E, Integer>> iterator = annotationQueue.entrySet().iterator();
 
-      return removedAnnotation;
+    while (iterator.hasNext() && remainingRanges + requiredRanges > maxRanges) {
+      Map.Entry<E, Integer> entry = iterator.next();
+
+      removedAnnotations.add(entry.getKey());
+      remainingRanges -= entry.getValue();
     }
 
-    return null;
+    removedAnnotations.forEach(this::removeAnnotation);
+
+    return removedAnnotations;
   }
 
   /**
    * Adds the given annotation to the annotation store.
    *
-   * <p>{@link #removeIfFull()} should always be called before this method to ensure that the queue
-   * is not full when trying to add an element.
+   * <p>{@link #removeIfFull(AbstractEditorAnnotation)} should always be called before this method
+   * to ensure that the queue has enough space left for the given annotation.
    *
    * @param annotation the annotation to add
-   * @throws IllegalStateException if the annotation queue is full
+   * @throws IllegalStateException if the annotation queue does not have enough space left for the
+   *     given annotation
    */
   @Override
   void addAnnotation(@NotNull E annotation) {
 
-    if (annotationQueue.size() >= maxSize) {
+    if (annotationQueue.containsKey(annotation)) {
+      return;
+    }
+
+    int size = getSize(annotation);
+
+    if (currentRanges + size > maxRanges && !annotationQueue.isEmpty()) {
       throw new IllegalStateException(
-          "The queue already contains the " + "allowed number of annotations.");
+          "The queue does not have enough space left for the annotation. size: "
+              + size
+              + ", used: "
+              + currentRanges
+              + ", capacity: "
+              + maxRanges);
     }
 
     super.addAnnotation(annotation);
 
-    annotationQueue.add(annotation);
+    annotationQueue.put(annotation, size);
+    currentRanges += size;
   }
 
   @Override
@@ -91,7 +122,7 @@ class AnnotationQueue<E extends AbstractEditorAnnotation> extends AnnotationStor
 
     super.removeAnnotation(annotation);
 
-    annotationQueue.remove(annotation);
+    dequeue(annotation);
   }
 
   @Override
@@ -100,7 +131,7 @@ class AnnotationQueue<E extends AbstractEditorAnnotation> extends AnnotationStor
 
     List<E> removedAnnotations = super.removeAnnotations(user, file);
 
-    annotationQueue.removeAll(removedAnnotations);
+    removedAnnotations.forEach(this::dequeue);
 
     return removedAnnotations;
   }
@@ -111,7 +142,7 @@ class AnnotationQueue<E extends AbstractEditorAnnotation> extends AnnotationStor
 
     List<E> removedAnnotations = super.removeAnnotations(user);
 
-    annotationQueue.removeAll(removedAnnotations);
+    removedAnnotations.forEach(this::dequeue);
 
     return removedAnnotations;
   }
@@ -120,7 +151,20 @@ class AnnotationQueue<E extends AbstractEditorAnnotation> extends AnnotationStor
   @NotNull
   List<E> removeAllAnnotations() {
     annotationQueue.clear();
+    currentRanges = 0;
 
     return super.removeAllAnnotations();
   }
+
+  private void dequeue(@NotNull E annotation) {
+    Integer size = annotationQueue.remove(annotation);
+
+    if (size != null) {
+      currentRanges -= size;
+    }
+  }
+
+  private static int getSize(@NotNull AbstractEditorAnnotation annotation) {
+    return Math.max(1, annotation.getAnnotationRanges().size());
+  }
 }
@@ -3,8 +3,10 @@ package saros.intellij.editor.annotations;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.jetbrains.annotations.NotNull;
 import saros.filesystem.IFile;
 import saros.session.User;
@@ -12,10 +14,41 @@ import saros.session.User;
 /**
  * A class to store all current annotations of a certain type.
  *
+ * <p>The annotations of every file are grouped by user. Additionally, all annotations of a file
+ * that do not have a local representation are held in an {@link AnnotationIndex}, which allows to
+ * {@link #moveAfterAddition(IFile, int, int) move} them after a change of the file in logarithmic
+ * time. As the index applies such moves lazily, the positions of the annotations returned by this
+ * store are brought up to date before they are returned. Whenever the local representation of the
+ * annotations of a file is added or removed, {@link #updateIndex(IFile)} has to be called.
+ *
+ * <p>Adding an annotation that is already contained in the store has no effect.
+ *
  * @param <E> the stored annotation type
  */
 class AnnotationStore<E extends AbstractEditorAnnotation> {
-  private final Map<IFile, Map<User, List<E>>> annotationMap;
+
+  /** The annotations of a file. */
+  private static class FileAnnotations<E extends AbstractEditorAnnotation> {
+    private final Map<User, Set<E>> annotationsByUser = new HashMap<>();
+    private final AnnotationIndex<E> detachedAnnotations = new AnnotationIndex<>();
+
+    @NotNull
+    List<E> getAnnotations() {
+      detachedAnnotations.flush();
+
+      List<E> annotations = new ArrayList<>();
+
+      annotationsByUser.values().forEach(annotations::addAll);
+
+      return annotations;
+    }
+
+    boolean isEmpty() {
+      return annotationsByUser.isEmpty();
+    }
+  }
+
+  private final Map<IFile, FileAnnotations<E>> annotationMap;
 
   AnnotationStore() {
     annotationMap = new HashMap<>();
@@ -31,13 +64,34 @@ class AnnotationStore<E extends AbstractEditorAnnotation> {
     IFile file = annotation.getFile();
     User user = annotation.getUser();
 
-    Map<User, List<E>> annotationsForFile =
-        annotationMap.computeIfAbsent(file, givenFile -> new HashMap<>());
+    FileAnnotations<E> annotationsForFile =
+        annotationMap.computeIfAbsent(file, givenFile -> new FileAnnotations<>());
 
-    List<E> storedAnnotations =
-        annotationsForFile.computeIfAbsent(user, givenFile -> new ArrayList<>());
+    Set<E> storedAnnotations =
+        annotationsForFile.annotationsByUser.computeIfAbsent(
+            user, givenUser -> new LinkedHashSet<>());
 
-    storedAnnotations.add(annotation);
+    if (storedAnnotations.add(annotation) && annotation.getEditor() == null) {
+      annotationsForFile.detachedAnnotations.add(annotation);
+    }
+  }
+
+  /**
+   * Returns whether the given annotation is contained in the <code>AnnotationStore</code>.
+   *
+   * @param annotation the annotation to check
+   * @return whether the given annotation is contained in the store
+   */
+  boolean containsAnnotation(@NotNull E annotation) {
+    FileAnnotations<E> annotationsForFile = annotationMap.get(annotation.getFile());
+
+    if (annotationsForFile == null) {
+      return false;
+    }
+
+    Set<E> storedAnnotations = annotationsForFile.annotationsByUser.get(annotation.getUser());
+
+    return storedAnnotations != null && storedAnnotations.contains(annotation);
   }
 
   /**
@@ -49,7 +103,7 @@ class AnnotationStore<E extends AbstractEditorAnnotation> {
   List<E> getAnnotations() {
     List<E> annotations = new ArrayList<>();
 
-    annotationMap.values().forEach(map -> map.values().forEach(annotations::addAll));
+    annotationMap.values().forEach(map -> annotations.addAll(map.getAnnotations()));
 
     return annotations;
   }
@@ -63,20 +117,13 @@ class AnnotationStore<E extends AbstractEditorAnnotation> {
   @NotNull
   List<E> getAnnotations(@NotNull IFile file) {
 
-    List<E> annotations = new ArrayList<>();
-
-    Map<User, List<E>> annotationsForFile = annotationMap.get(file);
+    FileAnnotations<E> annotationsForFile = annotationMap.get(file);
 
-    if (annotationsForFile != null) {
-      annotationsForFile.forEach(
-          (user, storedAnnotations) -> {
-            if (storedAnnotations != null) {
-              annotations.addAll(storedAnnotations);
-            }
-          });
+    if (annotationsForFile == null) {
+      return new ArrayList<>();
     }
 
-    return annotations;
+    return annotationsForFile.getAnnotations();
   }
 
   /**
@@ -94,20 +141,22 @@ class AnnotationStore<E extends AbstractEditorAnnotation> {
 
     annotation.dispose();
 
-    Map<User, List<E>> annotationsForFile = annotationMap.get(file);
+    FileAnnotations<E> annotationsForFile = annotationMap.get(file);
 
     if (annotationsForFile == null) {
       return;
     }
 
-    List<E> storedAnnotations = annotationsForFile.get(user);
+    annotationsForFile.detachedAnnotations.remove(annotation);
+
+    Set<E> storedAnnotations = annotationsForFile.annotationsByUser.get(user);
 
     if (storedAnnotations != null) {
       storedAnnotations.remove(annotation);
     }
 
     if (storedAnnotations == null || storedAnnotations.isEmpty()) {
-      annotationsForFile.remove(user);
+      annotationsForFile.annotationsByUser.remove(user);
     }
 
     if (annotationsForFile.isEmpty()) {
@@ -128,13 +177,13 @@ class AnnotationStore<E extends AbstractEditorAnnotation> {
   @NotNull
   List<E> removeAnnotations(@NotNull User user, @NotNull IFile file) {
 
-    Map<User, List<E>> annotationsForFile = annotationMap.get(file);
+    FileAnnotations<E> annotationsForFile = annotationMap.get(file);
 
     if (annotationsForFile == null) {
       return Collections.emptyList();
     }
 
-    List<E> storedAnnotations = annotationsForFile.remove(user);
+    Set<E> storedAnnotations = annotationsForFile.annotationsByUser.remove(user);
 
     if (annotationsForFile.isEmpty()) {
       annotationMap.remove(file);
@@ -144,9 +193,11 @@ class AnnotationStore<E extends AbstractEditorAnnotation> {
       return Collections.emptyList();
     }
 
+    storedAnnotations.forEach(annotationsForFile.detachedAnnotations::remove);
+
     storedAnnotations.forEach(AbstractEditorAnnotation::dispose);
 
-    return storedAnnotations;
+    return new ArrayList<>(storedAnnotations);
   }
 
   /**
@@ -169,13 +220,11 @@ class AnnotationStore<E extends AbstractEditorAnnotation> {
 
     annotationMap.forEach(
         (file, annotationsForFile) -> {
-          if (annotationsForFile == null) {
-            return;
-          }
-
-          List<E> storedAnnotations = annotationsForFile.remove(user);
+          Set<E> storedAnnotations = annotationsForFile.annotationsByUser.remove(user);
 
           if (storedAnnotations != null) {
+            storedAnnotations.forEach(annotationsForFile.detachedAnnotations::remove);
+
             removedAnnotations.addAll(storedAnnotations);
           }
 
@@ -203,19 +252,7 @@ class AnnotationStore<E extends AbstractEditorAnnotation> {
    */
   @NotNull
   List<E> removeAllAnnotations() {
-    List<E> removedAnnotations = new ArrayList<>();
-
-    annotationMap.forEach(
-        (file, annotationsForFile) -> {
-          if (annotationsForFile != null) {
-            annotationsForFile.forEach(
-                (user, storedAnnotations) -> {
-                  if (storedAnnotations != null) {
-                    removedAnnotations.addAll(storedAnnotations);
-                  }
-                });
-          }
-        });
+    List<E> removedAnnotations = getAnnotations();
 
     annotationMap.clear();
 
@@ -224,6 +261,110 @@ class AnnotationStore<E extends AbstractEditorAnnotation> {
     return removedAnnotations;
   }
 
+  /**
+   * Moves all annotations without a local representation for the given file according to the given
+   * addition.
+   *
+   * <p>Only the annotations overlapping with the added text are adjusted directly (see {@link
+   * AbstractEditorAnnotation#moveAfterAddition(int, int)}). All annotations located behind the
+   * added text are moved lazily.
+   *
+   * @param file the file text was added to
+   * @param additionStart the start position of added text
+   * @param additionEnd the end position of the added text
+   */
+  void moveAfterAddition(@NotNull IFile file, int additionStart, int additionEnd) {
+    FileAnnotations<E> annotationsForFile = annotationMap.get(file);
+
+    if (annotationsForFile == null || annotationsForFile.detachedAnnotations.isEmpty()) {
+      return;
+    }
+
+    AnnotationIndex<E> index = annotationsForFile.detachedAnnotations;
+
+    List<E> overlappingAnnotations = index.removeIntersecting(additionStart, additionStart + 1);
+
+    index.shift(additionStart + 1, additionEnd - additionStart);
+
+    for (E annotation : overlappingAnnotations) {
+      annotation.moveAfterAddition(additionStart, additionEnd);
+
+      index.add(annotation);
+    }
+  }
+
+  /**
+   * Moves all annotations without a local representation for the given file according to the given
+   * deletion.
+   *
+   * <p>Only the annotations overlapping with the deleted text are adjusted directly (see {@link
+   * AbstractEditorAnnotation#moveAfterDeletion(int, int)}). All annotations located behind the
+   * deleted text are moved lazily.
+   *
+   * <p>Annotations that became invalid by the deletion are not removed from the store but returned
+   * so that the caller can remove them.
+   *
+   * @param file the file text was removed from
+   * @param deletionStart the start position of removed text
+   * @param deletionEnd the end position of the removed text
+   * @return the annotations that became invalid by the deletion
+   */
+  @NotNull
+  List<E> moveAfterDeletion(@NotNull IFile file, int deletionStart, int deletionEnd) {
+    FileAnnotations<E> annotationsForFile = annotationMap.get(file);
+
+    if (annotationsForFile == null || annotationsForFile.detachedAnnotations.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    AnnotationIndex<E> index = annotationsForFile.detachedAnnotations;
+
+    List<E> overlappingAnnotations = index.removeIntersecting(deletionStart, deletionEnd);
+
+    index.shift(deletionEnd, deletionStart - deletionEnd);
+
+    List<E> invalidAnnotations = new ArrayList<>();
+
+    for (E annotation : overlappingAnnotations) {
+      boolean isInvalid = annotation.moveAfterDeletion(deletionStart, deletionEnd);
+
+      if (isInvalid) {
+        invalidAnnotations.add(annotation);
+
+      } else {
+        index.add(annotation);
+      }
+    }
+
+    return invalidAnnotations;
+  }
+
+  /**
+   * Updates the index of the annotations without a local representation for the given file.
+   *
+   * <p>This method has to be called after the local representation of the annotations of the given
+   * file was added or removed.
+   *
+   * @param file the file whose annotations to update
+   */
+  void updateIndex(@NotNull IFile file) {
+    FileAnnotations<E> annotationsForFile = annotationMap.get(file);
+
+    if (annotationsForFile == null) {
+      return;
+    }
+
+    annotationsForFile.detachedAnnotations.clear();
+
+    annotationsForFile
+        .annotationsByUser
+        .values()
+        .stream()
+        .flatMap(Set::stream)
+        .filter(annotation -> annotation.getEditor() == null)
+        .forEach(annotationsForFile.detachedAnnotations::add);
+  }
+
   /**
    * Sets the given new file as the file for all annotations belonging to the given old file.
    *
@@ -234,7 +375,7 @@ class AnnotationStore<E extends AbstractEditorAnnotation> {
    */
   void updateAnnotationPath(@NotNull IFile oldFile, @NotNull IFile newFile) {
 
-    Map<User, List<E>> oldMapping = annotationMap.remove(oldFile);
+    FileAnnotations<E> oldMapping = annotationMap.remove(oldFile);
 
     if (oldMapping != null) {
       annotationMap.put(newFile, oldMapping);
@@ -0,0 +1,347 @@
+package saros.intellij.eventhandler.filesystem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.apache.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import saros.activities.FileActivity;
+import saros.activities.IActivity;
+import saros.filesystem.IResource;
+
+/**
+ * Collects the resource activities generated by the {@link LocalFilesystemModificationHandler} for
+ * a whole batch of filesystem events (e.g. caused by a branch switch or a filesystem refresh) and
+ * dispatches them once the batch was processed.
+ *
+ * <p>While collecting, the structural changes are reduced per resource:
+ *
+ * <ul>
+ *   <li>Repeated creations or deletions of the same resource are only dispatched once.
+ *   <li>A creation that is followed by a deletion of the same resource is dropped together with the
+ *       deletion, as the other participants never knew about the resource.
+ * </ul>
+ *
+ * Any other activity, e.g. a move, ends the reduction for the resources it refers to. All remaining
+ * activities are dispatched in the order they were added.
+ *
+ * <p>The content of created files that are not open in a document is read when the batch is
+ * flushed, in the background using the given read executor. The flush does not wait for the reads.
+ * Instead, the batch is dispatched by the given dispatch executor once all its contents were read
+ * and all previous batches were dispatched. A batch without contents to read is dispatched by the
+ * flush directly if no previous batch is still pending.
+ *
+ * <p><b>Note:</b> This class is not thread safe. All methods must be called by the dispatching
+ * thread, usually the EDT, which must also execute the tasks passed to the dispatch executor. Only
+ * the content loaders are executed by the read executor.
+ */
+final class FilesystemActivityBatcher {
+
+  private static final Logger log = Logger.getLogger(FilesystemActivityBatcher.class);
+
+  private enum Kind {
+    CREATION,
+    DELETION,
+    OTHER
+  }
+
+  private static final class Entry {
+    private final Kind kind;
+    private final IResource resource;
+
+    /** The previous creation or deletion entry of the same resource in the same batch */
+    private final Entry previous;
+
+    private final Supplier<IActivity> loader;
+    private final Runnable callback;
+
+    private IActivity activity;
+    private boolean dropped;
+
+    private Entry(
+        Kind kind,
+        IResource resource,
+        Entry previous,
+        IActivity activity,
+        Supplier<IActivity> loader,
+        Runnable callback) {
+
+      this.kind = kind;
+      this.resource = resource;
+      this.previous = previous;
+      this.activity = activity;
+      this.loader = loader;
+      this.callback = callback;
+    }
+  }
+
+  private final Consumer<IActivity> dispatcher;
+  private final Executor dispatchExecutor;
+  private final Executor readExecutor;
+
+  private List<Entry> entries = new ArrayList<>();
+
+  /** The latest creation or deletion entry of every resource in the current batch */
+  private final Map<IResource, Entry> latestEntries = new HashMap<>();
+
+  /** Completes once all flushed batches were dispatched */
+  private CompletableFuture<Void> pendingDispatch = CompletableFuture.completedFuture(null);
+
+  /** Incremented on every {@link #clear()} to discard batches whose contents are still read */
+  private int generation;
+
+  /**
+   * Creates a new batcher.
+   *
+   * @param dispatcher the consumer dispatching the activities
+   * @param dispatchExecutor the executor used to dispatch batches after their contents were read;
+   *     must execute the tasks in the dispatching thread
+   * @param readExecutor the executor used to read the contents of the created files
+   */
+  FilesystemActivityBatcher(
+      @NotNull Consumer<IActivity> dispatcher,
+      @NotNull Executor dispatchExecutor,
+      @NotNull Executor readExecutor) {
+
+    this.dispatcher = dispatcher;
+    this.dispatchExecutor = dispatchExecutor;
+    this.readExecutor = readExecutor;
+  }
+
+  /**
+   * Adds the creation of the given resource whose activity is already complete.
+   *
+   * @param resource the created resource
+   * @param activity the creation activity
+   * @param callback executed in the dispatching thread after the creation activity was dispatched;
+   *     may be <code>null</code>
+   */
+  void addCreation(
+      @NotNull IResource resource, @NotNull IActivity activity, @Nullable Runnable callback) {
+
+    addCreation(resource, activity, null, callback);
+  }
+
+  /**
+   * Adds the creation of the given file. The creation activity is created by the given loader in a
+   * background thread once the batch is flushed. The loader must therefore only access state that
+   * can be accessed by any thread, e.g. by using a read action.
+   *
+   * @param resource the created file
+   * @param loader creates the creation activity, including the current content of the file
+   * @param callback executed in the dispatching thread after the creation activity was dispatched;
+   *     may be <code>null</code>
+   */
+  void addCreation(
+      @NotNull IResource resource,
+      @NotNull Supplier<IActivity> loader,
+      @Nullable Runnable callback) {
+
+    addCreation(resource, null, loader, callback);
+  }
+
+  /**
+   * Adds the deletion of the given resource.
+   *
+   * @param resource the deleted resource
+   * @param activity the deletion activity
+   */
+  void addDeletion(@NotNull IResource resource, @NotNull IActivity activity) {
+    Entry latest = latestEntries.get(resource);
+
+    if (latest != null && latest.kind == Kind.DELETION) {
+      if (log.isTraceEnabled()) {
+        log.trace("Dropping repeated deletion of " + resource);
+      }
+
+      return;
+    }
+
+    if (latest != null && latest.kind == Kind.CREATION) {
+      if (log.isTraceEnabled()) {
+        log.trace("Dropping creation and deletion of " + resource);
+      }
+
+      latest.dropped = true;
+
+      if (latest.previous != null) {
+        latestEntries.put(resource, latest.previous);
+      } else {
+        latestEntries.remove(resource);
+      }
+
+      return;
+    }
+
+    append(new Entry(Kind.DELETION, resource, latest, activity, null, null));
+  }
+
+  /**
+   * Adds an activity that is dispatched as is in the order it was added.
+   *
+   * <p>Creations and deletions of the moved resources are no longer reduced with creations or
+   * deletions added before a move activity.
+   *
+   * @param activity the activity to dispatch
+   */
+  void addActivity(@NotNull IActivity activity) {
+    if (activity instanceof FileActivity) {
+      FileActivity fileActivity = (FileActivity) activity;
+
+      latestEntries.remove(fileActivity.getResource());
+
+      if (fileActivity.getOldResource() != null) {
+        latestEntries.remove(fileActivity.getOldResource());
+      }
+    }
+
+    append(new Entry(Kind.OTHER, null, null, activity, null, null));
+  }
+
+  /**
+   * Adds a task that is executed in the dispatching thread once all previously added activities
+   * were dispatched. The task is executed immediately if there are no such activities.
+   *
+   * @param callback the task to execute
+   */
+  void addCallback(@NotNull Runnable callback) {
+    if (entries.isEmpty() && pendingDispatch.isDone()) {
+      callback.run();
+
+      return;
+    }
+
+    append(new Entry(Kind.OTHER, null, null, null, null, callback));
+  }
+
+  /** Discards all collected activities, including the ones of batches whose contents are read. */
+  void clear() {
+    entries = new ArrayList<>();
+    latestEntries.clear();
+
+    generation++;
+    pendingDispatch = CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Ends the current batch. Starts reading the contents of its created files and dispatches the
+   * batch once they were read. Returns without waiting for the reads.
+   */
+  void flush() {
+    if (entries.isEmpty()) {
+      return;
+    }
+
+    List<Entry> batch = entries;
+
+    entries = new ArrayList<>();
+    latestEntries.clear();
+
+    List<Entry> toLoad = new ArrayList<>();
+
+    for (Entry entry : batch) {
+      if (!entry.dropped && entry.loader != null) {
+        toLoad.add(entry);
+      }
+    }
+
+    if (toLoad.isEmpty() && pendingDispatch.isDone()) {
+      dispatch(batch);
+
+      return;
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug(
+          "Reading the content of "
+              + toLoad.size()
+              + " created files before dispatching "
+              + batch.size()
+              + " filesystem activities");
+    }
+
+    int batchGeneration = generation;
+
+    CompletableFuture<?>[] reads = new CompletableFuture<?>[toLoad.size()];
+
+    for (int i = 0; i < reads.length; i++) {
+      Entry entry = toLoad.get(i);
+
+      reads[i] = CompletableFuture.runAsync(() -> load(entry), readExecutor);
+    }
+
+    pendingDispatch =
+        CompletableFuture.allOf(pendingDispatch, CompletableFuture.allOf(reads))
+            .thenRunAsync(
+                () -> {
+                  if (batchGeneration != generation) {
+                    return;
+                  }
+
+                  try {
+                    dispatch(batch);
+
+                  } catch (RuntimeException e) {
+                    log.error("Failed to dispatch the filesystem activities", e);
+                  }
+                },
+                dispatchExecutor);
+  }
+
+  private void addCreation(
+      IResource resource, IActivity activity, Supplier<IActivity> loader, Runnable callback) {
+
+    Entry latest = latestEntries.get(resource);
+
+    if (latest != null && latest.kind == Kind.CREATION) {
+      if (log.isTraceEnabled()) {
+        log.trace("Dropping repeated creation of " + resource);
+      }
+
+      return;
+    }
+
+    append(new Entry(Kind.CREATION, resource, latest, activity, loader, callback));
+  }
+
+  private void append(Entry entry) {
+    entries.add(entry);
+
+    if (entry.resource != null) {
+      latestEntries.put(entry.resource, entry);
+    }
+  }
+
+  private void dispatch(List<Entry> batch) {
+    for (Entry entry : batch) {
+      if (entry.dropped) {
+        continue;
+      }
+
+      if (entry.activity != null) {
+        dispatcher.accept(entry.activity);
+      }
+
+      if (entry.callback != null) {
+        entry.callback.run();
+      }
+    }
+  }
+
+  private static void load(Entry entry) {
+    try {
+      entry.activity = entry.loader.get();
+
+    } catch (RuntimeException e) {
+      log.error("Failed to create the creation activity for " + entry.resource, e);
+
+      entry.dropped = true;
+    }
+  }
+}
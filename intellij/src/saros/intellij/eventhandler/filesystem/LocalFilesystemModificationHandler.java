@@ -2,6 +2,7 @@ package saros.intellij.eventhandler.filesystem;
 
 import static saros.filesystem.IResource.Type.REFERENCE_POINT;
 
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
@@ -14,15 +15,26 @@ import com.intellij.openapi.vfs.VirtualFileCopyEvent;
 import com.intellij.openapi.vfs.VirtualFileEvent;
 import com.intellij.openapi.vfs.VirtualFileFilter;
 import com.intellij.openapi.vfs.VirtualFileListener;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.openapi.vfs.VirtualFileMoveEvent;
 import com.intellij.openapi.vfs.VirtualFilePropertyEvent;
+import com.intellij.openapi.vfs.impl.BulkVirtualFileListenerAdapter;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.messages.MessageBusConnection;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.MessageFormat;
 import java.util.Deque;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import org.apache.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -47,35 +59,50 @@ import saros.intellij.eventhandler.IApplicationEventHandler;
 import saros.intellij.eventhandler.editor.document.LocalDocumentModificationActivityDispatcher;
 import saros.intellij.filesystem.VirtualFileConverter;
 import saros.intellij.runtime.EDTExecutor;
+import saros.intellij.runtime.FilesystemRunner;
 import saros.intellij.ui.Messages;
 import saros.intellij.ui.util.NotificationPanel;
 import saros.observables.FileReplacementInProgressObservable;
 import saros.session.AbstractActivityProducer;
 import saros.session.ISarosSession;
 import saros.session.User;
+import saros.util.NamedThreadFactory;
 import saros.util.PathUtils;
 
 /**
  * Uses a VirtualFileListener to generate and dispatch FileActivities for shared files.
  *
+ * <p>The listener is not registered directly but called by a {@link BulkFileListener} for every
+ * batch of VFS events, e.g. all events of a branch switch. The activities generated for a batch are
+ * collected by a {@link FilesystemActivityBatcher} that is flushed once all events of the batch
+ * were processed. This reduces repeated creations and deletions of the same resource and allows to
+ * read the contents of the created files in the background instead of the EDT.
+ *
  * <p>The handler is disabled and the listener is not registered by default.
  *
  * @see VirtualFileListener
+ * @see VirtualFileManager#VFS_CHANGES
  */
 public class LocalFilesystemModificationHandler extends AbstractActivityProducer
     implements IApplicationEventHandler {
 
   private static final Logger log = Logger.getLogger(LocalFilesystemModificationHandler.class);
 
+  /** Maximal number of threads used to read the contents of created files in parallel */
+  private static final int CONTENT_READ_THREADS =
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
   private final Project project;
 
   private final EditorManager editorManager;
   private final ISarosSession session;
-  private final LocalFileSystem localFileSystem;
   private final FileReplacementInProgressObservable fileReplacementInProgressObservable;
   private final AnnotationManager annotationManager;
   private final LocalEditorHandler localEditorHandler;
 
+  private final ExecutorService contentReadExecutor;
+  private final FilesystemActivityBatcher activityBatcher;
+
   private boolean enabled;
   private boolean disposed;
 
@@ -142,6 +169,30 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
         }
       };
 
+  /**
+   * Passes the events of a VFS batch to the virtual file listener and flushes the activities
+   * generated for the batch once all its events were processed.
+   */
+  private final BulkFileListener bulkFileListener =
+      new BulkFileListener() {
+        private final BulkFileListener delegate =
+            new BulkVirtualFileListenerAdapter(virtualFileListener, LocalFileSystem.getInstance());
+
+        @Override
+        public void before(@NotNull List<? extends VFileEvent> events) {
+          delegate.before(events);
+        }
+
+        @Override
+        public void after(@NotNull List<? extends VFileEvent> events) {
+          delegate.after(events);
+
+          activityBatcher.flush();
+        }
+      };
+
+  private MessageBusConnection messageBusConnection;
+
   @Override
   @NotNull
   public ApplicationEventHandlerType getHandlerType() {
@@ -160,9 +211,14 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
   @Override
   public void dispose() {
     EDTExecutor.invokeAndWait(
-        () -> session.removeActivityProducer(LocalFilesystemModificationHandler.this),
+        () -> {
+          activityBatcher.clear();
+          session.removeActivityProducer(LocalFilesystemModificationHandler.this);
+        },
         ModalityState.defaultModalityState());
 
+    contentReadExecutor.shutdown();
+
     disposed = true;
     setEnabled(false);
   }
@@ -193,7 +249,22 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
     this.enabled = false;
     this.disposed = false;
 
-    this.localFileSystem = LocalFileSystem.getInstance();
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            CONTENT_READ_THREADS,
+            CONTENT_READ_THREADS,
+            30,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("LocalFilesystemModificationHandler-ContentReader"));
+
+    executor.allowCoreThreadTimeOut(true);
+
+    this.contentReadExecutor = executor;
+
+    this.activityBatcher =
+        new FilesystemActivityBatcher(
+            this::dispatchActivity, EDTExecutor::invokeLater, contentReadExecutor);
   }
 
   /**
@@ -233,7 +304,8 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
                 + " as they were caused by a document save.");
       }
 
-      localEditorHandler.generateEditorSaved(file);
+      // keep the order with the collected resource activities
+      activityBatcher.addCallback(() -> localEditorHandler.generateEditorSaved(file));
 
       return;
     }
@@ -297,34 +369,24 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
       return;
     }
 
-    User user = session.getLocalUser();
-
-    IActivity activity;
-
     if (createdVirtualFile.isDirectory()) {
-      activity = new FolderCreatedActivity(user, (IFolder) resource);
-
-    } else {
-      String charset = createdVirtualFile.getCharset().name();
+      User user = session.getLocalUser();
 
-      byte[] content = getContent(createdVirtualFile);
+      activityBatcher.addCreation(
+          resource, new FolderCreatedActivity(user, (IFolder) resource), null);
 
-      activity =
-          new FileActivity(
-              user,
-              Type.CREATED,
-              FileActivity.Purpose.ACTIVITY,
-              (IFile) resource,
-              null,
-              content,
-              charset);
+      return;
     }
 
-    dispatchActivity(activity);
+    IFile file = (IFile) resource;
+
+    Runnable callback = null;
 
-    if (!createdVirtualFile.isDirectory() && ProjectAPI.isOpen(project, createdVirtualFile)) {
-      setUpCreatedFileState((IFile) resource);
+    if (ProjectAPI.isOpen(project, createdVirtualFile)) {
+      callback = () -> setUpCreatedFileState(file);
     }
+
+    queueFileCreationActivity(file, createdVirtualFile, callback);
   }
 
   /**
@@ -365,16 +427,7 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
       return;
     }
 
-    User user = session.getLocalUser();
-    String charset = copy.getCharset().name();
-
-    byte[] content = getContent(copy);
-
-    IActivity activity =
-        new FileActivity(
-            user, Type.CREATED, FileActivity.Purpose.ACTIVITY, copyWrapper, null, content, charset);
-
-    dispatchActivity(activity);
+    queueFileCreationActivity(copyWrapper, copy, null);
   }
 
   /**
@@ -447,7 +500,7 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
 
     User user = session.getLocalUser();
 
-    Deque<IActivity> queuedDeletionActivities = new ConcurrentLinkedDeque<>();
+    Deque<FolderDeletedActivity> queuedDeletionActivities = new ConcurrentLinkedDeque<>();
 
     VirtualFileFilter virtualFileFilter = getVirtualFileFilter();
 
@@ -478,7 +531,8 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
             return true;
           }
 
-          IActivity newFolderDeletedActivity = new FolderDeletedActivity(user, childFolder);
+          FolderDeletedActivity newFolderDeletedActivity =
+              new FolderDeletedActivity(user, childFolder);
 
           queuedDeletionActivities.addFirst(newFolderDeletedActivity);
 
@@ -493,7 +547,9 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
     VfsUtilCore.iterateChildrenRecursively(deletedFolder, virtualFileFilter, contentIterator);
 
     while (!queuedDeletionActivities.isEmpty()) {
-      dispatchActivity(queuedDeletionActivities.pop());
+      FolderDeletedActivity folderDeletedActivity = queuedDeletionActivities.pop();
+
+      activityBatcher.addDeletion(folderDeletedActivity.getResource(), folderDeletedActivity);
     }
   }
 
@@ -524,7 +580,7 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
     cleanUpDeletedFileState(file);
     cleanUpBackgroundEditorPool(file);
 
-    dispatchActivity(activity);
+    activityBatcher.addDeletion(file, activity);
   }
 
   /**
@@ -660,7 +716,7 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
       return;
     }
 
-    Deque<IActivity> queuedDeletionActivities = new ConcurrentLinkedDeque<>();
+    Deque<FolderDeletedActivity> queuedDeletionActivities = new ConcurrentLinkedDeque<>();
 
     VirtualFileFilter virtualFileFilter = getVirtualFileFilter();
 
@@ -696,7 +752,7 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
 
             IActivity newFolderCreatedActivity = new FolderCreatedActivity(user, newFolder);
 
-            dispatchActivity(newFolderCreatedActivity);
+            activityBatcher.addCreation(newFolder, newFolderCreatedActivity, null);
           }
 
           if (oldFolderIsShared) {
@@ -716,7 +772,8 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
                       + newParent);
 
             } else {
-              IActivity oldFolderDeletedActivity = new FolderDeletedActivity(user, oldFolder);
+              FolderDeletedActivity oldFolderDeletedActivity =
+                  new FolderDeletedActivity(user, oldFolder);
 
               queuedDeletionActivities.addFirst(oldFolderDeletedActivity);
             }
@@ -733,7 +790,9 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
     VfsUtilCore.iterateChildrenRecursively(oldFile, virtualFileFilter, contentIterator);
 
     while (!queuedDeletionActivities.isEmpty()) {
-      dispatchActivity(queuedDeletionActivities.pop());
+      FolderDeletedActivity folderDeletedActivity = queuedDeletionActivities.pop();
+
+      activityBatcher.addDeletion(folderDeletedActivity.getResource(), folderDeletedActivity);
     }
   }
 
@@ -816,8 +875,6 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
       relativePath = PathUtils.removeLastSegments(relativePath, 1).resolve(newFileName);
     }
 
-    IActivity activity;
-
     if (oldFileIsShared && newFileIsShared) {
       // moved file inside/between shared reference point(s)
       IFile newFileWrapper =
@@ -825,7 +882,7 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
               .getReferencePoint()
               .getFile(newParentWrapper.getReferencePointRelativePath().resolve(relativePath));
 
-      activity =
+      IActivity activity =
           new FileActivity(
               user,
               Type.MOVED,
@@ -838,39 +895,33 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
       updateMovedFileState(oldFileWrapper, newFileWrapper);
       cleanUpBackgroundEditorPool(oldFileWrapper);
 
+      queueActivity(activity);
+
     } else if (newFileIsShared) {
       // TODO decide how to handle moved versions of ignored resources
       // moved file into shared reference point
-      byte[] fileContent = getContent(oldFile);
-
       IFile newFileWrapper =
           newParentWrapper
               .getReferencePoint()
               .getFile(newParentWrapper.getReferencePointRelativePath().resolve(relativePath));
 
-      activity =
-          new FileActivity(
-              user,
-              Type.CREATED,
-              FileActivity.Purpose.ACTIVITY,
-              newFileWrapper,
-              null,
-              fileContent,
-              encoding);
-
       if (isOpenInTextEditor) {
         setUpMovedEditorState(oldFile, newFileWrapper);
       }
 
+      queueFileCreationActivity(newFileWrapper, oldFile, null);
+
     } else if (oldFileIsShared) {
       // moved file out of shared reference point
-      activity =
+      IActivity activity =
           new FileActivity(
               user, Type.REMOVED, FileActivity.Purpose.ACTIVITY, oldFileWrapper, null, null, null);
 
       cleanUpDeletedFileState(oldFileWrapper);
       cleanUpBackgroundEditorPool(oldFileWrapper);
 
+      activityBatcher.addDeletion(oldFileWrapper, activity);
+
     } else {
       // neither source nor destination are shared
       if (log.isTraceEnabled()) {
@@ -886,13 +937,11 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
       return;
     }
 
-    dispatchActivity(activity);
-
     if (oldFileIsShared && isOpenInTextEditor) {
       EditorActivity closeOldEditorActivity =
           new EditorActivity(user, EditorActivity.Type.CLOSED, oldFileWrapper);
 
-      dispatchActivity(closeOldEditorActivity);
+      queueActivity(closeOldEditorActivity);
     }
 
     if (newFileIsShared && isOpenInTextEditor) {
@@ -904,7 +953,7 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
       EditorActivity openNewEditorActivity =
           new EditorActivity(user, EditorActivity.Type.ACTIVATED, newFileWrapper);
 
-      dispatchActivity(openNewEditorActivity);
+      queueActivity(openNewEditorActivity);
     }
   }
 
@@ -1035,33 +1084,15 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
   }
 
   /**
-   * Returns the content of the given file. If available, the cached document content representing
-   * the file held by Intellij will be used. Otherwise, the file content on disk (obtained using the
-   * <code>VirtualFile</code>) will be used.
+   * Returns the content of the given document using the charset of the given file.
    *
+   * @param document the document representing the file
    * @param file the file to get the content for
-   * @return the content for the given file (cached by Intellij or read from disk if no cache is
-   *     available) or an empty byte array if the content of the file could not be obtained.
-   * @see Document
-   * @see VirtualFile
+   * @return the content of the document or an empty byte array if the content could not be encoded
    */
-  private byte[] getContent(VirtualFile file) {
-    Document document = DocumentAPI.getDocument(file);
-
+  private byte[] getContent(@NotNull Document document, @NotNull VirtualFile file) {
     try {
-      if (document != null) {
-        return document.getText().getBytes(file.getCharset().name());
-
-      } else {
-        log.debug(
-            "Could not get Document for file "
-                + file
-                + ", using file content on disk instead. This content might"
-                + " not correctly represent the current state of the file"
-                + " in Intellij.");
-
-        return file.contentsToByteArray();
-      }
+      return document.getText().getBytes(file.getCharset().name());
 
     } catch (IOException e) {
       log.warn("Could not get content for file " + file, e);
@@ -1070,6 +1101,34 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
     }
   }
 
+  /**
+   * Reads the content of the given file from the VFS. Can be called by any thread, as the content
+   * is read in a read action.
+   *
+   * @param file the file to read
+   * @return the content of the file or an empty byte array if the file no longer exists or its
+   *     content could not be read
+   */
+  private byte[] readContent(@NotNull VirtualFile file) {
+    return FilesystemRunner.runReadAction(
+        () -> {
+          if (!file.isValid()) {
+            log.debug("Could not read content of file " + file + " as it no longer exists");
+
+            return new byte[0];
+          }
+
+          try {
+            return file.contentsToByteArray();
+
+          } catch (IOException e) {
+            log.warn("Could not get content for file " + file, e);
+
+            return new byte[0];
+          }
+        });
+  }
+
   /**
    * Sets the editor manager state up for the created file.
    *
@@ -1134,9 +1193,72 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
     editorManager.addEditorMapping(newFile, editor);
   }
 
+  /**
+   * Queues the creation of the given file in the activity batcher. If available, the cached
+   * document content representing the file held by Intellij is used and obtained immediately.
+   * Otherwise, the file content is read in the background once the batch containing the creation is
+   * flushed.
+   *
+   * @param file the created file
+   * @param virtualFile the virtual file representing the created file
+   * @param callback executed once the creation activity was dispatched; may be <code>null</code>
+   * @see FilesystemActivityBatcher#addCreation(IResource, Supplier, Runnable)
+   */
+  private void queueFileCreationActivity(
+      @NotNull IFile file, @NotNull VirtualFile virtualFile, @Nullable Runnable callback) {
+
+    User user = session.getLocalUser();
+    String charset = virtualFile.getCharset().name();
+
+    Document document = DocumentAPI.getDocument(virtualFile);
+
+    if (document != null) {
+      byte[] content = getContent(document, virtualFile);
+
+      activityBatcher.addCreation(
+          file,
+          new FileActivity(
+              user, Type.CREATED, FileActivity.Purpose.ACTIVITY, file, null, content, charset),
+          callback);
+
+      return;
+    }
+
+    log.debug(
+        "Could not get Document for file "
+            + virtualFile
+            + ", using file content on disk instead. This content might"
+            + " not correctly represent the current state of the file"
+            + " in Intellij.");
+
+    activityBatcher.addCreation(
+        file,
+        () ->
+            new FileActivity(
+                user,
+                Type.CREATED,
+                FileActivity.Purpose.ACTIVITY,
+                file,
+                null,
+                readContent(virtualFile),
+                charset),
+        callback);
+  }
+
+  /**
+   * Queues the given activity in the activity batcher.
+   *
+   * @param activity the activity to queue
+   * @see FilesystemActivityBatcher#addActivity(IActivity)
+   */
+  private void queueActivity(@NotNull IActivity activity) {
+    activityBatcher.addActivity(activity);
+  }
+
   /**
    * Dispatches the given activity. Drops the activity instead if there is currently a file
-   * replacement in progress.
+   * replacement in progress. Called by the activity batcher when the batch containing the activity
+   * is flushed.
    *
    * @param activity the activity to fire
    * @see FileReplacementInProgressObservable
@@ -1174,14 +1296,16 @@ public class LocalFilesystemModificationHandler extends AbstractActivityProducer
 
       this.enabled = false;
 
-      localFileSystem.removeVirtualFileListener(virtualFileListener);
+      messageBusConnection.disconnect();
+      messageBusConnection = null;
 
     } else if (!this.enabled && enabled) {
       log.trace("Enabling filesystem listener");
 
       this.enabled = true;
 
-      localFileSystem.addVirtualFileListener(virtualFileListener);
+      messageBusConnection = ApplicationManager.getApplication().getMessageBus().connect();
+      messageBusConnection.subscribe(VirtualFileManager.VFS_CHANGES, bulkFileListener);
     }
   }
 
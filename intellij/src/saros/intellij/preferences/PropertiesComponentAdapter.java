@@ -4,6 +4,7 @@ import com.intellij.ide.util.PropertiesComponent;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import org.apache.commons.codec.binary.Base64;
+import saros.annotations.Component;
 import saros.preferences.PreferenceStore;
 
 /**
@@ -12,6 +13,7 @@ import saros.preferences.PreferenceStore;
  * <p>The actual values can be found in $IDEA_HOME/config/options/options.xml and are prefixed with
  * {@link #PROPERTY_PREFIX}.
  */
+@Component(module = "intellij", lazy = true)
 public class PropertiesComponentAdapter extends PreferenceStore {
 
   private static final String PROPERTY_PREFIX = "saros.config.";
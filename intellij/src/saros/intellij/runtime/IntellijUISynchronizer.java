@@ -3,6 +3,7 @@ package saros.intellij.runtime;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import org.apache.log4j.Logger;
+import saros.annotations.Component;
 import saros.synchronize.UISynchronizer;
 
 /**
@@ -11,6 +12,7 @@ import saros.synchronize.UISynchronizer;
  *
  * @see EDTExecutor
  */
+@Component(module = "intellij", lazy = true)
 public class IntellijUISynchronizer implements UISynchronizer {
 
   private static final Logger log = Logger.getLogger(IntellijUISynchronizer.class);
@@ -4,7 +4,11 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({saros.intellij.context.TestSuite.class, saros.intellij.editor.TestSuite.class})
+@Suite.SuiteClasses({
+  saros.intellij.context.TestSuite.class,
+  saros.intellij.editor.TestSuite.class,
+  saros.intellij.eventhandler.filesystem.TestSuite.class
+})
 public class SarosIntellijTestSuite {
   // the class remains completely empty,
   // being used only as a holder for the above annotations
@@ -8,7 +8,7 @@ import static org.junit.Assert.assertTrue;
 import static saros.intellij.editor.annotations.AnnotationHighlighterLayers.CARET_HIGHLIGHTER_LAYER;
 import static saros.intellij.editor.annotations.AnnotationHighlighterLayers.CONTRIBUTION_HIGHLIGHTER_LAYER;
 import static saros.intellij.editor.annotations.AnnotationHighlighterLayers.SELECTION_HIGHLIGHTER_LAYER;
-import static saros.intellij.editor.annotations.AnnotationManager.MAX_CONTRIBUTION_ANNOTATIONS;
+import static saros.intellij.editor.annotations.AnnotationManager.MAX_CONTRIBUTION_RANGES;
 
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.markup.RangeHighlighter;
@@ -78,14 +78,14 @@ public class AnnotationManagerTest {
   @Before
   public void setUp() throws Exception {
     selectionAnnotationStore = new AnnotationStore<>();
-    contributionAnnotationQueue = new AnnotationQueue<>(MAX_CONTRIBUTION_ANNOTATIONS);
+    contributionAnnotationQueue = new AnnotationQueue<>(MAX_CONTRIBUTION_RANGES);
 
     /*
      * Mock annotation store CTOR calls to return an object we hold a reference to.
      * This is necessary to access the inner state of the annotation manager for testing.
      */
     PowerMock.expectNew(AnnotationStore.class).andReturn(selectionAnnotationStore);
-    PowerMock.expectNew(AnnotationQueue.class, MAX_CONTRIBUTION_ANNOTATIONS)
+    PowerMock.expectNew(AnnotationQueue.class, MAX_CONTRIBUTION_RANGES)
         .andReturn(contributionAnnotationQueue);
 
     PowerMock.replayAll();
@@ -531,22 +531,25 @@ public class AnnotationManagerTest {
 
   /**
    * Tests the contribution annotation queue mechanism to rotate out old entries when new ones are
-   * added and the store already holds {@link AnnotationManager#MAX_CONTRIBUTION_ANNOTATIONS}
-   * annotations. This maximum is for the whole store and not per file.
+   * added and the store already holds {@link AnnotationManager#MAX_CONTRIBUTION_RANGES} annotation
+   * ranges. This maximum is for the whole store and not per file.
    */
   @Test
   public void testContributionAnnotationQueueRotation() {
     IFile file2 = EasyMock.createNiceMock(IFile.class);
 
+    int rangesPerAnnotation = 29;
+    int maxAnnotations = MAX_CONTRIBUTION_RANGES / rangesPerAnnotation;
+
     List<ContributionAnnotation> previousAnnotations = new ArrayList<>();
     List<List<Pair<Integer, Integer>>> expectedRanges = new ArrayList<>();
     List<IFile> expectedFiles = new ArrayList<>();
     List<User> expectedUsers = new ArrayList<>();
 
-    for (int i = 0; i < MAX_CONTRIBUTION_ANNOTATIONS; i++) {
+    for (int i = 0; i < maxAnnotations; i++) {
       /* setup */
       int start = i + 1;
-      int end = i + 30;
+      int end = start + rangesPerAnnotation;
       List<Pair<Integer, Integer>> expectedRange = createContributionRanges(start, end);
 
       User usedUser;
@@ -583,7 +586,7 @@ public class AnnotationManagerTest {
 
     /* check integrity of full list */
     List<ContributionAnnotation> annotations = contributionAnnotationQueue.getAnnotations();
-    assertEquals(MAX_CONTRIBUTION_ANNOTATIONS, annotations.size());
+    assertEquals(maxAnnotations, annotations.size());
     assertTrue(previousAnnotations.containsAll(annotations));
     assertTrue(annotations.containsAll(previousAnnotations));
 
@@ -596,10 +599,10 @@ public class AnnotationManagerTest {
           null);
     }
 
-    for (int i = MAX_CONTRIBUTION_ANNOTATIONS; i <= 2 * MAX_CONTRIBUTION_ANNOTATIONS; i++) {
+    for (int i = maxAnnotations; i <= 2 * maxAnnotations; i++) {
       /* setup */
       int start = i + 1;
-      int end = i + 30;
+      int end = start + rangesPerAnnotation;
 
       User usedUser;
       IFile usedFile;
@@ -621,7 +624,7 @@ public class AnnotationManagerTest {
       /* check assertions */
       List<ContributionAnnotation> currentAnnotations =
           contributionAnnotationQueue.getAnnotations();
-      assertEquals(MAX_CONTRIBUTION_ANNOTATIONS, currentAnnotations.size());
+      assertEquals(maxAnnotations, currentAnnotations.size());
 
       ContributionAnnotation rotatedOutAnnotation = previousAnnotations.remove(0);
       User rotatedOutExpectedUser = expectedUsers.remove(0);
@@ -646,7 +649,7 @@ public class AnnotationManagerTest {
 
     /* check integrity of full replaced list */
     annotations = contributionAnnotationQueue.getAnnotations();
-    assertEquals(MAX_CONTRIBUTION_ANNOTATIONS, annotations.size());
+    assertEquals(maxAnnotations, annotations.size());
     assertTrue(previousAnnotations.containsAll(annotations));
     assertTrue(annotations.containsAll(previousAnnotations));
 
@@ -679,14 +682,17 @@ public class AnnotationManagerTest {
         new ContributionAnnotation(user, file, start, end, editor);
     contributionAnnotationQueue.addAnnotation(contributionAnnotation);
 
-    ContributionAnnotation filler = new ContributionAnnotation(user, file, 0, 1, null);
+    int fillerCount = MAX_CONTRIBUTION_RANGES - expectedRanges.size();
+
+    for (int i = 0; i < fillerCount; i++) {
+      ContributionAnnotation filler = new ContributionAnnotation(user, file, i, i + 1, null);
 
-    for (int i = 0; i < MAX_CONTRIBUTION_ANNOTATIONS - 1; i++) {
       contributionAnnotationQueue.addAnnotation(filler);
     }
 
     List<ContributionAnnotation> contributionAnnotations =
         contributionAnnotationQueue.getAnnotations();
+    assertEquals(fillerCount + 1, contributionAnnotations.size());
     assertTrue(contributionAnnotations.contains(contributionAnnotation));
 
     /* call to test */
@@ -696,6 +702,7 @@ public class AnnotationManagerTest {
     verifyRemovalCall();
 
     contributionAnnotations = contributionAnnotationQueue.getAnnotations();
+    assertEquals(fillerCount + 1, contributionAnnotations.size());
     assertFalse(contributionAnnotations.contains(contributionAnnotation));
   }
 
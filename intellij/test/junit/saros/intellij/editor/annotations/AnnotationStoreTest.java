@@ -0,0 +1,167 @@
+package saros.intellij.editor.annotations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import saros.filesystem.IFile;
+import saros.session.User;
+
+/**
+ * Tests that the lazy moves of the annotation store result in the same annotation positions as
+ * moving every annotation directly.
+ */
+public class AnnotationStoreTest {
+
+  private IFile file;
+  private User user;
+
+  private AnnotationStore<ContributionAnnotation> store;
+
+  @Before
+  public void setUp() {
+    file = EasyMock.createNiceMock(IFile.class);
+    user = EasyMock.createNiceMock(User.class);
+
+    EasyMock.replay(file, user);
+
+    store = new AnnotationStore<>();
+  }
+
+  @Test
+  public void testMoveAfterAdditionIsApplied() {
+    ContributionAnnotation before = new ContributionAnnotation(user, file, 0, 5, null);
+    ContributionAnnotation overlapping = new ContributionAnnotation(user, file, 10, 14, null);
+    ContributionAnnotation behind = new ContributionAnnotation(user, file, 20, 22, null);
+
+    store.addAnnotation(before);
+    store.addAnnotation(overlapping);
+    store.addAnnotation(behind);
+
+    store.moveAfterAddition(file, 12, 15);
+
+    store.getAnnotations(file);
+
+    assertRanges(before, 0, 1, 2, 3, 4);
+    assertRanges(overlapping, 10, 11, 15, 16);
+    assertRanges(behind, 23, 24);
+  }
+
+  @Test
+  public void testMoveAfterDeletionRemovesInvalidAnnotations() {
+    ContributionAnnotation covered = new ContributionAnnotation(user, file, 10, 14, null);
+    ContributionAnnotation behind = new ContributionAnnotation(user, file, 20, 22, null);
+
+    store.addAnnotation(covered);
+    store.addAnnotation(behind);
+
+    List<ContributionAnnotation> invalidAnnotations = store.moveAfterDeletion(file, 8, 16);
+
+    assertEquals(1, invalidAnnotations.size());
+    assertTrue(invalidAnnotations.contains(covered));
+
+    store.removeAnnotation(covered);
+
+    assertFalse(store.containsAnnotation(covered));
+
+    List<ContributionAnnotation> annotations = store.getAnnotations(file);
+
+    assertEquals(1, annotations.size());
+    assertRanges(behind, 12, 13);
+  }
+
+  @Test
+  public void testRandomMovesMatchDirectMoves() {
+    Random random = new Random(4711);
+
+    List<ContributionAnnotation> indexed = new ArrayList<>();
+    List<ContributionAnnotation> reference = new ArrayList<>();
+
+    for (int round = 0; round < 2000; round++) {
+      int operation = random.nextInt(10);
+
+      if (operation < 2 || indexed.isEmpty()) {
+        int start = random.nextInt(200);
+        int end = start + 1 + random.nextInt(5);
+
+        ContributionAnnotation annotation =
+            new ContributionAnnotation(user, file, start, end, null);
+
+        store.addAnnotation(annotation);
+
+        indexed.add(annotation);
+        reference.add(new ContributionAnnotation(user, file, start, end, null));
+
+      } else if (operation < 6) {
+        int start = random.nextInt(250);
+        int end = start + 1 + random.nextInt(10);
+
+        store.moveAfterAddition(file, start, end);
+
+        reference.forEach(annotation -> annotation.moveAfterAddition(start, end));
+
+      } else if (operation < 9) {
+        int start = random.nextInt(250);
+        int end = start + 1 + random.nextInt(10);
+
+        List<ContributionAnnotation> invalidAnnotations = store.moveAfterDeletion(file, start, end);
+
+        for (int i = indexed.size() - 1; i >= 0; i--) {
+          boolean isInvalid = reference.get(i).moveAfterDeletion(start, end);
+
+          assertEquals(isInvalid, invalidAnnotations.contains(indexed.get(i)));
+
+          if (isInvalid) {
+            store.removeAnnotation(indexed.remove(i));
+            reference.remove(i);
+          }
+        }
+
+      } else {
+        int index = random.nextInt(indexed.size());
+
+        store.removeAnnotation(indexed.remove(index));
+        reference.remove(index);
+      }
+
+      if (round % 10 == 0) {
+        assertEquals(indexed.size(), store.getAnnotations(file).size());
+
+        for (int i = 0; i < indexed.size(); i++) {
+          assertRanges(indexed.get(i), reference.get(i));
+        }
+      }
+    }
+  }
+
+  private static void assertRanges(ContributionAnnotation annotation, int... starts) {
+    List<AnnotationRange> annotationRanges = annotation.getAnnotationRanges();
+
+    assertEquals(starts.length, annotationRanges.size());
+
+    for (int i = 0; i < starts.length; i++) {
+      assertEquals(starts[i], annotationRanges.get(i).getStart());
+      assertEquals(starts[i] + 1, annotationRanges.get(i).getEnd());
+    }
+  }
+
+  private static void assertRanges(
+      ContributionAnnotation annotation, ContributionAnnotation expected) {
+
+    List<AnnotationRange> annotationRanges = annotation.getAnnotationRanges();
+    List<AnnotationRange> expectedRanges = expected.getAnnotationRanges();
+
+    assertEquals(expectedRanges.size(), annotationRanges.size());
+
+    for (int i = 0; i < expectedRanges.size(); i++) {
+      assertEquals(expectedRanges.get(i).getStart(), annotationRanges.get(i).getStart());
+      assertEquals(expectedRanges.get(i).getEnd(), annotationRanges.get(i).getEnd());
+    }
+  }
+}
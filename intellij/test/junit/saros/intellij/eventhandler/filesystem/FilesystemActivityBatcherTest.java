@@ -0,0 +1,274 @@
+package saros.intellij.eventhandler.filesystem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import saros.activities.FileActivity;
+import saros.activities.IActivity;
+import saros.filesystem.IFile;
+import saros.filesystem.IResource;
+import saros.session.User;
+
+public class FilesystemActivityBatcherTest {
+
+  private final List<Object> dispatched = new ArrayList<>();
+
+  /** The tasks scheduled for the dispatching thread */
+  private final Deque<Runnable> scheduled = new ArrayDeque<>();
+
+  /** The tasks submitted to the read executor */
+  private final Deque<Runnable> reads = new ArrayDeque<>();
+
+  private FilesystemActivityBatcher batcher;
+
+  @Before
+  public void setUp() {
+    batcher = new FilesystemActivityBatcher(dispatched::add, scheduled::add, reads::add);
+  }
+
+  @Test
+  public void testBatchWithoutReadsIsDispatchedOnFlush() {
+    IResource folder = resource();
+
+    IActivity folderCreated = activity();
+    IActivity other = activity();
+
+    batcher.addCreation(folder, folderCreated, null);
+    batcher.addActivity(other);
+
+    assertTrue(dispatched.isEmpty());
+
+    batcher.flush();
+
+    assertTrue(scheduled.isEmpty());
+    assertEquals(Arrays.asList(folderCreated, other), dispatched);
+
+    batcher.flush();
+
+    assertEquals(2, dispatched.size());
+  }
+
+  @Test
+  public void testFlushDoesNotWaitForReads() {
+    IActivity folderCreated = activity();
+    IActivity fileCreated = activity();
+    IActivity other = activity();
+
+    batcher.addCreation(resource(), folderCreated, null);
+    batcher.addCreation(resource(), () -> fileCreated, () -> dispatched.add("created"));
+    batcher.addActivity(other);
+
+    batcher.flush();
+
+    assertEquals(1, reads.size());
+    assertTrue(dispatched.isEmpty());
+
+    runReads();
+
+    assertTrue(dispatched.isEmpty());
+
+    runScheduled();
+
+    assertEquals(Arrays.asList(folderCreated, fileCreated, "created", other), dispatched);
+  }
+
+  @Test
+  public void testBatchesAreDispatchedInOrder() {
+    List<IActivity> created = new ArrayList<>();
+
+    for (int i = 0; i < 4; i++) {
+      IActivity activity = activity();
+
+      created.add(activity);
+      batcher.addCreation(resource(), () -> activity, null);
+    }
+
+    batcher.flush();
+
+    // the next batch has nothing to read but must wait for the previous one
+    IActivity later = activity();
+    batcher.addActivity(later);
+    batcher.flush();
+
+    runScheduled();
+
+    assertTrue(dispatched.isEmpty());
+
+    runReads();
+    runScheduled();
+
+    List<Object> expected = new ArrayList<>(created);
+    expected.add(later);
+
+    assertEquals(expected, dispatched);
+  }
+
+  @Test
+  public void testCreationAndDeletionCancelOut() {
+    IResource folder = resource();
+    IResource file = resource();
+    IResource other = resource();
+
+    IActivity otherDeleted = activity();
+
+    batcher.addCreation(folder, activity(), null);
+    batcher.addCreation(file, () -> activity(), null);
+    batcher.addDeletion(other, otherDeleted);
+    batcher.addDeletion(file, activity());
+    batcher.addDeletion(folder, activity());
+
+    batcher.flush();
+
+    assertTrue(reads.isEmpty());
+    assertEquals(Arrays.asList(otherDeleted), dispatched);
+  }
+
+  @Test
+  public void testDeletionFollowedByCreationIsKept() {
+    IResource file = resource();
+
+    IActivity deleted = activity();
+    IActivity created = activity();
+
+    batcher.addDeletion(file, deleted);
+    batcher.addDeletion(file, activity());
+    batcher.addCreation(file, () -> created, null);
+    batcher.addCreation(file, () -> activity(), null);
+
+    flushAndRun();
+
+    assertEquals(Arrays.asList(deleted, created), dispatched);
+  }
+
+  @Test
+  public void testDeletionAfterRecreationKeepsFirstDeletion() {
+    IResource file = resource();
+
+    IActivity deleted = activity();
+
+    batcher.addDeletion(file, deleted);
+    batcher.addCreation(file, () -> activity(), null);
+    batcher.addDeletion(file, activity());
+
+    flushAndRun();
+
+    assertEquals(Arrays.asList(deleted), dispatched);
+  }
+
+  @Test
+  public void testMoveSeparatesCreationAndDeletion() {
+    User user = EasyMock.createNiceMock(User.class);
+    IFile oldFile = EasyMock.createNiceMock(IFile.class);
+    IFile newFile = EasyMock.createNiceMock(IFile.class);
+
+    EasyMock.replay(user, oldFile, newFile);
+
+    IActivity created = activity();
+    IActivity deleted = activity();
+
+    IActivity moved =
+        new FileActivity(
+            user,
+            FileActivity.Type.MOVED,
+            FileActivity.Purpose.ACTIVITY,
+            newFile,
+            oldFile,
+            null,
+            null);
+
+    batcher.addCreation(oldFile, created, null);
+    batcher.addActivity(moved);
+    batcher.addDeletion(oldFile, deleted);
+
+    flushAndRun();
+
+    assertEquals(Arrays.asList(created, moved, deleted), dispatched);
+  }
+
+  @Test
+  public void testCallbacksKeepOrder() {
+    IActivity created = activity();
+
+    batcher.addCallback(() -> dispatched.add("immediate"));
+    batcher.addCreation(resource(), () -> created, () -> dispatched.add("created"));
+    batcher.addCallback(() -> dispatched.add("saved"));
+
+    assertEquals(Arrays.asList("immediate"), dispatched);
+
+    flushAndRun();
+
+    assertEquals(Arrays.asList("immediate", created, "created", "saved"), dispatched);
+  }
+
+  @Test
+  public void testFailedCreationIsDropped() {
+    IActivity other = activity();
+
+    batcher.addCreation(
+        resource(),
+        () -> {
+          throw new IllegalStateException("read failed");
+        },
+        () -> dispatched.add("created"));
+
+    batcher.addActivity(other);
+
+    flushAndRun();
+
+    assertEquals(Arrays.asList(other), dispatched);
+  }
+
+  @Test
+  public void testClearDiscardsPendingBatch() {
+    batcher.addCreation(resource(), () -> activity(), null);
+    batcher.flush();
+
+    batcher.addActivity(activity());
+
+    batcher.clear();
+
+    runReads();
+    runScheduled();
+
+    batcher.flush();
+
+    assertTrue(dispatched.isEmpty());
+  }
+
+  private void flushAndRun() {
+    batcher.flush();
+
+    runReads();
+    runScheduled();
+  }
+
+  private void runReads() {
+    while (!reads.isEmpty()) reads.poll().run();
+  }
+
+  private void runScheduled() {
+    while (!scheduled.isEmpty()) scheduled.poll().run();
+  }
+
+  private static IResource resource() {
+    IResource resource = EasyMock.createNiceMock(IResource.class);
+    EasyMock.replay(resource);
+
+    return resource;
+  }
+
+  private static IActivity activity() {
+    IActivity activity = EasyMock.createNiceMock(IActivity.class);
+    EasyMock.replay(activity);
+
+    return activity;
+  }
+}
@@ -0,0 +1,126 @@
+package saros.negotiation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import saros.exceptions.OperationCanceledException;
+import saros.filesystem.IFile;
+import saros.filesystem.IReferencePoint;
+import saros.monitoring.NullProgressMonitor;
+import saros.negotiation.DirectoryTreeFixture.FileSizes;
+import saros.util.PathUtils;
+
+/**
+ * Measures creating the archive of a directory tree with the {@link CreateArchiveTask} and
+ * extracting it into an empty reference point with the {@link DecompressArchiveTask}, as done by
+ * the archive resource negotiation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArchiveBenchmark {
+
+  private static final String REFERENCE_POINT_ID = "0";
+
+  @Param({"2", "3"})
+  public int depth;
+
+  @Param({"4"})
+  public int fanOut;
+
+  @Param({"8"})
+  public int filesPerFolder;
+
+  @Param({"SMALL", "MIXED"})
+  public FileSizes sizes;
+
+  private DirectoryTreeFixture fixture;
+
+  private List<Pair<IFile, String>> filesToCompress;
+
+  private File archive;
+  private File createdArchive;
+
+  private IReferencePoint target;
+
+  @Setup
+  public void setUp() throws Exception {
+    fixture = new DirectoryTreeFixture();
+
+    IReferencePoint source = fixture.createTree("source", depth, fanOut, filesPerFolder, sizes, 42);
+
+    filesToCompress = new ArrayList<>();
+
+    for (IFile file : fixture.getFiles(source)) {
+      String path = PathUtils.toPortableString(file.getReferencePointRelativePath());
+
+      filesToCompress.add(
+          Pair.of(file, REFERENCE_POINT_ID + ResourceNegotiation.PATH_DELIMITER + path));
+    }
+
+    archive = File.createTempFile("saros-bench", ".zip");
+    createdArchive = File.createTempFile("saros-bench", ".zip");
+
+    new CreateArchiveTask(archive, filesToCompress, new NullProgressMonitor()).run(null);
+
+    target = fixture.createEmpty("target");
+
+    decompressArchive();
+
+    if (fixture.getFiles(target).size() != filesToCompress.size())
+      throw new IllegalStateException("not all files were extracted");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(archive.toPath());
+    Files.deleteIfExists(createdArchive.toPath());
+
+    fixture.dispose();
+  }
+
+  /** Empties the target reference point so every extraction creates all files. */
+  @Setup(Level.Invocation)
+  public void clearTarget() throws IOException {
+    fixture.delete("target");
+    target = fixture.createEmpty("target");
+  }
+
+  @Benchmark
+  public long createArchive() throws IOException, OperationCanceledException {
+    new CreateArchiveTask(createdArchive, filesToCompress, new NullProgressMonitor()).run(null);
+
+    return createdArchive.length();
+  }
+
+  @Benchmark
+  public void decompressArchive() throws IOException, OperationCanceledException {
+    new DecompressArchiveTask(
+            archive,
+            Collections.singletonMap(REFERENCE_POINT_ID, target),
+            ResourceNegotiation.PATH_DELIMITER,
+            new NullProgressMonitor())
+        .run(null);
+  }
+}
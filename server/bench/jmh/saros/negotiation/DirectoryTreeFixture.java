@@ -0,0 +1,205 @@
+package saros.negotiation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import saros.filesystem.IFile;
+import saros.filesystem.IReferencePoint;
+import saros.server.filesystem.ServerWorkspaceImpl;
+
+/**
+ * Creates synthetic directory trees in a temporary workspace that is accessed through the server
+ * filesystem implementation.
+ *
+ * <p>Every tree is a reference point containing <code>filesPerFolder</code> files and <code>
+ * fanOut</code> sub folders per folder down to the given depth. The tree is created from a fixed
+ * seed, so its layout and content are identical in every run.
+ */
+public final class DirectoryTreeFixture {
+
+  /** The distribution of the size of the generated files. */
+  public enum FileSizes {
+    /** Source code like files between 512 bytes and 8 KiB. */
+    SMALL,
+    /** Mostly small files, some 64 KiB files and a few 1 MiB files. */
+    MIXED,
+    /** Files between 128 and 256 KiB. */
+    LARGE;
+
+    private int nextSize(Random random) {
+      switch (this) {
+        case SMALL:
+          return 512 + random.nextInt(7 * 1024 + 512);
+
+        case MIXED:
+          int bucket = random.nextInt(100);
+
+          if (bucket == 0) return 1024 * 1024;
+          if (bucket < 10) return 64 * 1024;
+
+          return SMALL.nextSize(random);
+
+        case LARGE:
+          return 128 * 1024 + random.nextInt(128 * 1024);
+
+        default:
+          throw new IllegalStateException("unknown size distribution " + this);
+      }
+    }
+  }
+
+  private static final char[] CONTENT_CHARACTERS =
+      "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ 0123456789 {}();=+-*/\n".toCharArray();
+
+  private final Path root;
+  private final ServerWorkspaceImpl workspace;
+
+  /**
+   * Creates a new temporary workspace.
+   *
+   * @throws IOException if the temporary directory could not be created
+   */
+  public DirectoryTreeFixture() throws IOException {
+    root = Files.createTempDirectory("saros-bench");
+    workspace = new ServerWorkspaceImpl(root);
+  }
+
+  /**
+   * Creates a tree of the given shape.
+   *
+   * @param name the name of the reference point
+   * @param depth the number of folder levels below the reference point
+   * @param fanOut the number of sub folders per folder
+   * @param filesPerFolder the number of files per folder
+   * @param sizes the size distribution of the files
+   * @param seed the seed used for the file sizes and contents
+   * @return the reference point containing the tree
+   * @throws IOException if the tree could not be created
+   */
+  public IReferencePoint createTree(
+      String name, int depth, int fanOut, int filesPerFolder, FileSizes sizes, long seed)
+      throws IOException {
+
+    Path referencePointRoot = Files.createDirectory(root.resolve(name));
+
+    createFolder(referencePointRoot, depth, fanOut, filesPerFolder, sizes, new Random(seed));
+
+    return getReferencePoint(name);
+  }
+
+  /**
+   * Creates an empty reference point.
+   *
+   * @param name the name of the reference point
+   * @return the reference point
+   * @throws IOException if the reference point could not be created
+   */
+  public IReferencePoint createEmpty(String name) throws IOException {
+    Files.createDirectory(root.resolve(name));
+
+    return getReferencePoint(name);
+  }
+
+  /**
+   * Returns the reference point of the given name.
+   *
+   * @param name the name of the reference point
+   * @return the reference point
+   */
+  public IReferencePoint getReferencePoint(String name) {
+    return workspace.getProject(name);
+  }
+
+  /**
+   * Returns all files contained in the given reference point, sorted by their path.
+   *
+   * @param referencePoint the reference point
+   * @return the contained files
+   * @throws IOException if the files could not be listed
+   */
+  public List<IFile> getFiles(IReferencePoint referencePoint) throws IOException {
+    Path referencePointRoot = root.resolve(referencePoint.getName());
+
+    List<IFile> files = new ArrayList<>();
+
+    try (Stream<Path> paths = Files.walk(referencePointRoot)) {
+      paths
+          .filter(Files::isRegularFile)
+          .sorted()
+          .forEach(path -> files.add(referencePoint.getFile(referencePointRoot.relativize(path))));
+    }
+
+    return files;
+  }
+
+  /**
+   * Changes the content of every <code>n</code>-th file of the given reference point.
+   *
+   * @param referencePoint the reference point
+   * @param n the interval of the files to change
+   * @throws IOException if a file could not be changed
+   */
+  public void modifyEveryNthFile(IReferencePoint referencePoint, int n) throws IOException {
+    List<IFile> files = getFiles(referencePoint);
+
+    for (int i = 0; i < files.size(); i += n) {
+      Path path =
+          root.resolve(referencePoint.getName())
+              .resolve(files.get(i).getReferencePointRelativePath());
+
+      Files.write(path, "modified".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+  }
+
+  /**
+   * Deletes the given reference point including its content.
+   *
+   * @param name the name of the reference point
+   * @throws IOException if the reference point could not be deleted
+   */
+  public void delete(String name) throws IOException {
+    FileUtils.deleteDirectory(root.resolve(name).toFile());
+  }
+
+  /**
+   * Deletes the temporary workspace.
+   *
+   * @throws IOException if the workspace could not be deleted
+   */
+  public void dispose() throws IOException {
+    FileUtils.deleteDirectory(root.toFile());
+  }
+
+  private static void createFolder(
+      Path folder, int depth, int fanOut, int filesPerFolder, FileSizes sizes, Random random)
+      throws IOException {
+
+    for (int i = 0; i < filesPerFolder; i++)
+      Files.write(
+          folder.resolve("file" + i + ".txt"), createContent(sizes.nextSize(random), random));
+
+    if (depth == 0) return;
+
+    for (int i = 0; i < fanOut; i++) {
+      Path subFolder = Files.createDirectory(folder.resolve("folder" + i));
+
+      createFolder(subFolder, depth - 1, fanOut, filesPerFolder, sizes, random);
+    }
+  }
+
+  private static byte[] createContent(int size, Random random) {
+    byte[] content = new byte[size];
+
+    for (int i = 0; i < size; i++)
+      content[i] = (byte) CONTENT_CHARACTERS[random.nextInt(CONTENT_CHARACTERS.length)];
+
+    return content;
+  }
+}
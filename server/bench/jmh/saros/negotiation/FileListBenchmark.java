@@ -0,0 +1,126 @@
+package saros.negotiation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.jivesoftware.smack.packet.PacketExtension;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xmlpull.mxp1.MXParser;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import saros.communication.extensions.ResourceNegotiationMissingFilesExtension;
+import saros.filesystem.IReferencePoint;
+import saros.negotiation.DirectoryTreeFixture.FileSizes;
+
+/**
+ * Measures the creation of {@link FileList file lists} for a directory tree, their XML
+ * serialization as part of a {@link ResourceNegotiationMissingFilesExtension} and the computation
+ * of a {@link FileListDiff} between two file lists of the same tree.
+ *
+ * <p>The target list of the diff is created after changing the content of every tenth file of the
+ * tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileListBenchmark {
+
+  private static final ResourceNegotiationMissingFilesExtension.Provider PROVIDER =
+      ResourceNegotiationMissingFilesExtension.PROVIDER;
+
+  @Param({"2", "3"})
+  public int depth;
+
+  @Param({"4"})
+  public int fanOut;
+
+  @Param({"8"})
+  public int filesPerFolder;
+
+  @Param({"SMALL", "MIXED"})
+  public FileSizes sizes;
+
+  private DirectoryTreeFixture fixture;
+
+  private IReferencePoint referencePoint;
+
+  private FileList base;
+  private FileList target;
+
+  private byte[] marshalled;
+
+  private final XmlPullParser parser = new MXParser();
+
+  @Setup
+  public void setUp() throws Exception {
+    fixture = new DirectoryTreeFixture();
+
+    referencePoint = fixture.createTree("tree", depth, fanOut, filesPerFolder, sizes, 42);
+
+    base = createFileList();
+
+    fixture.modifyEveryNthFile(referencePoint, 10);
+
+    target = createFileList();
+
+    marshalled = marshal();
+
+    FileList unmarshalled = unmarshal();
+
+    if (!base.equals(unmarshalled))
+      throw new IllegalStateException("unmarshalled file list differs from the marshalled one");
+
+    if (diff().getAlteredFiles().isEmpty())
+      throw new IllegalStateException("diff does not contain the modified files");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    fixture.dispose();
+  }
+
+  @Benchmark
+  public FileList createFileList() throws IOException {
+    return FileListFactory.createFileList(referencePoint, null, null);
+  }
+
+  @Benchmark
+  public byte[] marshal() {
+    ResourceNegotiationMissingFilesExtension extension =
+        new ResourceNegotiationMissingFilesExtension(
+            "session", "negotiation", Collections.singletonList(base));
+
+    return PROVIDER.create(extension).toXML().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public FileList unmarshal() throws XmlPullParserException, IOException {
+    parser.setInput(new ByteArrayInputStream(marshalled), "UTF-8");
+    parser.next();
+
+    PacketExtension packetExtension = PROVIDER.parseExtension(parser);
+
+    return PROVIDER.getPayload(packetExtension).getFileLists().get(0);
+  }
+
+  @Benchmark
+  public FileListDiff diff() {
+    return FileListDiff.diff(base, target);
+  }
+}
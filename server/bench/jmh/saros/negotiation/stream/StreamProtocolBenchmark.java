@@ -0,0 +1,136 @@
+package saros.negotiation.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.output.NullOutputStream;
+import org.easymock.EasyMock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import saros.exceptions.LocalCancellationException;
+import saros.filesystem.IFile;
+import saros.filesystem.IReferencePoint;
+import saros.monitoring.NullProgressMonitor;
+import saros.negotiation.DirectoryTreeFixture;
+import saros.negotiation.DirectoryTreeFixture.FileSizes;
+import saros.negotiation.ResourceSharingData;
+import saros.session.ISarosSession;
+
+/**
+ * Measures streaming a directory tree with the {@link OutgoingStreamProtocol} and receiving the
+ * recorded stream into an empty reference point with the {@link IncomingStreamProtocol}, as done by
+ * the instant resource negotiation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamProtocolBenchmark {
+
+  private static final String REFERENCE_POINT_ID = "0";
+
+  @Param({"2", "3"})
+  public int depth;
+
+  @Param({"4"})
+  public int fanOut;
+
+  @Param({"8"})
+  public int filesPerFolder;
+
+  @Param({"SMALL", "MIXED"})
+  public FileSizes sizes;
+
+  private DirectoryTreeFixture fixture;
+
+  private ResourceSharingData resourceSharingData;
+
+  private List<IFile> files;
+
+  private byte[] stream;
+
+  private IReferencePoint target;
+
+  private ISarosSession session;
+
+  @Setup
+  public void setUp() throws Exception {
+    fixture = new DirectoryTreeFixture();
+
+    IReferencePoint source = fixture.createTree("source", depth, fanOut, filesPerFolder, sizes, 42);
+
+    resourceSharingData = new ResourceSharingData();
+    resourceSharingData.addReferencePoint(source, REFERENCE_POINT_ID);
+
+    files = fixture.getFiles(source);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    send(out);
+    stream = out.toByteArray();
+
+    target = fixture.createEmpty("target");
+
+    session = EasyMock.createNiceMock(ISarosSession.class);
+    EasyMock.expect(session.getReferencePoint(REFERENCE_POINT_ID))
+        .andAnswer(() -> target)
+        .anyTimes();
+    EasyMock.replay(session);
+
+    receive();
+
+    if (fixture.getFiles(target).size() != files.size())
+      throw new IllegalStateException("not all files were received");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    fixture.dispose();
+  }
+
+  /** Empties the target reference point so every reception creates all files. */
+  @Setup(Level.Invocation)
+  public void clearTarget() throws IOException {
+    fixture.delete("target");
+    target = fixture.createEmpty("target");
+  }
+
+  @Benchmark
+  public void send() throws IOException, LocalCancellationException {
+    send(new NullOutputStream());
+  }
+
+  @Benchmark
+  public void receive() throws IOException, LocalCancellationException {
+    try (IncomingStreamProtocol in =
+        new IncomingStreamProtocol(
+            new ByteArrayInputStream(stream), session, new NullProgressMonitor())) {
+
+      in.receiveStream();
+    }
+  }
+
+  private void send(OutputStream stream) throws IOException, LocalCancellationException {
+    OutgoingStreamProtocol out =
+        new OutgoingStreamProtocol(stream, resourceSharingData, new NullProgressMonitor());
+
+    for (IFile file : files) out.streamFile(file);
+
+    out.close();
+  }
+}
@@ -0,0 +1,227 @@
+package saros.server.soak;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import org.apache.log4j.Logger;
+import saros.communication.extensions.UserListExtension;
+import saros.communication.extensions.UserListReceivedExtension;
+import saros.filesystem.IContainer;
+import saros.filesystem.IFile;
+import saros.filesystem.IReferencePoint;
+import saros.filesystem.IResource;
+import saros.net.IReceiver;
+import saros.net.ITransmitter;
+import saros.net.xmpp.JID;
+import saros.preferences.PreferenceStore;
+import saros.repackaged.picocontainer.Startable;
+import saros.server.console.ConsoleCommand;
+import saros.server.console.ServerConsole;
+import saros.server.editor.ServerEditorManager;
+import saros.session.ISarosSession;
+import saros.session.ISarosSessionManager;
+import saros.session.User;
+import saros.session.load.SimulatedClients;
+import saros.synchronize.UISynchronizer;
+import saros.test.fakes.net.FakeConnectionFactory.FakeConnectionFactoryResult;
+
+/**
+ * Attaches simulated in-process clients to the session of the server. The clients are added to the
+ * session without a session or resource negotiation. They share the files of the only reference
+ * point of the session, which the {@link RunCommand} lets them edit.
+ *
+ * <p>The simulated clients confirm the user lists sent by the server, as the server removes users
+ * that do not confirm them.
+ */
+public class ClientsCommand extends ConsoleCommand implements Startable {
+
+  private static final Logger log = Logger.getLogger(ClientsCommand.class);
+
+  private final ISarosSessionManager sessionManager;
+  private final InProcessTransmitter transmitter;
+  private final IReceiver receiver;
+  private final UISynchronizer synchronizer;
+
+  private SimulatedClients clients;
+
+  public ClientsCommand(
+      ISarosSessionManager sessionManager,
+      InProcessTransmitter transmitter,
+      IReceiver receiver,
+      UISynchronizer synchronizer,
+      ServerConsole console) {
+
+    this.sessionManager = sessionManager;
+    this.transmitter = transmitter;
+    this.receiver = receiver;
+    this.synchronizer = synchronizer;
+    console.registerCommand(this);
+  }
+
+  @Override
+  public void start() {
+    // NOP
+  }
+
+  @Override
+  public void stop() {
+    if (clients != null) clients.stop();
+  }
+
+  @Override
+  public String identifier() {
+    return "clients";
+  }
+
+  @Override
+  public int minArgument() {
+    return 1;
+  }
+
+  @Override
+  public String help() {
+    return "clients <COUNT> - Attach COUNT simulated clients to the session, which share the files"
+        + " of the only shared reference point";
+  }
+
+  @Override
+  public void execute(List<String> args, PrintStream out) {
+    int count = Integer.parseInt(args.get(0));
+
+    if (clients != null) throw new IllegalStateException("the clients are already attached");
+
+    ISarosSession session = sessionManager.getSession();
+
+    if (session == null) throw new IllegalStateException("no session is running");
+
+    Set<IReferencePoint> referencePoints = session.getReferencePoints();
+
+    if (referencePoints.size() != 1)
+      throw new IllegalStateException(
+          "exactly one reference point has to be shared, but found " + referencePoints.size());
+
+    IReferencePoint referencePoint = referencePoints.iterator().next();
+
+    JID server = session.getLocalUser().getJID();
+
+    List<JID> jids = new ArrayList<>();
+
+    for (int i = 1; i <= count; i++)
+      jids.add(new JID("client" + i + "@" + InProcessContextFactory.DOMAIN + "/Saros"));
+
+    FakeConnectionFactoryResult connections = transmitter.connect(jids, receiver);
+
+    for (JID jid : jids) confirmUserLists(session.getID(), server, connections, jid);
+
+    clients =
+        new SimulatedClients(
+            session.getID(),
+            server,
+            jids,
+            connections,
+            referencePoint,
+            readContents(session, referencePoint),
+            () -> readContents(session, referencePoint));
+
+    clients.start();
+
+    for (JID jid : jids) {
+      User user = new User(jid, false, false, new PreferenceStore());
+
+      session.addUser(user);
+      session.userStartedQueuing(user);
+      session.userFinishedResourceNegotiation(user);
+    }
+
+    out.println("Attached " + count + " simulated clients to the session");
+  }
+
+  /**
+   * Returns the attached clients.
+   *
+   * @return the clients or <code>null</code> if no clients were attached yet
+   */
+  SimulatedClients getClients() {
+    return clients;
+  }
+
+  /** Lets the given client confirm the user lists sent by the server. */
+  private static void confirmUserLists(
+      String sessionID, JID server, FakeConnectionFactoryResult connections, JID client) {
+
+    ITransmitter clientTransmitter = connections.getTransmitter(client);
+
+    connections
+        .getReceiver(client)
+        .addPacketListener(
+            packet -> {
+              try {
+                clientTransmitter.send(
+                    ISarosSession.SESSION_CONNECTION_ID,
+                    server,
+                    UserListReceivedExtension.PROVIDER.create(
+                        new UserListReceivedExtension(sessionID)));
+              } catch (IOException e) {
+                log.error("failed to confirm user list of " + client, e);
+              }
+            },
+            UserListExtension.PROVIDER.getPacketFilter(sessionID));
+  }
+
+  /**
+   * Reads the current content of all files of the given reference point from the server editors.
+   * The content is read by the UI thread of the server, which executes the remote text edits.
+   *
+   * @return the contents, keyed by the reference point relative path of the files
+   */
+  private Map<String, String> readContents(ISarosSession session, IReferencePoint referencePoint) {
+    ServerEditorManager editorManager = session.getComponent(ServerEditorManager.class);
+
+    Map<String, String> contents = new TreeMap<>();
+
+    synchronizer.syncExec(
+        () -> {
+          try {
+            readContents(editorManager, referencePoint, contents);
+          } catch (IOException e) {
+            throw new UncheckedIOException("could not read " + referencePoint, e);
+          }
+        });
+
+    return contents;
+  }
+
+  private static void readContents(
+      ServerEditorManager editorManager, IContainer container, Map<String, String> contents)
+      throws IOException {
+
+    for (IResource resource : container.members()) {
+      if (resource.getType() == IResource.Type.FOLDER) {
+        readContents(editorManager, (IContainer) resource, contents);
+
+      } else if (resource.getType() == IResource.Type.FILE) {
+        String content = editorManager.getContent((IFile) resource);
+
+        // the file was deleted in the meantime
+        if (content != null)
+          contents.put(toPath(resource.getReferencePointRelativePath()), content);
+      }
+    }
+  }
+
+  /** Returns the given path with <code>/</code> as separator, like the load generator uses. */
+  private static String toPath(Path path) {
+    StringJoiner joined = new StringJoiner("/");
+
+    for (Path name : path) joined.add(name.toString());
+
+    return joined.toString();
+  }
+}
@@ -0,0 +1,96 @@
+package saros.server.soak;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import saros.server.console.ConsoleCommand;
+import saros.server.console.ServerConsole;
+import saros.server.filesystem.ServerProjectImpl;
+import saros.server.filesystem.ServerWorkspaceImpl;
+
+/**
+ * Generates a reference point with source files of random content in the server workspace, so it
+ * can be shared afterwards.
+ */
+public class GenerateCommand extends ConsoleCommand {
+
+  private static final String[] WORDS = {
+    "int", "value", "return", "if", "(", ")", "{", "}", ";", "=", "+", "saros", "server", " "
+  };
+
+  private final ServerWorkspaceImpl workspace;
+
+  public GenerateCommand(ServerWorkspaceImpl workspace, ServerConsole console) {
+    this.workspace = workspace;
+    console.registerCommand(this);
+  }
+
+  @Override
+  public String identifier() {
+    return "generate";
+  }
+
+  @Override
+  public int minArgument() {
+    return 3;
+  }
+
+  @Override
+  public String help() {
+    return "generate <PATH> <FILES> <LINES> [<SEED>] - Generate a reference point relative to the"
+        + " workspace with FILES source files of LINES random lines each";
+  }
+
+  @Override
+  public void execute(List<String> args, PrintStream out) {
+    String path = args.get(0);
+    int files = Integer.parseInt(args.get(1));
+    int lines = Integer.parseInt(args.get(2));
+    long seed = args.size() > 3 ? Long.parseLong(args.get(3)) : 42;
+
+    if (files < 1 || lines < 1)
+      throw new IllegalArgumentException("at least one file and one line are required");
+
+    ServerProjectImpl referencePoint = new ServerProjectImpl(workspace, path);
+
+    if (referencePoint.exists())
+      throw new IllegalStateException("the workspace already contains " + path);
+
+    Random random = new Random(seed);
+
+    try {
+      referencePoint.create();
+
+      for (int i = 0; i < files; i++) {
+        String content = generateContent(random, lines);
+
+        referencePoint
+            .getFile(Paths.get("src", "File" + i + ".java"))
+            .create(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not generate " + path, e);
+    }
+
+    out.println("Generated " + files + " files with " + lines + " lines in " + path);
+  }
+
+  private static String generateContent(Random random, int lines) {
+    StringBuilder content = new StringBuilder();
+
+    for (int i = 0; i < lines; i++) {
+      int words = random.nextInt(12);
+
+      for (int j = 0; j < words; j++) content.append(WORDS[random.nextInt(WORDS.length)]);
+
+      content.append('\n');
+    }
+
+    return content.toString();
+  }
+}
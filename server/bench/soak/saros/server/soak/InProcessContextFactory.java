@@ -0,0 +1,49 @@
+package saros.server.soak;
+
+import saros.context.AbstractContextFactory;
+import saros.net.ITransmitter;
+import saros.net.xmpp.JID;
+import saros.net.xmpp.XMPPConnectionService;
+import saros.repackaged.picocontainer.MutablePicoContainer;
+
+/**
+ * Connects the server to an in-process network and adds the console commands of the scenario mode.
+ * It has to be the last context factory, as it replaces components of the core.
+ *
+ * <p>The server keeps its regular receiver, the {@link InProcessTransmitter} passes the packets
+ * received from the clients to it. The local JID of the server is provided by a connection service
+ * that never connects.
+ */
+public class InProcessContextFactory extends AbstractContextFactory {
+
+  /** The domain of the JIDs of the server and the simulated clients */
+  static final String DOMAIN = "saros-soak";
+
+  private static final JID SERVER_JID = new JID("server@" + DOMAIN + "/Saros");
+
+  /** A connection service that is never connected but provides the JID of the server. */
+  private static final class InProcessConnectionService extends XMPPConnectionService {
+
+    private InProcessConnectionService() {
+      super(null, null);
+    }
+
+    @Override
+    public JID getJID() {
+      return SERVER_JID;
+    }
+  }
+
+  @Override
+  public void createComponents(MutablePicoContainer c) {
+    c.removeComponent(XMPPConnectionService.class);
+    c.addComponent(XMPPConnectionService.class, new InProcessConnectionService());
+
+    c.removeComponent(ITransmitter.class);
+    c.addComponent(ITransmitter.class, new InProcessTransmitter(SERVER_JID));
+
+    c.addComponent(GenerateCommand.class);
+    c.addComponent(ClientsCommand.class);
+    c.addComponent(RunCommand.class);
+  }
+}
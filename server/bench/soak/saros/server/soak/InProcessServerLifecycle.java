@@ -0,0 +1,29 @@
+package saros.server.soak;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import saros.context.ContainerContext;
+import saros.context.IContextFactory;
+import saros.server.ServerLifecycle;
+
+/**
+ * Lifecycle of a server that is connected to an in-process network instead of an XMPP server. The
+ * server context is extended by the {@link InProcessContextFactory}, so the session of the server
+ * can only be joined by clients running in the same process.
+ */
+public class InProcessServerLifecycle extends ServerLifecycle {
+
+  @Override
+  protected Collection<IContextFactory> additionalContextFactories() {
+    List<IContextFactory> factories = new ArrayList<IContextFactory>();
+    factories.addAll(super.additionalContextFactories());
+    factories.add(new InProcessContextFactory());
+    return factories;
+  }
+
+  @Override
+  protected void connect(final ContainerContext context) {
+    // the in-process network needs no connection
+  }
+}
@@ -0,0 +1,95 @@
+package saros.server.soak;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.log4j.Logger;
+import org.jivesoftware.smack.packet.Packet;
+import org.jivesoftware.smack.packet.PacketExtension;
+import saros.net.IReceiver;
+import saros.net.ITransmitter;
+import saros.net.xmpp.JID;
+import saros.test.fakes.net.FakeConnectionFactory;
+import saros.test.fakes.net.FakeConnectionFactory.FakeConnectionFactoryResult;
+
+/**
+ * The transmitter of a server that is connected to simulated clients by the in-process connections
+ * of the {@link FakeConnectionFactory}. Packets can only be sent once the clients were {@linkplain
+ * #connect connected}.
+ */
+public class InProcessTransmitter implements ITransmitter {
+
+  private static final Logger log = Logger.getLogger(InProcessTransmitter.class);
+
+  private final JID server;
+
+  private volatile ITransmitter transmitter;
+
+  InProcessTransmitter(JID server) {
+    this.server = server;
+  }
+
+  /**
+   * Creates the in-process connections of the server and the given clients. The packets the server
+   * receives over them are passed to the given receiver of the server.
+   *
+   * @param clients the JIDs of the clients
+   * @param serverReceiver the receiver of the server
+   * @return the connections, including the ones of the clients
+   * @throws IllegalStateException if clients were already connected
+   */
+  synchronized FakeConnectionFactoryResult connect(List<JID> clients, IReceiver serverReceiver) {
+    if (transmitter != null) throw new IllegalStateException("clients are already connected");
+
+    List<JID> jids = new ArrayList<>();
+
+    jids.add(server);
+    jids.addAll(clients);
+
+    FakeConnectionFactoryResult connections =
+        FakeConnectionFactory.createConnections(jids.toArray(new JID[0]))
+            .withStrictJIDLookup()
+            .get();
+
+    connections
+        .getReceiver(server)
+        .addPacketListener(serverReceiver::processPacket, packet -> true);
+
+    transmitter = connections.getTransmitter(server);
+
+    return connections;
+  }
+
+  @Override
+  public void sendPacket(Packet packet) throws IOException {
+    getTransmitter().sendPacket(packet);
+  }
+
+  @Override
+  public void sendPacketExtension(JID jid, PacketExtension extension) {
+    try {
+      getTransmitter().sendPacketExtension(jid, extension);
+    } catch (IOException e) {
+      log.error("could not send message to " + jid, e);
+    }
+  }
+
+  @Override
+  public void send(JID recipient, PacketExtension extension) throws IOException {
+    getTransmitter().send(recipient, extension);
+  }
+
+  @Override
+  public void send(String connectionID, JID recipient, PacketExtension extension)
+      throws IOException {
+    getTransmitter().send(connectionID, recipient, extension);
+  }
+
+  private ITransmitter getTransmitter() throws IOException {
+    ITransmitter current = transmitter;
+
+    if (current == null) throw new IOException("no clients are connected to the server");
+
+    return current;
+  }
+}
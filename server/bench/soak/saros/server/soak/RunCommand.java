@@ -0,0 +1,98 @@
+package saros.server.soak;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import saros.server.console.ConsoleCommand;
+import saros.server.console.ServerConsole;
+import saros.session.load.LoadConfiguration;
+import saros.session.load.LoadGenerator;
+import saros.session.load.LoadReport;
+import saros.session.load.SimulatedClients;
+
+/**
+ * Lets the clients attached by the {@link ClientsCommand} edit the shared files and reports the
+ * throughput, the end-to-end latency and the memory usage of the run. The arguments are the ones of
+ * the {@link LoadConfiguration}, except for the number of clients and files, which are given by the
+ * attached clients.
+ *
+ * <p>The command fails if the documents of the clients and the server diverged.
+ */
+public class RunCommand extends ConsoleCommand {
+
+  private final ClientsCommand clientsCommand;
+
+  public RunCommand(ClientsCommand clientsCommand, ServerConsole console) {
+    this.clientsCommand = clientsCommand;
+    console.registerCommand(this);
+  }
+
+  @Override
+  public String identifier() {
+    return "run";
+  }
+
+  @Override
+  public int minArgument() {
+    return 0;
+  }
+
+  @Override
+  public String help() {
+    return "run [<KEY>=<VALUE>]... - Let the simulated clients edit the shared files, e.g. with"
+        + " duration=<SECONDS> rate=<OPERATIONS/S> report=<FILE>, and print the results";
+  }
+
+  @Override
+  public void execute(List<String> args, PrintStream out) {
+    SimulatedClients clients = clientsCommand.getClients();
+
+    if (clients == null) throw new IllegalStateException("no clients are attached");
+
+    for (String arg : args) {
+      if (arg.startsWith("clients=") || arg.startsWith("files="))
+        throw new IllegalArgumentException(
+            "the number of clients and files is given by the attached clients: " + arg);
+    }
+
+    List<String> loadArgs = new ArrayList<>(args);
+
+    loadArgs.add("clients=" + clients.getClientCount());
+    loadArgs.add("files=" + clients.getFileCount());
+
+    LoadConfiguration configuration = LoadConfiguration.parse(loadArgs.toArray(new String[0]));
+
+    LoadReport report;
+
+    try {
+      report = LoadGenerator.run(configuration, clients);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while running the clients", e);
+    }
+
+    out.println(report.toText());
+
+    if (!configuration.getReport().isEmpty()) writeReport(configuration.getReport(), report);
+
+    if (!report.isConsistent())
+      throw new IllegalStateException("the documents of the clients and the server diverged");
+  }
+
+  private static void writeReport(String file, LoadReport report) {
+    Path path = Paths.get(file).toAbsolutePath();
+
+    try {
+      Files.createDirectories(path.getParent());
+      Files.write(path, report.toJson().getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException("could not write the report to " + path, e);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package saros.server.soak;
+
+import saros.server.SarosServer;
+import saros.server.ServerConfig;
+
+/**
+ * Runs a Saros server in the scenario mode for benchmarks and soak tests.
+ *
+ * <p>The server is started like a regular one, but it is connected to an in-process network instead
+ * of an XMPP server, see {@link InProcessServerLifecycle}. It hosts its session as usual and
+ * executes the console commands of the scenario file passed with the system property <code>
+ * saros.server.scenario</code>. Besides the regular commands, e.g. <code>share</code>, a scenario
+ * can use the following commands:
+ *
+ * <ul>
+ *   <li>{@link GenerateCommand generate} - generates a reference point in the server workspace
+ *   <li>{@link ClientsCommand clients} - attaches simulated in-process clients to the session
+ *   <li>{@link RunCommand run} - lets the clients edit the shared files and reports the throughput,
+ *       the latency and the memory usage
+ * </ul>
+ *
+ * <p>The process exits with <code>1</code> if a command of the scenario failed, e.g. because the
+ * documents of the clients and the server diverged. See <code>bench/soak/example.scenario</code>
+ * for an example.
+ */
+public final class SoakServer {
+
+  private SoakServer() {
+    // NOP
+  }
+
+  public static void main(String[] args) {
+    if (ServerConfig.getScenarioPath() == null) {
+      System.err.println("usage: SoakServer -Dsaros.server.scenario=<scenario file>");
+      System.exit(2);
+      return;
+    }
+
+    SarosServer.run(new SarosServer(new InProcessServerLifecycle()));
+  }
+}
@@ -1,5 +1,7 @@
 val versionQualifier = ext.get("versionQualifier")
 
+val jmhVersion = ext.get("jmhVersion") as String
+
 configurations {
     val testConfig by getting {}
     val testCompile by getting {
@@ -10,6 +12,12 @@ configurations {
 dependencies {
     compile(project(":saros.core"))
     compile("org.apache.commons:commons-collections4:4.2")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+
+    "soakImplementation"(project(path = ":saros.core", configuration = "load"))
+    "soakImplementation"(project(path = ":saros.core", configuration = "testing"))
 }
 
 sourceSets {
@@ -19,6 +27,59 @@ sourceSets {
     test {
         java.srcDirs("test/junit")
     }
+    /*
+     * JMH benchmarks using the server filesystem implementation, e.g. for the resource
+     * negotiation. Run them with "./gradlew :saros.server:jmh", optionally passing JMH arguments
+     * with -PjmhArgs="<regex> -p <param>=<value> ...".
+     */
+    create("jmh") {
+        java.srcDirs("bench/jmh")
+        compileClasspath += sourceSets["main"].output + configurations["testCompileClasspath"]
+        runtimeClasspath += output + compileClasspath + configurations["testRuntimeClasspath"]
+    }
+    /*
+     * Scenario mode of the server for benchmarks and soak tests. The server hosts its session over
+     * an in-process network and executes the console commands of a scenario file, e.g. to let
+     * simulated clients edit a generated workspace. Run it with
+     * "./gradlew :saros.server:soak -Pscenario=server/bench/soak/example.scenario".
+     */
+    create("soak") {
+        java.srcDirs("bench/soak")
+        compileClasspath += sourceSets["main"].output + configurations["testCompileClasspath"]
+        runtimeClasspath += output + compileClasspath + configurations["testRuntimeClasspath"]
+    }
+}
+
+tasks {
+    val jmh by registering(JavaExec::class) {
+        group = "Verification"
+        description = "Runs the JMH benchmarks of the server"
+
+        main = "org.openjdk.jmh.Main"
+        classpath = sourceSets["jmh"].runtimeClasspath
+
+        val resultFile = file("build/reports/jmh/results.json")
+        doFirst { resultFile.parentFile.mkdirs() }
+        args("-prof", "gc", "-rf", "json", "-rff", resultFile.absolutePath)
+
+        val jmhArgs: String? by project
+        if (jmhArgs != null) args(jmhArgs!!.split(" ").filter { it.isNotBlank() })
+    }
+
+    val soak by registering(JavaExec::class) {
+        group = "Verification"
+        description = "Runs a scenario against a server hosting a session for simulated in-process clients"
+
+        main = "saros.server.soak.SoakServer"
+        classpath = sourceSets["soak"].runtimeClasspath
+
+        val scenario: String? by project
+        if (scenario != null) systemProperty("saros.server.scenario", rootProject.file(scenario!!).absolutePath)
+    }
+
+    named("check") {
+        dependsOn("jmhClasses", "soakClasses")
+    }
 }
 
 tasks.jar {
@@ -1,9 +1,17 @@
 package saros.server;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import org.apache.log4j.Logger;
 import saros.server.console.ServerConsole;
 
-/** The entry point for the Saros server. */
+/**
+ * The entry point for the Saros server.
+ *
+ * <p>Besides the interactive console, the server can execute the console commands of a scenario
+ * file passed with the system property <code>saros.server.scenario</code> and exits afterwards with
+ * <code>0</code> if all commands of the scenario were executed and <code>1</code> otherwise.
+ */
 public class SarosServer {
 
   private static final Logger log = Logger.getLogger(SarosServer.class);
@@ -17,7 +25,17 @@ public class SarosServer {
 
   /** Initializes and starts a Saros server. */
   public SarosServer() {
-    lifecycle = new ServerLifecycle();
+    this(new ServerLifecycle());
+  }
+
+  /**
+   * Initializes a Saros server with the given lifecycle, e.g. one that replaces components of the
+   * server context.
+   *
+   * @param lifecycle the lifecycle of the server
+   */
+  public SarosServer(ServerLifecycle lifecycle) {
+    this.lifecycle = lifecycle;
   }
 
   public void start() {
@@ -40,8 +58,15 @@ public class SarosServer {
    * @param args command-line arguments
    */
   public static void main(String[] args) {
-    final SarosServer server = new SarosServer();
+    run(new SarosServer());
+  }
 
+  /**
+   * Starts the given server and runs the interactive console or the scenario if requested.
+   *
+   * @param server the server to run
+   */
+  public static void run(final SarosServer server) {
     Runtime.getRuntime()
         .addShutdownHook(
             new Thread(
@@ -54,6 +79,26 @@ public class SarosServer {
 
     server.start();
 
+    String scenario = ServerConfig.getScenarioPath();
+
+    if (scenario != null) {
+      boolean success;
+
+      try {
+        success =
+            server
+                .lifecycle
+                .getSarosContext()
+                .getComponent(ServerConsole.class)
+                .runScenario(Paths.get(scenario));
+      } catch (IOException e) {
+        log.fatal("Could not read the scenario " + scenario, e);
+        success = false;
+      }
+
+      System.exit(success ? 0 : 1);
+    }
+
     if (ServerConfig.isInteractive()) {
       server.lifecycle.getSarosContext().getComponent(ServerConsole.class).run();
       System.exit(0);
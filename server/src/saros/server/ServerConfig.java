@@ -10,6 +10,7 @@ public class ServerConfig {
   private static final String PASSWORD_KEY = "saros.server.password";
   private static final String WORKSPACE_PATH_KEY = "saros.server.workspace";
   private static final String INTERACTIVE_KEY = "saros.server.interactive";
+  private static final String SCENARIO_KEY = "saros.server.scenario";
 
   /**
    * Returns the JID that the Saros server should use to connect to the XMPP network.
@@ -52,4 +53,14 @@ public class ServerConfig {
         || value.equalsIgnoreCase("yes")
         || value.equalsIgnoreCase("y");
   }
+
+  /**
+   * Returns the path of the scenario file whose console commands the server should execute instead
+   * of providing an interactive console.
+   *
+   * @return the path of the scenario file, or <code>null</code> if no scenario should be executed
+   */
+  public static String getScenarioPath() {
+    return System.getProperty(SCENARIO_KEY);
+  }
 }
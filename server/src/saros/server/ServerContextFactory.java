@@ -17,6 +17,7 @@ import saros.repackaged.picocontainer.MutablePicoContainer;
 import saros.server.console.InviteCommand;
 import saros.server.console.ServerConsole;
 import saros.server.console.ShareCommand;
+import saros.server.console.StatsCommand;
 import saros.server.dummies.NullRemoteProgressIndicatorFactory;
 import saros.server.filesystem.ServerWorkspaceImpl;
 import saros.server.net.ServerFeatureAdvertiser;
@@ -74,10 +75,11 @@ public class ServerContextFactory extends AbstractContextFactory {
     c.addComponent(NegotiationHandler.class);
     c.addComponent(JoinSessionRequestHandler.class);
     c.addComponent(ServerFeatureAdvertiser.class);
-    if (ServerConfig.isInteractive()) {
+    if (ServerConfig.isInteractive() || ServerConfig.getScenarioPath() != null) {
       c.addComponent(new ServerConsole(System.in, System.out));
       c.addComponent(InviteCommand.class);
       c.addComponent(ShareCommand.class);
+      c.addComponent(StatsCommand.class);
     }
   }
 
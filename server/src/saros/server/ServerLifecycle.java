@@ -28,7 +28,7 @@ public class ServerLifecycle extends AbstractContextLifecycle {
 
   @Override
   protected void initializeContext(final ContainerContext context) {
-    connectToXMPPServer(context);
+    connect(context);
     context.getComponent(ISarosSessionManager.class).startSession(new HashSet<>());
   }
 
@@ -43,7 +43,13 @@ public class ServerLifecycle extends AbstractContextLifecycle {
    * FIXME This is currently ALPHA, the server always assumes it can connect to
    * the XMPP server and never gets disconnected. Of course this is unrealistic !
    */
-  private void connectToXMPPServer(final ContainerContext context) {
+  /**
+   * Connects the server to the network before its session is started. By default, the server
+   * connects to the XMPP server using the configured credentials.
+   *
+   * @param context the context of the server
+   */
+  protected void connect(final ContainerContext context) {
     String jidString = ServerConfig.getJID();
     String password = ServerConfig.getPassword();
 
@@ -1,19 +1,27 @@
 package saros.server.console;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
+import org.apache.log4j.Logger;
 
 /**
  * Console implementation for the SarosServer.
  *
- * <p>Dynamically handles user commands and executes registered {@link ConsoleCommand}s.
+ * <p>Dynamically handles user commands and executes registered {@link ConsoleCommand}s. The
+ * commands are either entered interactively or read from a scenario file.
  */
 public class ServerConsole implements Runnable {
+  private static final Logger log = Logger.getLogger(ServerConsole.class);
+
   private Scanner input;
   private PrintStream output;
   private List<ConsoleCommand> commands;
@@ -51,25 +59,80 @@ public class ServerConsole implements Runnable {
         output.println("help - Print this help");
         output.println("quit - Quit Saros Server");
       } else {
-        boolean isCommand = false;
-        for (ConsoleCommand command : commands) {
-          List<String> cmd = Arrays.asList(line.split(" "));
-          if (command.identifier().equals(cmd.get(0))) {
-            isCommand = true;
-            if (cmd.size() > command.minArgument()) {
-              command.execute(cmd.subList(1, cmd.size()), output);
-            } else {
-              output.println("Missing command arguments:");
-              output.println(command.help());
-            }
-            break;
+        List<String> cmd = Arrays.asList(line.split(" "));
+        ConsoleCommand command = findCommand(cmd.get(0));
+        if (command != null) {
+          if (cmd.size() > command.minArgument()) {
+            command.execute(cmd.subList(1, cmd.size()), output);
+          } else {
+            output.println("Missing command arguments:");
+            output.println(command.help());
           }
-        }
-        if (!isCommand && !line.equals("")) {
+        } else if (!line.equals("")) {
           output.printf("Command '%s' is not known. (Type 'help' for available commands)", line);
         }
       }
       output.flush();
     }
   }
+
+  /**
+   * Executes the commands of the given scenario file non-interactively, one command per line. Empty
+   * lines and lines starting with <code>#</code> are skipped, <code>quit</code> ends the scenario.
+   * The execution stops at the first command that is unknown, misses arguments or fails with an
+   * exception.
+   *
+   * @param scenario the scenario file
+   * @return <code>true</code> if all commands of the scenario were executed
+   * @throws IOException if the scenario file could not be read
+   */
+  public boolean runScenario(Path scenario) throws IOException {
+    for (String rawLine : Files.readAllLines(scenario, StandardCharsets.UTF_8)) {
+      String line = rawLine.trim();
+
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+
+      output.println("> " + line);
+      output.flush();
+
+      if (line.equalsIgnoreCase("quit")) {
+        break;
+      }
+
+      List<String> cmd = Arrays.asList(line.split("\\s+"));
+      ConsoleCommand command = findCommand(cmd.get(0));
+
+      if (command == null) {
+        log.error("Scenario " + scenario + " contains the unknown command '" + line + "'");
+        return false;
+      }
+
+      if (cmd.size() <= command.minArgument()) {
+        log.error("Scenario " + scenario + " misses arguments: " + command.help());
+        return false;
+      }
+
+      try {
+        command.execute(cmd.subList(1, cmd.size()), output);
+      } catch (RuntimeException e) {
+        log.error("Scenario " + scenario + " failed at '" + line + "'", e);
+        return false;
+      } finally {
+        output.flush();
+      }
+    }
+
+    return true;
+  }
+
+  private ConsoleCommand findCommand(String identifier) {
+    for (ConsoleCommand command : commands) {
+      if (command.identifier().equals(identifier)) {
+        return command;
+      }
+    }
+    return null;
+  }
 }
@@ -0,0 +1,57 @@
+package saros.server.console;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.List;
+import saros.monitoring.metrics.MetricsRegistry;
+import saros.session.ISarosSession;
+import saros.session.ISarosSessionManager;
+import saros.session.internal.ActivityLatencyTracker;
+
+public class StatsCommand extends ConsoleCommand {
+  private final MetricsRegistry metricsRegistry;
+  private final ISarosSessionManager sessionManager;
+
+  public StatsCommand(
+      MetricsRegistry metricsRegistry, ISarosSessionManager sessionManager, ServerConsole console) {
+    this.metricsRegistry = metricsRegistry;
+    this.sessionManager = sessionManager;
+    console.registerCommand(this);
+  }
+
+  @Override
+  public String identifier() {
+    return "stats";
+  }
+
+  @Override
+  public int minArgument() {
+    return 0;
+  }
+
+  @Override
+  public String help() {
+    return "stats [json] - Print the current metrics, as JSON if requested";
+  }
+
+  @Override
+  public void execute(List<String> args, PrintStream out) {
+    if (!args.isEmpty() && args.get(0).equals("json")) {
+      out.println(metricsRegistry.toJson());
+      return;
+    }
+
+    out.print(metricsRegistry.toText());
+
+    ISarosSession session = sessionManager.getSession();
+
+    if (session == null) return;
+
+    ActivityLatencyTracker latencyTracker = session.getComponent(ActivityLatencyTracker.class);
+
+    if (latencyTracker == null || !latencyTracker.isEnabled()) return;
+
+    out.println();
+    latencyTracker.writeTo(new PrintWriter(out));
+  }
+}
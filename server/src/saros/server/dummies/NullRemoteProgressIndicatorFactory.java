@@ -1,5 +1,6 @@
 package saros.server.dummies;
 
+import saros.annotations.Component;
 import saros.monitoring.remote.IRemoteProgressIndicator;
 import saros.monitoring.remote.IRemoteProgressIndicatorFactory;
 import saros.monitoring.remote.RemoteProgressManager;
@@ -9,6 +10,7 @@ import saros.session.User;
  * An implementation of {@link IRemoteProgressIndicatorFactory} which returns {@link
  * NullRemoteProgressIndicator} instances.
  */
+@Component(module = "server", lazy = true)
 public class NullRemoteProgressIndicatorFactory implements IRemoteProgressIndicatorFactory {
 
   @Override
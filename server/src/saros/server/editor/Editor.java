@@ -4,7 +4,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import org.apache.commons.io.IOUtils;
 import saros.activities.TextEditActivity;
-import saros.editor.text.TextPositionUtils;
+import saros.editor.text.LineIndex;
 import saros.filesystem.IFile;
 import saros.util.LineSeparatorNormalizationUtil;
 
@@ -13,6 +13,7 @@ public class Editor {
 
   private IFile file;
   private GapBuffer content;
+  private LineIndex lineIndex;
 
   public Editor(IFile file) throws IOException {
     String charset = file.getCharset();
@@ -25,7 +26,10 @@ public class Editor {
     this.file = file;
 
     try (InputStream input = file.getContents()) {
-      content = new GapBuffer(IOUtils.toString(input, charset));
+      String text = IOUtils.toString(input, charset);
+
+      content = new GapBuffer(text);
+      lineIndex = new LineIndex(text);
     }
   }
 
@@ -48,6 +52,16 @@ public class Editor {
     return content.toString();
   }
 
+  /**
+   * Returns the line separator used in the editor's content.
+   *
+   * @return the line separator or an empty string if the content does not contain any line
+   *     separator yet
+   */
+  public String getLineSeparator() {
+    return lineIndex.getLineSeparator();
+  }
+
   /**
    * Applies an editing operation to the editor's content. For performance reasons, the change is
    * not automatically saved to disk; this allows multiple edits to be collected and then written in
@@ -56,34 +70,29 @@ public class Editor {
    * @param edit the text edit operation to apply
    */
   public void applyTextEdit(TextEditActivity edit) {
-    String contentString = content.toString();
-
-    String lineSeparator = TextPositionUtils.guessLineSeparator(contentString);
+    String lineSeparator = lineIndex.getLineSeparator();
 
     // Use system default line separator if text does not contain any line separator yet.
     if (lineSeparator.isEmpty()) {
       lineSeparator = System.lineSeparator();
     }
 
-    int startOffset =
-        TextPositionUtils.calculateOffset(contentString, edit.getStartPosition(), lineSeparator);
+    int startOffset = lineIndex.getOffset(edit.getStartPosition());
 
-    if (edit.getReplacedText().length() > 0) {
-      String replacedText = edit.getReplacedText();
+    String denormalizedReplacedText =
+        LineSeparatorNormalizationUtil.revertNormalization(edit.getReplacedText(), lineSeparator);
 
-      String denormalizedReplacedText =
-          LineSeparatorNormalizationUtil.revertNormalization(replacedText, lineSeparator);
+    String denormalizedNewText =
+        LineSeparatorNormalizationUtil.revertNormalization(edit.getNewText(), lineSeparator);
 
+    if (denormalizedReplacedText.length() > 0) {
       content.delete(startOffset, denormalizedReplacedText.length());
     }
-    if (edit.getNewText().length() > 0) {
-      String newText = edit.getNewText();
-
-      String denormalizedNewText =
-          LineSeparatorNormalizationUtil.revertNormalization(newText, lineSeparator);
-
+    if (denormalizedNewText.length() > 0) {
       content.insert(startOffset, denormalizedNewText);
     }
+
+    lineIndex.update(startOffset, denormalizedReplacedText.length(), denormalizedNewText);
   }
 
   /**
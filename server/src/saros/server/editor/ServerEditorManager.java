@@ -14,7 +14,6 @@ import saros.activities.TextEditActivity;
 import saros.editor.IEditorManager;
 import saros.editor.ISharedEditorListener;
 import saros.editor.text.LineRange;
-import saros.editor.text.TextPositionUtils;
 import saros.editor.text.TextSelection;
 import saros.filesystem.IFile;
 import saros.filesystem.IFolder;
@@ -57,13 +56,21 @@ public class ServerEditorManager implements IEditorManager {
 
   @Override
   public String getNormalizedContent(IFile file) {
-    String content = getContent(file);
+    Editor editor;
 
-    if (content == null) {
+    try {
+      editor = getOrCreateEditor(file);
+    } catch (IOException e) {
       return null;
     }
 
-    String lineSeparator = TextPositionUtils.guessLineSeparator(content);
+    String content = editor.getContent();
+    String lineSeparator = editor.getLineSeparator();
+
+    // content without any line separator does not need to be normalized
+    if (lineSeparator.isEmpty()) {
+      return content;
+    }
 
     return LineSeparatorNormalizationUtil.normalize(content, lineSeparator);
   }
@@ -32,6 +32,8 @@ public abstract class ServerContainerImpl extends ServerResourceImpl implements
   @Override
   public void delete() throws IOException {
     FileUtils.deleteDirectory(getLocation().toFile());
+
+    getWorkspace().resourceChanged(this);
   }
 
   @Override
@@ -70,6 +70,8 @@ public class ServerFileImpl extends ServerResourceImpl implements IFile {
     } catch (NoSuchFileException e) {
       log.debug("Could not delete " + getFullPath() + " because it doesn't exist (ignoring)", e);
     }
+
+    getWorkspace().resourceChanged(this);
   }
 
   @Override
@@ -116,6 +118,8 @@ public class ServerFileImpl extends ServerResourceImpl implements IFile {
     } catch (AtomicMoveNotSupportedException e) {
       Files.move(tempFilePath, getLocation(), StandardCopyOption.REPLACE_EXISTING);
     }
+
+    getWorkspace().resourceChanged(this);
   }
 
   @Override
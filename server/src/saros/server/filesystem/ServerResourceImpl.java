@@ -72,9 +72,14 @@ public abstract class ServerResourceImpl implements IResource {
     return Files.exists(getLocation());
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Resources are ignored according to the <code>.gitignore</code> files of their project.
+   */
   @Override
   public boolean isIgnored() {
-    return false;
+    return workspace.isIgnored(this);
   }
 
   @Override
@@ -2,18 +2,25 @@ package saros.server.filesystem;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import saros.exceptions.OperationCanceledException;
 import saros.filesystem.IReferencePoint;
 import saros.filesystem.IResource;
 import saros.filesystem.IWorkspace;
 import saros.filesystem.IWorkspaceRunnable;
+import saros.filesystem.ignore.IgnoreEngine;
 import saros.monitoring.NullProgressMonitor;
+import saros.util.PathUtils;
 
 /** Server implementation of the {@link IWorkspace} interface. */
 public class ServerWorkspaceImpl implements IWorkspace {
 
   private Path location;
 
+  /** The ignore engines of the projects, keyed by the project name */
+  private final Map<String, IgnoreEngine> ignoreEngines = new ConcurrentHashMap<>();
+
   /**
    * Creates a ServerWorkspaceImpl.
    *
@@ -31,6 +38,54 @@ public class ServerWorkspaceImpl implements IWorkspace {
     return new ServerProjectImpl(this, name);
   }
 
+  /**
+   * Returns whether the given resource is ignored according to the <code>.gitignore</code> files of
+   * its project. Projects themselves are never ignored.
+   *
+   * @param resource the resource to check
+   * @return <code>true</code> if the resource is ignored
+   * @see IgnoreEngine
+   */
+  public boolean isIgnored(ServerResourceImpl resource) {
+    Path relativePath = resource.getReferencePointRelativePath();
+
+    if (PathUtils.isEmpty(relativePath)) return false;
+
+    String projectName = resource.getFullPath().getName(0).toString();
+
+    IgnoreEngine ignoreEngine =
+        ignoreEngines.computeIfAbsent(
+            projectName, name -> new IgnoreEngine(location.resolve(name)));
+
+    return ignoreEngine.isIgnored(
+        PathUtils.toPortableString(relativePath), resource.getType() != IResource.Type.FILE);
+  }
+
+  /**
+   * Notifies the ignore engine of the resource's project that the resource was created, modified or
+   * deleted, so changed <code>.gitignore</code> files take effect.
+   *
+   * @param resource the changed resource
+   * @see IgnoreEngine#resourceChanged(String, boolean)
+   */
+  void resourceChanged(ServerResourceImpl resource) {
+    Path fullPath = resource.getFullPath();
+
+    IgnoreEngine ignoreEngine = ignoreEngines.get(fullPath.getName(0).toString());
+
+    if (ignoreEngine == null) return;
+
+    Path relativePath = resource.getReferencePointRelativePath();
+
+    if (PathUtils.isEmpty(relativePath)) {
+      ignoreEngine.invalidate();
+      return;
+    }
+
+    ignoreEngine.resourceChanged(
+        PathUtils.toPortableString(relativePath), resource.getType() != IResource.Type.FILE);
+  }
+
   @Override
   public void run(IWorkspaceRunnable runnable) throws IOException, OperationCanceledException {
 
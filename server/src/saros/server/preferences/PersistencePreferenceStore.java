@@ -11,9 +11,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.InvalidPropertiesFormatException;
 import org.apache.log4j.Logger;
+import saros.annotations.Component;
 import saros.preferences.PreferenceStore;
 
 /** Preference store allowing the storing and retrieving of the preferences to and from a file. */
+@Component(module = "server", lazy = true)
 public final class PersistencePreferenceStore extends PreferenceStore {
 
   private static final Logger log = Logger.getLogger(PersistencePreferenceStore.class);
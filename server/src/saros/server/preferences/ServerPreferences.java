@@ -5,7 +5,7 @@ import saros.preferences.IPreferenceStore;
 import saros.preferences.Preferences;
 
 /** Server implementation of the abstract {@link Preferences} class. */
-@Component(module = "server")
+@Component(module = "server", lazy = true)
 public class ServerPreferences extends Preferences {
 
   /**
@@ -1,5 +1,6 @@
 package saros.server.session;
 
+import saros.annotations.Component;
 import saros.filesystem.checksum.IChecksumCache;
 import saros.filesystem.checksum.NullChecksumCache;
 import saros.repackaged.picocontainer.MutablePicoContainer;
@@ -9,6 +10,7 @@ import saros.session.ISarosSessionContextFactory;
 import saros.session.SarosCoreSessionContextFactory;
 
 /** Server implementation of the {@link ISarosSessionContextFactory} interface. */
+@Component(module = "server", lazy = true)
 public class ServerSessionContextFactory extends SarosCoreSessionContextFactory {
 
   @Override
@@ -13,7 +13,7 @@ import saros.synchronize.UISynchronizer;
  * Server implementation of the {@link UISynchronizer} interface. As the server has no actual "UI
  * thread", this implementation creates a dedicated thread playing the UI thread's role instead.
  */
-@Component(module = "server")
+@Component(module = "server", lazy = true)
 public class ServerUISynchronizerImpl implements UISynchronizer {
 
   private static final Logger log = Logger.getLogger(ServerUISynchronizerImpl.class);
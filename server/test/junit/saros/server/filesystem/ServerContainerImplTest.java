@@ -1,6 +1,8 @@
 package saros.server.filesystem;
 
+import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -53,6 +55,9 @@ public class ServerContainerImplTest extends EasyMockSupport {
 
     expect(workspace.getProject("project")).andStubReturn(project);
 
+    workspace.resourceChanged(anyObject(ServerResourceImpl.class));
+    expectLastCall().asStub();
+
     replayAll();
 
     container = new ExampleContainer(path(CONTAINER_PATH), workspace);
@@ -1,6 +1,8 @@
 package saros.server.filesystem;
 
+import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static saros.server.filesystem.FileSystemTestUtils.assertFileHasContent;
@@ -40,6 +42,9 @@ public class ServerFileImplTest extends EasyMockSupport {
 
     expect(workspace.getProject("project")).andStubReturn(project);
 
+    workspace.resourceChanged(anyObject(ServerResourceImpl.class));
+    expectLastCall().asStub();
+
     replayAll();
     file = new ServerFileImpl(workspace, path("project/file"));
   }
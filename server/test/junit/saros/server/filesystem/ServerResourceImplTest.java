@@ -111,8 +111,17 @@ public class ServerResourceImplTest extends EasyMockSupport {
   }
 
   @Test
-  public void isNeverIgnored() throws Exception {
-    assertFalse(resource.isIgnored());
+  public void isIgnored() throws Exception {
+    Path location = workspace.getLocation();
+
+    resetAll();
+    expect(workspace.getLocation()).andStubReturn(location);
+    expect(workspace.isIgnored((ServerResourceImpl) resource)).andReturn(true);
+    replayAll();
+
+    assertTrue(resource.isIgnored());
+
+    verifyAll();
   }
 
   private void createFileForResource() throws IOException {
@@ -1,12 +1,17 @@
 package saros.server.filesystem;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static saros.server.filesystem.FileSystemTestUtils.assertResourceNotExists;
+import static saros.server.filesystem.FileSystemTestUtils.createFile;
 import static saros.server.filesystem.FileSystemTestUtils.createFolder;
 import static saros.server.filesystem.FileSystemTestUtils.createWorkspaceFolder;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import org.apache.commons.io.FileUtils;
@@ -47,6 +52,41 @@ public class ServerWorkspaceImplTest extends EasyMockSupport {
     assertSame(workspace, ((ServerProjectImpl) project).getWorkspace());
   }
 
+  @Test
+  public void isIgnored() throws Exception {
+    createFile(workspace, "project/.gitignore", "build/\n*.class\n");
+    createFile(workspace, "project/src/A.java");
+    createFile(workspace, "project/src/A.class");
+    createFile(workspace, "project/build/out.jar");
+
+    IReferencePoint project = workspace.getProject("project");
+
+    assertFalse(project.isIgnored());
+    assertFalse(project.getFile("src/A.java").isIgnored());
+    assertFalse(project.getFile(".gitignore").isIgnored());
+    assertTrue(project.getFile("src/A.class").isIgnored());
+    assertTrue(project.getFolder("build").isIgnored());
+    assertTrue(project.getFile("build/out.jar").isIgnored());
+    assertTrue(project.getFolder(".git").isIgnored());
+  }
+
+  @Test
+  public void isIgnoredAfterIgnoreFileChanged() throws Exception {
+    createFile(workspace, "project/src/A.class");
+
+    IReferencePoint project = workspace.getProject("project");
+
+    assertFalse(project.getFile("src/A.class").isIgnored());
+
+    project.getFile(".gitignore").create(new ByteArrayInputStream("*.class\n".getBytes(UTF_8)));
+
+    assertTrue(project.getFile("src/A.class").isIgnored());
+
+    project.getFile(".gitignore").delete();
+
+    assertFalse(project.getFile("src/A.class").isIgnored());
+  }
+
   @Test
   public void run() throws Exception {
     createFolder(workspace, "project");